@@ -0,0 +1,37 @@
+package com.obs.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.obs.repository.ClusterMessageRepository;
+import com.obs.repository.ClusterUserSessionRepository;
+import com.obs.service.ClusterRelay;
+import com.obs.service.DbPollingClusterRelay;
+import com.obs.service.LoopbackClusterRelay;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.UUID;
+
+@Configuration
+public class ClusterConfig {
+
+    // app.cluster.relay: "loopback" (single node / in-process) or "db" (poll the shared database)
+    @Bean
+    public ClusterRelay clusterRelay(@Value("${app.cluster.relay:loopback}") String mode,
+                                     @Value("${app.cluster.node-id:}") String configuredNodeId,
+                                     @Value("${app.cluster.db.poll-batch-size:500}") int pollBatchSize,
+                                     @Value("${app.cluster.db.gap-timeout-ms:5000}") long gapTimeoutMillis,
+                                     @Value("${app.cluster.db.session-ttl-ms:30000}") long sessionTtlMillis,
+                                     @Value("${app.cluster.db.retention-ms:60000}") long retentionMillis,
+                                     ClusterMessageRepository messageRepository,
+                                     ClusterUserSessionRepository sessionRepository,
+                                     ObjectMapper objectMapper) {
+        String nodeId = configuredNodeId == null || configuredNodeId.isBlank()
+                ? UUID.randomUUID().toString() : configuredNodeId;
+        if ("db".equalsIgnoreCase(mode)) {
+            return new DbPollingClusterRelay(nodeId, messageRepository, sessionRepository, objectMapper,
+                    pollBatchSize, gapTimeoutMillis, sessionTtlMillis, retentionMillis);
+        }
+        return new LoopbackClusterRelay("default", nodeId);
+    }
+}
@@ -27,8 +27,8 @@ public class CorsConfig {
         // Allow credentials (for authentication)
         configuration.setAllowCredentials(true);
         
-        // Expose Authorization header to frontend
-        configuration.setExposedHeaders(Arrays.asList("Authorization", "Content-Type"));
+        // Expose Authorization, the keyset-page cursor and the request correlation id to frontend
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "Content-Type", "X-Next-Cursor", "X-Correlation-Id"));
         
         // Cache preflight requests for 1 hour
         configuration.setMaxAge(3600L);
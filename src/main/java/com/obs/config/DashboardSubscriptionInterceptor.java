@@ -0,0 +1,64 @@
+package com.obs.config;
+
+import com.obs.service.DashboardFeeds;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inbound STOMP interceptor that limits dashboard feed subscriptions, both the snapshot
+ * ({@code /app/dashboard/{feed}}) and the live deltas ({@code /topic/dashboard.{feed}}), to
+ * the roles the matching HTTP endpoints allow. The session principal is the authentication
+ * of the WebSocket handshake request. A refused SUBSCRIBE is answered with an ERROR frame.
+ */
+@Component
+public class DashboardSubscriptionInterceptor implements ChannelInterceptor {
+
+    private static final String SNAPSHOT_PREFIX = "/app/dashboard/";
+    private static final String TOPIC_PREFIX = "/topic/dashboard.";
+
+    private static final Map<String, Set<String>> AUTHORITIES_BY_FEED = Map.of(
+            DashboardFeeds.ADMIN, Set.of("ROLE_ADMIN"),
+            DashboardFeeds.MANAGER, Set.of("ROLE_MANAGER", "ROLE_ADMIN"));
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.SUBSCRIBE) {
+            return message;
+        }
+        String feed = feedOf(SimpMessageHeaderAccessor.getDestination(message.getHeaders()));
+        if (feed == null) {
+            return message;
+        }
+        // Unknown feeds are refused here rather than left to the controller
+        Set<String> allowed = AUTHORITIES_BY_FEED.getOrDefault(feed, Set.of());
+        Principal user = SimpMessageHeaderAccessor.getUser(message.getHeaders());
+        if (!(user instanceof Authentication auth)
+                || auth.getAuthorities().stream().noneMatch(a -> allowed.contains(a.getAuthority()))) {
+            throw new AccessDeniedException("Not allowed to subscribe to dashboard feed " + feed);
+        }
+        return message;
+    }
+
+    private static String feedOf(String destination) {
+        if (destination == null) {
+            return null;
+        }
+        if (destination.startsWith(SNAPSHOT_PREFIX)) {
+            return destination.substring(SNAPSHOT_PREFIX.length());
+        }
+        if (destination.startsWith(TOPIC_PREFIX)) {
+            return destination.substring(TOPIC_PREFIX.length());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,35 @@
+package com.obs.config;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+public class LoggingConfig {
+    // Keeps recent log events in memory for /admin/logs; attached after Boot has configured Logback
+
+    @Bean(destroyMethod = "stop")
+    public RingBufferAppender ringBufferAppender(@Value("${app.logs.buffer-size:4096}") int bufferSize,
+                                                 @Value("${app.logs.max-message-length:2000}") int maxMessageLength) {
+        // Checked in order, so the narrower security loggers win over com.obs
+        Map<String, List<String>> categories = new LinkedHashMap<>();
+        categories.put("security", List.of("org.springframework.security", "com.obs.security", "com.obs.service.AuthService"));
+        categories.put("sql", List.of("org.hibernate.SQL", "org.hibernate.orm.jdbc"));
+        categories.put("app", List.of("com.obs"));
+        categories.put("framework", List.of("org.springframework", "org.hibernate", "org.apache", "com.zaxxer"));
+
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        RingBufferAppender appender = new RingBufferAppender(categories, bufferSize, maxMessageLength);
+        appender.setContext(context);
+        appender.start();
+        context.getLogger(Logger.ROOT_LOGGER_NAME).addAppender(appender);
+        return appender;
+    }
+}
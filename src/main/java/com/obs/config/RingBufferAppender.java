@@ -0,0 +1,149 @@
+package com.obs.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Logback appender that keeps the most recent events of each category in a fixed-size ring.
+ * Appending formats the event into a compact {@link Entry}, claims a slot with one atomic
+ * increment and stores it; there is no lock and no I/O, so the appender can sit on the root
+ * logger next to the console. A noisy category (Spring Security at DEBUG, Hibernate SQL)
+ * only overwrites its own ring.
+ * <p>
+ * Readers walk a ring from its newest slot backwards and skip any slot already overwritten
+ * by a newer sequence, so a query sees a consistent, possibly slightly stale, view.
+ */
+public class RingBufferAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+
+    public static final String CORRELATION_ID = "correlationId";
+
+    /** One pre-formatted event; {@code seq} is its position in the category's ring. */
+    public record Entry(long seq, String category, long epochMillis, Level level, String logger, String thread,
+                        String message, String correlationId) {}
+
+    /** Null fields match everything; {@code logger} matches as a prefix. */
+    public record Query(String category, Level minLevel, String logger, Instant from, Instant to,
+                        String correlationId, int limit) {}
+
+    private final Map<String, String> categoryPrefixes;
+    private final Map<String, Ring> rings = new LinkedHashMap<>();
+    private final Map<String, String> categoryByLogger = new ConcurrentHashMap<>();
+    private final int maxMessageLength;
+
+    /**
+     * @param categoryPrefixes logger name prefixes per category, checked in order; loggers
+     *                         matching none go to {@code other}
+     */
+    public RingBufferAppender(Map<String, List<String>> categoryPrefixes, int capacity, int maxMessageLength) {
+        this.categoryPrefixes = new LinkedHashMap<>();
+        categoryPrefixes.forEach((category, prefixes) -> {
+            prefixes.forEach(prefix -> this.categoryPrefixes.put(prefix, category));
+            rings.put(category, new Ring(capacity));
+        });
+        rings.putIfAbsent("other", new Ring(capacity));
+        this.maxMessageLength = maxMessageLength;
+        setName("RING");
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        String category = categoryByLogger.computeIfAbsent(event.getLoggerName(), this::categoryOf);
+        String message = event.getFormattedMessage();
+        IThrowableProxy thrown = event.getThrowableProxy();
+        if (thrown != null) {
+            message = message + " | " + thrown.getClassName() + (thrown.getMessage() != null ? ": " + thrown.getMessage() : "");
+        }
+        if (message != null && message.length() > maxMessageLength) {
+            message = message.substring(0, maxMessageLength) + "...";
+        }
+        rings.get(category).add(category, event.getTimeStamp(), event.getLevel(), event.getLoggerName(),
+                event.getThreadName(), message, event.getMDCPropertyMap().get(CORRELATION_ID));
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        if (getContext() instanceof LoggerContext context) {
+            context.getLogger(Logger.ROOT_LOGGER_NAME).detachAppender(this);
+        }
+    }
+
+    /** Matching entries from the selected category (or all), newest first, at most {@code limit}. */
+    public List<Entry> query(Query query) {
+        List<Entry> matches = new ArrayList<>();
+        rings.forEach((category, ring) -> {
+            if (query.category() == null || query.category().equals(category)) {
+                ring.collect(query, matches);
+            }
+        });
+        matches.sort(Comparator.comparingLong(Entry::epochMillis).thenComparingLong(Entry::seq).reversed());
+        return matches.size() > query.limit() ? matches.subList(0, query.limit()) : matches;
+    }
+
+    public List<String> getCategories() {
+        return new ArrayList<>(rings.keySet());
+    }
+
+    private String categoryOf(String loggerName) {
+        for (Map.Entry<String, String> prefix : categoryPrefixes.entrySet()) {
+            if (loggerName.startsWith(prefix.getKey())) {
+                return prefix.getValue();
+            }
+        }
+        return "other";
+    }
+
+    private static final class Ring {
+        private final AtomicReferenceArray<Entry> slots;
+        private final int mask;
+        private final AtomicLong next = new AtomicLong();
+
+        Ring(int capacity) {
+            int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+            this.slots = new AtomicReferenceArray<>(size);
+            this.mask = size - 1;
+        }
+
+        void add(String category, long at, Level level, String logger, String thread, String message, String correlationId) {
+            long seq = next.getAndIncrement();
+            slots.set((int) (seq & mask), new Entry(seq, category, at, level, logger, thread, message, correlationId));
+        }
+
+        void collect(Query query, List<Entry> out) {
+            long head = next.get();
+            long oldest = Math.max(0, head - slots.length());
+            int found = 0;
+            for (long seq = head - 1; seq >= oldest && found < query.limit(); seq--) {
+                Entry entry = slots.get((int) (seq & mask));
+                // Null: claimed but not stored yet; newer seq: the slot has wrapped since head was read
+                if (entry == null || entry.seq() != seq || !matches(entry, query)) {
+                    continue;
+                }
+                out.add(entry);
+                found++;
+            }
+        }
+
+        private static boolean matches(Entry entry, Query query) {
+            return (query.minLevel() == null || entry.level().isGreaterOrEqual(query.minLevel()))
+                    && (query.logger() == null || entry.logger().startsWith(query.logger()))
+                    && (query.from() == null || entry.epochMillis() >= query.from().toEpochMilli())
+                    && (query.to() == null || entry.epochMillis() < query.to().toEpochMilli())
+                    && (query.correlationId() == null || query.correlationId().equals(entry.correlationId()));
+        }
+    }
+}
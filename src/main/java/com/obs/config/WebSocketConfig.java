@@ -1,25 +1,96 @@
 package com.obs.config;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    @Value("${app.websocket.broker.inbound.core-pool-size:4}")
+    private int inboundCorePoolSize;
+    @Value("${app.websocket.broker.inbound.max-pool-size:8}")
+    private int inboundMaxPoolSize;
+    @Value("${app.websocket.broker.inbound.queue-capacity:1000}")
+    private int inboundQueueCapacity;
+    @Value("${app.websocket.broker.outbound.core-pool-size:4}")
+    private int outboundCorePoolSize;
+    @Value("${app.websocket.broker.outbound.max-pool-size:8}")
+    private int outboundMaxPoolSize;
+    @Value("${app.websocket.broker.outbound.queue-capacity:1000}")
+    private int outboundQueueCapacity;
+    @Value("${app.websocket.broker.send-buffer-size-kb:512}")
+    private int sendBufferSizeKb;
+    @Value("${app.websocket.broker.send-time-limit-ms:15000}")
+    private int sendTimeLimitMillis;
+    @Value("${app.websocket.broker.message-size-limit-kb:64}")
+    private int messageSizeLimitKb;
+    @Value("${app.websocket.broker.heartbeat-ms:10000}")
+    private long heartbeatMillis;
+
+    @Autowired
+    private WebSocketMetrics webSocketMetrics;
+
+    @Autowired
+    private DashboardSubscriptionInterceptor dashboardSubscriptionInterceptor;
+
+    private TaskScheduler messageBrokerTaskScheduler;
+
+    // Lazy: the broker's own scheduler bean is created by the configuration that consumes this class
+    @Autowired
+    public void setMessageBrokerTaskScheduler(@Lazy @Qualifier("messageBrokerTaskScheduler") TaskScheduler messageBrokerTaskScheduler) {
+        this.messageBrokerTaskScheduler = messageBrokerTaskScheduler;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable a simple memory-based message broker
-        config.enableSimpleBroker("/topic", "/queue");
+        // Enable a simple memory-based message broker; heartbeats let dead clients be detected
+        config.enableSimpleBroker("/topic", "/queue")
+                .setHeartbeatValue(new long[] {heartbeatMillis, heartbeatMillis})
+                .setTaskScheduler(messageBrokerTaskScheduler);
         // Set the application destination prefix
         config.setApplicationDestinationPrefixes("/app");
         // Set user destination prefix
         config.setUserDestinationPrefix("/user");
     }
 
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(inboundCorePoolSize)
+                .maxPoolSize(inboundMaxPoolSize)
+                .queueCapacity(inboundQueueCapacity);
+        registration.interceptors(webSocketMetrics.inboundInterceptor(), dashboardSubscriptionInterceptor);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(outboundCorePoolSize)
+                .maxPoolSize(outboundMaxPoolSize)
+                .queueCapacity(outboundQueueCapacity);
+        registration.interceptors(webSocketMetrics.outboundInterceptor());
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // A session that exceeds either limit is closed, so one slow dashboard cannot back up the rest
+        registration.setSendBufferSizeLimit(sendBufferSizeKb * 1024)
+                .setSendTimeLimit(sendTimeLimitMillis)
+                .setMessageSizeLimit(messageSizeLimitKb * 1024)
+                .addDecoratorFactory(webSocketMetrics::decorate);
+    }
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         // Register STOMP endpoint with SockJS fallback
@@ -27,4 +98,4 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOriginPatterns("http://localhost:*", "https://localhost:*")
                 .withSockJS();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,117 @@
+package com.obs.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Actuator metrics for the STOMP broker: open sessions, slow-consumer evictions, channel
+ * executor queue depth and message rates per destination. Destinations are normalised
+ * (ids and per-session suffixes stripped) to keep tag cardinality bounded.
+ */
+@Component
+public class WebSocketMetrics {
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketMetrics.class);
+    private static final Pattern SESSION_SUFFIX = Pattern.compile("-user[\\w-]+$");
+    private static final Pattern NUMERIC_ID = Pattern.compile("\\d+");
+
+    private final MeterRegistry meterRegistry;
+    private final ApplicationContext applicationContext;
+    private final AtomicInteger openSessions = new AtomicInteger();
+    private final Counter evictions;
+    private final Map<String, Counter> messageCounters = new ConcurrentHashMap<>();
+
+    public WebSocketMetrics(MeterRegistry meterRegistry, ApplicationContext applicationContext) {
+        this.meterRegistry = meterRegistry;
+        this.applicationContext = applicationContext;
+        this.evictions = Counter.builder("websocket.sessions.evicted")
+                .description("Sessions closed for exceeding the send buffer or send time limit").register(meterRegistry);
+        Gauge.builder("websocket.sessions.open", openSessions, AtomicInteger::get).register(meterRegistry);
+    }
+
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                openSessions.incrementAndGet();
+                super.afterConnectionEstablished(session);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                openSessions.decrementAndGet();
+                if (CloseStatus.SESSION_NOT_RELIABLE.equalsCode(closeStatus)) {
+                    evictions.increment();
+                    logger.warn("Evicted slow WebSocket consumer {}", session.getId());
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    public ChannelInterceptor inboundInterceptor() {
+        return countingInterceptor("inbound");
+    }
+
+    public ChannelInterceptor outboundInterceptor() {
+        return countingInterceptor("outbound");
+    }
+
+    private ChannelInterceptor countingInterceptor(String direction) {
+        return new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.MESSAGE) {
+                    String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+                    counter(direction, destination).increment();
+                }
+                return message;
+            }
+        };
+    }
+
+    private Counter counter(String direction, String destination) {
+        String normalised = destination == null ? "none"
+                : NUMERIC_ID.matcher(SESSION_SUFFIX.matcher(destination).replaceAll("")).replaceAll("{id}");
+        return messageCounters.computeIfAbsent(direction + '|' + normalised, key ->
+                Counter.builder("websocket.messages")
+                        .tag("direction", direction)
+                        .tag("destination", normalised)
+                        .register(meterRegistry));
+    }
+
+    // Executors are created by the broker configuration after this bean, so bind once the context is up
+    @EventListener(ApplicationReadyEvent.class)
+    public void bindChannelExecutors() {
+        for (String name : new String[] {"clientInboundChannelExecutor", "clientOutboundChannelExecutor", "brokerChannelExecutor"}) {
+            if (applicationContext.containsBean(name)
+                    && applicationContext.getBean(name) instanceof ThreadPoolTaskExecutor executor) {
+                Gauge.builder("websocket.channel.queue.depth", executor, e -> e.getThreadPoolExecutor().getQueue().size())
+                        .tag("channel", name).register(meterRegistry);
+                Gauge.builder("websocket.channel.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                        .tag("channel", name).register(meterRegistry);
+            }
+        }
+    }
+}
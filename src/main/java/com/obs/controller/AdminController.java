@@ -1,10 +1,16 @@
 package com.obs.controller;
 
 import com.obs.service.AdminService;
+import com.obs.service.AuditTrailService;
+import com.obs.service.DashboardFeeds;
+import com.obs.service.UserListingService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -19,9 +25,16 @@ import java.util.Map;
 public class AdminController {
 
     private final AdminService adminService;
+    private final DashboardFeeds dashboardFeeds;
+    private final UserListingService userListingService;
+    private final AuditTrailService auditTrailService;
 
-    public AdminController(AdminService adminService) { 
+    public AdminController(AdminService adminService, DashboardFeeds dashboardFeeds, UserListingService userListingService,
+                           AuditTrailService auditTrailService) { 
         this.adminService = adminService; 
+        this.dashboardFeeds = dashboardFeeds;
+        this.userListingService = userListingService;
+        this.auditTrailService = auditTrailService;
     }
 
     // Dashboard
@@ -30,10 +43,32 @@ public class AdminController {
         return ResponseEntity.ok(adminService.getDashboardStats());
     }
 
+    // Snapshot (or deltas after ?since=) for clients of /topic/dashboard.admin
+    @GetMapping("/dashboard/feed")
+    public ResponseEntity<?> dashboardFeed(@RequestParam(required = false) Long since) {
+        return ResponseEntity.ok(dashboardFeeds.get(DashboardFeeds.ADMIN).resume(since));
+    }
+
     // User Management Endpoints
+    // Returns one keyset page as an array; the cursor for the next page is in X-Next-Cursor
     @GetMapping("/users") 
-    public ResponseEntity<?> users() { 
-        return ResponseEntity.ok(adminService.getAllUsers()); 
+    public ResponseEntity<?> users(@RequestParam(required = false) Long after,
+                                   @RequestParam(required = false) Integer limit,
+                                   @RequestParam(required = false) String role) { 
+        Map<String, Object> page = adminService.getUsersPage(after, limit, role);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.get("nextCursor") != null) {
+            response.header("X-Next-Cursor", page.get("nextCursor").toString());
+        }
+        return response.body(page.get("users")); 
+    }
+    
+    @GetMapping("/users/export")
+    public void exportUsers(@RequestParam(defaultValue = "ndjson") String format,
+                            @RequestParam(defaultValue = "false") boolean gzip,
+                            @RequestParam(required = false) String role,
+                            HttpServletResponse response) throws IOException {
+        userListingService.writeExport(response, format, gzip, role);
     }
     
     @PostMapping("/users") 
@@ -46,10 +81,15 @@ public class AdminController {
         return ResponseEntity.ok(adminService.updateUser(id,data)); 
     }
     
+    // 202: the user is soft-deleted immediately, their data is purged in the background
     @DeleteMapping("/users/{id}") 
     public ResponseEntity<?> deleteUser(@PathVariable String id){ 
-        adminService.deleteUser(id); 
-        return ResponseEntity.noContent().build(); 
+        return ResponseEntity.accepted().body(adminService.deleteUser(id)); 
+    }
+    
+    @GetMapping("/users/{id}/purge") 
+    public ResponseEntity<?> purgeStatus(@PathVariable String id){ 
+        return ResponseEntity.ok(adminService.getUserPurgeStatus(id)); 
     }
     
     @PostMapping("/users/{id}/unlock") 
@@ -62,6 +102,22 @@ public class AdminController {
         return ResponseEntity.ok(adminService.lockUser(id)); 
     }
 
+    // Email outbox: queue counts and dead letters
+    @GetMapping("/email-outbox") 
+    public ResponseEntity<?> emailOutbox(){ 
+        return ResponseEntity.ok(adminService.getEmailOutboxStatus()); 
+    }
+
+    @PostMapping("/email-outbox/{id}/retry") 
+    public ResponseEntity<?> retryEmail(@PathVariable String id){ 
+        return ResponseEntity.ok(adminService.retryEmail(id)); 
+    }
+
+    @PostMapping("/users/{id}/sign-out") 
+    public ResponseEntity<?> forceSignOut(@PathVariable String id){ 
+        return ResponseEntity.ok(adminService.forceSignOut(id)); 
+    }
+
     @PostMapping("/users/{id}/reset-password") 
     public ResponseEntity<?> resetPassword(@PathVariable String id){ 
         return ResponseEntity.ok(adminService.resetUserPassword(id)); 
@@ -74,7 +130,12 @@ public class AdminController {
     
     @PostMapping("/users/bulk-actions") 
     public ResponseEntity<?> bulkUserActions(@RequestBody Map<String,Object> data){ 
-        return ResponseEntity.ok(adminService.performBulkUserActions(data)); 
+        return ResponseEntity.accepted().body(adminService.performBulkUserActions(data)); 
+    }
+    
+    @GetMapping("/users/bulk-actions/{jobId}") 
+    public ResponseEntity<?> bulkUserActionStatus(@PathVariable String jobId){ 
+        return ResponseEntity.ok(adminService.getBulkUserActionStatus(jobId)); 
     }
 
     // Account Management Endpoints
@@ -114,14 +175,23 @@ public class AdminController {
     }
 
     // Transaction Monitoring Endpoints
+    // Filters: status, type, from, to, minAmount, maxAmount, accountNumber, flagged; paged like /users
     @GetMapping("/transactions")
-    public ResponseEntity<?> getAllTransactions(){
-        return ResponseEntity.ok(adminService.getAllTransactions());
+    public ResponseEntity<?> getAllTransactions(@RequestParam Map<String, String> params){
+        return transactionPage(adminService.searchTransactions(params));
     }
     
     @GetMapping("/transactions/suspicious")
-    public ResponseEntity<?> getSuspiciousTransactions(){
-        return ResponseEntity.ok(adminService.getSuspiciousTransactions());
+    public ResponseEntity<?> getSuspiciousTransactions(@RequestParam Map<String, String> params){
+        return transactionPage(adminService.getSuspiciousTransactions(params));
+    }
+    
+    private static ResponseEntity<?> transactionPage(Map<String, Object> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.get("nextCursor") != null) {
+            response.header("X-Next-Cursor", page.get("nextCursor").toString());
+        }
+        return response.body(page.get("transactions"));
     }
     
     @PostMapping("/transactions/{id}/flag")
@@ -222,9 +292,13 @@ public class AdminController {
         return ResponseEntity.ok(adminService.generateCustomReport(data));
     }
     
+    // transactionTrends: from/to (ISO instants), granularity (hour|day|week|month), dimension (type|status|channel|branch)
     @GetMapping("/analytics/dashboard")
-    public ResponseEntity<?> getAnalyticsDashboard(){
-        return ResponseEntity.ok(adminService.getAnalyticsDashboard());
+    public ResponseEntity<?> getAnalyticsDashboard(@RequestParam(required = false) String from,
+                                                   @RequestParam(required = false) String to,
+                                                   @RequestParam(required = false) String granularity,
+                                                   @RequestParam(required = false) String dimension){
+        return ResponseEntity.ok(adminService.getAnalyticsDashboard(from, to, granularity, dimension));
     }
     
     @GetMapping("/analytics/trends")
@@ -264,29 +338,40 @@ public class AdminController {
     }
 
     // Audit & Logs Endpoints
+    // Newest first; filters actor, action, from, to (ISO instants); paged like /users
     @GetMapping("/audit/trails")
-    public ResponseEntity<?> getAuditTrails(){
-        return ResponseEntity.ok(adminService.getAuditTrails());
+    public ResponseEntity<?> getAuditTrails(@RequestParam Map<String, String> params){
+        return auditPage(adminService.getAuditTrails(params));
     }
     
     @GetMapping("/audit/trails/{userId}")
-    public ResponseEntity<?> getUserAuditTrail(@PathVariable String userId){
-        return ResponseEntity.ok(adminService.getUserAuditTrail(userId));
+    public ResponseEntity<?> getUserAuditTrail(@PathVariable String userId, @RequestParam Map<String, String> params){
+        return auditPage(adminService.getUserAuditTrail(userId, params));
     }
     
+    private static ResponseEntity<?> auditPage(Map<String, Object> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.get("nextCursor") != null) {
+            response.header("X-Next-Cursor", page.get("nextCursor").toString());
+        }
+        return response.body(page.get("events"));
+    }
+    
+    // Streams the matching trail; body: format (csv|ndjson), actor, action, from, to
     @PostMapping("/audit/export")
-    public ResponseEntity<?> exportAuditLogs(@RequestBody Map<String,Object> data){
-        return ResponseEntity.ok(adminService.exportAuditLogs(data));
+    public void exportAuditLogs(@RequestBody Map<String,Object> data, HttpServletResponse response) throws IOException {
+        auditTrailService.writeExport(response, data);
     }
     
+    // Recent in-memory log events, newest first; filters category, level, logger, from, to, correlationId, limit
     @GetMapping("/logs/system")
-    public ResponseEntity<?> getSystemLogs(){
-        return ResponseEntity.ok(adminService.getSystemLogs());
+    public ResponseEntity<?> getSystemLogs(@RequestParam Map<String, String> params){
+        return ResponseEntity.ok(adminService.getSystemLogs(params));
     }
     
     @GetMapping("/logs/security")
-    public ResponseEntity<?> getSecurityLogs(){
-        return ResponseEntity.ok(adminService.getSecurityLogs());
+    public ResponseEntity<?> getSecurityLogs(@RequestParam Map<String, String> params){
+        return ResponseEntity.ok(adminService.getSecurityLogs(params));
     }
     
     @PostMapping("/audit/compliance-report")
@@ -316,15 +401,29 @@ public class AdminController {
         return ResponseEntity.noContent().build(); 
     }
 
-    // Branch Audits (existing functionality)
+    // Bulk create: body is a list of {name, city}; audit rows are written in batches afterwards
+    @PostMapping("/branches/import") 
+    public ResponseEntity<?> importBranches(@RequestBody List<Map<String,Object>> rows){ 
+        return ResponseEntity.ok(adminService.importBranches(rows)); 
+    }
+
+    // Branch Audits, newest first; paged with after/limit and the X-Next-Cursor header
     @GetMapping("/branches/audits") 
-    public ResponseEntity<?> recentAudits(){ 
-        return ResponseEntity.ok(adminService.getRecentBranchAudits()); 
+    public ResponseEntity<?> recentAudits(@RequestParam Map<String, String> params){ 
+        return branchAuditPage(adminService.getRecentBranchAudits(params)); 
     }
     
     @GetMapping("/branches/{id}/audits") 
-    public ResponseEntity<?> audits(@PathVariable String id){ 
-        return ResponseEntity.ok(adminService.getBranchAudits(id)); 
+    public ResponseEntity<?> audits(@PathVariable String id, @RequestParam Map<String, String> params){ 
+        return branchAuditPage(adminService.getBranchAudits(id, params)); 
+    }
+    
+    private static ResponseEntity<?> branchAuditPage(Map<String, Object> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.get("nextCursor") != null) {
+            response.header("X-Next-Cursor", page.get("nextCursor").toString());
+        }
+        return response.body(page.get("audits"));
     }
 
     // Legacy endpoints for backward compatibility
@@ -339,7 +438,7 @@ public class AdminController {
     }
     
     @GetMapping("/security-logs") 
-    public ResponseEntity<?> logs(){ 
-        return ResponseEntity.ok(adminService.getSecurityLogs()); 
+    public ResponseEntity<?> logs(@RequestParam Map<String, String> params){ 
+        return ResponseEntity.ok(adminService.getSecurityLogs(params)); 
     }
 }
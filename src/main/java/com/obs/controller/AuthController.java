@@ -1,6 +1,11 @@
 package com.obs.controller;
 
+import com.obs.dto.OtpVerifyRequest;
+import com.obs.security.HashingCapacityExceededException;
+import com.obs.security.LoginThrottledException;
 import com.obs.service.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -9,9 +14,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.Map;
 
 /**
- * Authentication Controller - DEVELOPMENT VERSION
- * Uses plain text passwords for testing purposes
- * WARNING: Do not use in production
+ * Authentication Controller - login (with optional OTP step), registration, refresh and password reset
  */
 @RestController
 @RequestMapping("/auth")
@@ -21,10 +24,15 @@ public class AuthController {
     private AuthService authService;
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody Map<String, String> loginRequest) {
+    public ResponseEntity<?> login(@RequestBody Map<String, String> loginRequest, HttpServletRequest request) {
         try {
-            Map<String, Object> response = authService.login(loginRequest);
+            Map<String, Object> response = authService.login(loginRequest, request.getRemoteAddr());
             return ResponseEntity.ok(response);
+        } catch (LoginThrottledException te) {
+            return ResponseEntity.status(429).header("Retry-After", String.valueOf(te.getRetryAfterSeconds()))
+                .body(Map.of("message", te.getMessage()));
+        } catch (HashingCapacityExceededException he) {
+            return ResponseEntity.status(503).header("Retry-After", "1").body(Map.of("message", he.getMessage()));
         } catch (RuntimeException re) {
             return ResponseEntity.status(401).body(Map.of("message", re.getMessage()));
         } catch (Exception e) {
@@ -61,10 +69,33 @@ public class AuthController {
         }
     }
 
+    @PostMapping("/verify-otp")
+    public ResponseEntity<?> verifyOtp(@Valid @RequestBody OtpVerifyRequest request) {
+        try {
+            return ResponseEntity.ok(authService.verifyLoginOtp(request.email(), request.otp()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(401).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = "Authorization", required = false) String authorization,
+                                    @RequestBody(required = false) Map<String, String> request) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ") ? authorization.substring(7) : null;
+        authService.logout(accessToken, request != null ? request.get("refreshToken") : null);
+        return ResponseEntity.ok(Map.of("message", "Logged out"));
+    }
+
     @GetMapping("/users")
-    public ResponseEntity<?> getAllUsers() {
+    public ResponseEntity<?> getAllUsers(@RequestParam(required = false) Long after,
+                                         @RequestParam(required = false) Integer limit) {
         try {
-            return ResponseEntity.ok(authService.getAllUsers());
+            Map<String, Object> page = authService.getUsersPage(after, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.get("nextCursor") != null) {
+                response.header("X-Next-Cursor", page.get("nextCursor").toString());
+            }
+            return response.body(page.get("users"));
         } catch (Exception e) {
             return ResponseEntity.status(500).body(Map.of("message", "Failed to fetch users: " + e.getMessage()));
         }
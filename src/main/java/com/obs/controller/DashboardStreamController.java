@@ -0,0 +1,32 @@
+package com.obs.controller;
+
+import com.obs.service.DashboardFeeds;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
+import org.springframework.stereotype.Controller;
+
+import java.util.Map;
+
+/**
+ * STOMP side of the dashboard feeds. SUBSCRIBE to /app/dashboard/{feed} is answered once,
+ * directly to the subscribing session, with a versioned snapshot; a {@code since-seq}
+ * header instead returns the missed deltas when they are still buffered. Live deltas are
+ * then read from /topic/dashboard.{feed}. Both subscriptions are role-checked by
+ * {@link com.obs.config.DashboardSubscriptionInterceptor}.
+ */
+@Controller
+public class DashboardStreamController {
+
+    private final DashboardFeeds dashboardFeeds;
+
+    public DashboardStreamController(DashboardFeeds dashboardFeeds) {
+        this.dashboardFeeds = dashboardFeeds;
+    }
+
+    @SubscribeMapping("/dashboard/{feed}")
+    public Map<String, Object> subscribe(@DestinationVariable String feed,
+                                         @Header(name = "since-seq", required = false) Long sinceSeq) {
+        return dashboardFeeds.get(feed).resume(sinceSeq);
+    }
+}
@@ -1,5 +1,6 @@
 package com.obs.controller;
 
+import com.obs.service.DashboardFeeds;
 import com.obs.service.ManagerService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -18,9 +19,17 @@ import java.util.Map;
 public class ManagerController {
 
     private final ManagerService managerService;
+    private final DashboardFeeds dashboardFeeds;
     
-    public ManagerController(ManagerService managerService){ 
+    public ManagerController(ManagerService managerService, DashboardFeeds dashboardFeeds){ 
         this.managerService = managerService; 
+        this.dashboardFeeds = dashboardFeeds;
+    }
+
+    // Snapshot (or deltas after ?since=) for clients of /topic/dashboard.manager
+    @GetMapping("/dashboard/feed")
+    public ResponseEntity<?> dashboardFeed(@RequestParam(required = false) Long since){ 
+        return ResponseEntity.ok(dashboardFeeds.get(DashboardFeeds.MANAGER).resume(since)); 
     }
 
     // Staff Oversight Endpoints
@@ -6,6 +6,8 @@ import com.obs.model.Role;
 import com.obs.service.SuperAdminService;
 import com.obs.service.UserService;
 import com.obs.service.EmailService;
+import com.obs.service.UserListingService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -14,6 +16,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -33,19 +36,39 @@ public class SuperAdminController {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private UserListingService userListingService;
+
     /**
      * Get all users in the system
      */
     @GetMapping("/users")
-    public ResponseEntity<List<User>> getAllUsers() {
+    public ResponseEntity<List<Map<String, Object>>> getAllUsers(@RequestParam(required = false) Long after,
+                                                                 @RequestParam(required = false) Integer limit,
+                                                                 @RequestParam(required = false) String role) {
         try {
-            List<User> users = superAdminService.getAllUsers();
-            return ResponseEntity.ok(users);
+            UserListingService.Page page = superAdminService.getUsersPage(after, limit, role);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.nextCursor() != null) {
+                response.header("X-Next-Cursor", page.nextCursor().toString());
+            }
+            return response.body(page.users().stream().map(userListingService::toMap).toList());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    /**
+     * Stream all users as NDJSON or CSV (optionally gzip), walking the table in id-ordered chunks
+     */
+    @GetMapping("/users/export")
+    public void exportUsers(@RequestParam(defaultValue = "ndjson") String format,
+                            @RequestParam(defaultValue = "false") boolean gzip,
+                            @RequestParam(required = false) String role,
+                            HttpServletResponse response) throws IOException {
+        userListingService.writeExport(response, format, gzip, role);
+    }
+
     /**
      * Get user statistics dashboard data
      */
@@ -320,7 +343,7 @@ public class SuperAdminController {
             emailService.sendWelcomeEmail(email, "Test User");
             
             response.put("success", true);
-            response.put("message", "Test email sent successfully to " + email);
+            response.put("message", "Test email queued for " + email);
             response.put("note", "Please check your email (including spam folder) and server logs for details");
             
             return ResponseEntity.ok(response);
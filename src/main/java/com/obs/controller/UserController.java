@@ -1,9 +1,11 @@
 package com.obs.controller;
 
 import com.obs.service.UserService;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import java.util.Map;
 
 /**
@@ -265,6 +267,11 @@ public class UserController {
         return ResponseEntity.ok(userService.disableTwoFactorAuth(body)); 
     }
     
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId){ 
+        return userService.subscribeToEvents(lastEventId); 
+    }
+    
     @GetMapping("/security/settings") 
     public ResponseEntity<?> getSecuritySettings(){ 
         return ResponseEntity.ok(userService.getSecuritySettings()); 
@@ -0,0 +1,36 @@
+package com.obs.event;
+
+/**
+ * Published by services for actions that belong in the audit trail. The actor and client
+ * address are taken from the current request when the event is handled, unless given
+ * here (e.g. for logins, which happen before there is an authenticated principal).
+ */
+public class AuditEvent {
+
+    private final String action;
+    private final String targetType;
+    private final String targetId;
+    private final String details;
+    private final String actor;
+    private final String ipAddress;
+
+    public AuditEvent(String action, String targetType, Object targetId, String details) {
+        this(action, targetType, targetId, details, null, null);
+    }
+
+    public AuditEvent(String action, String targetType, Object targetId, String details, String actor, String ipAddress) {
+        this.action = action;
+        this.targetType = targetType;
+        this.targetId = targetId != null ? targetId.toString() : null;
+        this.details = details;
+        this.actor = actor;
+        this.ipAddress = ipAddress;
+    }
+
+    public String getAction() { return action; }
+    public String getTargetType() { return targetType; }
+    public String getTargetId() { return targetId; }
+    public String getDetails() { return details; }
+    public String getActor() { return actor; }
+    public String getIpAddress() { return ipAddress; }
+}
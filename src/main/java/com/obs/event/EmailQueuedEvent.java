@@ -0,0 +1,16 @@
+package com.obs.event;
+
+/**
+ * Published when mail is written to the outbox, so the worker can start draining as soon
+ * as the enclosing transaction commits instead of waiting for its next poll.
+ */
+public class EmailQueuedEvent {
+
+    private final Long outboxId;
+
+    public EmailQueuedEvent(Long outboxId) {
+        this.outboxId = outboxId;
+    }
+
+    public Long getOutboxId() { return outboxId; }
+}
@@ -0,0 +1,31 @@
+package com.obs.event;
+
+/**
+ * Published whenever a user's security-relevant state (lock flag, role, existence)
+ * changes, so in-memory views of that user (and dashboard counts) can be invalidated.
+ */
+public class UserChangedEvent {
+
+    public enum ChangeType {
+        CREATED,
+        LOCKED,
+        UNLOCKED,
+        ROLE_CHANGED,
+        UPDATED,
+        DELETED
+    }
+
+    private final Long userId;
+    private final String username;
+    private final ChangeType changeType;
+
+    public UserChangedEvent(Long userId, String username, ChangeType changeType) {
+        this.userId = userId;
+        this.username = username;
+        this.changeType = changeType;
+    }
+
+    public Long getUserId() { return userId; }
+    public String getUsername() { return username; }
+    public ChangeType getChangeType() { return changeType; }
+}
@@ -0,0 +1,21 @@
+package com.obs.event;
+
+import java.util.List;
+
+/**
+ * Published once per bulk admin action instead of one {@link UserChangedEvent} per user,
+ * so caches can be invalidated in bulk.
+ */
+public class UsersBulkChangedEvent {
+
+    private final String action;
+    private final List<String> usernames;
+
+    public UsersBulkChangedEvent(String action, List<String> usernames) {
+        this.action = action;
+        this.usernames = usernames;
+    }
+
+    public String getAction() { return action; }
+    public List<String> getUsernames() { return usernames; }
+}
@@ -0,0 +1,74 @@
+package com.obs.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * A money-flow pattern found by the offline AML analysis, raised against the account it
+ * starts from. {@code details} lists the accounts involved in flow order. OPEN cases are
+ * replaced by each run; cases a manager has taken up (UNDER_REVIEW) are kept.
+ */
+@Entity
+@Table(name = "aml_case", indexes = {
+        @Index(name = "idx_aml_case_status_score", columnList = "status, risk_score"),
+        @Index(name = "idx_aml_case_account", columnList = "account_number")
+})
+public class AmlCase {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "account_number", nullable = false, length = 100)
+    private String accountNumber;
+
+    @Column(nullable = false, length = 20)
+    private String pattern; // CYCLE, LAYERING, STRUCTURING
+
+    @Column(name = "risk_score", nullable = false)
+    private int riskScore;
+
+    @Column(length = 1000)
+    private String details;
+
+    @Column(nullable = false, precision = 18, scale = 2)
+    private java.math.BigDecimal totalAmount;
+
+    private int transferCount;
+
+    @Column(nullable = false, length = 20)
+    private String status = "OPEN";
+
+    @Column(length = 500)
+    private String notes;
+
+    private Instant windowStart;
+
+    private Instant windowEnd;
+
+    private Instant createdAt = Instant.now();
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getAccountNumber() { return accountNumber; }
+    public void setAccountNumber(String accountNumber) { this.accountNumber = accountNumber; }
+    public String getPattern() { return pattern; }
+    public void setPattern(String pattern) { this.pattern = pattern; }
+    public int getRiskScore() { return riskScore; }
+    public void setRiskScore(int riskScore) { this.riskScore = riskScore; }
+    public String getDetails() { return details; }
+    public void setDetails(String details) { this.details = details; }
+    public java.math.BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(java.math.BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+    public int getTransferCount() { return transferCount; }
+    public void setTransferCount(int transferCount) { this.transferCount = transferCount; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public String getNotes() { return notes; }
+    public void setNotes(String notes) { this.notes = notes; }
+    public Instant getWindowStart() { return windowStart; }
+    public void setWindowStart(Instant windowStart) { this.windowStart = windowStart; }
+    public Instant getWindowEnd() { return windowEnd; }
+    public void setWindowEnd(Instant windowEnd) { this.windowEnd = windowEnd; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,54 @@
+package com.obs.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+
+/**
+ * One row of the append-only audit trail. Rows are inserted in batches by
+ * {@code AuditLog} over JDBC and never updated or deleted; the entity is read-only.
+ */
+@Entity
+@Immutable
+@Table(name = "audit_event", indexes = {
+        @Index(name = "idx_audit_event_time", columnList = "occurred_at, id"),
+        @Index(name = "idx_audit_event_actor_time", columnList = "actor, occurred_at, id"),
+        @Index(name = "idx_audit_event_type_time", columnList = "target_type, occurred_at, id"),
+        @Index(name = "idx_audit_event_target_time", columnList = "target_type, target_id, occurred_at, id")
+})
+public class AuditRecord {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "occurred_at", nullable = false)
+    private Instant occurredAt;
+
+    @Column(nullable = false, length = 50)
+    private String actor;
+
+    @Column(nullable = false, length = 50)
+    private String action;
+
+    @Column(name = "target_type", length = 30)
+    private String targetType;
+
+    @Column(name = "target_id", length = 100)
+    private String targetId;
+
+    @Column(name = "ip_address", length = 45)
+    private String ipAddress;
+
+    @Column(length = 1000)
+    private String details;
+
+    public Long getId() { return id; }
+    public Instant getOccurredAt() { return occurredAt; }
+    public String getActor() { return actor; }
+    public String getAction() { return action; }
+    public String getTargetType() { return targetType; }
+    public String getTargetId() { return targetId; }
+    public String getIpAddress() { return ipAddress; }
+    public String getDetails() { return details; }
+}
@@ -1,9 +1,11 @@
 package com.obs.model;
 
+import com.obs.service.BranchAuditListener;
 import jakarta.persistence.*;
 import java.time.Instant;
 
 @Entity
+@EntityListeners(BranchAuditListener.class)
 public class Branch {
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -0,0 +1,57 @@
+package com.obs.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Row in the cluster relay table; other nodes poll it by id. Rows are short-lived and
+ * purged after the relay retention period.
+ */
+@Entity
+@Table(name = "cluster_message", indexes = {
+        @Index(name = "idx_cluster_message_created", columnList = "created_at")
+})
+public class ClusterMessageRecord {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 36)
+    private String messageId;
+
+    @Column(nullable = false, length = 64)
+    private String originNode;
+
+    @Column(length = 64)
+    private String targetNode;
+
+    @Column(nullable = false)
+    private String destination;
+
+    @Column(length = 50)
+    private String username;
+
+    @Lob
+    @Column(columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt = Instant.now();
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getMessageId() { return messageId; }
+    public void setMessageId(String messageId) { this.messageId = messageId; }
+    public String getOriginNode() { return originNode; }
+    public void setOriginNode(String originNode) { this.originNode = originNode; }
+    public String getTargetNode() { return targetNode; }
+    public void setTargetNode(String targetNode) { this.targetNode = targetNode; }
+    public String getDestination() { return destination; }
+    public void setDestination(String destination) { this.destination = destination; }
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,37 @@
+package com.obs.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Which node holds WebSocket sessions for a user. Refreshed by each node's heartbeat;
+ * rows not refreshed within the session TTL belong to a dead node and are ignored.
+ */
+@Entity
+@Table(name = "cluster_user_session", indexes = {
+        @Index(name = "idx_cluster_session_username", columnList = "username")
+})
+public class ClusterUserSession {
+    // "<nodeId>:<username>"
+    @Id
+    @Column(length = 120)
+    private String id;
+
+    @Column(nullable = false, length = 50)
+    private String username;
+
+    @Column(nullable = false, length = 64)
+    private String nodeId;
+
+    @Column(nullable = false)
+    private Instant lastSeen = Instant.now();
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+    public String getNodeId() { return nodeId; }
+    public void setNodeId(String nodeId) { this.nodeId = nodeId; }
+    public Instant getLastSeen() { return lastSeen; }
+    public void setLastSeen(Instant lastSeen) { this.lastSeen = lastSeen; }
+}
@@ -0,0 +1,8 @@
+package com.obs.model;
+
+public enum EmailStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    DEAD
+}
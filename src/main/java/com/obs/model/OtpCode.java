@@ -0,0 +1,42 @@
+package com.obs.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Write-behind copy of an outstanding one-time code, used only so another node can pick
+ * up verification after a failover. The in-memory store remains the source of truth.
+ */
+@Entity
+@Table(name = "otp_code", indexes = {
+        @Index(name = "idx_otp_code_expires", columnList = "expires_at")
+})
+public class OtpCode {
+    // "<purpose>:<userId>"
+    @Id
+    @Column(name = "otp_key", length = 64)
+    private String key;
+
+    @Column(nullable = false, length = 64)
+    private String codeHash;
+
+    @Column(nullable = false, length = 32)
+    private String salt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    public String getKey() { return key; }
+    public void setKey(String key) { this.key = key; }
+    public String getCodeHash() { return codeHash; }
+    public void setCodeHash(String codeHash) { this.codeHash = codeHash; }
+    public String getSalt() { return salt; }
+    public void setSalt(String salt) { this.salt = salt; }
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+    public Instant getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(Instant expiresAt) { this.expiresAt = expiresAt; }
+}
@@ -0,0 +1,48 @@
+package com.obs.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * A transaction alert line that has not been mailed yet. Alerts are normally buffered in
+ * memory; rows here hold the ones spilled under memory pressure or at shutdown until the
+ * next digest for the user is sent.
+ */
+@Entity
+@Table(name = "pending_transaction_alert", indexes = {
+        @Index(name = "idx_pending_alert_created", columnList = "created_at")
+})
+public class PendingTransactionAlert {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, length = 100)
+    private String recipient;
+
+    @Column(nullable = false, length = 50)
+    private String username;
+
+    @Column(nullable = false, length = 500)
+    private String line;
+
+    // When the alert was raised; the digest window is measured from the oldest line
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt = Instant.now();
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public String getRecipient() { return recipient; }
+    public void setRecipient(String recipient) { this.recipient = recipient; }
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+    public String getLine() { return line; }
+    public void setLine(String line) { this.line = line; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
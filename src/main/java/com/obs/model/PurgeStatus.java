@@ -0,0 +1,8 @@
+package com.obs.model;
+
+public enum PurgeStatus {
+    PENDING,
+    RUNNING,
+    DONE,
+    FAILED
+}
@@ -3,31 +3,50 @@ package com.obs.model;
 import jakarta.persistence.*;
 import java.time.Instant;
 
+/**
+ * Refresh token record. Only the SHA-256 of the token is stored (in the unique
+ * {@code token} column); the raw value exists solely on the client.
+ * Tokens rotate on every refresh and share a {@code familyId} with the token issued at login,
+ * so presenting an already-rotated token revokes the whole family.
+ */
 @Entity
+@Table(name = "refresh_token", indexes = {
+        @Index(name = "idx_refresh_token_family", columnList = "family_id"),
+        @Index(name = "idx_refresh_token_expires", columnList = "expires_at")
+})
 public class RefreshToken {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true, length = 120)
-    private String token;
+    @Column(name = "token", nullable = false, unique = true, length = 64)
+    private String tokenHash;
 
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
     private User user;
 
-    @Column(nullable = false)
+    @Column(name = "family_id", nullable = false, length = 36)
+    private String familyId;
+
+    @Column(name = "expires_at", nullable = false)
     private Instant expiresAt;
 
+    private Instant createdAt = Instant.now();
+
     private boolean revoked = false;
 
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
-    public String getToken() { return token; }
-    public void setToken(String token) { this.token = token; }
+    public String getTokenHash() { return tokenHash; }
+    public void setTokenHash(String tokenHash) { this.tokenHash = tokenHash; }
     public User getUser() { return user; }
     public void setUser(User user) { this.user = user; }
+    public String getFamilyId() { return familyId; }
+    public void setFamilyId(String familyId) { this.familyId = familyId; }
     public Instant getExpiresAt() { return expiresAt; }
     public void setExpiresAt(Instant expiresAt) { this.expiresAt = expiresAt; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
     public boolean isRevoked() { return revoked; }
     public void setRevoked(boolean revoked) { this.revoked = revoked; }
 }
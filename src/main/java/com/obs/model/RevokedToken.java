@@ -0,0 +1,45 @@
+package com.obs.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Durable copy of the in-memory access-token denylist.
+ * A row either revokes a single token ({@code jti}) or every token of a user issued
+ * with a version below {@code minTokenVersion}. Rows are pruned once {@code expiresAt}
+ * passes, since by then every token they cover has expired anyway.
+ */
+@Entity
+@Table(name = "revoked_token", indexes = {
+        @Index(name = "idx_revoked_token_expires", columnList = "expires_at")
+})
+public class RevokedToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(unique = true, length = 36)
+    private String jti;
+
+    private Long userId;
+
+    private Integer minTokenVersion;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    private Instant createdAt = Instant.now();
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getJti() { return jti; }
+    public void setJti(String jti) { this.jti = jti; }
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public Integer getMinTokenVersion() { return minTokenVersion; }
+    public void setMinTokenVersion(Integer minTokenVersion) { this.minTokenVersion = minTokenVersion; }
+    public Instant getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(Instant expiresAt) { this.expiresAt = expiresAt; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
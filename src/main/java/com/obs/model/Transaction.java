@@ -4,7 +4,20 @@ import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.Instant;
 
+/**
+ * Indexes back the admin search in {@code TransactionSearchRepositoryImpl}: every query
+ * orders by (created_at, id) descending, so each index ends with those columns and the
+ * leading column is the most selective equality filter the query has (account, status or
+ * type). Amount ranges are filtered within whichever index range is chosen.
+ */
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_txn_created", columnList = "created_at, id"),
+        @Index(name = "idx_txn_account_created", columnList = "account_id, created_at, id"),
+        @Index(name = "idx_txn_status_created", columnList = "status, created_at, id"),
+        @Index(name = "idx_txn_type_created", columnList = "type, created_at, id")
+})
+@EntityListeners({com.obs.service.TransactionFraudListener.class, com.obs.service.TransactionCubeListener.class})
 public class Transaction {
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
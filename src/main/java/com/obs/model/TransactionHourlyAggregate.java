@@ -0,0 +1,69 @@
+package com.obs.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * One cell of the hourly transaction cube: count and absolute amount statistics of the
+ * transactions posted in {@code hourStart} with the given type, status, channel and
+ * branch. Rows are only ever merged into by {@code TransactionCube}'s upsert; coarser
+ * periods are rolled up on read.
+ */
+@Entity
+@Table(name = "txn_hourly_agg", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_txn_hourly_agg_cell", columnNames = {"hour_start", "type", "status", "channel", "branch_id"})
+})
+public class TransactionHourlyAggregate {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "hour_start", nullable = false)
+    private Instant hourStart;
+
+    @Column(nullable = false, length = 20)
+    private String type;
+
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    @Column(nullable = false, length = 20)
+    private String channel;
+
+    @Column(name = "branch_id", nullable = false)
+    private long branchId;
+
+    @Column(name = "txn_count", nullable = false)
+    private long txnCount;
+
+    @Column(name = "amount_sum", nullable = false, precision = 20, scale = 2)
+    private BigDecimal amountSum;
+
+    @Column(name = "amount_min", nullable = false, precision = 18, scale = 2)
+    private BigDecimal amountMin;
+
+    @Column(name = "amount_max", nullable = false, precision = 18, scale = 2)
+    private BigDecimal amountMax;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Instant getHourStart() { return hourStart; }
+    public void setHourStart(Instant hourStart) { this.hourStart = hourStart; }
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public String getChannel() { return channel; }
+    public void setChannel(String channel) { this.channel = channel; }
+    public long getBranchId() { return branchId; }
+    public void setBranchId(long branchId) { this.branchId = branchId; }
+    public long getTxnCount() { return txnCount; }
+    public void setTxnCount(long txnCount) { this.txnCount = txnCount; }
+    public BigDecimal getAmountSum() { return amountSum; }
+    public void setAmountSum(BigDecimal amountSum) { this.amountSum = amountSum; }
+    public BigDecimal getAmountMin() { return amountMin; }
+    public void setAmountMin(BigDecimal amountMin) { this.amountMin = amountMin; }
+    public BigDecimal getAmountMax() { return amountMax; }
+    public void setAmountMax(BigDecimal amountMax) { this.amountMax = amountMax; }
+}
@@ -5,6 +5,7 @@ import java.time.Instant;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(com.obs.service.UserStatsListener.class)
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -31,6 +32,19 @@ public class User {
     @Column(name = "is_active", nullable = false)
     private boolean active = true;
     private Instant lastLogin;
+    // Bumped on forced sign-out; access tokens carrying an older version are rejected
+    @Column(name = "token_version", nullable = false)
+    private int tokenVersion = 0;
+    @Column(name = "two_factor_enabled", nullable = false)
+    private boolean twoFactorEnabled = false;
+    // Set when an admin deletes the user; the row and its data are removed later by the purge job
+    @Column(name = "deleted_at")
+    private Instant deletedAt;
+    // Role/lock/active state as last read from or written to the database; lets the stats listener apply deltas
+    @Transient
+    private StatsState persistedState;
+
+    public record StatsState(Role role, boolean locked, boolean active, boolean deleted) {}
 
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -50,6 +64,15 @@ public class User {
     public void setLastLogin(Instant lastLogin) { this.lastLogin = lastLogin; }
     public boolean isActive() { return active; }
     public void setActive(boolean active) { this.active = active; }
+    public int getTokenVersion() { return tokenVersion; }
+    public void setTokenVersion(int tokenVersion) { this.tokenVersion = tokenVersion; }
+    public boolean isTwoFactorEnabled() { return twoFactorEnabled; }
+    public void setTwoFactorEnabled(boolean twoFactorEnabled) { this.twoFactorEnabled = twoFactorEnabled; }
+    public StatsState getPersistedState() { return persistedState; }
+    public void setPersistedState(StatsState persistedState) { this.persistedState = persistedState; }
+    public StatsState currentStatsState() { return new StatsState(role, locked, active, deletedAt != null); }
+    public Instant getDeletedAt() { return deletedAt; }
+    public void setDeletedAt(Instant deletedAt) { this.deletedAt = deletedAt; }
     // No legacy dual-field now; ensure future migrations drop/rename only if needed.
 
     @PrePersist
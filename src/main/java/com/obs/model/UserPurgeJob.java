@@ -0,0 +1,66 @@
+package com.obs.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Background removal of a soft-deleted user's data. The purge walks its steps in order,
+ * deleting bounded chunks in short transactions; {@code step} and {@code rowsDeleted}
+ * record progress so an interrupted job resumes where it stopped.
+ */
+@Entity
+@Table(name = "user_purge_job", indexes = {
+        @Index(name = "idx_user_purge_job_status", columnList = "status"),
+        @Index(name = "idx_user_purge_job_user", columnList = "user_id")
+})
+public class UserPurgeJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, length = 50)
+    private String username;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private PurgeStatus status = PurgeStatus.PENDING;
+
+    @Column(length = 30)
+    private String step;
+
+    @Column(nullable = false)
+    private long rowsDeleted = 0;
+
+    @Column(length = 500)
+    private String lastError;
+
+    private Instant createdAt = Instant.now();
+
+    private Instant updatedAt;
+
+    private Instant finishedAt;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+    public PurgeStatus getStatus() { return status; }
+    public void setStatus(PurgeStatus status) { this.status = status; }
+    public String getStep() { return step; }
+    public void setStep(String step) { this.step = step; }
+    public long getRowsDeleted() { return rowsDeleted; }
+    public void setRowsDeleted(long rowsDeleted) { this.rowsDeleted = rowsDeleted; }
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+    public Instant getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(Instant finishedAt) { this.finishedAt = finishedAt; }
+}
@@ -0,0 +1,26 @@
+package com.obs.repository;
+
+import com.obs.model.AmlCase;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface AmlCaseRepository extends JpaRepository<AmlCase, Long> {
+    List<AmlCase> findByStatusInOrderByRiskScoreDescIdDesc(Collection<String> statuses, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM AmlCase c WHERE c.status = 'OPEN'")
+    int deleteOpen();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE AmlCase c SET c.status = 'UNDER_REVIEW', c.notes = :notes WHERE c.accountNumber = :accountNumber AND c.status = 'OPEN'")
+    int markUnderReview(@Param("accountNumber") String accountNumber, @Param("notes") String notes);
+}
@@ -0,0 +1,44 @@
+package com.obs.repository;
+
+import com.obs.model.AuditRecord;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+/** Read-only access to the audit trail; writes go through {@code AuditLog}'s batched inserts. */
+public interface AuditRecordRepository extends Repository<AuditRecord, Long> {
+
+    /**
+     * Newest first, strictly before the (occurredAt, id) position. Null filters are ignored;
+     * with an actor the (actor, occurred_at, id) index is used, otherwise (occurred_at, id).
+     */
+    @Query("SELECT a FROM AuditRecord a WHERE (:actor IS NULL OR a.actor = :actor) " +
+           "AND (:action IS NULL OR a.action = :action) " +
+           "AND a.occurredAt >= :from AND a.occurredAt < :to " +
+           "AND (a.occurredAt < :beforeAt OR (a.occurredAt = :beforeAt AND a.id < :beforeId)) " +
+           "ORDER BY a.occurredAt DESC, a.id DESC")
+    List<AuditRecord> findPage(@Param("actor") String actor, @Param("action") String action,
+                               @Param("from") Instant from, @Param("to") Instant to,
+                               @Param("beforeAt") Instant beforeAt, @Param("beforeId") Long beforeId,
+                               Pageable pageable);
+
+    /** One target's entries newest first, strictly before the (occurredAt, id) position; walks (target_type, target_id, occurred_at, id). */
+    @Query("SELECT a FROM AuditRecord a WHERE a.targetType = :targetType AND a.targetId = :targetId " +
+           "AND (a.occurredAt < :beforeAt OR (a.occurredAt = :beforeAt AND a.id < :beforeId)) " +
+           "ORDER BY a.occurredAt DESC, a.id DESC")
+    List<AuditRecord> findTargetPage(@Param("targetType") String targetType, @Param("targetId") String targetId,
+                                     @Param("beforeAt") Instant beforeAt, @Param("beforeId") Long beforeId,
+                                     Pageable pageable);
+
+    /** Entries for any target of one type newest first; walks (target_type, occurred_at, id). */
+    @Query("SELECT a FROM AuditRecord a WHERE a.targetType = :targetType " +
+           "AND (a.occurredAt < :beforeAt OR (a.occurredAt = :beforeAt AND a.id < :beforeId)) " +
+           "ORDER BY a.occurredAt DESC, a.id DESC")
+    List<AuditRecord> findTargetTypePage(@Param("targetType") String targetType,
+                                         @Param("beforeAt") Instant beforeAt, @Param("beforeId") Long beforeId,
+                                         Pageable pageable);
+}
@@ -0,0 +1,25 @@
+package com.obs.repository;
+
+import com.obs.model.ClusterMessageRecord;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ClusterMessageRepository extends JpaRepository<ClusterMessageRecord, Long> {
+    @Query("SELECT COALESCE(MAX(m.id), 0) FROM ClusterMessageRecord m")
+    long findMaxId();
+
+    // Unfiltered so the poller can tell uncommitted id gaps from rows meant for other nodes
+    List<ClusterMessageRecord> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable page);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM cluster_message WHERE created_at < :cutoff LIMIT :batchSize", nativeQuery = true)
+    int deleteExpiredBatch(@Param("cutoff") Instant cutoff, @Param("batchSize") int batchSize);
+}
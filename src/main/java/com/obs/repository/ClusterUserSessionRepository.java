@@ -0,0 +1,26 @@
+package com.obs.repository;
+
+import com.obs.model.ClusterUserSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ClusterUserSessionRepository extends JpaRepository<ClusterUserSession, String> {
+    @Query("SELECT s.nodeId FROM ClusterUserSession s WHERE s.username = :username AND s.nodeId <> :node AND s.lastSeen > :cutoff")
+    List<String> findLiveNodes(@Param("username") String username, @Param("node") String node, @Param("cutoff") Instant cutoff);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ClusterUserSession s SET s.lastSeen = :now WHERE s.nodeId = :node")
+    int touchNode(@Param("node") String node, @Param("now") Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ClusterUserSession s WHERE s.lastSeen < :cutoff")
+    int deleteStale(@Param("cutoff") Instant cutoff);
+}
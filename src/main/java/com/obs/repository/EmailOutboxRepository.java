@@ -0,0 +1,47 @@
+package com.obs.repository;
+
+import com.obs.model.EmailOutbox;
+import com.obs.model.EmailStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+    // SKIP LOCKED lets several nodes claim disjoint batches; caller must be transactional
+    @Query(value = "SELECT * FROM email_outbox WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+                   "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<EmailOutbox> lockDue(@Param("now") Instant now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.status = :status, e.claimedAt = :now WHERE e.id IN :ids")
+    int markClaimed(@Param("ids") Collection<Long> ids, @Param("status") EmailStatus status, @Param("now") Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutbox e SET e.status = :status, e.sentAt = :now, e.attempts = e.attempts + 1, " +
+           "e.body = CASE WHEN e.sensitive = true THEN '' ELSE e.body END WHERE e.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("status") EmailStatus status, @Param("now") Instant now);
+
+    // Rows left SENDING by a node that died mid-batch
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutbox e SET e.status = :pending WHERE e.status = :sending AND e.claimedAt < :cutoff")
+    int releaseStuck(@Param("pending") EmailStatus pending, @Param("sending") EmailStatus sending, @Param("cutoff") Instant cutoff);
+
+    // Sensitive mail not delivered within its TTL is dead-lettered with the body wiped
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutbox e SET e.status = :dead, e.body = '', e.lastError = 'Expired before delivery' " +
+           "WHERE e.sensitive = true AND e.status <> :sent AND e.body <> '' AND e.createdAt < :cutoff")
+    int expireSensitive(@Param("dead") EmailStatus dead, @Param("sent") EmailStatus sent, @Param("cutoff") Instant cutoff);
+
+    long countByStatus(EmailStatus status);
+
+    List<EmailOutbox> findTop100ByStatusOrderByIdDesc(EmailStatus status);
+}
@@ -10,6 +10,7 @@ import java.util.List;
 
 public interface LoanApplicationRepository extends JpaRepository<LoanApplication, Long> {
     List<LoanApplication> findByStatus(LoanStatus status);
+    long countByStatus(LoanStatus status);
     List<LoanApplication> findByUserUsername(String username);
     
     @Modifying
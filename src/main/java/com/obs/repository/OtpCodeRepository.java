@@ -0,0 +1,23 @@
+package com.obs.repository;
+
+import com.obs.model.OtpCode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+
+public interface OtpCodeRepository extends JpaRepository<OtpCode, String> {
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OtpCode o WHERE o.key IN :keys")
+    int deleteByKeys(@Param("keys") Collection<String> keys);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM otp_code WHERE expires_at < :cutoff LIMIT :batchSize", nativeQuery = true)
+    int deleteExpiredBatch(@Param("cutoff") Instant cutoff, @Param("batchSize") int batchSize);
+}
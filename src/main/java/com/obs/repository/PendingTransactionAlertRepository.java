@@ -0,0 +1,18 @@
+package com.obs.repository;
+
+import com.obs.model.PendingTransactionAlert;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface PendingTransactionAlertRepository extends JpaRepository<PendingTransactionAlert, Long> {
+    // All spilled lines of users whose oldest line is due; SKIP LOCKED keeps nodes from mailing twice
+    @Query(value = "SELECT * FROM pending_transaction_alert WHERE user_id IN (" +
+                   "SELECT user_id FROM (SELECT DISTINCT user_id FROM pending_transaction_alert " +
+                   "WHERE created_at <= :cutoff LIMIT :users) due) " +
+                   "ORDER BY user_id, id FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<PendingTransactionAlert> lockDue(@Param("cutoff") Instant cutoff, @Param("users") int users);
+}
@@ -0,0 +1,23 @@
+package com.obs.repository;
+
+import com.obs.model.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+    List<RevokedToken> findByExpiresAtAfter(Instant now);
+
+    // Incremental sync of revocations written by other nodes
+    List<RevokedToken> findByIdGreaterThanOrderByIdAsc(Long lastSeenId);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM revoked_token WHERE expires_at < :cutoff LIMIT :batchSize", nativeQuery = true)
+    int deleteExpiredBatch(@Param("cutoff") Instant cutoff, @Param("batchSize") int batchSize);
+}
@@ -0,0 +1,29 @@
+package com.obs.repository;
+
+import com.obs.model.TransactionHourlyAggregate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+public interface TransactionHourlyAggregateRepository extends JpaRepository<TransactionHourlyAggregate, Long> {
+    /** Cells with hourStart in [from, to); served by the unique (hour_start, ...) index. */
+    List<TransactionHourlyAggregate> findByHourStartGreaterThanEqualAndHourStartLessThan(Instant from, Instant to);
+
+    /** Adds a batch of counts into a cell, creating it on first use. */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO txn_hourly_agg (hour_start, type, status, channel, branch_id, txn_count, amount_sum, amount_min, amount_max) " +
+                   "VALUES (:hour, :type, :status, :channel, :branchId, :count, :sum, :min, :max) " +
+                   "ON DUPLICATE KEY UPDATE txn_count = txn_count + VALUES(txn_count), amount_sum = amount_sum + VALUES(amount_sum), " +
+                   "amount_min = LEAST(amount_min, VALUES(amount_min)), amount_max = GREATEST(amount_max, VALUES(amount_max))",
+           nativeQuery = true)
+    int merge(@Param("hour") Instant hour, @Param("type") String type, @Param("status") String status,
+              @Param("channel") String channel, @Param("branchId") long branchId, @Param("count") long count,
+              @Param("sum") BigDecimal sum, @Param("min") BigDecimal min, @Param("max") BigDecimal max);
+}
@@ -9,12 +9,42 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.transaction.annotation.Transactional;
 
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, TransactionSearchRepository {
     Page<Transaction> findByAccountId(Long accountId, Pageable pageable);
     java.util.List<Transaction> findByStatus(TransactionStatus status);
+    java.util.List<Transaction> findByStatusIn(java.util.Collection<TransactionStatus> statuses);
+    long countByStatus(TransactionStatus status);
+    /** Rows in a status created in [from, to); served by idx_txn_status_created. */
+    long countByStatusAndCreatedAtGreaterThanEqualAndCreatedAtLessThan(TransactionStatus status, java.time.Instant from,
+                                                                       java.time.Instant to);
     
     @Modifying
     @Transactional
     @Query("DELETE FROM Transaction t WHERE t.account.id = :accountId")
     void deleteByAccountId(@Param("accountId") Long accountId);
+
+    /** Outgoing transfer as a money-flow edge: sender account number to recipient, amount positive. */
+    interface TransferEdge {
+        Long getId();
+        String getFromAccount();
+        String getToAccount();
+        java.math.BigDecimal getAmount();
+        java.time.Instant getCreatedAt();
+    }
+
+    /** Debits with a recipient in [from, to), after the (createdAt, id) position, oldest first; walks idx_txn_created. */
+    @Query("SELECT t.id AS id, a.accountNumber AS fromAccount, t.recipientAccount AS toAccount, -t.amount AS amount, t.createdAt AS createdAt " +
+           "FROM Transaction t JOIN t.account a " +
+           "WHERE t.createdAt < :to AND t.amount < 0 AND t.recipientAccount IS NOT NULL " +
+           "AND (t.createdAt > :afterAt OR (t.createdAt = :afterAt AND t.id > :afterId)) " +
+           "ORDER BY t.createdAt, t.id")
+    java.util.List<TransferEdge> findTransferEdges(@Param("afterAt") java.time.Instant afterAt, @Param("afterId") Long afterId,
+                                                   @Param("to") java.time.Instant to, Pageable pageable);
+
+    /** Marks a transaction for review unless it is already flagged (e.g. manually by an employee). */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Transaction t SET t.status = com.obs.model.TransactionStatus.FLAGGED, t.flagReason = :reason " +
+           "WHERE t.id = :id AND t.status <> com.obs.model.TransactionStatus.FLAGGED")
+    int flag(@Param("id") Long id, @Param("reason") String reason);
 }
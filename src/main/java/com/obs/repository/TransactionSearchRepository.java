@@ -0,0 +1,27 @@
+package com.obs.repository;
+
+import com.obs.model.TransactionStatus;
+import com.obs.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+/** Filtered keyset search over transactions; implemented with the Criteria API. */
+public interface TransactionSearchRepository {
+
+    /** Null fields are not filtered on; {@code from} is inclusive and {@code to} exclusive. */
+    record Filter(TransactionStatus status, TransactionType type, Instant from, Instant to,
+                  BigDecimal minAmount, BigDecimal maxAmount, Long accountId, Boolean flagged) {}
+
+    /** Sparse row for listings; account number comes from a join on the account's primary key. */
+    record Row(Long id, String transactionId, String accountNumber, TransactionType type,
+               TransactionStatus status, BigDecimal amount, String recipientAccount,
+               String recipientName, String flagReason, Instant createdAt) {}
+
+    /**
+     * Up to {@code limit} rows matching the filter, newest first (created_at, id descending).
+     * When {@code beforeCreatedAt}/{@code beforeId} are set, only rows after that position are returned.
+     */
+    List<Row> search(Filter filter, Instant beforeCreatedAt, Long beforeId, int limit);
+}
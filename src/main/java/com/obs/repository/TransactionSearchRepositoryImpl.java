@@ -0,0 +1,73 @@
+package com.obs.repository;
+
+import com.obs.model.Account;
+import com.obs.model.Transaction;
+import com.obs.model.TransactionStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+class TransactionSearchRepositoryImpl implements TransactionSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Row> search(Filter filter, Instant beforeCreatedAt, Long beforeId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Row> query = cb.createQuery(Row.class);
+        Root<Transaction> t = query.from(Transaction.class);
+        Join<Transaction, Account> account = t.join("account");
+
+        List<Predicate> where = new ArrayList<>();
+        if (filter.accountId() != null) {
+            // Compare the FK column itself so the (account_id, created_at, id) index can be used
+            where.add(cb.equal(t.get("account").get("id"), filter.accountId()));
+        }
+        if (filter.status() != null) {
+            where.add(cb.equal(t.get("status"), filter.status()));
+        }
+        if (filter.flagged() != null) {
+            where.add(filter.flagged()
+                    ? cb.equal(t.get("status"), TransactionStatus.FLAGGED)
+                    : cb.notEqual(t.get("status"), TransactionStatus.FLAGGED));
+        }
+        if (filter.type() != null) {
+            where.add(cb.equal(t.get("type"), filter.type()));
+        }
+        if (filter.from() != null) {
+            where.add(cb.greaterThanOrEqualTo(t.<Instant>get("createdAt"), filter.from()));
+        }
+        if (filter.to() != null) {
+            where.add(cb.lessThan(t.<Instant>get("createdAt"), filter.to()));
+        }
+        if (filter.minAmount() != null) {
+            where.add(cb.greaterThanOrEqualTo(t.get("amount"), filter.minAmount()));
+        }
+        if (filter.maxAmount() != null) {
+            where.add(cb.lessThanOrEqualTo(t.get("amount"), filter.maxAmount()));
+        }
+        if (beforeCreatedAt != null && beforeId != null) {
+            where.add(cb.or(
+                    cb.lessThan(t.<Instant>get("createdAt"), beforeCreatedAt),
+                    cb.and(cb.equal(t.get("createdAt"), beforeCreatedAt), cb.lessThan(t.<Long>get("id"), beforeId))));
+        }
+
+        query.select(cb.construct(Row.class,
+                t.get("id"), t.get("transactionId"), account.get("accountNumber"), t.get("type"),
+                t.get("status"), t.get("amount"), t.get("recipientAccount"),
+                t.get("recipientName"), t.get("flagReason"), t.get("createdAt")))
+            .where(where.toArray(new Predicate[0]))
+            .orderBy(cb.desc(t.get("createdAt")), cb.desc(t.get("id")));
+
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+}
@@ -0,0 +1,84 @@
+package com.obs.repository;
+
+import com.obs.model.PurgeStatus;
+import com.obs.model.UserPurgeJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Purge jobs plus the chunked deletes they run. Each delete is its own short transaction
+ * removing at most {@code limit} rows; callers repeat until it returns fewer than that.
+ */
+public interface UserPurgeJobRepository extends JpaRepository<UserPurgeJob, Long> {
+    List<UserPurgeJob> findByStatusInOrderByIdAsc(Collection<PurgeStatus> statuses);
+
+    Optional<UserPurgeJob> findFirstByUserIdOrderByIdDesc(Long userId);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM `transaction` WHERE account_id IN (SELECT id FROM account WHERE user_id = :userId) LIMIT :limit", nativeQuery = true)
+    int deleteTransactionsChunk(@Param("userId") Long userId, @Param("limit") int limit);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM card WHERE account_id IN (SELECT id FROM account WHERE user_id = :userId) LIMIT :limit", nativeQuery = true)
+    int deleteCardsChunk(@Param("userId") Long userId, @Param("limit") int limit);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM beneficiaries WHERE user_id = :userId LIMIT :limit", nativeQuery = true)
+    int deleteBeneficiariesChunk(@Param("userId") Long userId, @Param("limit") int limit);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM bill_payments WHERE user_id = :userId LIMIT :limit", nativeQuery = true)
+    int deleteBillPaymentsChunk(@Param("userId") Long userId, @Param("limit") int limit);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM standing_instructions WHERE user_id = :userId LIMIT :limit", nativeQuery = true)
+    int deleteStandingInstructionsChunk(@Param("userId") Long userId, @Param("limit") int limit);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM loan_application WHERE user_id = :userId LIMIT :limit", nativeQuery = true)
+    int deleteLoanApplicationsChunk(@Param("userId") Long userId, @Param("limit") int limit);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM kyc_request WHERE user_id = :userId LIMIT :limit", nativeQuery = true)
+    int deleteKycRequestsChunk(@Param("userId") Long userId, @Param("limit") int limit);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM password_reset_token WHERE user_id = :userId LIMIT :limit", nativeQuery = true)
+    int deletePasswordResetTokensChunk(@Param("userId") Long userId, @Param("limit") int limit);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM refresh_token WHERE user_id = :userId LIMIT :limit", nativeQuery = true)
+    int deleteRefreshTokensChunk(@Param("userId") Long userId, @Param("limit") int limit);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM user_profiles WHERE user_id = :userId LIMIT :limit", nativeQuery = true)
+    int deleteProfilesChunk(@Param("userId") Long userId, @Param("limit") int limit);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM account WHERE user_id = :userId LIMIT :limit", nativeQuery = true)
+    int deleteAccountsChunk(@Param("userId") Long userId, @Param("limit") int limit);
+
+    // Only ever removes a user that was soft-deleted first
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM users WHERE id = :userId AND deleted_at IS NOT NULL LIMIT :limit", nativeQuery = true)
+    int deleteUserChunk(@Param("userId") Long userId, @Param("limit") int limit);
+}
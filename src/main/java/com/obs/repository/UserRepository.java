@@ -1,9 +1,18 @@
 package com.obs.repository;
 
+import com.obs.model.Role;
 import com.obs.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -17,6 +26,102 @@ public interface UserRepository extends JpaRepository<User, Long> {
     long countByLockedTrue();
     long countByFailedAttemptsGreaterThan(int attempts);
     
+    // One row per (role, locked, active) combination; dashboard counts are summed from these
+    @Query("SELECT u.role AS role, u.locked AS locked, u.active AS active, COUNT(u) AS total " +
+           "FROM User u WHERE u.deletedAt IS NULL GROUP BY u.role, u.locked, u.active")
+    List<StatusCount> countByRoleAndStatus();
+    
+    interface StatusCount {
+        Role getRole();
+        boolean isLocked();
+        boolean isActive();
+        long getTotal();
+    }
+    
+    // Single-statement lock used when the login throttle crosses its threshold
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.locked = true, u.failedAttempts = :attempts WHERE u.username = :username AND u.locked = false")
+    int lockByUsername(@Param("username") String username, @Param("attempts") int attempts);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.tokenVersion = u.tokenVersion + 1 WHERE u.id = :userId")
+    int incrementTokenVersion(@Param("userId") Long userId);
+    
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.id = :userId")
+    Optional<Integer> findTokenVersion(@Param("userId") Long userId);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.tokenVersion = u.tokenVersion + 1 WHERE u.id IN :userIds")
+    int incrementTokenVersions(@Param("userIds") Collection<Long> userIds);
+    
+    @Query("SELECT u.id AS id, u.tokenVersion AS tokenVersion FROM User u WHERE u.id IN :userIds")
+    List<TokenVersion> findTokenVersions(@Param("userIds") Collection<Long> userIds);
+    
+    interface TokenVersion {
+        Long getId();
+        int getTokenVersion();
+    }
+    
+    // Bulk admin actions: targets never include super admins or soft-deleted users; rows stay locked until the chunk commits
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u.id AS id, u.username AS username, u.locked AS locked, u.active AS active FROM User u " +
+           "WHERE u.id IN :userIds AND u.role <> com.obs.model.Role.SUPER_ADMIN AND u.deletedAt IS NULL")
+    List<BulkTarget> findBulkTargets(@Param("userIds") Collection<Long> userIds);
+    
+    interface BulkTarget {
+        Long getId();
+        String getUsername();
+        boolean isLocked();
+        boolean isActive();
+    }
+    
+    @Query("SELECT u.id FROM User u WHERE u.id > :afterId AND u.deletedAt IS NULL " +
+           "AND (:role IS NULL OR u.role = :role) AND (:locked IS NULL OR u.locked = :locked) " +
+           "AND (:active IS NULL OR u.active = :active) AND u.failedAttempts >= :minFailedAttempts ORDER BY u.id")
+    List<Long> findIdsMatching(@Param("afterId") long afterId, @Param("role") Role role, @Param("locked") Boolean locked,
+                               @Param("active") Boolean active, @Param("minFailedAttempts") int minFailedAttempts,
+                               Pageable limit);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.locked = true WHERE u.id IN :userIds")
+    int lockAll(@Param("userIds") Collection<Long> userIds);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.locked = false, u.failedAttempts = 0 WHERE u.id IN :userIds")
+    int unlockAll(@Param("userIds") Collection<Long> userIds);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.active = :active WHERE u.id IN :userIds")
+    int setActiveAll(@Param("userIds") Collection<Long> userIds, @Param("active") boolean active);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.failedAttempts = 0 WHERE u.id IN :userIds")
+    int resetFailedAttemptsAll(@Param("userIds") Collection<Long> userIds);
+    
+    // Keyset page over users by id; sparse projection so password hashes and other columns are never loaded
+    @Query("SELECT u.id AS id, u.username AS username, u.email AS email, u.role AS role, u.locked AS locked, " +
+           "u.active AS active, u.failedAttempts AS failedAttempts, u.lastLogin AS lastLogin " +
+           "FROM User u WHERE u.id > :afterId AND u.deletedAt IS NULL AND (:role IS NULL OR u.role = :role) ORDER BY u.id")
+    List<UserSummary> findSummariesAfter(@Param("afterId") long afterId, @Param("role") Role role, Pageable limit);
+    
+    interface UserSummary {
+        Long getId();
+        String getUsername();
+        String getEmail();
+        Role getRole();
+        boolean isLocked();
+        boolean isActive();
+        int getFailedAttempts();
+        java.time.Instant getLastLogin();
+    }
+    
     // Search methods
     Page<User> findByUsernameContainingIgnoreCaseOrEmailContainingIgnoreCase(
         String username, String email, Pageable pageable);
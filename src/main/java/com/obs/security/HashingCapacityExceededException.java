@@ -0,0 +1,11 @@
+package com.obs.security;
+
+/**
+ * Thrown when the password-hashing pool is saturated and a verification is shed
+ * instead of queued. Callers should answer 503 so clients back off and retry.
+ */
+public class HashingCapacityExceededException extends RuntimeException {
+    public HashingCapacityExceededException(String message) {
+        super(message);
+    }
+}
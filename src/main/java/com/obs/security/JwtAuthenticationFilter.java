@@ -1,12 +1,16 @@
 package com.obs.security;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -15,6 +19,8 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -25,20 +31,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtTokenUtil jwtTokenUtil;
 
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
             throws ServletException, IOException {
 
         // Get the request path
         String path = request.getRequestURI();
-        String contextPath = request.getContextPath();
-        String servletPath = request.getServletPath();
-        
-        // Debug logging
-        System.out.println("JWT Filter - Full URI: " + path);
-        System.out.println("JWT Filter - Context Path: " + contextPath);
-        System.out.println("JWT Filter - Servlet Path: " + servletPath);
-        
+
         // Skip JWT validation for auth endpoints (handle both with and without context path)
         if (path.contains("/auth/") || 
             path.contains("/public/") || 
@@ -50,49 +55,71 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             path.contains("/v3/api-docs/") ||
             path.contains("/test/") ||
             path.endsWith("/debug/public")) {
-            System.out.println("JWT Filter - Skipping authentication for: " + path);
             chain.doFilter(request, response);
             return;
         }
 
-        System.out.println("JWT Filter - Processing authentication for: " + path);
         final String requestTokenHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwtToken = null;
+        Claims claims = null;
 
         // JWT Token is in the form "Bearer token". Remove Bearer word and get only the Token
         if (requestTokenHeader != null && requestTokenHeader.startsWith("Bearer ")) {
-            jwtToken = requestTokenHeader.substring(7);
+            String jwtToken = requestTokenHeader.substring(7);
             try {
-                username = jwtTokenUtil.getUsernameFromToken(jwtToken);
-            } catch (IllegalArgumentException e) {
-                logger.error("Unable to get JWT Token");
+                // Single parse: verifies signature and expiry and yields all claims
+                claims = jwtTokenUtil.getAllClaimsFromToken(jwtToken);
             } catch (ExpiredJwtException e) {
                 logger.error("JWT Token has expired");
+            } catch (IllegalArgumentException | JwtException e) {
+                logger.error("Unable to get JWT Token");
             }
         } else {
             logger.warn("JWT Token does not begin with Bearer String");
         }
 
-        // Once we get the token validate it.
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        if (claims != null && tokenRevocationService.isRevoked(claims)) {
+            logger.warn("JWT Token has been revoked");
+            claims = null;
+        }
 
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+        String username = claims != null ? claims.getSubject() : null;
 
-            // if token is valid configure Spring Security to manually set authentication
-            if (jwtTokenUtil.validateToken(jwtToken, userDetails)) {
+        // Once we get the token validate it.
+        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
 
-                UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                usernamePasswordAuthenticationToken
-                        .setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                // After setting the Authentication in the context, we specify
-                // that the current user is authenticated. So it passes the
-                // Spring Security Configurations successfully.
-                SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
+            UserDetails userDetails = principalFromClaims(username, claims);
+            if (userDetails == null) {
+                // Token predates role claims - resolve through the short-lived cache
+                userDetails = userDetailsCache.get(username, userDetailsService::loadUserByUsername);
+                if (!userDetails.isAccountNonLocked() || !userDetails.isEnabled()) {
+                    chain.doFilter(request, response);
+                    return;
+                }
             }
+
+            UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(
+                    userDetails, null, userDetails.getAuthorities());
+            usernamePasswordAuthenticationToken
+                    .setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            // After setting the Authentication in the context, we specify
+            // that the current user is authenticated. So it passes the
+            // Spring Security Configurations successfully.
+            SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
         }
         chain.doFilter(request, response);
     }
+
+    /**
+     * Builds the principal straight from the signed role claim; returns null when the
+     * token does not carry one.
+     */
+    private UserDetails principalFromClaims(String username, Claims claims) {
+        String role = claims.get(JwtTokenUtil.CLAIM_ROLE, String.class);
+        if (role == null) {
+            return null;
+        }
+        List<GrantedAuthority> authorities = Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role));
+        return new org.springframework.security.core.userdetails.User(username, "", authorities);
+    }
 }
@@ -1,5 +1,6 @@
 package com.obs.security;
 
+import com.obs.model.Role;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,11 +11,19 @@ import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Component
 public class JwtTokenUtil {
 
+    /** Claim carrying the user's primary key */
+    public static final String CLAIM_USER_ID = "uid";
+    /** Claim carrying the user's role name (without the ROLE_ prefix) */
+    public static final String CLAIM_ROLE = "role";
+    /** Claim carrying the user's token version at issue time */
+    public static final String CLAIM_TOKEN_VERSION = "tv";
+
     @Value("${app.jwt.secret}")
     private String secret;
 
@@ -38,7 +47,11 @@ public class JwtTokenUtil {
         return claimsResolver.apply(claims);
     }
 
-    private Claims getAllClaimsFromToken(String token) {
+    /**
+     * Verifies the signature and expiry and returns the claims in a single parse.
+     * Throws {@link ExpiredJwtException} / {@link JwtException} on invalid tokens.
+     */
+    public Claims getAllClaimsFromToken(String token) {
         return Jwts.parserBuilder()
                 .setSigningKey(getSigningKey())
                 .build()
@@ -61,9 +74,34 @@ public class JwtTokenUtil {
         return createToken(claims, username);
     }
 
+    /**
+     * Issues a token that carries the user id and role so the authentication
+     * filter can build the principal without a database lookup.
+     */
+    public String generateTokenFromUsername(String username, Long userId, Role role) {
+        return generateTokenFromUsername(username, userId, role, 0);
+    }
+
+    public String generateTokenFromUsername(String username, Long userId, Role role, int tokenVersion) {
+        Map<String, Object> claims = new HashMap<>();
+        if (userId != null) {
+            claims.put(CLAIM_USER_ID, userId);
+        }
+        if (role != null) {
+            claims.put(CLAIM_ROLE, role.name());
+        }
+        claims.put(CLAIM_TOKEN_VERSION, tokenVersion);
+        return createToken(claims, username);
+    }
+
+    public long getExpirationMillis() {
+        return expiration;
+    }
+
     private String createToken(Map<String, Object> claims, String subject) {
         return Jwts.builder()
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
@@ -0,0 +1,132 @@
+package com.obs.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * In-memory sliding-window throttle for /auth/login, keyed by username and by client IP.
+ * It is evaluated before the users table is touched, so credential-stuffing traffic is
+ * rejected without a query. Failures are only counted here; the caller persists a lock
+ * whenever the per-username count is at or above {@code lock-threshold} (the lock update
+ * is a no-op for an already locked account), and every unlock path resets the count.
+ */
+@Component
+public class LoginThrottle {
+
+    private final SlidingWindowCounter userFailures;
+    private final SlidingWindowCounter ipFailures;
+    private final int maxPerUser;
+    private final int maxPerIp;
+    private final int lockThreshold;
+    private final long windowSeconds;
+
+    private final Counter rejectedByUser;
+    private final Counter rejectedByIp;
+    private final Counter failedAttempts;
+
+    public LoginThrottle(@Value("${app.security.login-throttle.window-seconds:900}") long windowSeconds,
+                         @Value("${app.security.login-throttle.buckets:6}") int buckets,
+                         @Value("${app.security.login-throttle.max-failures-per-user:10}") int maxPerUser,
+                         @Value("${app.security.login-throttle.max-failures-per-ip:50}") int maxPerIp,
+                         @Value("${app.security.login-throttle.lock-threshold:5}") int lockThreshold,
+                         @Value("${app.security.login-throttle.capacity:65536}") int capacity,
+                         MeterRegistry meterRegistry) {
+        long windowMillis = windowSeconds * 1000L;
+        this.userFailures = new SlidingWindowCounter(capacity, windowMillis, buckets);
+        this.ipFailures = new SlidingWindowCounter(capacity, windowMillis, buckets);
+        this.maxPerUser = maxPerUser;
+        this.maxPerIp = maxPerIp;
+        this.lockThreshold = lockThreshold;
+        this.windowSeconds = windowSeconds;
+
+        this.rejectedByUser = Counter.builder("auth.login.throttled").tag("scope", "username")
+                .description("Login attempts rejected before credential check").register(meterRegistry);
+        this.rejectedByIp = Counter.builder("auth.login.throttled").tag("scope", "ip")
+                .description("Login attempts rejected before credential check").register(meterRegistry);
+        this.failedAttempts = Counter.builder("auth.login.failed")
+                .description("Login attempts with bad credentials").register(meterRegistry);
+        Gauge.builder("auth.login.throttle.tracked", userFailures, SlidingWindowCounter::occupancy)
+                .tag("scope", "username").register(meterRegistry);
+        Gauge.builder("auth.login.throttle.tracked", ipFailures, SlidingWindowCounter::occupancy)
+                .tag("scope", "ip").register(meterRegistry);
+    }
+
+    /** Rejects the attempt with {@link LoginThrottledException} if either key is over its limit. */
+    public void checkAllowed(String username, String clientIp) {
+        long now = System.currentTimeMillis();
+        if (clientIp != null && ipFailures.count(ipKey(clientIp), now) >= maxPerIp) {
+            rejectedByIp.increment();
+            throw new LoginThrottledException("Too many login attempts, please try again later", windowSeconds);
+        }
+        if (username != null && userFailures.count(usernameKey(username), now) >= maxPerUser) {
+            rejectedByUser.increment();
+            throw new LoginThrottledException("Too many login attempts, please try again later", windowSeconds);
+        }
+    }
+
+    /**
+     * Counts a failed attempt. Returns the per-username failure count once it has reached
+     * the lock threshold, otherwise 0.
+     */
+    public int recordFailure(String username, String clientIp) {
+        failedAttempts.increment();
+        long now = System.currentTimeMillis();
+        if (clientIp != null) {
+            ipFailures.increment(ipKey(clientIp), now);
+        }
+        if (username == null) {
+            return 0;
+        }
+        int count = userFailures.increment(usernameKey(username), now);
+        return count >= lockThreshold ? count : 0;
+    }
+
+    public void recordSuccess(String username) {
+        if (username != null) {
+            userFailures.reset(usernameKey(username));
+        }
+    }
+
+    static long usernameKey(String username) {
+        return fnv1a64(username.toLowerCase(Locale.ROOT));
+    }
+
+    /** IPv4 addresses map directly into the key space; anything else is hashed. */
+    static long ipKey(String ip) {
+        int dots = 0;
+        long value = 0;
+        int octet = -1;
+        for (int i = 0; i < ip.length(); i++) {
+            char c = ip.charAt(i);
+            if (c >= '0' && c <= '9') {
+                octet = (octet < 0 ? 0 : octet * 10) + (c - '0');
+                if (octet > 255) return fnv1a64(ip);
+            } else if (c == '.' && octet >= 0 && dots < 3) {
+                value = (value << 8) | octet;
+                octet = -1;
+                dots++;
+            } else {
+                return fnv1a64(ip);
+            }
+        }
+        if (dots != 3 || octet < 0) {
+            return fnv1a64(ip);
+        }
+        return (1L << 32) | (value << 8) | octet;
+    }
+
+    private static long fnv1a64(String s) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : s.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= (b & 0xff);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,15 @@
+package com.obs.security;
+
+/**
+ * Thrown when a login attempt is rejected by {@link LoginThrottle} before any credential check.
+ */
+public class LoginThrottledException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public LoginThrottledException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() { return retryAfterSeconds; }
+}
@@ -0,0 +1,258 @@
+package com.obs.security;
+
+import com.obs.model.OtpCode;
+import com.obs.repository.OtpCodeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory store for one-time codes (email verification, 2FA). Only a salted SHA-256 of
+ * each code is held, keyed by purpose and user; verification is a constant-time compare
+ * against that hash with a per-code attempt limit, so no query is issued per attempt.
+ * Expiry is driven by a {@link TimingWheel} ticked from the scheduler.
+ *
+ * <p>With {@code app.otp.persist.enabled} the store also writes behind to the otp_code
+ * table: changes are coalesced per key and flushed in batches, and a miss in memory falls
+ * back to that table once so a code issued on another node can still be verified.
+ */
+@Component
+public class OtpStore {
+    private static final Logger logger = LoggerFactory.getLogger(OtpStore.class);
+    private static final HexFormat HEX = HexFormat.of();
+
+    public enum Purpose { LOGIN, ENABLE_2FA, DISABLE_2FA, EMAIL_VERIFY }
+
+    public enum Result { VALID, INVALID, EXPIRED, TOO_MANY_ATTEMPTS }
+
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, Entry> codes = new ConcurrentHashMap<>();
+    // Latest pending write per key, coalesced; Entry.DELETED marks a delete
+    private final Map<String, Entry> pendingWrites = new ConcurrentHashMap<>();
+    private final TimingWheel<Entry> expiryWheel;
+    private final OtpCodeRepository otpCodeRepository;
+
+    private final long ttlMillis;
+    private final int maxAttempts;
+    private final int digits;
+    private final boolean persist;
+    private final Map<Result, Counter> verifyCounters = new ConcurrentHashMap<>();
+
+    public OtpStore(OtpCodeRepository otpCodeRepository,
+                    @Value("${app.otp.ttl-seconds:600}") long ttlSeconds,
+                    @Value("${app.otp.max-attempts:5}") int maxAttempts,
+                    @Value("${app.otp.digits:6}") int digits,
+                    @Value("${app.otp.wheel-slots:512}") int wheelSlots,
+                    @Value("${app.otp.tick-ms:1000}") long tickMillis,
+                    @Value("${app.otp.persist.enabled:false}") boolean persist,
+                    MeterRegistry meterRegistry) {
+        this.otpCodeRepository = otpCodeRepository;
+        this.ttlMillis = ttlSeconds * 1000L;
+        this.maxAttempts = maxAttempts;
+        this.digits = digits;
+        this.persist = persist;
+        this.expiryWheel = new TimingWheel<>(wheelSlots, tickMillis, System.currentTimeMillis());
+
+        for (Result result : Result.values()) {
+            verifyCounters.put(result, Counter.builder("auth.otp.verify").tag("result", result.name().toLowerCase())
+                    .description("One-time code verification outcomes").register(meterRegistry));
+        }
+        Gauge.builder("auth.otp.active", codes, Map::size)
+                .description("Outstanding one-time codes held in memory").register(meterRegistry);
+    }
+
+    /** Issues a fresh code for the purpose, replacing any outstanding one, and returns it in clear. */
+    public String issue(Purpose purpose, Long userId) {
+        String code = randomCode();
+        byte[] salt = new byte[16];
+        random.nextBytes(salt);
+        Entry entry = new Entry(key(purpose, userId), salt, hash(salt, code),
+                System.currentTimeMillis() + ttlMillis, 0);
+        codes.put(entry.key, entry);
+        expiryWheel.schedule(entry, entry.expiresAt);
+        writeBehind(entry.key, entry);
+        return code;
+    }
+
+    /** Checks a code; a valid code is consumed, and a code is discarded after too many attempts. */
+    public Result verify(Purpose purpose, Long userId, String code) {
+        String key = key(purpose, userId);
+        Entry entry = codes.get(key);
+        if (entry == null && persist) {
+            entry = loadFromStore(key);
+        }
+        Result result = check(entry, code);
+        verifyCounters.get(result).increment();
+        return result;
+    }
+
+    public void invalidate(Purpose purpose, Long userId) {
+        String key = key(purpose, userId);
+        Entry removed = codes.remove(key);
+        if (removed != null) {
+            writeBehind(key, null);
+        }
+    }
+
+    public long getTtlSeconds() {
+        return ttlMillis / 1000L;
+    }
+
+    private Result check(Entry entry, String code) {
+        if (entry == null) {
+            return Result.EXPIRED;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            remove(entry);
+            return Result.EXPIRED;
+        }
+        int attempt = entry.attempts.incrementAndGet();
+        if (attempt > maxAttempts) {
+            remove(entry);
+            return Result.TOO_MANY_ATTEMPTS;
+        }
+        boolean matches = code != null && MessageDigest.isEqual(entry.hash, hash(entry.salt, code.trim()));
+        if (matches) {
+            remove(entry);
+            return Result.VALID;
+        }
+        if (attempt == maxAttempts) {
+            remove(entry);
+            return Result.TOO_MANY_ATTEMPTS;
+        }
+        writeBehind(entry.key, entry);
+        return Result.INVALID;
+    }
+
+    private void remove(Entry entry) {
+        // Only drop the entry we checked; a concurrent re-issue must survive
+        if (codes.remove(entry.key, entry)) {
+            writeBehind(entry.key, null);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.otp.tick-ms:1000}")
+    public void expire() {
+        expiryWheel.advance(System.currentTimeMillis(), entry -> codes.remove(entry.key, entry));
+    }
+
+    @Scheduled(fixedDelayString = "${app.otp.persist.flush-interval-ms:2000}")
+    public void flush() {
+        if (!persist || pendingWrites.isEmpty()) {
+            return;
+        }
+        List<OtpCode> upserts = new ArrayList<>();
+        List<String> deletes = new ArrayList<>();
+        for (String key : new ArrayList<>(pendingWrites.keySet())) {
+            Entry entry = pendingWrites.remove(key);
+            if (entry == null || entry == Entry.DELETED) {
+                deletes.add(key);
+            } else {
+                upserts.add(toRow(entry));
+            }
+        }
+        try {
+            if (!upserts.isEmpty()) {
+                otpCodeRepository.saveAll(upserts);
+            }
+            if (!deletes.isEmpty()) {
+                otpCodeRepository.deleteByKeys(deletes);
+            }
+            otpCodeRepository.deleteExpiredBatch(Instant.now(), 1000);
+        } catch (Exception e) {
+            // Memory stays authoritative; the table only loses failover coverage
+            logger.warn("OTP write-behind flush failed: {}", e.getMessage());
+        }
+    }
+
+    private void writeBehind(String key, Entry entry) {
+        if (persist) {
+            pendingWrites.put(key, entry != null ? entry : Entry.DELETED);
+        }
+    }
+
+    private Entry loadFromStore(String key) {
+        try {
+            return otpCodeRepository.findById(key)
+                    .filter(row -> row.getExpiresAt().isAfter(Instant.now()))
+                    .map(row -> {
+                        Entry entry = new Entry(key, HEX.parseHex(row.getSalt()), HEX.parseHex(row.getCodeHash()),
+                                row.getExpiresAt().toEpochMilli(), row.getAttempts());
+                        Entry existing = codes.putIfAbsent(key, entry);
+                        if (existing != null) {
+                            return existing;
+                        }
+                        expiryWheel.schedule(entry, entry.expiresAt);
+                        return entry;
+                    })
+                    .orElse(null);
+        } catch (Exception e) {
+            logger.warn("OTP store lookup failed for {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private OtpCode toRow(Entry entry) {
+        OtpCode row = new OtpCode();
+        row.setKey(entry.key);
+        row.setSalt(HEX.formatHex(entry.salt));
+        row.setCodeHash(HEX.formatHex(entry.hash));
+        row.setAttempts(entry.attempts.get());
+        row.setExpiresAt(Instant.ofEpochMilli(entry.expiresAt));
+        return row;
+    }
+
+    private String randomCode() {
+        int bound = (int) Math.pow(10, digits);
+        return String.format("%0" + digits + "d", random.nextInt(bound));
+    }
+
+    private static String key(Purpose purpose, Long userId) {
+        return purpose.name() + ":" + userId;
+    }
+
+    private static byte[] hash(byte[] salt, String code) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(salt);
+            return digest.digest(code.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class Entry {
+        static final Entry DELETED = new Entry("", new byte[0], new byte[0], 0, 0);
+
+        final String key;
+        final byte[] salt;
+        final byte[] hash;
+        final long expiresAt;
+        final AtomicInteger attempts;
+
+        Entry(String key, byte[] salt, byte[] hash, long expiresAt, int attempts) {
+            this.key = key;
+            this.salt = salt;
+            this.hash = hash;
+            this.expiresAt = expiresAt;
+            this.attempts = new AtomicInteger(attempts);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.obs.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Runs password hashing and verification on a dedicated, bounded pool so a login burst
+ * cannot occupy every core. When the queue is full work is shed with
+ * {@link HashingCapacityExceededException} rather than piling up behind request threads.
+ *
+ * The BCrypt cost is calibrated once at startup to the largest strength whose encode time
+ * stays within {@code app.security.hashing.target-millis} on this host.
+ */
+@Service
+public class PasswordHashingService {
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("\\A\\$2([ayb])?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+    private final ThreadPoolExecutor executor;
+    private final BCryptPasswordEncoder encoder;
+    private final int strength;
+    private final String dummyHash;
+    private final long waitTimeoutMillis;
+    private final Timer verifyTimer;
+    private final Counter rejectedCounter;
+    private final Counter upgradedCounter;
+
+    public PasswordHashingService(@Value("${app.security.hashing.pool-size:0}") int poolSize,
+                                  @Value("${app.security.hashing.queue-capacity:64}") int queueCapacity,
+                                  @Value("${app.security.hashing.target-millis:250}") long targetMillis,
+                                  @Value("${app.security.hashing.min-strength:10}") int minStrength,
+                                  @Value("${app.security.hashing.max-strength:14}") int maxStrength,
+                                  @Value("${app.security.hashing.wait-timeout-ms:5000}") long waitTimeoutMillis,
+                                  MeterRegistry meterRegistry) {
+        int threads = poolSize > 0 ? poolSize : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                r -> {
+                    Thread t = new Thread(r, "pwd-hash-" + threadIndex.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.waitTimeoutMillis = waitTimeoutMillis;
+        this.strength = calibrate(minStrength, maxStrength, targetMillis);
+        this.encoder = new BCryptPasswordEncoder(strength);
+        this.dummyHash = encoder.encode(UUID.randomUUID().toString());
+
+        this.verifyTimer = Timer.builder("auth.password.verify")
+                .description("Password verification latency including queue wait")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("auth.password.rejected")
+                .description("Hashing requests shed because the pool queue was full")
+                .register(meterRegistry);
+        this.upgradedCounter = Counter.builder("auth.password.rehashed")
+                .description("Stored passwords upgraded to the current hash cost on login")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.queue.depth", executor, e -> e.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("auth.password.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+
+        log.info("Password hashing pool: {} threads, queue {}, BCrypt strength {}", threads, queueCapacity, strength);
+    }
+
+    /**
+     * Checks a raw password against the stored value. Stored values that are not BCrypt
+     * hashes are legacy plain text and compared in constant time.
+     */
+    public boolean matches(String rawPassword, String storedPassword) {
+        if (rawPassword == null || storedPassword == null) {
+            return false;
+        }
+        if (!isHashed(storedPassword)) {
+            return MessageDigest.isEqual(rawPassword.getBytes(StandardCharsets.UTF_8),
+                    storedPassword.getBytes(StandardCharsets.UTF_8));
+        }
+        long start = System.nanoTime();
+        try {
+            return run(() -> encoder.matches(rawPassword, storedPassword));
+        } finally {
+            verifyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public String encode(String rawPassword) {
+        return run(() -> encoder.encode(rawPassword));
+    }
+
+    /** True for plain-text values and for hashes weaker than the calibrated cost. */
+    public boolean needsUpgrade(String storedPassword) {
+        return storedPassword == null || !isHashed(storedPassword) || encoder.upgradeEncoding(storedPassword);
+    }
+
+    /** Re-encodes a verified password at the current cost; counts the upgrade. */
+    public String upgrade(String rawPassword) {
+        String encoded = encode(rawPassword);
+        upgradedCounter.increment();
+        return encoded;
+    }
+
+    /**
+     * A hash at the calibrated cost that no password matches. Verifying against it costs as
+     * much as a real check, so logins for unknown users take as long as wrong passwords.
+     */
+    public String getDummyHash() { return dummyHash; }
+
+    public int getStrength() { return strength; }
+    public int getQueueDepth() { return executor.getQueue().size(); }
+
+    static boolean isHashed(String storedPassword) {
+        return BCRYPT_PATTERN.matcher(storedPassword).matches();
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new HashingCapacityExceededException("Authentication service is busy, please retry shortly");
+        }
+        try {
+            return future.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCounter.increment();
+            throw new HashingCapacityExceededException("Authentication service is busy, please retry shortly");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    /**
+     * Each BCrypt step doubles the work, so stop once the next step is predicted to
+     * exceed the target.
+     */
+    private static int calibrate(int minStrength, int maxStrength, long targetMillis) {
+        int chosen = minStrength;
+        new BCryptPasswordEncoder(minStrength).encode("calibration-warmup");
+        for (int s = minStrength; s <= maxStrength; s++) {
+            long start = System.nanoTime();
+            new BCryptPasswordEncoder(s).encode("calibration-sample");
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (elapsedMillis > targetMillis) {
+                break;
+            }
+            chosen = s;
+            if (elapsedMillis * 2 > targetMillis) {
+                break;
+            }
+        }
+        return chosen;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,160 @@
+package com.obs.security;
+
+/**
+ * Fixed-memory sliding-window event counter keyed by primitive {@code long} keys.
+ *
+ * The window is split into {@code buckets} sub-intervals; each key owns one counter per
+ * sub-interval and stale sub-intervals are zeroed lazily when touched, so there is no
+ * sweeper thread. Keys live in open-addressed {@code long[]} tables split into
+ * independently locked segments. A full probe window evicts its least recently touched
+ * key, which bounds memory under a flood of distinct keys (e.g. spoofed usernames).
+ */
+public final class SlidingWindowCounter {
+
+    private static final int SEGMENTS = 16;
+    private static final int MAX_PROBE = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final int buckets;
+    private final long bucketMillis;
+
+    public SlidingWindowCounter(int capacity, long windowMillis, int buckets) {
+        this.buckets = Math.max(1, buckets);
+        this.bucketMillis = Math.max(1, windowMillis / this.buckets);
+        int perSegment = Integer.highestOneBit(Math.max(MAX_PROBE, capacity / SEGMENTS - 1) << 1);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(perSegment, this.buckets);
+        }
+    }
+
+    /** Records one event and returns the number of events for the key in the current window. */
+    public int increment(long key, long nowMillis) {
+        long h = mix(key);
+        return segmentFor(h).add(nonZero(key), h, nowMillis / bucketMillis, 1);
+    }
+
+    /** Returns the number of events for the key in the current window without recording one. */
+    public int count(long key, long nowMillis) {
+        long h = mix(key);
+        return segmentFor(h).add(nonZero(key), h, nowMillis / bucketMillis, 0);
+    }
+
+    public void reset(long key) {
+        long h = mix(key);
+        segmentFor(h).remove(nonZero(key), h);
+    }
+
+    /** Number of occupied key slots (including ones whose window has lapsed but not been reused). */
+    public int occupancy() {
+        int total = 0;
+        for (Segment segment : segments) {
+            total += segment.occupancy();
+        }
+        return total;
+    }
+
+    private Segment segmentFor(long h) {
+        return segments[(int) (h >>> 60)];
+    }
+
+    // Key 0 marks an empty slot
+    private static long nonZero(long key) {
+        return key == 0 ? 1 : key;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+
+    private static final class Segment {
+        private final long[] keys;
+        private final long[] touched;
+        private final long[] epochs;
+        private final int[] counts;
+        private final int mask;
+        private final int buckets;
+
+        Segment(int size, int buckets) {
+            this.keys = new long[size];
+            this.touched = new long[size];
+            this.epochs = new long[size * buckets];
+            this.counts = new int[size * buckets];
+            this.mask = size - 1;
+            this.buckets = buckets;
+        }
+
+        synchronized int add(long key, long h, long epoch, int delta) {
+            int slot = -1;
+            int free = -1;
+            int oldest = -1;
+            int start = (int) h & mask;
+            // Always scan the whole probe window: removals leave holes, so an empty slot does not end the chain
+            for (int p = 0; p < MAX_PROBE; p++) {
+                int i = (start + p) & mask;
+                long k = keys[i];
+                if (k == key) {
+                    slot = i;
+                    break;
+                }
+                if (free < 0 && (k == 0 || touched[i] <= epoch - buckets)) {
+                    free = i;
+                }
+                if (oldest < 0 || touched[i] < touched[oldest]) {
+                    oldest = i;
+                }
+            }
+            if (slot < 0) {
+                if (delta == 0) {
+                    return 0;
+                }
+                slot = free >= 0 ? free : oldest;
+                keys[slot] = key;
+                int base = slot * buckets;
+                for (int b = 0; b < buckets; b++) {
+                    epochs[base + b] = 0;
+                    counts[base + b] = 0;
+                }
+            }
+
+            int base = slot * buckets;
+            if (delta != 0) {
+                int b = base + (int) (epoch % buckets);
+                if (epochs[b] != epoch) {
+                    epochs[b] = epoch;
+                    counts[b] = 0;
+                }
+                counts[b] += delta;
+                touched[slot] = epoch;
+            }
+            int total = 0;
+            for (int b = 0; b < buckets; b++) {
+                if (epochs[base + b] > epoch - buckets) {
+                    total += counts[base + b];
+                }
+            }
+            return total;
+        }
+
+        synchronized void remove(long key, long h) {
+            int start = (int) h & mask;
+            for (int p = 0; p < MAX_PROBE; p++) {
+                int i = (start + p) & mask;
+                if (keys[i] == key) {
+                    keys[i] = 0;
+                    touched[i] = 0;
+                    return;
+                }
+            }
+        }
+
+        synchronized int occupancy() {
+            int n = 0;
+            for (long k : keys) {
+                if (k != 0) n++;
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.obs.security;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel for coarse expiry. Scheduling is O(1) and lock-free; a single
+ * driver thread calls {@link #advance} every tick and only visits the slots that have
+ * come due since the previous call. Entries further out than one revolution simply stay
+ * in their slot until their deadline is reached on a later pass.
+ */
+public final class TimingWheel<T> {
+
+    private final ConcurrentLinkedQueue<Timeout<T>>[] slots;
+    private final long tickMillis;
+    private final int mask;
+    private volatile long lastTick;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(int slotCount, long tickMillis, long startMillis) {
+        int size = Integer.highestOneBit(Math.max(2, slotCount - 1)) << 1;
+        this.slots = new ConcurrentLinkedQueue[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.tickMillis = tickMillis;
+        this.mask = size - 1;
+        this.lastTick = startMillis / tickMillis;
+    }
+
+    public void schedule(T value, long deadlineMillis) {
+        long tick = Math.max(deadlineMillis / tickMillis, lastTick);
+        slots[(int) (tick & mask)].add(new Timeout<>(value, deadlineMillis));
+    }
+
+    /** Fires every entry whose deadline is at or before {@code now}. Single caller only. */
+    public int advance(long nowMillis, Consumer<T> onExpired) {
+        long currentTick = nowMillis / tickMillis;
+        long from = lastTick;
+        // After a long pause one full revolution covers every slot
+        long to = Math.min(currentTick, from + mask);
+        int fired = 0;
+        for (long tick = from; tick <= to; tick++) {
+            Iterator<Timeout<T>> it = slots[(int) (tick & mask)].iterator();
+            while (it.hasNext()) {
+                Timeout<T> timeout = it.next();
+                if (timeout.deadline <= nowMillis) {
+                    it.remove();
+                    onExpired.accept(timeout.value);
+                    fired++;
+                }
+            }
+        }
+        lastTick = currentTick;
+        return fired;
+    }
+
+    private record Timeout<T>(T value, long deadline) {}
+}
@@ -0,0 +1,290 @@
+package com.obs.security;
+
+import com.obs.event.UserChangedEvent;
+import com.obs.model.RevokedToken;
+import com.obs.repository.RefreshTokenRepository;
+import com.obs.repository.RevokedTokenRepository;
+import com.obs.repository.UserRepository;
+import com.obs.util.TransactionUtils;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Access-token denylist consulted by {@link JwtAuthenticationFilter} on every request.
+ *
+ * Single-token revocations (logout) are keyed by {@code jti}: a Bloom filter answers the
+ * common "not revoked" case without touching the exact set. User-wide revocations (lock,
+ * delete, role change, forced sign-out) bump the user's token version and record the
+ * minimum version still accepted. Both are held in memory, persisted to
+ * {@code revoked_token}, re-read incrementally for revocations made on other nodes, and
+ * pruned once every covered token has expired.
+ */
+@Service
+public class TokenRevocationService {
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+    private static final int MAX_TRACKED_GAPS = 10_000;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final UserRepository userRepository;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final long accessTokenMillis;
+    private final int expectedRevocations;
+    private final double falsePositiveRate;
+    private final int pruneBatchSize;
+    private final long gapTimeoutMillis;
+
+    private final Map<String, Long> revokedJtis = new ConcurrentHashMap<>();
+    private final Map<Long, UserRevocation> revokedUsers = new ConcurrentHashMap<>();
+    private volatile BloomFilter jtiFilter;
+    private volatile long lastSeenId = 0;
+    private volatile boolean loaded;
+    // Ids skipped by the sync that may still commit (IDENTITY ids commit out of order) -> first seen
+    private final Map<Long, Long> gaps = new ConcurrentHashMap<>();
+
+    private final Counter rejectedCounter;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  UserRepository userRepository,
+                                  RefreshTokenRepository refreshTokenRepository,
+                                  @Value("${app.jwt.expiration}") long accessTokenMillis,
+                                  @Value("${app.security.revocation.expected-entries:100000}") int expectedRevocations,
+                                  @Value("${app.security.revocation.false-positive-rate:0.001}") double falsePositiveRate,
+                                  @Value("${app.security.revocation.prune-batch-size:1000}") int pruneBatchSize,
+                                  @Value("${app.security.revocation.gap-timeout-ms:60000}") long gapTimeoutMillis,
+                                  MeterRegistry meterRegistry) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.userRepository = userRepository;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.accessTokenMillis = accessTokenMillis;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.pruneBatchSize = pruneBatchSize;
+        this.gapTimeoutMillis = gapTimeoutMillis;
+        this.jtiFilter = new BloomFilter(expectedRevocations, falsePositiveRate);
+
+        this.rejectedCounter = Counter.builder("auth.token.revoked.rejected")
+                .description("Requests rejected because their access token was revoked")
+                .register(meterRegistry);
+        Gauge.builder("auth.token.revoked.entries", revokedJtis, Map::size).tag("kind", "jti").register(meterRegistry);
+        Gauge.builder("auth.token.revoked.entries", revokedUsers, Map::size).tag("kind", "user").register(meterRegistry);
+    }
+
+    private static final class UserRevocation {
+        final int minVersion;
+        final long expiresAtMillis;
+
+        UserRevocation(int minVersion, long expiresAtMillis) {
+            this.minVersion = minVersion;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    /** O(1), memory-only check of a parsed, signature-verified token. */
+    public boolean isRevoked(Claims claims) {
+        long now = System.currentTimeMillis();
+        Number userId = claims.get(JwtTokenUtil.CLAIM_USER_ID, Number.class);
+        if (userId != null) {
+            UserRevocation revocation = revokedUsers.get(userId.longValue());
+            if (revocation != null && revocation.expiresAtMillis > now) {
+                Number version = claims.get(JwtTokenUtil.CLAIM_TOKEN_VERSION, Number.class);
+                if ((version != null ? version.intValue() : 0) < revocation.minVersion) {
+                    rejectedCounter.increment();
+                    return true;
+                }
+            }
+        }
+        String jti = claims.getId();
+        if (jti != null && jtiFilter.mightContain(jti)) {
+            Long expiresAt = revokedJtis.get(jti);
+            if (expiresAt != null && expiresAt > now) {
+                rejectedCounter.increment();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Revokes a single access token until its own expiry (logout). */
+    public void revokeToken(String jti, Long userId, Date expiration) {
+        if (jti == null) {
+            return;
+        }
+        long expiresAt = expiration != null ? expiration.getTime() : System.currentTimeMillis() + accessTokenMillis;
+        addJti(jti, expiresAt);
+
+        RevokedToken row = new RevokedToken();
+        row.setJti(jti);
+        row.setUserId(userId);
+        row.setExpiresAt(Instant.ofEpochMilli(expiresAt));
+        revokedTokenRepository.save(row);
+    }
+
+    /**
+     * Invalidates every access and refresh token already issued to the user.
+     * The version bump makes tokens issued from now on carry the new, accepted version.
+     */
+    public void revokeUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        userRepository.incrementTokenVersion(userId);
+        // Deleted users have no row left: reject every version
+        int minVersion = userRepository.findTokenVersion(userId).orElse(Integer.MAX_VALUE);
+        long expiresAt = System.currentTimeMillis() + accessTokenMillis;
+        refreshTokenRepository.revokeAllForUser(userId);
+
+        RevokedToken row = new RevokedToken();
+        row.setUserId(userId);
+        row.setMinTokenVersion(minVersion);
+        row.setExpiresAt(Instant.ofEpochMilli(expiresAt));
+        revokedTokenRepository.save(row);
+        // Called from BEFORE_COMMIT: a rollback after this point must not reject current tokens
+        TransactionUtils.afterCommit(() -> addUser(userId, minVersion, expiresAt));
+        log.info("Revoked all tokens for user {} (min version {})", userId, minVersion);
+    }
+
+    /** {@link #revokeUser} for many users at once: one version bump, one lookup and one refresh-token update. */
+    public void revokeUsers(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        userRepository.incrementTokenVersions(userIds);
+        long expiresAt = System.currentTimeMillis() + accessTokenMillis;
+        List<RevokedToken> rows = new ArrayList<>(userIds.size());
+        for (UserRepository.TokenVersion version : userRepository.findTokenVersions(userIds)) {
+            RevokedToken row = new RevokedToken();
+            row.setUserId(version.getId());
+            row.setMinTokenVersion(version.getTokenVersion());
+            row.setExpiresAt(Instant.ofEpochMilli(expiresAt));
+            rows.add(row);
+        }
+        refreshTokenRepository.revokeAllForUsers(userIds);
+        revokedTokenRepository.saveAll(rows);
+        // Applied locally once the bump commits; a rolled-back chunk must not reject current tokens
+        TransactionUtils.afterCommit(() -> rows.forEach(row -> addUser(row.getUserId(), row.getMinTokenVersion(), expiresAt)));
+        log.info("Revoked all tokens for {} users", rows.size());
+    }
+
+    // Runs inside the publishing transaction so the version bump commits with the change itself
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        switch (event.getChangeType()) {
+            case LOCKED:
+            case ROLE_CHANGED:
+            case DELETED:
+                revokeUser(event.getUserId());
+                break;
+            default:
+                break;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            List<RevokedToken> rows = revokedTokenRepository.findByExpiresAtAfter(Instant.now());
+            rows.forEach(this::apply);
+            log.info("Loaded {} active token revocation(s)", rows.size());
+        } catch (Exception e) {
+            log.warn("Could not load token revocations: {}", e.getMessage());
+        } finally {
+            loaded = true;
+        }
+    }
+
+    /**
+     * Picks up revocations written by other nodes. Rows are inserted inside the revoking
+     * transaction, so a lower id can commit after a higher one has been read; skipped ids
+     * are re-checked on every sync until they appear or {@code gap-timeout-ms} passes.
+     */
+    @Scheduled(fixedDelayString = "${app.security.revocation.sync-interval-ms:5000}")
+    public void syncFromStore() {
+        if (!loaded) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long expected = lastSeenId + 1;
+        for (RevokedToken row : revokedTokenRepository.findByIdGreaterThanOrderByIdAsc(lastSeenId)) {
+            for (long missing = expected; missing < row.getId() && gaps.size() < MAX_TRACKED_GAPS; missing++) {
+                gaps.put(missing, now);
+            }
+            expected = row.getId() + 1;
+            apply(row);
+        }
+        if (gaps.isEmpty()) {
+            return;
+        }
+        for (RevokedToken late : revokedTokenRepository.findAllById(gaps.keySet())) {
+            gaps.remove(late.getId());
+            apply(late);
+        }
+        Iterator<Map.Entry<Long, Long>> it = gaps.entrySet().iterator();
+        while (it.hasNext()) {
+            // Rolled-back inserts and pruned rows leave permanent holes
+            if (now - it.next().getValue() > gapTimeoutMillis) {
+                it.remove();
+            }
+        }
+    }
+
+    /** Drops expired entries, rebuilds the Bloom filter from the survivors and purges the table. */
+    @Scheduled(fixedDelayString = "${app.security.revocation.prune-interval-ms:300000}")
+    public void prune() {
+        long now = System.currentTimeMillis();
+        revokedJtis.values().removeIf(expiresAt -> expiresAt <= now);
+        revokedUsers.values().removeIf(r -> r.expiresAtMillis <= now);
+
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedRevocations, revokedJtis.size() * 2), falsePositiveRate);
+        revokedJtis.keySet().forEach(rebuilt::put);
+        jtiFilter = rebuilt;
+        // Second pass catches jtis that were added to the old filter while rebuilding
+        revokedJtis.keySet().forEach(rebuilt::put);
+
+        int deleted;
+        do {
+            deleted = revokedTokenRepository.deleteExpiredBatch(Instant.ofEpochMilli(now), pruneBatchSize);
+        } while (deleted == pruneBatchSize);
+    }
+
+    private void apply(RevokedToken row) {
+        long expiresAt = row.getExpiresAt().toEpochMilli();
+        if (row.getJti() != null) {
+            addJti(row.getJti(), expiresAt);
+        } else if (row.getUserId() != null && row.getMinTokenVersion() != null) {
+            addUser(row.getUserId(), row.getMinTokenVersion(), expiresAt);
+        }
+        if (row.getId() != null && row.getId() > lastSeenId) {
+            lastSeenId = row.getId();
+        }
+    }
+
+    private void addJti(String jti, long expiresAt) {
+        revokedJtis.put(jti, expiresAt);
+        jtiFilter.put(jti);
+    }
+
+    private void addUser(Long userId, int minVersion, long expiresAt) {
+        revokedUsers.merge(userId, new UserRevocation(minVersion, expiresAt),
+                (a, b) -> b.minVersion >= a.minVersion ? b : a);
+    }
+}
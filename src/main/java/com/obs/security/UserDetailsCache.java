@@ -0,0 +1,99 @@
+package com.obs.security;
+
+import com.obs.event.UserChangedEvent;
+import com.obs.event.UsersBulkChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Small TTL-bounded cache of {@link UserDetails} keyed by username.
+ * Used when a token does not carry role claims (tokens issued before claims were added),
+ * so those requests do not hit the users table on every call.
+ * Entries are dropped as soon as a {@link UserChangedEvent} for the user commits; bulk
+ * changes clear the whole cache.
+ */
+@Component
+public class UserDetailsCache {
+
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final int maxSize;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public UserDetailsCache(@Value("${app.security.user-cache.enabled:true}") boolean enabled,
+                            @Value("${app.security.user-cache.ttl-seconds:60}") long ttlSeconds,
+                            @Value("${app.security.user-cache.max-size:10000}") int maxSize) {
+        this.enabled = enabled;
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+        this.maxSize = maxSize;
+    }
+
+    public UserDetails get(String username, Function<String, UserDetails> loader) {
+        if (!enabled) {
+            return loader.apply(username);
+        }
+        long now = System.nanoTime();
+        Entry entry = entries.get(username);
+        if (entry != null && now - entry.loadedAt < ttlNanos) {
+            return entry.details;
+        }
+        UserDetails details = loader.apply(username);
+        if (entries.size() >= maxSize) {
+            evictExpired(now);
+        }
+        if (entries.size() < maxSize) {
+            entries.put(username, new Entry(details, now));
+        }
+        return details;
+    }
+
+    public void invalidate(String username) {
+        if (username != null) {
+            entries.remove(username);
+        }
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        invalidate(event.getUsername());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUsersBulkChanged(UsersBulkChangedEvent event) {
+        invalidateAll();
+    }
+
+    private void evictExpired(long now) {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (now - it.next().loadedAt >= ttlNanos) {
+                it.remove();
+            }
+        }
+    }
+
+    private static final class Entry {
+        final UserDetails details;
+        final long loadedAt;
+
+        Entry(UserDetails details, long loadedAt) {
+            this.details = details;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
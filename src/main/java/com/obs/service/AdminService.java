@@ -1,15 +1,25 @@
 package com.obs.service;
 
+import com.obs.event.UserChangedEvent;
 import com.obs.model.*;
 import com.obs.repository.*;
+import com.obs.security.LoginThrottle;
+import com.obs.security.TokenRevocationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Service
 public class AdminService {
@@ -32,6 +42,45 @@ public class AdminService {
     @Autowired
     private LoanApplicationRepository loanRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
+    @Autowired
+    private DashboardStatsCache dashboardStatsCache;
+
+    @Autowired
+    private UserListingService userListingService;
+
+    @Autowired
+    private UserPurgeService userPurgeService;
+
+    @Autowired
+    private BulkUserActionService bulkUserActionService;
+
+    @Autowired
+    private TransactionSearchService transactionSearchService;
+
+    @Autowired
+    private TransactionCube transactionCube;
+
+    @Autowired
+    private AuditTrailService auditTrailService;
+
+    @Autowired
+    private BranchService branchService;
+
+    @Autowired
+    private SystemLogService systemLogService;
+
+    @Autowired
+    private LoginThrottle loginThrottle;
+
     public AdminService(UserRepository userRepository, BranchRepository branchRepository, PasswordEncoder passwordEncoder) {
         this.userRepository = userRepository;
         this.branchRepository = branchRepository;
@@ -40,27 +89,8 @@ public class AdminService {
 
     // Dashboard Statistics
     public Map<String, Object> getDashboardStats() {
-        Map<String, Object> stats = new HashMap<>();
-        
-        List<User> allUsers = userRepository.findAll();
-        long totalUsers = allUsers.size();
-        long activeUsers = allUsers.stream().filter(u -> !u.isLocked()).count();
-        long blockedUsers = allUsers.stream().filter(User::isLocked).count();
-        
-        // Role distribution
-        long adminUsers = allUsers.stream().filter(u -> u.getRole() != null && "ADMIN".equals(u.getRole().name())).count();
-        long managerUsers = allUsers.stream().filter(u -> u.getRole() != null && "MANAGER".equals(u.getRole().name())).count();
-        long employeeUsers = allUsers.stream().filter(u -> u.getRole() != null && "EMPLOYEE".equals(u.getRole().name())).count();
-        long customerUsers = allUsers.stream().filter(u -> u.getRole() != null && "USER".equals(u.getRole().name())).count();
-        
-        stats.put("totalUsers", totalUsers);
-        stats.put("activeUsers", activeUsers);
-        stats.put("blockedUsers", blockedUsers);
-        stats.put("adminUsers", adminUsers);
-        stats.put("managerUsers", managerUsers);
-        stats.put("employeeUsers", employeeUsers);
-        stats.put("customerUsers", customerUsers);
-        stats.put("totalBranches", branchRepository.count());
+        // Served from a background-refreshed snapshot; never scans the users table on the request path
+        Map<String, Object> stats = dashboardStatsCache.get();
         stats.put("systemUptime", "99.8%");
         stats.put("securityAlerts", 12);
         
@@ -68,10 +98,13 @@ public class AdminService {
     }
 
     // User Management
-    public List<Map<String, Object>> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(this::convertUserToMap)
-                .collect(Collectors.toList());
+    // Keyset page of users; "nextCursor" is the id to pass as "after" for the next page (null on the last one)
+    public Map<String, Object> getUsersPage(Long after, Integer limit, String role) {
+        UserListingService.Page page = userListingService.page(after, limit, role);
+        Map<String, Object> result = new HashMap<>();
+        result.put("users", page.users().stream().map(this::convertSummaryToMap).collect(Collectors.toList()));
+        result.put("nextCursor", page.nextCursor());
+        return result;
     }
 
     public Map<String, Object> createUser(Map<String, Object> userData) {
@@ -96,6 +129,7 @@ public class AdminService {
         user.setActive(true);
         
         User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(savedUser.getId(), savedUser.getUsername(), UserChangedEvent.ChangeType.CREATED));
         return convertUserToMap(savedUser);
     }
 
@@ -104,6 +138,7 @@ public class AdminService {
         User user = userRepository.findById(id).orElseThrow(() -> 
             new RuntimeException("User not found with id: " + userId));
         
+        String previousUsername = user.getUsername();
         if (userData.containsKey("email")) user.setEmail((String) userData.get("email"));
         if (userData.containsKey("username")) user.setUsername((String) userData.get("username"));
         if (userData.containsKey("locked")) user.setLocked((Boolean) userData.get("locked"));
@@ -119,10 +154,13 @@ public class AdminService {
         }
         
         User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(id, previousUsername, UserChangedEvent.ChangeType.UPDATED));
         return convertUserToMap(savedUser);
     }
 
-    public void deleteUser(String userId) {
+    // Soft-deletes now; accounts, transactions and the rest are removed in chunks by UserPurgeService
+    @Transactional
+    public Map<String, Object> deleteUser(String userId) {
         try {
             Long id = Long.parseLong(userId);
             Optional<User> userOpt = userRepository.findById(id);
@@ -135,27 +173,22 @@ public class AdminService {
                     throw new RuntimeException("Cannot delete Super Admin user");
                 }
                 
-                // Delete associated refresh tokens first
-                refreshTokenRepository.deleteByUser(user);
-                
-                // Delete user profile if exists
-                Optional<UserProfile> profileOpt = userProfileRepository.findByUser(user);
-                profileOpt.ifPresent(profile -> userProfileRepository.delete(profile));
-                
-                // Delete accounts owned by this user
-                List<Account> userAccounts = accountRepository.findByUser_Id(id);
-                for (Account account : userAccounts) {
-                    // Delete transactions for this account
-                    transactionRepository.deleteByAccountId(account.getId());
-                    // Delete the account
-                    accountRepository.delete(account);
+                if (user.getDeletedAt() == null) {
+                    user.setDeletedAt(Instant.now());
+                    user.setActive(false);
+                    userRepository.save(user);
+                    // Drops cached details and revokes the user's tokens
+                    eventPublisher.publishEvent(new UserChangedEvent(id, user.getUsername(), UserChangedEvent.ChangeType.DELETED));
                 }
                 
-                // Delete loan applications by this user
-                loanRepository.deleteByUserId(id);
-                
-                // Finally delete the user
-                userRepository.delete(user);
+                UserPurgeJob job = userPurgeService.schedule(id, user.getUsername());
+                return Map.of(
+                    "id", id,
+                    "deleted", true,
+                    "purgeJobId", job.getId(),
+                    "purgeStatus", job.getStatus().name(),
+                    "message", "User deleted; data purge scheduled"
+                );
             } else {
                 throw new RuntimeException("User not found with id: " + userId);
             }
@@ -166,6 +199,10 @@ public class AdminService {
         }
     }
 
+    public Map<String, Object> getUserPurgeStatus(String userId) {
+        return userPurgeService.getStatus(Long.parseLong(userId));
+    }
+
     public Map<String, Object> unlockUser(String userId) {
         Long id = Long.parseLong(userId);
         User user = userRepository.findById(id).orElseThrow(() -> 
@@ -174,6 +211,8 @@ public class AdminService {
         user.setLocked(false);
         user.setFailedAttempts(0);
         userRepository.save(user);
+        loginThrottle.recordSuccess(user.getUsername());
+        eventPublisher.publishEvent(new UserChangedEvent(id, user.getUsername(), UserChangedEvent.ChangeType.UNLOCKED));
         
         return Map.of("id", id, "unlocked", true, "message", "User account unlocked successfully");
     }
@@ -185,10 +224,28 @@ public class AdminService {
         
         user.setLocked(true);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(id, user.getUsername(), UserChangedEvent.ChangeType.LOCKED));
         
         return Map.of("id", id, "locked", true, "message", "User account locked successfully");
     }
 
+    public Map<String, Object> getEmailOutboxStatus() {
+        return emailOutboxService.getStatus();
+    }
+
+    public Map<String, Object> retryEmail(String id) {
+        return emailOutboxService.retry(Long.parseLong(id));
+    }
+
+    public Map<String, Object> forceSignOut(String userId) {
+        Long id = Long.parseLong(userId);
+        if (!userRepository.existsById(id)) {
+            throw new RuntimeException("User not found with id: " + userId);
+        }
+        tokenRevocationService.revokeUser(id);
+        return Map.of("id", id, "signedOut", true, "message", "All sessions for the user have been revoked");
+    }
+
     public Map<String, Object> resetUserPassword(String userId) {
         Long id = Long.parseLong(userId);
         User user = userRepository.findById(id).orElseThrow(() -> 
@@ -216,16 +273,13 @@ public class AdminService {
         );
     }
 
+    // Runs in the background; poll getBulkUserActionStatus with the returned jobId
     public Map<String, Object> performBulkUserActions(Map<String, Object> data) {
-        @SuppressWarnings("unchecked")
-        List<String> userIds = (List<String>) data.get("userIds");
-        String action = (String) data.get("action");
-        
-        return Map.of(
-            "success", true,
-            "message", "Bulk action '" + action + "' performed on " + userIds.size() + " users",
-            "affectedUsers", userIds.size()
-        );
+        return bulkUserActionService.submit(data).toMap();
+    }
+
+    public Map<String, Object> getBulkUserActionStatus(String jobId) {
+        return bulkUserActionService.getJob(jobId);
     }
 
     // Account Management
@@ -307,42 +361,18 @@ public class AdminService {
     }
 
     // Transaction Monitoring
-    public List<Map<String, Object>> getAllTransactions() {
-        List<Map<String, Object>> transactions = new ArrayList<>();
-        transactions.add(Map.of(
-            "id", "TXN001",
-            "fromAccount", "1234567890",
-            "toAccount", "0987654321",
-            "amount", 50000.0,
-            "type", "TRANSFER",
-            "status", "COMPLETED",
-            "timestamp", LocalDateTime.now().minusHours(2).toString(),
-            "riskScore", 25
-        ));
-        transactions.add(Map.of(
-            "id", "TXN002",
-            "fromAccount", "1234567891",
-            "toAccount", "EXTERNAL",
-            "amount", 100000.0,
-            "type", "WIRE_TRANSFER",
-            "status", "FLAGGED",
-            "timestamp", LocalDateTime.now().minusHours(1).toString(),
-            "riskScore", 85
-        ));
-        return transactions;
-    }
-
-    public List<Map<String, Object>> getSuspiciousTransactions() {
-        List<Map<String, Object>> suspiciousTransactions = new ArrayList<>();
-        suspiciousTransactions.add(Map.of(
-            "id", "TXN002",
-            "fromAccount", "1234567891",
-            "amount", 100000.0,
-            "riskScore", 85,
-            "flags", Arrays.asList("HIGH_AMOUNT", "UNUSUAL_PATTERN", "EXTERNAL_TRANSFER"),
-            "timestamp", LocalDateTime.now().minusHours(1).toString()
-        ));
-        return suspiciousTransactions;
+    public Map<String, Object> searchTransactions(Map<String, String> params) {
+        TransactionSearchService.Page page = transactionSearchService.search(params);
+        Map<String, Object> result = new HashMap<>();
+        result.put("transactions", page.transactions().stream().map(transactionSearchService::toMap).collect(Collectors.toList()));
+        result.put("nextCursor", page.nextCursor());
+        return result;
+    }
+
+    public Map<String, Object> getSuspiciousTransactions(Map<String, String> params) {
+        Map<String, String> flagged = new HashMap<>(params);
+        flagged.put("flagged", "true");
+        return searchTransactions(flagged);
     }
 
     public Map<String, Object> flagTransaction(String id, Map<String, String> data) {
@@ -363,13 +393,43 @@ public class AdminService {
         );
     }
 
+    // Last 7 days from the hourly transaction cube. Flags are set after posting, so the risk
+    // trend counts FLAGGED rows directly (status, created_at index) rather than cube cells
     public Map<String, Object> getTransactionPatterns() {
-        return Map.of(
-            "dailyVolume", 1500000.0,
-            "peakHours", Arrays.asList("10:00-11:00", "14:00-15:00"),
-            "frequentTypes", Arrays.asList("TRANSFER", "PAYMENT", "WITHDRAWAL"),
-            "riskTrends", Map.of("increasing", 12, "decreasing", 8)
-        );
+        Instant to = transactionCube.hourOf(Instant.now()).plus(1, ChronoUnit.HOURS);
+        Instant weekAgo = to.minus(7, ChronoUnit.DAYS);
+        long[] countsByHour = new long[24];
+        Map<String, Long> countsByType = new HashMap<>();
+        Map<String, Long> countsByChannel = new TreeMap<>();
+        long volumeCents = 0;
+        for (TransactionCube.Cell cell : transactionCube.cells(weekAgo, to)) {
+            countsByHour[cell.key().hour().atZone(transactionCube.getZone()).getHour()] += cell.count();
+            countsByType.merge(cell.key().type(), cell.count(), Long::sum);
+            countsByChannel.merge(cell.key().channel(), cell.count(), Long::sum);
+            volumeCents += cell.sumCents();
+        }
+        long flaggedThisWeek = transactionRepository.countByStatusAndCreatedAtGreaterThanEqualAndCreatedAtLessThan(
+            TransactionStatus.FLAGGED, weekAgo, to);
+        long flaggedLastWeek = transactionRepository.countByStatusAndCreatedAtGreaterThanEqualAndCreatedAtLessThan(
+            TransactionStatus.FLAGGED, weekAgo.minus(7, ChronoUnit.DAYS), weekAgo);
+        List<String> peakHours = IntStream.range(0, 24).boxed()
+            .filter(hour -> countsByHour[hour] > 0)
+            .sorted((a, b) -> Long.compare(countsByHour[b], countsByHour[a]))
+            .limit(2)
+            .map(hour -> String.format("%02d:00-%02d:00", hour, (hour + 1) % 24))
+            .collect(Collectors.toList());
+        List<String> frequentTypes = countsByType.entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toList());
+
+        Map<String, Object> patterns = new HashMap<>();
+        patterns.put("dailyVolume", BigDecimal.valueOf(volumeCents / 7, 2));
+        patterns.put("peakHours", peakHours);
+        patterns.put("frequentTypes", frequentTypes);
+        patterns.put("channels", countsByChannel);
+        patterns.put("riskTrends", Map.of("flaggedThisWeek", flaggedThisWeek, "flaggedLastWeek", flaggedLastWeek));
+        return patterns;
     }
 
     public Map<String, Object> updateTransactionLimits(Map<String, Object> data) {
@@ -536,21 +596,47 @@ public class AdminService {
         );
     }
 
-    public Map<String, Object> getAnalyticsDashboard() {
-        return Map.of(
-            "userGrowth", Arrays.asList(100, 120, 150, 180, 200),
-            "transactionTrends", Arrays.asList(500000, 600000, 750000, 900000, 1200000),
-            "securityScore", 94.5,
-            "systemLoad", 65.2
-        );
+    /**
+     * transactionTrends is a cube series over [from, to) (default: the last 30 days by day),
+     * optionally split by type, status, channel or branch.
+     */
+    public Map<String, Object> getAnalyticsDashboard(String from, String to, String granularity, String dimension) {
+        Instant end = to != null && !to.isBlank() ? Instant.parse(to) : transactionCube.hourOf(Instant.now()).plus(1, ChronoUnit.HOURS);
+        Instant start = from != null && !from.isBlank() ? Instant.parse(from) : end.minus(30, ChronoUnit.DAYS);
+        Map<String, Object> dashboard = new HashMap<>();
+        dashboard.put("transactionTrends", transactionCube.series(start, end, TransactionCube.parseGranularity(granularity), dimension));
+        return dashboard;
     }
 
     public Map<String, Object> getBusinessTrends() {
-        return Map.of(
-            "customerAcquisition", Map.of("thisMonth", 245, "lastMonth", 189),
-            "revenueGrowth", Map.of("thisQuarter", 15.7, "lastQuarter", 12.3),
-            "productAdoption", Map.of("digitalBanking", 89.2, "mobileApp", 76.5)
-        );
+        ZonedDateTime monthStart = transactionCube.periodStart(Instant.now(), TransactionCube.Granularity.MONTH)
+            .atZone(transactionCube.getZone());
+        Instant thisMonth = monthStart.toInstant();
+        Instant lastMonth = monthStart.minusMonths(1).toInstant();
+        long[] volume = new long[2];
+        Map<String, Long> channelCounts = new TreeMap<>();
+        long thisMonthCount = 0;
+        for (TransactionCube.Cell cell : transactionCube.cells(lastMonth, Instant.now().plus(1, ChronoUnit.HOURS))) {
+            boolean current = !cell.key().hour().isBefore(thisMonth);
+            volume[current ? 0 : 1] += cell.sumCents();
+            if (current) {
+                channelCounts.merge(cell.key().channel(), cell.count(), Long::sum);
+                thisMonthCount += cell.count();
+            }
+        }
+        Map<String, Object> channelMix = new TreeMap<>();
+        for (Map.Entry<String, Long> entry : channelCounts.entrySet()) {
+            channelMix.put(entry.getKey(), Math.round(entry.getValue() * 1000.0 / thisMonthCount) / 10.0);
+        }
+        Map<String, Object> transactionVolume = new HashMap<>();
+        transactionVolume.put("thisMonth", BigDecimal.valueOf(volume[0], 2));
+        transactionVolume.put("lastMonth", BigDecimal.valueOf(volume[1], 2));
+        transactionVolume.put("growthPercent", volume[1] > 0 ? Math.round((volume[0] - volume[1]) * 1000.0 / volume[1]) / 10.0 : null);
+
+        Map<String, Object> trends = new HashMap<>();
+        trends.put("transactionVolume", transactionVolume);
+        trends.put("channelMix", channelMix);
+        return trends;
     }
 
     public Map<String, Object> scheduleReport(Map<String, Object> data) {
@@ -613,52 +699,28 @@ public class AdminService {
     }
 
     // Audit & Logs
-    public List<Map<String, Object>> getAuditTrails() {
-        List<Map<String, Object>> trails = new ArrayList<>();
-        trails.add(Map.of(
-            "id", "AUD001",
-            "action", "USER_LOGIN",
-            "userId", "admin",
-            "timestamp", LocalDateTime.now().minusHours(1).toString(),
-            "ipAddress", "192.168.1.100",
-            "details", "Successful admin login"
-        ));
-        trails.add(Map.of(
-            "id", "AUD002",
-            "action", "ACCOUNT_CREATED",
-            "userId", "manager01",
-            "timestamp", LocalDateTime.now().minusHours(2).toString(),
-            "ipAddress", "192.168.1.101",
-            "details", "New customer account created"
-        ));
-        return trails;
-    }
-
-    public List<Map<String, Object>> getUserAuditTrail(String userId) {
-        List<Map<String, Object>> trails = new ArrayList<>();
-        trails.add(Map.of(
-            "id", "AUD003",
-            "action", "PASSWORD_CHANGE",
-            "userId", userId,
-            "timestamp", LocalDateTime.now().minusDays(1).toString(),
-            "ipAddress", "192.168.1.102",
-            "details", "User password changed"
-        ));
-        return trails;
+    public Map<String, Object> getAuditTrails(Map<String, String> params) {
+        AuditTrailService.Page page = auditTrailService.page(AuditTrailService.Query.of(params), params.get("after"),
+            params.get("limit") != null ? Integer.valueOf(params.get("limit")) : null);
+        Map<String, Object> result = new HashMap<>();
+        result.put("events", page.events());
+        result.put("nextCursor", page.nextCursor());
+        return result;
     }
 
-    public Map<String, Object> exportAuditLogs(Map<String, Object> data) {
-        return Map.of(
-            "success", true,
-            "message", "Audit logs export initiated",
-            "exportId", "EXP" + System.currentTimeMillis(),
-            "format", data.getOrDefault("format", "CSV"),
-            "downloadUrl", "/exports/audit_" + System.currentTimeMillis() + ".csv"
-        );
+    // userId may be a username or a numeric user id; the trail is what that user did
+    public Map<String, Object> getUserAuditTrail(String userId, Map<String, String> params) {
+        String username = userId.chars().allMatch(Character::isDigit)
+            ? userRepository.findById(Long.parseLong(userId)).map(User::getUsername)
+                .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId))
+            : userId;
+        Map<String, String> filtered = new HashMap<>(params);
+        filtered.put("actor", username);
+        return getAuditTrails(filtered);
     }
 
-    public List<Map<String, Object>> getSystemLogs() {
-        return generateMockSystemLogs();
+    public List<Map<String, Object>> getSystemLogs(Map<String, String> params) {
+        return systemLogService.query(params, null);
     }
 
     public Map<String, Object> generateComplianceAuditReport(Map<String, Object> data) {
@@ -673,7 +735,7 @@ public class AdminService {
 
     // Branch Management (existing functionality)
     public List<Map<String, Object>> getAllBranches() {
-        return branchRepository.findAll().stream()
+        return branchService.findAll().stream()
                 .map(this::convertBranchToMap)
                 .collect(Collectors.toList());
     }
@@ -683,25 +745,26 @@ public class AdminService {
         branch.setName((String) data.get("name"));
         branch.setCity((String) data.get("city"));
         
-        Branch savedBranch = branchRepository.save(branch);
+        Branch savedBranch = branchService.create(branch);
         return convertBranchToMap(savedBranch);
     }
 
     public Map<String, Object> updateBranch(String idStr, Map<String, Object> data) {
-        Long id = Long.parseLong(idStr);
-        Branch branch = branchRepository.findById(id).orElseThrow(() -> 
-            new RuntimeException("Branch not found with id: " + idStr));
+        Branch changes = new Branch();
+        changes.setName((String) data.get("name"));
+        changes.setCity((String) data.get("city"));
         
-        if (data.containsKey("name")) branch.setName((String) data.get("name"));
-        if (data.containsKey("city")) branch.setCity((String) data.get("city"));
-        
-        Branch savedBranch = branchRepository.save(branch);
+        Branch savedBranch = branchService.update(Long.parseLong(idStr), changes);
         return convertBranchToMap(savedBranch);
     }
 
     public void deleteBranch(String id) {
-        Long branchId = Long.parseLong(id);
-        branchRepository.deleteById(branchId);
+        branchService.delete(Long.parseLong(id));
+    }
+
+    public Map<String, Object> importBranches(List<Map<String, Object>> rows) {
+        List<Branch> created = branchService.importBranches(rows);
+        return Map.of("success", true, "imported", created.size());
     }
 
     // Legacy methods for backward compatibility
@@ -723,7 +786,7 @@ public class AdminService {
         
         reports.put("securityStats", securityStats);
         reports.put("incidents", generateMockSecurityIncidents());
-        reports.put("logs", generateMockSystemLogs());
+        reports.put("logs", systemLogService.query(Map.of("level", "WARN", "limit", "50"), "security"));
         reports.put("vulnerabilityScans", generateMockVulnerabilityScans());
         
         return reports;
@@ -742,16 +805,27 @@ public class AdminService {
         return reports;
     }
 
-    public List<Map<String, Object>> getRecentBranchAudits() {
-        return generateMockAuditLogs();
+    public Map<String, Object> getRecentBranchAudits(Map<String, String> params) {
+        return branchAuditPage(branchService.recent(params.get("after"), limit(params)));
+    }
+
+    public Map<String, Object> getBranchAudits(String branchId, Map<String, String> params) {
+        return branchAuditPage(branchService.history(Long.parseLong(branchId), params.get("after"), limit(params)));
+    }
+
+    private static Map<String, Object> branchAuditPage(BranchService.Page page) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("audits", page.audits());
+        result.put("nextCursor", page.nextCursor());
+        return result;
     }
 
-    public List<Map<String, Object>> getBranchAudits(String branchId) {
-        return generateMockAuditLogs();
+    private static Integer limit(Map<String, String> params) {
+        return params.get("limit") != null ? Integer.valueOf(params.get("limit")) : null;
     }
 
-    public List<Map<String, Object>> getSecurityLogs() {
-        return generateMockSystemLogs();
+    public List<Map<String, Object>> getSecurityLogs(Map<String, String> params) {
+        return systemLogService.query(params, "security");
     }
 
     // Helper methods
@@ -765,13 +839,13 @@ public class AdminService {
         userMap.put("active", user.isActive());
         userMap.put("failedAttempts", user.getFailedAttempts());
         userMap.put("lastLogin", user.getLastLogin() != null ? user.getLastLogin().toString() : "Never");
-        
-        // Add mock data for frontend compatibility
-        userMap.put("firstName", "Not Available");
-        userMap.put("lastName", "Not Available");
-        userMap.put("phone", "Not Available");
-        userMap.put("createdAt", "Not Available");
-        
+        return userMap;
+    }
+
+    private Map<String, Object> convertSummaryToMap(UserRepository.UserSummary user) {
+        Map<String, Object> userMap = new HashMap<>(userListingService.toMap(user));
+        userMap.put("role", user.getRole() != null ? user.getRole().name() : "USER");
+        userMap.put("lastLogin", user.getLastLogin() != null ? user.getLastLogin().toString() : "Never");
         return userMap;
     }
 
@@ -817,30 +891,6 @@ public class AdminService {
         return incidents;
     }
 
-    private List<Map<String, Object>> generateMockSystemLogs() {
-        List<Map<String, Object>> logs = new ArrayList<>();
-        
-        Map<String, Object> log1 = new HashMap<>();
-        log1.put("id", "LOG001");
-        log1.put("timestamp", LocalDateTime.now().minusMinutes(15).toString());
-        log1.put("level", "INFO");
-        log1.put("category", "Authentication");
-        log1.put("message", "User login successful");
-        log1.put("source", "Auth Service");
-        logs.add(log1);
-        
-        Map<String, Object> log2 = new HashMap<>();
-        log2.put("id", "LOG002");
-        log2.put("timestamp", LocalDateTime.now().minusMinutes(30).toString());
-        log2.put("level", "WARNING");
-        log2.put("category", "Security");
-        log2.put("message", "Failed login attempt detected");
-        log2.put("source", "Auth Service");
-        logs.add(log2);
-        
-        return logs;
-    }
-
     private List<Map<String, Object>> generateMockVulnerabilityScans() {
         List<Map<String, Object>> scans = new ArrayList<>();
         
@@ -855,19 +905,5 @@ public class AdminService {
         
         return scans;
     }
-
-    private List<Map<String, Object>> generateMockAuditLogs() {
-        List<Map<String, Object>> audits = new ArrayList<>();
-        
-        Map<String, Object> audit1 = new HashMap<>();
-        audit1.put("id", "AUDIT001");
-        audit1.put("action", "User Created");
-        audit1.put("user", "admin");
-        audit1.put("timestamp", LocalDateTime.now().minusHours(1).toString());
-        audit1.put("details", "New user account created");
-        audits.add(audit1);
-        
-        return audits;
-    }
 }
 
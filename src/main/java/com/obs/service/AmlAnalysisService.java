@@ -0,0 +1,257 @@
+package com.obs.service;
+
+import com.obs.model.AmlCase;
+import com.obs.repository.AmlCaseRepository;
+import com.obs.repository.TransactionRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Nightly anti-money-laundering pass over outgoing transfers. The last
+ * {@code window-days} of debits are streamed in (createdAt, id) order into a
+ * {@link TransferGraph}, which is searched for round-trip cycles, layering chains and
+ * structuring just under the reporting threshold on a dedicated fork-join pool. The
+ * highest-scoring findings replace the previous run's OPEN {@link AmlCase}s.
+ * <p>
+ * Every node schedules the job; a run holds the MySQL named lock {@value #RUN_LOCK} on one
+ * pooled connection for its duration, so only one node analyses and the others skip. The
+ * lock belongs to the session and is dropped if the holding node dies.
+ */
+@Service
+public class AmlAnalysisService {
+    private static final Logger logger = LoggerFactory.getLogger(AmlAnalysisService.class);
+    static final String RUN_LOCK = "obs.aml.analysis";
+
+    private final TransactionRepository transactionRepository;
+    private final AmlCaseRepository amlCaseRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int windowDays;
+    private final int chunkSize;
+    private final int maxEdges;
+    private final int maxCases;
+    private final int stepBudget;
+    private final int cycleMaxLength;
+    private final long cycleMaxSpanSeconds;
+    private final int layeringMinHops;
+    private final long layeringMaxHopDelaySeconds;
+    private final double layeringMinForwardRatio;
+    private final long structuringThresholdCents;
+    private final double structuringMargin;
+    private final int structuringMinCount;
+    private final ForkJoinPool pool;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile Map<String, Object> lastRun = Map.of();
+
+    public AmlAnalysisService(TransactionRepository transactionRepository,
+                              AmlCaseRepository amlCaseRepository,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.aml.window-days:7}") int windowDays,
+                              @Value("${app.aml.chunk-size:10000}") int chunkSize,
+                              @Value("${app.aml.max-edges:50000000}") int maxEdges,
+                              @Value("${app.aml.max-cases:1000}") int maxCases,
+                              @Value("${app.aml.parallelism:0}") int parallelism,
+                              @Value("${app.aml.step-budget:100000}") int stepBudget,
+                              @Value("${app.aml.cycle.max-length:5}") int cycleMaxLength,
+                              @Value("${app.aml.cycle.max-span-hours:72}") long cycleMaxSpanHours,
+                              @Value("${app.aml.layering.min-hops:3}") int layeringMinHops,
+                              @Value("${app.aml.layering.max-hop-delay-minutes:120}") long layeringMaxHopDelayMinutes,
+                              @Value("${app.aml.layering.min-forward-ratio:0.8}") double layeringMinForwardRatio,
+                              @Value("${app.aml.structuring.threshold:50000}") BigDecimal structuringThreshold,
+                              @Value("${app.aml.structuring.margin:0.1}") double structuringMargin,
+                              @Value("${app.aml.structuring.min-count:5}") int structuringMinCount) {
+        this.transactionRepository = transactionRepository;
+        this.amlCaseRepository = amlCaseRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.windowDays = windowDays;
+        this.chunkSize = chunkSize;
+        this.maxEdges = maxEdges;
+        this.maxCases = maxCases;
+        this.stepBudget = stepBudget;
+        this.cycleMaxLength = cycleMaxLength;
+        this.cycleMaxSpanSeconds = Duration.ofHours(cycleMaxSpanHours).toSeconds();
+        this.layeringMinHops = layeringMinHops;
+        this.layeringMaxHopDelaySeconds = Duration.ofMinutes(layeringMaxHopDelayMinutes).toSeconds();
+        this.layeringMinForwardRatio = layeringMinForwardRatio;
+        this.structuringThresholdCents = structuringThreshold.movePointRight(2).longValue();
+        this.structuringMargin = structuringMargin;
+        this.structuringMinCount = structuringMinCount;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    @Scheduled(cron = "${app.aml.cron:0 30 2 * * *}")
+    public void nightly() {
+        Instant to = Instant.now();
+        if (tryRun(to.minus(Duration.ofDays(windowDays)), to) == null) {
+            logger.info("Skipping nightly AML analysis: already running on this or another node");
+        }
+    }
+
+    /** Analyses transfers in [from, to) and replaces the OPEN cases; returns a run summary. */
+    public Map<String, Object> run(Instant from, Instant to) {
+        Map<String, Object> summary = tryRun(from, to);
+        if (summary == null) {
+            throw new RuntimeException("AML analysis is already running");
+        }
+        return summary;
+    }
+
+    /** Null when a run is already in progress here or on another node. */
+    private Map<String, Object> tryRun(Instant from, Instant to) {
+        if (!running.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            return jdbcTemplate.execute((ConnectionCallback<Map<String, Object>>) connection -> {
+                if (!namedLock(connection, "SELECT GET_LOCK(?, 0)")) {
+                    return null;
+                }
+                try {
+                    return analyzeWindow(from, to);
+                } finally {
+                    namedLock(connection, "SELECT RELEASE_LOCK(?)");
+                }
+            });
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private static boolean namedLock(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, RUN_LOCK);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && result.getInt(1) == 1;
+            }
+        }
+    }
+
+    private Map<String, Object> analyzeWindow(Instant from, Instant to) {
+        long began = System.nanoTime();
+        TransferGraph graph = load(from, to);
+        long loadedMillis = (System.nanoTime() - began) / 1_000_000;
+
+        List<TransferGraph.Finding> findings = analyze(graph);
+        findings.sort(Comparator.comparingInt(AmlAnalysisService::score).reversed());
+        List<AmlCase> cases = new ArrayList<>();
+        for (TransferGraph.Finding finding : findings.subList(0, Math.min(maxCases, findings.size()))) {
+            cases.add(toCase(graph, finding, from, to));
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            amlCaseRepository.deleteOpen();
+            amlCaseRepository.saveAll(cases);
+        });
+
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("from", from.toString());
+        summary.put("to", to.toString());
+        summary.put("accounts", graph.nodeCount());
+        summary.put("transfers", graph.edgeCount());
+        summary.put("findings", findings.size());
+        summary.put("cases", cases.size());
+        summary.put("loadMillis", loadedMillis);
+        summary.put("totalMillis", (System.nanoTime() - began) / 1_000_000);
+        summary.put("finishedAt", Instant.now().toString());
+        lastRun = summary;
+        logger.info("AML analysis: {} transfers between {} accounts, {} findings, {} cases in {} ms",
+                graph.edgeCount(), graph.nodeCount(), findings.size(), cases.size(), summary.get("totalMillis"));
+        return summary;
+    }
+
+    public Map<String, Object> getLastRun() {
+        return lastRun;
+    }
+
+    List<TransferGraph.Finding> analyze(TransferGraph graph) {
+        List<TransferGraph.Finding> findings = new ArrayList<>();
+        findings.addAll(graph.findCycles(cycleMaxLength, cycleMaxSpanSeconds, stepBudget, pool));
+        findings.addAll(graph.findLayeringChains(layeringMinHops, Math.max(layeringMinHops, 8),
+                layeringMaxHopDelaySeconds, layeringMinForwardRatio, stepBudget, pool));
+        findings.addAll(graph.findStructuring(structuringThresholdCents, structuringMargin, structuringMinCount, pool));
+        return findings;
+    }
+
+    private TransferGraph load(Instant from, Instant to) {
+        TransferGraph.Builder builder = new TransferGraph.Builder(from.getEpochSecond());
+        Instant afterAt = from;
+        long afterId = 0L;
+        while (builder.edgeCount() < maxEdges) {
+            List<TransactionRepository.TransferEdge> chunk = transactionRepository.findTransferEdges(
+                    afterAt, afterId, to, PageRequest.of(0, Math.min(chunkSize, maxEdges - builder.edgeCount())));
+            for (TransactionRepository.TransferEdge edge : chunk) {
+                builder.addEdge(edge.getFromAccount(), edge.getToAccount(),
+                        edge.getAmount().movePointRight(2).longValue(), edge.getCreatedAt().getEpochSecond());
+            }
+            if (chunk.size() < chunkSize) {
+                return builder.build();
+            }
+            TransactionRepository.TransferEdge last = chunk.get(chunk.size() - 1);
+            afterAt = last.getCreatedAt();
+            afterId = last.getId();
+        }
+        logger.warn("AML analysis stopped loading at {} transfers (app.aml.max-edges); later transfers are not analysed", maxEdges);
+        return builder.build();
+    }
+
+    private AmlCase toCase(TransferGraph graph, TransferGraph.Finding finding, Instant from, Instant to) {
+        AmlCase amlCase = new AmlCase();
+        amlCase.setAccountNumber(graph.account(finding.nodes()[0]));
+        amlCase.setPattern(finding.pattern());
+        amlCase.setRiskScore(score(finding));
+        StringBuilder details = new StringBuilder();
+        for (int node : finding.nodes()) {
+            if (details.length() > 0) {
+                details.append(" -> ");
+            }
+            details.append(graph.account(node));
+        }
+        amlCase.setDetails(details.length() > 1000 ? details.substring(0, 997) + "..." : details.toString());
+        amlCase.setTotalAmount(BigDecimal.valueOf(finding.totalCents(), 2));
+        amlCase.setTransferCount(finding.transfers());
+        amlCase.setWindowStart(from);
+        amlCase.setWindowEnd(to);
+        return amlCase;
+    }
+
+    /** 0-100; cycles rank above layering above structuring, longer patterns higher. */
+    static int score(TransferGraph.Finding finding) {
+        int score = switch (finding.pattern()) {
+            case "CYCLE" -> 80 + 2 * finding.transfers();
+            case "LAYERING" -> 70 + 3 * finding.transfers();
+            default -> 50 + 2 * finding.transfers();
+        };
+        return Math.min(100, score);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
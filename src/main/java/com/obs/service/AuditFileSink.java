@@ -0,0 +1,73 @@
+package com.obs.service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Local copy of the audit trail as NDJSON segment files ({@code audit-00000001.ndjson}, ...).
+ * A new segment starts once the current one reaches {@code maxSegmentBytes}; only the
+ * newest {@code maxSegments} are kept. Numbering continues across restarts.
+ */
+public final class AuditFileSink {
+
+    private final Path directory;
+    private final long maxSegmentBytes;
+    private final int maxSegments;
+    private long segment;
+    private long segmentBytes;
+
+    public AuditFileSink(Path directory, long maxSegmentBytes, int maxSegments) throws IOException {
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.maxSegments = Math.max(1, maxSegments);
+        Files.createDirectories(directory);
+        this.segment = Math.max(1, newestSegment());
+        Path current = path(segment);
+        this.segmentBytes = Files.exists(current) ? Files.size(current) : 0;
+    }
+
+    public synchronized void append(List<String> lines) throws IOException {
+        if (lines.isEmpty()) {
+            return;
+        }
+        if (segmentBytes >= maxSegmentBytes) {
+            segment++;
+            segmentBytes = 0;
+            Path expired = path(segment - maxSegments);
+            Files.deleteIfExists(expired);
+        }
+        StringBuilder chunk = new StringBuilder();
+        for (String line : lines) {
+            chunk.append(line).append('\n');
+        }
+        byte[] bytes = chunk.toString().getBytes(StandardCharsets.UTF_8);
+        try (Writer writer = Files.newBufferedWriter(path(segment), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(chunk.toString());
+        }
+        segmentBytes += bytes.length;
+    }
+
+    public synchronized long currentSegment() {
+        return segment;
+    }
+
+    private Path path(long index) {
+        return directory.resolve(String.format("audit-%08d.ndjson", index));
+    }
+
+    private long newestSegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(p -> p.getFileName().toString())
+                    .filter(name -> name.matches("audit-\\d{8}\\.ndjson"))
+                    .mapToLong(name -> Long.parseLong(name.substring(6, 14)))
+                    .max().orElse(0);
+        }
+    }
+}
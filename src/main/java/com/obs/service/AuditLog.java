@@ -0,0 +1,274 @@
+package com.obs.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.obs.event.AuditEvent;
+import com.obs.event.UserChangedEvent;
+import com.obs.event.UsersBulkChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Audit trail writer. Audit events (and user change events) are turned into entries on the
+ * publishing thread after its transaction commits and put on a bounded queue; that is the
+ * only work an audited action pays for. A single writer thread drains the queue into
+ * multi-row {@code INSERT}s on {@code audit_event}, at most {@code batch-size} rows each,
+ * and optionally appends the same entries to local NDJSON segment files.
+ * <p>
+ * A failed insert is retried with backoff; after {@code max-retries} the batch is kept
+ * only in the file sink (or logged, when the sink is off). When the queue is full, new
+ * entries go straight to the file sink.
+ */
+@Service
+public class AuditLog {
+    private static final Logger logger = LoggerFactory.getLogger(AuditLog.class);
+    private static final String COLUMNS = "INSERT INTO audit_event (occurred_at, actor, action, target_type, target_id, ip_address, details) VALUES ";
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    public record Entry(Instant occurredAt, String actor, String action, String targetType,
+                        String targetId, String ipAddress, String details) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final AuditFileSink fileSink;
+    private final int batchSize;
+    private final long lingerMillis;
+    private final int maxRetries;
+    private final BlockingQueue<Entry> queue;
+    private final Thread writer;
+    private volatile boolean stopping;
+
+    private final Counter written;
+    private final Counter overflowed;
+    private final Counter lost;
+
+    public AuditLog(JdbcTemplate jdbcTemplate,
+                    ObjectMapper objectMapper,
+                    @Value("${app.audit.queue-capacity:50000}") int queueCapacity,
+                    @Value("${app.audit.batch-size:200}") int batchSize,
+                    @Value("${app.audit.linger-ms:5}") long lingerMillis,
+                    @Value("${app.audit.max-retries:5}") int maxRetries,
+                    @Value("${app.audit.file.enabled:false}") boolean fileEnabled,
+                    @Value("${app.audit.file.directory:logs/audit}") String fileDirectory,
+                    @Value("${app.audit.file.segment-bytes:67108864}") long segmentBytes,
+                    @Value("${app.audit.file.max-segments:20}") int maxSegments,
+                    MeterRegistry meterRegistry) throws IOException {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.fileSink = fileEnabled ? new AuditFileSink(Path.of(fileDirectory), segmentBytes, maxSegments) : null;
+        this.batchSize = Math.max(1, batchSize);
+        this.lingerMillis = lingerMillis;
+        this.maxRetries = maxRetries;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+
+        this.written = Counter.builder("audit.events.written").register(meterRegistry);
+        this.overflowed = Counter.builder("audit.events.overflow")
+                .description("Entries that bypassed the queue because it was full").register(meterRegistry);
+        this.lost = Counter.builder("audit.events.lost")
+                .description("Entries neither inserted nor kept in the file sink").register(meterRegistry);
+        meterRegistry.gaugeCollectionSize("audit.queue.size", List.of(), queue);
+
+        this.writer = new Thread(this::drain, "audit-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAudit(AuditEvent event) {
+        record(event.getActor(), event.getAction(), event.getTargetType(), event.getTargetId(),
+                event.getDetails(), event.getIpAddress());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        record(null, "USER_" + event.getChangeType().name(), "USER", event.getUserId(), event.getUsername(), null);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUsersBulkChanged(UsersBulkChangedEvent event) {
+        record(null, "USERS_BULK_" + event.getAction(), "USER", null, event.getUsernames().size() + " users", null);
+    }
+
+    /** Queues one entry; actor and address default to the current request's. */
+    public void record(String actor, String action, String targetType, Object targetId, String details, String ipAddress) {
+        Entry entry = new Entry(Instant.now(),
+                truncate(actor != null ? actor : currentActor(), 50),
+                truncate(action, 50),
+                truncate(targetType, 30),
+                targetId != null ? truncate(targetId.toString(), 100) : null,
+                truncate(ipAddress != null ? ipAddress : currentAddress(), 45),
+                truncate(details, 1000));
+        if (!queue.offer(entry)) {
+            overflowed.increment();
+            keepInFile(List.of(entry));
+        }
+    }
+
+    private void drain() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (!stopping || !queue.isEmpty()) {
+            try {
+                Entry first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - batch.size());
+                if (batch.size() < batchSize && lingerMillis > 0 && !stopping) {
+                    // Let a burst fill the batch instead of paying one round trip per event
+                    Thread.sleep(lingerMillis);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                stopping = true;
+                write(batch);
+            } catch (Exception e) {
+                logger.error("Audit writer failed on a batch of {}: {}", batch.size(), e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /** Inserts the batch with one statement, retrying with backoff; always copies to the file sink. */
+    public void write(List<Entry> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (fileSink != null) {
+            keepInFile(batch);
+        }
+        StringBuilder sql = new StringBuilder(COLUMNS.length() + batch.size() * 24).append(COLUMNS);
+        for (int i = 0; i < batch.size(); i++) {
+            sql.append(i == 0 ? "(?,?,?,?,?,?,?)" : ",(?,?,?,?,?,?,?)");
+        }
+        Calendar utc = Calendar.getInstance(UTC);
+        for (int attempt = 0; ; attempt++) {
+            try {
+                jdbcTemplate.update(sql.toString(), (PreparedStatement ps) -> {
+                    int i = 1;
+                    for (Entry e : batch) {
+                        ps.setTimestamp(i++, Timestamp.from(e.occurredAt()), utc);
+                        ps.setString(i++, e.actor());
+                        ps.setString(i++, e.action());
+                        setNullable(ps, i++, e.targetType());
+                        setNullable(ps, i++, e.targetId());
+                        setNullable(ps, i++, e.ipAddress());
+                        setNullable(ps, i++, e.details());
+                    }
+                });
+                written.increment(batch.size());
+                return;
+            } catch (Exception e) {
+                if (attempt >= maxRetries || stopping) {
+                    logger.error("Dropping {} audit entries from the database after {} attempts: {}{}", batch.size(),
+                            attempt + 1, e.getMessage(), fileSink != null ? " (kept in the file sink)" : "");
+                    if (fileSink == null) {
+                        lost.increment(batch.size());
+                    }
+                    return;
+                }
+                try {
+                    Thread.sleep(Math.min(5000L, 100L << attempt));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    stopping = true;
+                }
+            }
+        }
+    }
+
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    private void keepInFile(List<Entry> entries) {
+        if (fileSink == null) {
+            lost.increment(entries.size());
+            logger.warn("Audit queue full, dropped entry: {}", entries.get(0));
+            return;
+        }
+        try {
+            List<String> lines = new ArrayList<>(entries.size());
+            for (Entry e : entries) {
+                Map<String, Object> line = new LinkedHashMap<>();
+                line.put("occurredAt", e.occurredAt().toString());
+                line.put("actor", e.actor());
+                line.put("action", e.action());
+                line.put("targetType", e.targetType());
+                line.put("targetId", e.targetId());
+                line.put("ipAddress", e.ipAddress());
+                line.put("details", e.details());
+                lines.add(objectMapper.writeValueAsString(line));
+            }
+            fileSink.append(lines);
+        } catch (IOException e) {
+            lost.increment(entries.size());
+            logger.error("Failed to write {} audit entries to the file sink: {}", entries.size(), e.getMessage());
+        }
+    }
+
+    private static void setNullable(PreparedStatement ps, int index, String value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.VARCHAR);
+        } else {
+            ps.setString(index, value);
+        }
+    }
+
+    private static String currentActor() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || auth instanceof AnonymousAuthenticationToken || auth.getName() == null) {
+            return RequestContextHolder.getRequestAttributes() != null ? "anonymous" : "system";
+        }
+        return auth.getName();
+    }
+
+    private static String currentAddress() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            HttpServletRequest request = attributes.getRequest();
+            return request.getRemoteAddr();
+        }
+        return null;
+    }
+
+    private static String truncate(String value, int max) {
+        return value == null || value.length() <= max ? value : value.substring(0, max);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        stopping = true;
+        writer.join(5000);
+    }
+}
@@ -0,0 +1,130 @@
+package com.obs.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.obs.model.AuditRecord;
+import com.obs.repository.AuditRecordRepository;
+import com.obs.util.ExportWriter;
+import com.obs.util.KeysetCursor;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the audit trail newest first, by time range and optionally by actor or action.
+ * Pages and exports walk the (occurred_at, id) keyset, so neither depth nor export size
+ * affects the cost of a single query.
+ */
+@Service
+public class AuditTrailService {
+
+    private static final String[] CSV_COLUMNS = {"id", "occurredAt", "actor", "action", "targetType", "targetId", "ipAddress", "details"};
+    private static final Instant END_OF_TIME = Instant.parse("9999-12-31T00:00:00Z");
+
+    private final AuditRecordRepository repository;
+    private final ObjectMapper objectMapper;
+    private final int defaultLimit;
+    private final int maxLimit;
+    private final int exportChunkSize;
+
+    public AuditTrailService(AuditRecordRepository repository,
+                             ObjectMapper objectMapper,
+                             @Value("${app.audit.page.default-limit:100}") int defaultLimit,
+                             @Value("${app.audit.page.max-limit:500}") int maxLimit,
+                             @Value("${app.audit.export.chunk-size:1000}") int exportChunkSize) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+        this.exportChunkSize = exportChunkSize;
+    }
+
+    public record Query(String actor, String action, Instant from, Instant to) {
+        /** Reads {@code actor}, {@code action}, {@code from} and {@code to} (ISO instants). */
+        public static Query of(Map<String, ?> params) {
+            return new Query(text(params.get("actor")), text(params.get("action")),
+                    time(params.get("from"), Instant.EPOCH), time(params.get("to"), END_OF_TIME));
+        }
+    }
+
+    public record Page(List<Map<String, Object>> events, String nextCursor) {}
+
+    /** One page older than {@code after} (a cursor from a previous page, or null for the newest). */
+    public Page page(Query query, String after, Integer limit) {
+        int size = limit == null || limit <= 0 ? defaultLimit : Math.min(limit, maxLimit);
+        KeysetCursor cursor = KeysetCursor.parse(after, KeysetCursor.FIRST);
+        List<AuditRecord> rows = repository.findPage(query.actor(), query.action(), query.from(), query.to(),
+                cursor.at(), cursor.id(), PageRequest.of(0, size + 1));
+        List<AuditRecord> page = KeysetCursor.page(rows, size);
+        String next = null;
+        if (page.size() < rows.size()) {
+            AuditRecord last = page.get(size - 1);
+            next = KeysetCursor.format(last.getOccurredAt(), last.getId());
+        }
+        return new Page(page.stream().map(this::toMap).toList(), next);
+    }
+
+    /** Writes every matching event as NDJSON or CSV, one chunk query at a time. */
+    public void export(OutputStream out, String format, Query query) throws IOException {
+        ExportWriter writer = ExportWriter.open(out, format, CSV_COLUMNS, objectMapper);
+        Instant beforeAt = KeysetCursor.FIRST.at();
+        long beforeId = KeysetCursor.FIRST.id();
+        while (true) {
+            List<AuditRecord> chunk = repository.findPage(query.actor(), query.action(), query.from(), query.to(),
+                    beforeAt, beforeId, PageRequest.of(0, exportChunkSize));
+            for (AuditRecord record : chunk) {
+                writer.write(toMap(record));
+            }
+            writer.flush();
+            if (chunk.size() < exportChunkSize) {
+                break;
+            }
+            AuditRecord last = chunk.get(chunk.size() - 1);
+            beforeAt = last.getOccurredAt();
+            beforeId = last.getId();
+        }
+    }
+
+    public void writeExport(HttpServletResponse response, Map<String, Object> request) throws IOException {
+        String format = request.getOrDefault("format", "csv").toString();
+        ExportWriter.prepare(response, format, "audit", false);
+        export(response.getOutputStream(), format, Query.of(request));
+    }
+
+    public Map<String, Object> toMap(AuditRecord record) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("id", record.getId());
+        map.put("occurredAt", record.getOccurredAt() != null ? record.getOccurredAt().toString() : null);
+        map.put("actor", record.getActor());
+        map.put("action", record.getAction());
+        map.put("targetType", record.getTargetType());
+        map.put("targetId", record.getTargetId());
+        map.put("ipAddress", record.getIpAddress());
+        map.put("details", record.getDetails());
+        return map;
+    }
+
+    private static String text(Object value) {
+        return value == null || value.toString().isBlank() ? null : value.toString().trim();
+    }
+
+    private static Instant time(Object value, Instant fallback) {
+        String text = text(value);
+        if (text == null) {
+            return fallback;
+        }
+        try {
+            return Instant.parse(text);
+        } catch (DateTimeParseException e) {
+            throw new RuntimeException("Invalid time: " + text);
+        }
+    }
+}
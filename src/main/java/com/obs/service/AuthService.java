@@ -1,12 +1,21 @@
 package com.obs.service;
 
+import com.obs.event.AuditEvent;
+import com.obs.event.UserChangedEvent;
 import com.obs.model.User;
 import com.obs.model.Role;
-import com.obs.model.RefreshToken;
+import com.obs.model.UserProfile;
 import com.obs.repository.UserRepository;
-import com.obs.repository.RefreshTokenRepository;
+import com.obs.repository.UserProfileRepository;
+import com.obs.security.HashingCapacityExceededException;
 import com.obs.security.JwtTokenUtil;
+import com.obs.security.LoginThrottle;
+import com.obs.security.OtpStore;
+import com.obs.security.PasswordHashingService;
+import com.obs.security.TokenRevocationService;
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -17,17 +26,14 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Optional;
-import java.util.UUID;
 import java.util.List;
 
 /**
- * AuthService - DEVELOPMENT VERSION with Plain Text Passwords
- * WARNING: This version stores passwords in plain text for testing purposes only
- * DO NOT use in production environment
+ * AuthService - login, registration and token refresh.
+ * Passwords are hashed and verified through {@link PasswordHashingService}; legacy
+ * plain-text values are still accepted once and upgraded to a hash on successful login.
  */
 @Service
 public class AuthService {
@@ -37,7 +43,10 @@ public class AuthService {
     private UserRepository userRepository;
     
     @Autowired
-    private RefreshTokenRepository refreshTokenRepository;
+    private RefreshTokenService refreshTokenService;
+    
+    @Autowired
+    private UserProfileRepository userProfileRepository;
     
     @Autowired
     private JwtTokenUtil jwtTokenUtil;
@@ -45,53 +54,129 @@ public class AuthService {
     @Autowired
     private EmailService emailService;
     
-    // Development login with plain text password comparison
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+    
+    @Autowired
+    private LoginThrottle loginThrottle;
+    
+    @Autowired
+    private WebSocketService webSocketService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private UserStatsCounters userStatsCounters;
+
+    @Autowired
+    private UserListingService userListingService;
+    
+    @Autowired
+    private OtpStore otpStore;
+    
     public Map<String, Object> login(Map<String, String> loginRequest) {
+        return login(loginRequest, null);
+    }
+    
+    public Map<String, Object> login(Map<String, String> loginRequest, String clientIp) {
         String username = loginRequest.get("username");
         String password = loginRequest.get("password");
         
+        // Throttle is purely in-memory and runs before any DB lookup
+        loginThrottle.checkAllowed(username, clientIp);
+        
         try {
-            User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-            
-            // Plain text password comparison for development
-            if (!user.getPassword().equals(password)) {
-                throw new RuntimeException("Invalid username or password");
+            User user = userRepository.findByUsername(username).orElse(null);
+            if (user == null) {
+                // Same hashing cost as a wrong password, so response time does not reveal the username is unknown
+                passwordHashingService.matches(password, passwordHashingService.getDummyHash());
+                recordFailedLogin(username, clientIp, null);
+                throw new RuntimeException("User not found");
+            }
+            if (user.isLocked()) {
+                throw new RuntimeException("Account is locked");
+            }
+            // Deactivated and soft-deleted (awaiting purge) accounts get no new tokens
+            if (!user.isActive() || user.getDeletedAt() != null) {
+                throw new RuntimeException("Account is inactive");
             }
             
-            String token = jwtTokenUtil.generateTokenFromUsername(user.getUsername());
-            String refreshToken = null;
-            try {
-                refreshToken = generateRefreshToken(user);
-            } catch (Exception rtEx) {
-                log.error("Failed to generate refresh token for user {}: {}", username, rtEx.getMessage());
+            // Verification runs on the bounded hashing pool, not the request thread
+            if (!passwordHashingService.matches(password, user.getPassword())) {
+                recordFailedLogin(username, clientIp, user);
+                throw new RuntimeException("Invalid username or password");
             }
+            loginThrottle.recordSuccess(username);
+            rehashIfNeeded(user, password);
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("token", token);
-            if (refreshToken != null) {
-                response.put("refreshToken", refreshToken);
+            if (user.isTwoFactorEnabled()) {
+                // Tokens are only issued once the emailed code is confirmed via /auth/verify-otp
+                String code = otpStore.issue(OtpStore.Purpose.LOGIN, user.getId());
+                emailService.sendOTPEmail(user.getEmail(), user.getUsername(), code);
+                log.info("User {} passed password check, awaiting OTP", username);
+                return Map.of("twoFactorRequired", true, "email", user.getEmail(),
+                    "expiresInSeconds", otpStore.getTtlSeconds());
             }
-            response.put("user", Map.of(
-                "id", user.getId(),
-                "username", user.getUsername(),
-                "email", user.getEmail(),
-                "firstName", user.getFirstName() != null ? user.getFirstName() : "",
-                "lastName", user.getLastName() != null ? user.getLastName() : "",
-                "phone", user.getPhone() != null ? user.getPhone() : "",
-                "role", user.getRole().toString()
-            ));
             
+            Map<String, Object> response = buildLoginResponse(user);
+            eventPublisher.publishEvent(new AuditEvent("LOGIN_SUCCESS", "USER", user.getId(), null, username, clientIp));
             log.info("User {} logged in successfully", username);
             return response;
             
+        } catch (HashingCapacityExceededException e) {
+            log.warn("Login for user {} shed: hashing pool saturated", username);
+            throw e;
         } catch (Exception e) {
             log.error("Login failed for user {}: {}", username, e.getMessage());
             throw new RuntimeException("Invalid username or password");
         }
     }
     
-    // Development registration with plain text password storage
+    // Second login step for accounts with two-factor authentication
+    public Map<String, Object> verifyLoginOtp(String email, String otp) {
+        User user = userRepository.findByEmail(email)
+            .orElseThrow(() -> new RuntimeException("Invalid or expired verification code"));
+        OtpStore.Result result = otpStore.verify(OtpStore.Purpose.LOGIN, user.getId(), otp);
+        if (result != OtpStore.Result.VALID || user.isLocked() || !user.isActive() || user.getDeletedAt() != null) {
+            throw new RuntimeException(result == OtpStore.Result.TOO_MANY_ATTEMPTS
+                ? "Too many attempts, please log in again" : "Invalid or expired verification code");
+        }
+        eventPublisher.publishEvent(new AuditEvent("LOGIN_SUCCESS", "USER", user.getId(), "two-factor", user.getUsername(), null));
+        log.info("User {} completed two-factor login", user.getUsername());
+        return buildLoginResponse(user);
+    }
+    
+    private Map<String, Object> buildLoginResponse(User user) {
+        String token = jwtTokenUtil.generateTokenFromUsername(user.getUsername(), user.getId(), user.getRole(), user.getTokenVersion());
+        String refreshToken = null;
+        try {
+            refreshToken = generateRefreshToken(user);
+        } catch (Exception rtEx) {
+            log.error("Failed to generate refresh token for user {}: {}", user.getUsername(), rtEx.getMessage());
+        }
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("token", token);
+        if (refreshToken != null) {
+            response.put("refreshToken", refreshToken);
+        }
+        UserProfile profile = userProfileRepository.findByUser(user).orElse(null);
+        response.put("user", Map.of(
+            "id", user.getId(),
+            "username", user.getUsername(),
+            "email", user.getEmail(),
+            "firstName", profile != null && profile.getFirstName() != null ? profile.getFirstName() : "",
+            "lastName", profile != null && profile.getLastName() != null ? profile.getLastName() : "",
+            "phone", profile != null && profile.getPhoneNumber() != null ? profile.getPhoneNumber() : "",
+            "role", user.getRole().toString()
+        ));
+        return response;
+    }
+    
     @Transactional
     public Map<String, Object> register(Map<String, Object> registerRequest) {
         String username = (String) registerRequest.get("username");
@@ -100,7 +185,6 @@ public class AuthService {
         String firstName = (String) registerRequest.get("firstName");
         String lastName = (String) registerRequest.get("lastName");
         String phone = (String) registerRequest.get("phone");
-        String dateOfBirth = (String) registerRequest.get("dateOfBirth");
         String address = (String) registerRequest.get("address");
         
         // Default role is USER
@@ -117,28 +201,23 @@ public class AuthService {
         User user = new User();
         user.setUsername(username);
         user.setEmail(email);
-        // Store password as plain text for development
-        user.setPassword(password);
+        user.setPassword(passwordHashingService.encode(password));
         user.setRole(role);
-        user.setFirstName(firstName);
-        user.setLastName(lastName);
-        user.setPhone(phone);
-        user.setAddress(address);
         user.setActive(true);
         
-        // Parse date of birth if provided
-        if (dateOfBirth != null && !dateOfBirth.trim().isEmpty()) {
-            try {
-                // Assuming date format is YYYY-MM-DD
-                user.setDateOfBirth(java.sql.Date.valueOf(dateOfBirth));
-            } catch (Exception e) {
-                log.warn("Invalid date of birth format for user {}: {}", username, dateOfBirth);
-            }
-        }
-        
         user = userRepository.save(user);
         
-        // Send welcome email
+        // Personal details live on the profile, not the login record
+        UserProfile profile = new UserProfile();
+        profile.setUser(user);
+        profile.setFirstName(firstName);
+        profile.setLastName(lastName);
+        profile.setPhoneNumber(phone);
+        profile.setAddress(address);
+        userProfileRepository.save(profile);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId(), user.getUsername(), UserChangedEvent.ChangeType.CREATED));
+        
+        // Welcome email is written to the outbox in this transaction and sent after commit
         boolean emailSent = false;
         try {
             emailService.sendWelcomeEmail(user.getEmail(), user.getUsername());
@@ -155,66 +234,103 @@ public class AuthService {
             "id", user.getId(),
             "username", user.getUsername(),
             "email", user.getEmail(),
-            "firstName", user.getFirstName() != null ? user.getFirstName() : "",
-            "lastName", user.getLastName() != null ? user.getLastName() : "",
+            "firstName", firstName != null ? firstName : "",
+            "lastName", lastName != null ? lastName : "",
             "role", user.getRole().toString()
         ));
         
-        log.info("User {} registered successfully with plain text password", username);
+        log.info("User {} registered successfully", username);
         return response;
     }
     
     private String generateRefreshToken(User user) {
-        // Clean up existing refresh tokens for this user
-        refreshTokenRepository.deleteByUser(user);
-        
-        RefreshToken refreshToken = new RefreshToken();
-        refreshToken.setToken(UUID.randomUUID().toString());
-        refreshToken.setUser(user);
-        refreshToken.setExpiryDate(Instant.now().plusSeconds(7 * 24 * 60 * 60)); // 7 days
-        
-        refreshTokenRepository.save(refreshToken);
-        return refreshToken.getToken();
+        // Single insert: each login starts its own token family; expired rows are purged in batches
+        return refreshTokenService.issue(user);
     }
     
     public Map<String, Object> refreshToken(Map<String, String> request) {
-        String refreshToken = request.get("refreshToken");
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.get("refreshToken"));
         
-        Optional<RefreshToken> tokenOpt = refreshTokenRepository.findByToken(refreshToken);
-        if (!tokenOpt.isPresent()) {
-            throw new RuntimeException("Invalid refresh token");
-        }
-        
-        RefreshToken token = tokenOpt.get();
-        if (token.getExpiryDate().isBefore(Instant.now())) {
-            refreshTokenRepository.delete(token);
-            throw new RuntimeException("Refresh token expired");
-        }
-        
-        User user = token.getUser();
-        String newJwtToken = jwtTokenUtil.generateTokenFromUsername(user.getUsername());
+        User user = rotation.getUser();
+        String newJwtToken = jwtTokenUtil.generateTokenFromUsername(user.getUsername(), user.getId(), user.getRole(), user.getTokenVersion());
         
         Map<String, Object> response = new HashMap<>();
         response.put("token", newJwtToken);
-        response.put("refreshToken", refreshToken);
+        response.put("refreshToken", rotation.getRefreshToken());
         
         return response;
     }
     
-    // Get all users for admin purposes
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    // Revokes the presented access token and, if supplied, its refresh-token family
+    public void logout(String accessToken, String refreshToken) {
+        if (accessToken != null) {
+            try {
+                Claims claims = jwtTokenUtil.getAllClaimsFromToken(accessToken);
+                Number userId = claims.get(JwtTokenUtil.CLAIM_USER_ID, Number.class);
+                tokenRevocationService.revokeToken(claims.getId(), userId != null ? userId.longValue() : null,
+                    claims.getExpiration());
+            } catch (Exception e) {
+                // Expired or malformed tokens are already unusable
+                log.debug("Ignoring unusable access token on logout: {}", e.getMessage());
+            }
+        }
+        refreshTokenService.revoke(refreshToken);
+    }
+    
+    // Keyset page of users for admin purposes (sparse projection, no password hashes)
+    public Map<String, Object> getUsersPage(Long after, Integer limit) {
+        UserListingService.Page page = userListingService.page(after, limit, null);
+        Map<String, Object> result = new HashMap<>();
+        result.put("users", page.users().stream().map(userListingService::toMap).toList());
+        result.put("nextCursor", page.nextCursor());
+        return result;
     }
     
-    // Reset password (plain text for development)
     public void resetPassword(String username, String newPassword) {
         User user = userRepository.findByUsername(username)
             .orElseThrow(() -> new RuntimeException("User not found"));
         
-        // Store new password as plain text
-        user.setPassword(newPassword);
+        user.setPassword(passwordHashingService.encode(newPassword));
         userRepository.save(user);
+        eventPublisher.publishEvent(new AuditEvent("PASSWORD_RESET", "USER", user.getId(), null));
         
-        log.info("Password reset for user {} with plain text storage", username);
+        log.info("Password reset for user {}", username);
+    }
+    
+    // Failures are counted in memory; the users row is written once, when the lock threshold is crossed
+    private void recordFailedLogin(String username, String clientIp, User user) {
+        eventPublisher.publishEvent(new AuditEvent("LOGIN_FAILED", "USER", user != null ? user.getId() : null,
+            user == null ? "unknown user" : null, username, clientIp));
+        int attempts = loginThrottle.recordFailure(username, clientIp);
+        if (attempts == 0 || user == null) {
+            return;
+        }
+        if (userRepository.lockByUsername(username, attempts) > 0) {
+            userStatsCounters.lockedInBulk(1); // bulk update, not seen by the entity listener
+            log.warn("Locked account {} after {} failed login attempts", username, attempts);
+            eventPublisher.publishEvent(new UserChangedEvent(user.getId(), username, UserChangedEvent.ChangeType.LOCKED));
+            emailService.sendAccountLockedEmail(user.getEmail(), username);
+            try {
+                webSocketService.sendSystemAlert("account_locked",
+                    "Account locked after repeated failed logins", Map.of("username", username, "attempts", attempts));
+            } catch (Exception e) {
+                log.warn("Failed to publish account lock alert for {}: {}", username, e.getMessage());
+            }
+        }
+    }
+    
+    // Upgrade plain-text or under-cost hashes now that we hold the verified raw password
+    private void rehashIfNeeded(User user, String rawPassword) {
+        if (!passwordHashingService.needsUpgrade(user.getPassword())) {
+            return;
+        }
+        try {
+            user.setPassword(passwordHashingService.upgrade(rawPassword));
+            userRepository.save(user);
+            log.info("Upgraded stored password hash for user {}", user.getUsername());
+        } catch (Exception e) {
+            // Not fatal for the login; the upgrade is retried on the next successful login
+            log.warn("Could not upgrade password hash for user {}: {}", user.getUsername(), e.getMessage());
+        }
     }
 }
\ No newline at end of file
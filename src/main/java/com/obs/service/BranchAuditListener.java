@@ -0,0 +1,49 @@
+package com.obs.service;
+
+import com.obs.model.Branch;
+import com.obs.util.TransactionUtils;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener on {@link Branch} that writes every insert, update and delete to the audit
+ * trail as a {@code BRANCH_*} entry targeting the branch. The branch is captured when the
+ * change is flushed and handed to {@link AuditLog} once its transaction commits, so a
+ * rolled-back change leaves no entry.
+ */
+@Component
+public class BranchAuditListener {
+
+    public static final String TARGET_TYPE = "BRANCH";
+    public static final String ACTION_PREFIX = "BRANCH_";
+
+    private final ObjectProvider<AuditLog> auditLog;
+
+    public BranchAuditListener(ObjectProvider<AuditLog> auditLog) {
+        this.auditLog = auditLog;
+    }
+
+    @PostPersist
+    public void onInsert(Branch branch) {
+        record(branch, "CREATE");
+    }
+
+    @PostUpdate
+    public void onUpdate(Branch branch) {
+        record(branch, "UPDATE");
+    }
+
+    @PostRemove
+    public void onDelete(Branch branch) {
+        record(branch, "DELETE");
+    }
+
+    private void record(Branch branch, String action) {
+        Long branchId = branch.getId();
+        String details = "name=" + branch.getName() + "; city=" + branch.getCity();
+        TransactionUtils.afterCommit(() -> auditLog.getObject().record(null, ACTION_PREFIX + action, TARGET_TYPE, branchId, details, null));
+    }
+}
@@ -0,0 +1,124 @@
+package com.obs.service;
+
+import com.obs.model.AuditRecord;
+import com.obs.model.Branch;
+import com.obs.repository.AuditRecordRepository;
+import com.obs.repository.BranchRepository;
+import com.obs.util.KeysetCursor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Branch changes and their history. Every change is audited by {@link BranchAuditListener}
+ * into {@code audit_event}; history is read newest first over the (target_type, target_id,
+ * occurred_at, id) index in keyset pages.
+ */
+@Service
+public class BranchService {
+
+    private final BranchRepository branchRepository;
+    private final AuditRecordRepository auditRecordRepository;
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    public BranchService(BranchRepository branchRepository,
+                         AuditRecordRepository auditRecordRepository,
+                         @Value("${app.branches.audit.page.default-limit:50}") int defaultLimit,
+                         @Value("${app.branches.audit.page.max-limit:500}") int maxLimit) {
+        this.branchRepository = branchRepository;
+        this.auditRecordRepository = auditRecordRepository;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    public record Page(List<Map<String, Object>> audits, String nextCursor) {}
+
+    public List<Branch> findAll() {
+        return branchRepository.findAll();
+    }
+
+    public Branch create(Branch branch) {
+        return branchRepository.save(branch);
+    }
+
+    @Transactional
+    public Branch update(Long id, Branch changes) {
+        Branch branch = branchRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Branch not found with id: " + id));
+        if (changes.getName() != null) branch.setName(changes.getName());
+        if (changes.getCity() != null) branch.setCity(changes.getCity());
+        return branchRepository.save(branch);
+    }
+
+    @Transactional
+    public void delete(Long id) {
+        Branch branch = branchRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Branch not found with id: " + id));
+        branchRepository.delete(branch);
+    }
+
+    /** Creates all branches in one transaction; their audit entries are queued to {@link AuditLog} after commit. */
+    @Transactional
+    public List<Branch> importBranches(List<Map<String, Object>> rows) {
+        List<Branch> branches = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            if (row.get("name") == null || row.get("city") == null) {
+                throw new RuntimeException("Branch " + (branches.size() + 1) + " needs a name and a city");
+            }
+            Branch branch = new Branch();
+            branch.setName(row.get("name").toString());
+            branch.setCity(row.get("city").toString());
+            branches.add(branch);
+        }
+        return branchRepository.saveAll(branches);
+    }
+
+    /** One branch's changes older than {@code after} (a cursor from a previous page, or null for the newest). */
+    public Page history(Long branchId, String after, Integer limit) {
+        int size = pageSize(limit);
+        KeysetCursor cursor = KeysetCursor.parse(after, KeysetCursor.FIRST);
+        return page(auditRecordRepository.findTargetPage(BranchAuditListener.TARGET_TYPE,
+                branchId.toString(), cursor.at(), cursor.id(), PageRequest.of(0, size + 1)), size);
+    }
+
+    /** Changes to any branch older than {@code after}. */
+    public Page recent(String after, Integer limit) {
+        int size = pageSize(limit);
+        KeysetCursor cursor = KeysetCursor.parse(after, KeysetCursor.FIRST);
+        return page(auditRecordRepository.findTargetTypePage(BranchAuditListener.TARGET_TYPE,
+                cursor.at(), cursor.id(), PageRequest.of(0, size + 1)), size);
+    }
+
+    public Map<String, Object> toMap(AuditRecord audit) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("id", audit.getId());
+        map.put("branchId", audit.getTargetId() != null ? Long.valueOf(audit.getTargetId()) : null);
+        map.put("action", audit.getAction().startsWith(BranchAuditListener.ACTION_PREFIX)
+                ? audit.getAction().substring(BranchAuditListener.ACTION_PREFIX.length()) : audit.getAction());
+        map.put("user", audit.getActor());
+        map.put("timestamp", audit.getOccurredAt() != null ? audit.getOccurredAt().toString() : null);
+        map.put("details", audit.getDetails());
+        return map;
+    }
+
+    private int pageSize(Integer limit) {
+        return limit == null || limit <= 0 ? defaultLimit : Math.min(limit, maxLimit);
+    }
+
+    private Page page(List<AuditRecord> rows, int size) {
+        List<AuditRecord> page = KeysetCursor.page(rows, size);
+        String next = null;
+        if (page.size() < rows.size()) {
+            AuditRecord last = page.get(size - 1);
+            next = KeysetCursor.format(last.getOccurredAt(), last.getId());
+        }
+        return new Page(page.stream().map(this::toMap).toList(), next);
+    }
+}
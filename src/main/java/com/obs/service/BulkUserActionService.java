@@ -0,0 +1,331 @@
+package com.obs.service;
+
+import com.obs.event.UsersBulkChangedEvent;
+import com.obs.model.Role;
+import com.obs.repository.UserRepository;
+import com.obs.security.LoginThrottle;
+import com.obs.security.TokenRevocationService;
+import com.obs.security.UserDetailsCache;
+import com.obs.util.TransactionUtils;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Applies LOCK, UNLOCK, ACTIVATE, DEACTIVATE or RESET (failed-login counters) to many users.
+ * Targets are an explicit id list or filter criteria walked by id. Each chunk of
+ * {@code chunk-size} ids becomes one {@code UPDATE users ... WHERE id IN (...)}; locks and
+ * deactivations revoke the chunk's tokens with one bulk statement in the same transaction,
+ * so a chunk is never locked without its tokens revoked. Each committed chunk's users are
+ * evicted from the {@link UserDetailsCache} straight away. Jobs run in the background and
+ * report progress through {@link #getJob}; when a job finishes, caches are invalidated once
+ * and a single summary WebSocket event is sent.
+ */
+@Service
+public class BulkUserActionService {
+    private static final Logger logger = LoggerFactory.getLogger(BulkUserActionService.class);
+
+    public enum Action { LOCK, UNLOCK, ACTIVATE, DEACTIVATE, RESET }
+
+    private final UserRepository userRepository;
+    private final TokenRevocationService tokenRevocationService;
+    private final UserStatsCounters userStatsCounters;
+    private final LoginThrottle loginThrottle;
+    private final WebSocketService webSocketService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserDetailsCache userDetailsCache;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxUsers;
+    private final int retainedJobs;
+    private final ExecutorService worker;
+    private final Map<String, Job> jobs = new LinkedHashMap<>();
+
+    public BulkUserActionService(UserRepository userRepository,
+                                 TokenRevocationService tokenRevocationService,
+                                 UserStatsCounters userStatsCounters,
+                                 LoginThrottle loginThrottle,
+                                 WebSocketService webSocketService,
+                                 ApplicationEventPublisher eventPublisher,
+                                 UserDetailsCache userDetailsCache,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.users.bulk.chunk-size:500}") int chunkSize,
+                                 @Value("${app.users.bulk.max-users:100000}") int maxUsers,
+                                 @Value("${app.users.bulk.retained-jobs:100}") int retainedJobs) {
+        this.userRepository = userRepository;
+        this.tokenRevocationService = tokenRevocationService;
+        this.userStatsCounters = userStatsCounters;
+        this.loginThrottle = loginThrottle;
+        this.webSocketService = webSocketService;
+        this.eventPublisher = eventPublisher;
+        this.userDetailsCache = userDetailsCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxUsers = maxUsers;
+        this.retainedJobs = retainedJobs;
+        AtomicInteger threadIds = new AtomicInteger();
+        this.worker = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "bulk-user-actions-" + threadIds.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Progress of one bulk action; counters are updated by the worker and read by pollers. */
+    public static final class Job {
+        final String id = UUID.randomUUID().toString();
+        final Action action;
+        final Instant startedAt = Instant.now();
+        volatile String status = "QUEUED";
+        volatile int total;
+        volatile int processed;
+        volatile int affected;
+        volatile int skipped;
+        volatile String error;
+        volatile Instant finishedAt;
+
+        Job(Action action) {
+            this.action = action;
+        }
+
+        public String getId() { return id; }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("jobId", id);
+            map.put("action", action.name());
+            map.put("status", status);
+            map.put("total", total);
+            map.put("processed", processed);
+            map.put("affected", affected);
+            map.put("skipped", skipped);
+            map.put("error", error);
+            map.put("startedAt", startedAt.toString());
+            map.put("finishedAt", finishedAt != null ? finishedAt.toString() : null);
+            return map;
+        }
+    }
+
+    /**
+     * Starts a bulk action. {@code data} carries {@code action} and either {@code userIds}
+     * or {@code filter} ({@code role}, {@code locked}, {@code active}, {@code minFailedAttempts}).
+     */
+    public Job submit(Map<String, Object> data) {
+        Action action = parseAction(data.get("action"));
+        List<Long> ids = data.get("userIds") != null ? parseIds(data.get("userIds")) : null;
+        Criteria filter = data.get("filter") instanceof Map<?, ?> criteria ? Criteria.parse(criteria) : null;
+        if (ids == null && filter == null) {
+            throw new RuntimeException("Either userIds or filter is required");
+        }
+        if (ids != null && ids.size() > maxUsers) {
+            throw new RuntimeException("Too many users in one bulk action (max " + maxUsers + ")");
+        }
+
+        Job job = new Job(action);
+        if (ids != null) {
+            job.total = ids.size();
+        }
+        register(job);
+        worker.execute(() -> run(job, ids, filter));
+        return job;
+    }
+
+    public Map<String, Object> getJob(String jobId) {
+        Job job;
+        synchronized (jobs) {
+            job = jobs.get(jobId);
+        }
+        if (job == null) {
+            throw new RuntimeException("Bulk action job not found: " + jobId);
+        }
+        return job.toMap();
+    }
+
+    /** Runs the job on the calling thread; normally invoked by the worker. */
+    void run(Job job, List<Long> ids, Criteria filter) {
+        job.status = "RUNNING";
+        List<String> usernames = new ArrayList<>();
+        try {
+            if (ids != null) {
+                for (int from = 0; from < ids.size(); from += chunkSize) {
+                    applyChunk(job, ids.subList(from, Math.min(ids.size(), from + chunkSize)), usernames);
+                }
+            } else {
+                long after = 0L;
+                while (job.total < maxUsers) {
+                    List<Long> chunk = userRepository.findIdsMatching(after, filter.role(), filter.locked(),
+                            filter.active(), filter.minFailedAttempts(),
+                            PageRequest.of(0, Math.min(chunkSize, maxUsers - job.total)));
+                    if (chunk.isEmpty()) {
+                        break;
+                    }
+                    job.total += chunk.size();
+                    applyChunk(job, chunk, usernames);
+                    after = chunk.get(chunk.size() - 1);
+                }
+            }
+            job.status = "COMPLETED";
+        } catch (Exception e) {
+            logger.error("Bulk {} failed after {} users: {}", job.action, job.processed, e.getMessage());
+            job.status = "FAILED";
+            job.error = e.getMessage();
+        } finally {
+            job.finishedAt = Instant.now();
+            finish(job, usernames);
+        }
+    }
+
+    private void applyChunk(Job job, List<Long> chunk, List<String> usernames) {
+        // Targets are read (and row-locked) in the chunk's transaction, so the change count matches what is written
+        ChunkResult result = transactionTemplate.execute(status -> {
+            List<UserRepository.BulkTarget> rows = userRepository.findBulkTargets(chunk);
+            if (rows.isEmpty()) {
+                return new ChunkResult(rows, 0);
+            }
+            List<Long> targetIds = new ArrayList<>(rows.size());
+            int changing = 0;
+            for (UserRepository.BulkTarget target : rows) {
+                targetIds.add(target.getId());
+                if (changes(job.action, target)) {
+                    changing++;
+                }
+            }
+            int changed = changing;
+            switch (job.action) {
+                case LOCK -> {
+                    userRepository.lockAll(targetIds);
+                    tokenRevocationService.revokeUsers(targetIds);
+                    TransactionUtils.afterCommit(() -> userStatsCounters.lockedInBulk(changed));
+                }
+                case UNLOCK -> {
+                    userRepository.unlockAll(targetIds);
+                    TransactionUtils.afterCommit(() -> {
+                        userStatsCounters.lockedInBulk(-changed);
+                        rows.forEach(target -> loginThrottle.recordSuccess(target.getUsername()));
+                    });
+                }
+                case ACTIVATE -> {
+                    userRepository.setActiveAll(targetIds, true);
+                    TransactionUtils.afterCommit(() -> userStatsCounters.activatedInBulk(changed));
+                }
+                case DEACTIVATE -> {
+                    userRepository.setActiveAll(targetIds, false);
+                    tokenRevocationService.revokeUsers(targetIds);
+                    TransactionUtils.afterCommit(() -> userStatsCounters.activatedInBulk(-changed));
+                }
+                case RESET -> {
+                    userRepository.resetFailedAttemptsAll(targetIds);
+                    TransactionUtils.afterCommit(
+                            () -> rows.forEach(target -> loginThrottle.recordSuccess(target.getUsername())));
+                }
+            }
+            return new ChunkResult(rows, changed);
+        });
+        for (UserRepository.BulkTarget target : result.targets()) {
+            usernames.add(target.getUsername());
+            userDetailsCache.invalidate(target.getUsername());
+        }
+        job.affected += result.changed();
+        job.skipped += chunk.size() - result.targets().size();
+        job.processed += chunk.size();
+    }
+
+    private record ChunkResult(List<UserRepository.BulkTarget> targets, int changed) {}
+
+    private static boolean changes(Action action, UserRepository.BulkTarget target) {
+        return switch (action) {
+            case LOCK -> !target.isLocked();
+            case UNLOCK -> target.isLocked();
+            case ACTIVATE -> !target.isActive();
+            case DEACTIVATE -> target.isActive();
+            case RESET -> true;
+        };
+    }
+
+    private void finish(Job job, List<String> usernames) {
+        if (!usernames.isEmpty()) {
+            eventPublisher.publishEvent(new UsersBulkChangedEvent(job.action.name(), usernames));
+        }
+        try {
+            webSocketService.sendAdminUpdate("bulk_user_action", job.toMap());
+        } catch (Exception e) {
+            logger.warn("Failed to publish bulk action summary: {}", e.getMessage());
+        }
+    }
+
+    private void register(Job job) {
+        synchronized (jobs) {
+            jobs.put(job.id, job);
+            Iterator<Job> it = jobs.values().iterator();
+            while (jobs.size() > retainedJobs && it.hasNext()) {
+                if (it.next().finishedAt != null) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    record Criteria(Role role, Boolean locked, Boolean active, int minFailedAttempts) {
+        static Criteria parse(Map<?, ?> filter) {
+            try {
+                return new Criteria(
+                    filter.get("role") != null ? Role.valueOf(filter.get("role").toString().toUpperCase()) : null,
+                    filter.get("locked") != null ? Boolean.valueOf(filter.get("locked").toString()) : null,
+                    filter.get("active") != null ? Boolean.valueOf(filter.get("active").toString()) : null,
+                    filter.get("minFailedAttempts") != null ? Integer.parseInt(filter.get("minFailedAttempts").toString()) : 0);
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Invalid bulk action filter: " + e.getMessage());
+            }
+        }
+    }
+
+    private static Action parseAction(Object value) {
+        if (value == null) {
+            throw new RuntimeException("action is required");
+        }
+        try {
+            return Action.valueOf(value.toString().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Unsupported bulk action: " + value);
+        }
+    }
+
+    private static List<Long> parseIds(Object value) {
+        if (!(value instanceof List<?> list)) {
+            throw new RuntimeException("userIds must be a list");
+        }
+        LinkedHashSet<Long> ids = new LinkedHashSet<>();
+        for (Object id : list) {
+            try {
+                ids.add(Long.parseLong(id.toString()));
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("Invalid user ID format: " + id);
+            }
+        }
+        return new ArrayList<>(ids);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+}
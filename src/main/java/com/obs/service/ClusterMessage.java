@@ -0,0 +1,13 @@
+package com.obs.service;
+
+/**
+ * A STOMP publication relayed between backend nodes. {@code targetNode} is null for topic
+ * broadcasts and set for user destinations, which only go to nodes holding a session.
+ */
+public record ClusterMessage(String id, String originNode, String targetNode,
+                             String destination, String username, Object payload) {
+
+    public ClusterMessage withTarget(String node) {
+        return new ClusterMessage(id, originNode, node, destination, username, payload);
+    }
+}
@@ -0,0 +1,27 @@
+package com.obs.service;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Carries WebSocket publications between backend replicas so the in-memory simple broker
+ * on each node sees every message. Implementations also track which nodes hold sessions
+ * for a user, so user destinations are not broadcast.
+ */
+public interface ClusterRelay {
+
+    String getNodeId();
+
+    /** Sends to the target node, or to every other node when the target is null. */
+    void forward(ClusterMessage message);
+
+    /** Handler for messages arriving from other nodes; may see duplicates. */
+    void setReceiver(Consumer<ClusterMessage> receiver);
+
+    void sessionOpened(String username);
+
+    void sessionClosed(String username);
+
+    /** Other nodes with a live session for the user. */
+    Set<String> remoteNodesFor(String username);
+}
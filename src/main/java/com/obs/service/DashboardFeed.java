@@ -0,0 +1,147 @@
+package com.obs.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * One dashboard's snapshot-plus-delta stream. Subscribers get the cached snapshot tagged
+ * with the sequence number it reflects, then apply deltas with a higher sequence. The last
+ * {@code ringSize} deltas are retained so a reconnecting client can resume from its last
+ * sequence without a new snapshot; the snapshot itself is rebuilt from the database only
+ * when marked dirty, never per subscriber.
+ */
+public class DashboardFeed {
+
+    private final String name;
+    private final String destination;
+    private final Supplier<Map<String, Object>> snapshotSource;
+    private final WebSocketDispatcher dispatcher;
+    private final Map<String, Object>[] ring;
+    // Serialises snapshot loads; the feed monitor itself is never held across a query
+    private final Object loadLock = new Object();
+
+    private long seq;
+    private volatile Map<String, Object> snapshot;
+    private long snapshotSeq;
+    private volatile long snapshotBuiltAt;
+    private volatile boolean dirty;
+
+    @SuppressWarnings("unchecked")
+    public DashboardFeed(String name, String destination, Supplier<Map<String, Object>> snapshotSource,
+                         int ringSize, WebSocketDispatcher dispatcher) {
+        this.name = name;
+        this.destination = destination;
+        this.snapshotSource = snapshotSource;
+        this.dispatcher = dispatcher;
+        this.ring = new Map[ringSize];
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    /** Current snapshot; built on first use, afterwards only by {@link #refreshIfStale}. */
+    public Map<String, Object> snapshotMessage() {
+        if (snapshot == null) {
+            synchronized (loadLock) {
+                if (snapshot == null) {
+                    Map<String, Object> loaded = load();
+                    synchronized (this) {
+                        install(loaded);
+                    }
+                }
+            }
+        }
+        return buildSnapshotMessage();
+    }
+
+    private synchronized Map<String, Object> buildSnapshotMessage() {
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("type", "SNAPSHOT");
+        message.put("feed", name);
+        message.put("seq", snapshotSeq);
+        message.put("destination", destination);
+        message.put("data", snapshot);
+        return message;
+    }
+
+    /**
+     * Deltas after {@code sinceSeq} if they are all still in the ring, otherwise a snapshot.
+     */
+    public Map<String, Object> resume(Long sinceSeq) {
+        Map<String, Object> deltas = sinceSeq != null ? deltasSince(sinceSeq) : null;
+        return deltas != null ? deltas : snapshotMessage();
+    }
+
+    private synchronized Map<String, Object> deltasSince(long sinceSeq) {
+        if (snapshot == null || sinceSeq < seq - ring.length || sinceSeq > seq) {
+            return null;
+        }
+        List<Map<String, Object>> deltas = new ArrayList<>();
+        for (long s = sinceSeq + 1; s <= seq; s++) {
+            deltas.add(ring[(int) (s % ring.length)]);
+        }
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("type", "DELTAS");
+        message.put("feed", name);
+        message.put("seq", seq);
+        message.put("deltas", deltas);
+        return message;
+    }
+
+    /** Appends and publishes a delta such as a new transaction. */
+    public synchronized void append(String kind, Map<String, Object> data) {
+        long next = ++seq;
+        Map<String, Object> delta = Map.of("type", "DELTA", "seq", next, "kind", kind, "data", data);
+        ring[(int) (next % ring.length)] = delta;
+        // Sequence numbers are per node, so deltas are not relayed across the cluster
+        dispatcher.toTopicNodeLocal(destination, delta);
+    }
+
+    /** Records that the snapshot source changed; picked up by the next refresh tick. */
+    public void markDirty() {
+        dirty = true;
+    }
+
+    /**
+     * Rebuilds the snapshot if dirty or older than {@code maxAgeMillis} and publishes only
+     * the counters that changed. Skipped entirely until someone has asked for a snapshot.
+     */
+    public void refreshIfStale(long maxAgeMillis) {
+        if (snapshot == null || (!dirty && System.currentTimeMillis() - snapshotBuiltAt < maxAgeMillis)) {
+            return;
+        }
+        synchronized (loadLock) {
+            Map<String, Object> fresh = load();
+            synchronized (this) {
+                Map<String, Object> changed = new HashMap<>();
+                fresh.forEach((key, value) -> {
+                    if (!Objects.equals(snapshot.get(key), value)) {
+                        changed.put(key, value);
+                    }
+                });
+                if (!changed.isEmpty()) {
+                    append("COUNTERS", changed);
+                }
+                // The snapshot already reflects the delta just appended
+                install(fresh);
+            }
+        }
+    }
+
+    private Map<String, Object> load() {
+        dirty = false;
+        return Map.copyOf(snapshotSource.get());
+    }
+
+    private void install(Map<String, Object> loaded) {
+        snapshot = loaded;
+        snapshotSeq = seq;
+        snapshotBuiltAt = System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,78 @@
+package com.obs.service;
+
+import com.obs.model.LoanStatus;
+import com.obs.model.TransactionStatus;
+import com.obs.repository.LoanApplicationRepository;
+import com.obs.repository.TransactionRepository;
+import com.obs.util.TransactionUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Admin and manager dashboard feeds (see {@link DashboardFeed}). Stats queries run at most
+ * once per refresh tick however many clients (re)subscribe.
+ */
+@Component
+public class DashboardFeeds {
+
+    public static final String ADMIN = "admin";
+    public static final String MANAGER = "manager";
+
+    private final Map<String, DashboardFeed> feeds = new HashMap<>();
+    private final WebSocketDispatcher dispatcher;
+    private final long maxAgeMillis;
+
+    // AdminService is looked up lazily: it may itself depend on the WebSocket services
+    public DashboardFeeds(ObjectProvider<AdminService> adminService,
+                          TransactionRepository transactionRepository,
+                          LoanApplicationRepository loanRepository,
+                          WebSocketDispatcher dispatcher,
+                          @Value("${app.websocket.dashboard.ring-size:1024}") int ringSize,
+                          @Value("${app.websocket.dashboard.snapshot-max-age-ms:300000}") long maxAgeMillis) {
+        this.dispatcher = dispatcher;
+        this.maxAgeMillis = maxAgeMillis;
+        feeds.put(ADMIN, new DashboardFeed(ADMIN, "/topic/dashboard.admin",
+                () -> adminService.getObject().getDashboardStats(), ringSize, dispatcher));
+        feeds.put(MANAGER, new DashboardFeed(MANAGER, "/topic/dashboard.manager",
+                () -> Map.of(
+                    "pendingTransactions", transactionRepository.countByStatus(TransactionStatus.PENDING),
+                    "pendingLoanApplications", loanRepository.countByStatus(LoanStatus.PENDING)
+                ), ringSize, dispatcher));
+    }
+
+    public DashboardFeed get(String name) {
+        DashboardFeed feed = feeds.get(name);
+        if (feed == null) {
+            throw new RuntimeException("Unknown dashboard feed: " + name);
+        }
+        return feed;
+    }
+
+    // Deltas are appended after commit so sequence numbers only go to deltas that will be published
+    public void transactionCreated(Map<String, Object> transaction) {
+        TransactionUtils.afterCommit(() -> {
+            feeds.get(ADMIN).append("TRANSACTION", transaction);
+            feeds.get(MANAGER).append("TRANSACTION", transaction);
+            if ("PENDING".equals(String.valueOf(transaction.get("status")))) {
+                feeds.get(MANAGER).markDirty();
+            }
+        });
+    }
+
+    public void loanApplicationCreated(Map<String, Object> loan) {
+        TransactionUtils.afterCommit(() -> {
+            feeds.get(MANAGER).append("LOAN_APPLICATION", loan);
+            feeds.get(MANAGER).markDirty();
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.websocket.dashboard.refresh-interval-ms:2000}")
+    public void refresh() {
+        feeds.values().forEach(feed -> feed.refreshIfStale(maxAgeMillis));
+    }
+}
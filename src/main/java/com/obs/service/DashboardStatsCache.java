@@ -0,0 +1,120 @@
+package com.obs.service;
+
+import com.obs.event.UserChangedEvent;
+import com.obs.event.UsersBulkChangedEvent;
+import com.obs.model.Role;
+import com.obs.repository.BranchRepository;
+import com.obs.repository.UserRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Cached admin dashboard counts. The numbers come from a single GROUP BY over users and are
+ * reloaded in the background when a user change commits or the snapshot is older than
+ * {@code ttl-ms}; readers always get the last snapshot and only the very first call loads
+ * inline. The admin dashboard feed is told to refresh whenever the counts change.
+ */
+@Component
+public class DashboardStatsCache {
+
+    private final UserRepository userRepository;
+    private final BranchRepository branchRepository;
+    private final ObjectProvider<DashboardFeeds> dashboardFeeds;
+    private final long ttlMillis;
+    private final Object loadLock = new Object();
+
+    private volatile Snapshot snapshot;
+    private volatile boolean dirty;
+
+    public DashboardStatsCache(UserRepository userRepository,
+                               BranchRepository branchRepository,
+                               ObjectProvider<DashboardFeeds> dashboardFeeds,
+                               @Value("${app.admin.stats.ttl-ms:30000}") long ttlMillis) {
+        this.userRepository = userRepository;
+        this.branchRepository = branchRepository;
+        this.dashboardFeeds = dashboardFeeds;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public Map<String, Object> get() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (loadLock) {
+                if (snapshot == null) {
+                    reload();
+                }
+                current = snapshot;
+            }
+        }
+        Map<String, Object> stats = new HashMap<>(current.counts);
+        stats.put("statsGeneratedAt", current.builtAt.toString());
+        return stats;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        dirty = true;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUsersBulkChanged(UsersBulkChangedEvent event) {
+        dirty = true;
+    }
+
+    @Scheduled(fixedDelayString = "${app.admin.stats.refresh-interval-ms:2000}")
+    public void refresh() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return; // nobody has asked yet
+        }
+        if (dirty || current.builtAt.plusMillis(ttlMillis).isBefore(Instant.now())) {
+            synchronized (loadLock) {
+                reload();
+            }
+        }
+    }
+
+    private void reload() {
+        dirty = false;
+        Map<String, Object> counts = load();
+        Snapshot previous = snapshot;
+        snapshot = new Snapshot(counts, Instant.now());
+        if (previous != null && !previous.counts.equals(counts)) {
+            dashboardFeeds.ifAvailable(feeds -> feeds.get(DashboardFeeds.ADMIN).markDirty());
+        }
+    }
+
+    private Map<String, Object> load() {
+        long total = 0;
+        long locked = 0;
+        Map<Role, Long> byRole = new HashMap<>();
+        for (UserRepository.StatusCount row : userRepository.countByRoleAndStatus()) {
+            total += row.getTotal();
+            if (row.isLocked()) {
+                locked += row.getTotal();
+            }
+            if (row.getRole() != null) {
+                byRole.merge(row.getRole(), row.getTotal(), Long::sum);
+            }
+        }
+        Map<String, Object> counts = new HashMap<>();
+        counts.put("totalUsers", total);
+        counts.put("activeUsers", total - locked);
+        counts.put("blockedUsers", locked);
+        counts.put("adminUsers", byRole.getOrDefault(Role.ADMIN, 0L));
+        counts.put("managerUsers", byRole.getOrDefault(Role.MANAGER, 0L));
+        counts.put("employeeUsers", byRole.getOrDefault(Role.EMPLOYEE, 0L));
+        counts.put("customerUsers", byRole.getOrDefault(Role.USER, 0L));
+        counts.put("totalBranches", branchRepository.count());
+        return counts;
+    }
+
+    private record Snapshot(Map<String, Object> counts, Instant builtAt) {}
+}
@@ -0,0 +1,205 @@
+package com.obs.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.obs.model.ClusterMessageRecord;
+import com.obs.model.ClusterUserSession;
+import com.obs.repository.ClusterMessageRepository;
+import com.obs.repository.ClusterUserSessionRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Cluster relay over the shared database, for deployments without a message broker.
+ * Outgoing messages are batched into cluster_message and every node polls for rows with
+ * a higher id. Ids skipped during a poll (inserts not yet committed) are re-checked for a
+ * short while, so out-of-order commits are not lost; the receiver dedupes by message id.
+ * The user-to-node session registry lives in cluster_user_session, refreshed by heartbeat.
+ */
+public class DbPollingClusterRelay implements ClusterRelay {
+    private static final Logger logger = LoggerFactory.getLogger(DbPollingClusterRelay.class);
+    private static final int MAX_TRACKED_GAPS = 10_000;
+
+    private final String nodeId;
+    private final ClusterMessageRepository messageRepository;
+    private final ClusterUserSessionRepository sessionRepository;
+    private final ObjectMapper objectMapper;
+    private final int pollBatchSize;
+    private final long gapTimeoutMillis;
+    private final long sessionTtlMillis;
+    private final long retentionMillis;
+
+    private final ConcurrentLinkedQueue<ClusterMessage> outbox = new ConcurrentLinkedQueue<>();
+    private final Map<String, Integer> localSessions = new ConcurrentHashMap<>();
+    private final Map<String, CachedNodes> nodeCache = new ConcurrentHashMap<>();
+    // Skipped id -> first time it was seen missing
+    private final Map<Long, Long> gaps = new ConcurrentHashMap<>();
+    private volatile Consumer<ClusterMessage> receiver = message -> { };
+    private long lastId;
+
+    public DbPollingClusterRelay(String nodeId, ClusterMessageRepository messageRepository,
+                                 ClusterUserSessionRepository sessionRepository, ObjectMapper objectMapper,
+                                 int pollBatchSize, long gapTimeoutMillis, long sessionTtlMillis, long retentionMillis) {
+        this.nodeId = nodeId;
+        this.messageRepository = messageRepository;
+        this.sessionRepository = sessionRepository;
+        this.objectMapper = objectMapper;
+        this.pollBatchSize = pollBatchSize;
+        this.gapTimeoutMillis = gapTimeoutMillis;
+        this.sessionTtlMillis = sessionTtlMillis;
+        this.retentionMillis = retentionMillis;
+    }
+
+    @PostConstruct
+    void start() {
+        lastId = messageRepository.findMaxId();
+        logger.info("Cluster relay node {} polling cluster_message from id {}", nodeId, lastId);
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void forward(ClusterMessage message) {
+        outbox.add(message);
+    }
+
+    @Override
+    public void setReceiver(Consumer<ClusterMessage> receiver) {
+        this.receiver = receiver;
+    }
+
+    @Override
+    public void sessionOpened(String username) {
+        if (localSessions.merge(username, 1, Integer::sum) == 1) {
+            ClusterUserSession session = new ClusterUserSession();
+            session.setId(nodeId + ":" + username);
+            session.setUsername(username);
+            session.setNodeId(nodeId);
+            session.setLastSeen(Instant.now());
+            sessionRepository.save(session);
+        }
+    }
+
+    @Override
+    public void sessionClosed(String username) {
+        Integer remaining = localSessions.computeIfPresent(username, (user, count) -> count > 1 ? count - 1 : null);
+        if (remaining == null) {
+            sessionRepository.deleteById(nodeId + ":" + username);
+        }
+    }
+
+    @Override
+    public Set<String> remoteNodesFor(String username) {
+        long now = System.currentTimeMillis();
+        CachedNodes cached = nodeCache.get(username);
+        if (cached != null && now - cached.loadedAt < 2_000) {
+            return cached.nodes;
+        }
+        Set<String> nodes = new HashSet<>(sessionRepository.findLiveNodes(username, nodeId,
+                Instant.ofEpochMilli(now - sessionTtlMillis)));
+        nodeCache.put(username, new CachedNodes(nodes, now));
+        return nodes;
+    }
+
+    @Scheduled(fixedDelayString = "${app.cluster.db.poll-interval-ms:200}")
+    public void poll() {
+        try {
+            flushOutbox();
+            readIncoming();
+        } catch (Exception e) {
+            logger.warn("Cluster relay poll failed: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.cluster.db.heartbeat-ms:10000}")
+    public void heartbeat() {
+        try {
+            Instant now = Instant.now();
+            sessionRepository.touchNode(nodeId, now);
+            sessionRepository.deleteStale(now.minusMillis(sessionTtlMillis * 6));
+            messageRepository.deleteExpiredBatch(now.minusMillis(retentionMillis), 5000);
+            nodeCache.clear();
+        } catch (Exception e) {
+            logger.warn("Cluster relay heartbeat failed: {}", e.getMessage());
+        }
+    }
+
+    private void flushOutbox() throws JsonProcessingException {
+        List<ClusterMessageRecord> batch = new ArrayList<>();
+        ClusterMessage message;
+        while (batch.size() < pollBatchSize && (message = outbox.poll()) != null) {
+            ClusterMessageRecord record = new ClusterMessageRecord();
+            record.setMessageId(message.id());
+            record.setOriginNode(message.originNode());
+            record.setTargetNode(message.targetNode());
+            record.setDestination(message.destination());
+            record.setUsername(message.username());
+            record.setPayload(objectMapper.writeValueAsString(message.payload()));
+            batch.add(record);
+        }
+        if (!batch.isEmpty()) {
+            messageRepository.saveAll(batch);
+        }
+    }
+
+    private void readIncoming() {
+        List<ClusterMessageRecord> rows = messageRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, pollBatchSize));
+        long now = System.currentTimeMillis();
+        long expected = lastId + 1;
+        for (ClusterMessageRecord row : rows) {
+            for (long missing = expected; missing < row.getId() && gaps.size() < MAX_TRACKED_GAPS; missing++) {
+                gaps.put(missing, now);
+            }
+            expected = row.getId() + 1;
+            lastId = row.getId();
+            deliver(row);
+        }
+        if (gaps.isEmpty()) {
+            return;
+        }
+        for (ClusterMessageRecord late : messageRepository.findAllById(gaps.keySet())) {
+            gaps.remove(late.getId());
+            deliver(late);
+        }
+        Iterator<Map.Entry<Long, Long>> it = gaps.entrySet().iterator();
+        while (it.hasNext()) {
+            // Rolled-back inserts leave permanent holes
+            if (now - it.next().getValue() > gapTimeoutMillis) {
+                it.remove();
+            }
+        }
+    }
+
+    private void deliver(ClusterMessageRecord row) {
+        if (nodeId.equals(row.getOriginNode())
+                || (row.getTargetNode() != null && !nodeId.equals(row.getTargetNode()))) {
+            return;
+        }
+        try {
+            Object payload = objectMapper.readValue(row.getPayload(), Object.class);
+            receiver.accept(new ClusterMessage(row.getMessageId(), row.getOriginNode(), row.getTargetNode(),
+                    row.getDestination(), row.getUsername(), payload));
+        } catch (Exception e) {
+            logger.warn("Dropping unreadable cluster message {}: {}", row.getId(), e.getMessage());
+        }
+    }
+
+    private record CachedNodes(Set<String> nodes, long loadedAt) {}
+}
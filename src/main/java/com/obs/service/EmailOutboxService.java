@@ -0,0 +1,153 @@
+package com.obs.service;
+
+import com.obs.event.EmailQueuedEvent;
+import com.obs.model.EmailOutbox;
+import com.obs.model.EmailStatus;
+import com.obs.repository.EmailOutboxRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Transactional email outbox. {@link #enqueue} joins the caller's transaction, so mail is
+ * sent if and only if the triggering change commits; delivery is done by
+ * {@link EmailOutboxWorker}. Failed sends back off exponentially and end up DEAD after
+ * {@code max-attempts}. Sensitive bodies (OTPs, temporary passwords) are wiped once the
+ * row is SENT or DEAD, and at the latest after {@code sensitive-ttl-ms}.
+ */
+@Service
+public class EmailOutboxService {
+
+    private final EmailOutboxRepository outboxRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxAttempts;
+    private final long backoffBaseMillis;
+    private final long backoffMaxMillis;
+    private final long stuckAfterMillis;
+    private final long sensitiveTtlMillis;
+
+    public EmailOutboxService(EmailOutboxRepository outboxRepository,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${app.mail.outbox.max-attempts:6}") int maxAttempts,
+                              @Value("${app.mail.outbox.backoff-base-ms:30000}") long backoffBaseMillis,
+                              @Value("${app.mail.outbox.backoff-max-ms:3600000}") long backoffMaxMillis,
+                              @Value("${app.mail.outbox.stuck-after-ms:600000}") long stuckAfterMillis,
+                              @Value("${app.mail.outbox.sensitive-ttl-ms:900000}") long sensitiveTtlMillis) {
+        this.outboxRepository = outboxRepository;
+        this.eventPublisher = eventPublisher;
+        this.maxAttempts = maxAttempts;
+        this.backoffBaseMillis = backoffBaseMillis;
+        this.backoffMaxMillis = backoffMaxMillis;
+        this.stuckAfterMillis = stuckAfterMillis;
+        this.sensitiveTtlMillis = sensitiveTtlMillis;
+    }
+
+    @Transactional
+    public EmailOutbox enqueue(String to, String subject, String body, String category, boolean sensitive) {
+        EmailOutbox mail = new EmailOutbox();
+        mail.setRecipient(to);
+        mail.setSubject(subject);
+        mail.setBody(body);
+        mail.setCategory(category);
+        mail.setSensitive(sensitive);
+        mail = outboxRepository.save(mail);
+        eventPublisher.publishEvent(new EmailQueuedEvent(mail.getId()));
+        return mail;
+    }
+
+    /** Locks and claims up to {@code limit} due rows; other nodes skip them. */
+    @Transactional
+    public List<EmailOutbox> claimDue(int limit) {
+        Instant now = Instant.now();
+        List<EmailOutbox> due = outboxRepository.lockDue(now, limit);
+        if (!due.isEmpty()) {
+            outboxRepository.markClaimed(due.stream().map(EmailOutbox::getId).toList(), EmailStatus.SENDING, now);
+        }
+        return due;
+    }
+
+    public void markSent(Collection<Long> ids) {
+        if (!ids.isEmpty()) {
+            outboxRepository.markSent(ids, EmailStatus.SENT, Instant.now());
+        }
+    }
+
+    @Transactional
+    public void markFailed(Long id, String error) {
+        outboxRepository.findById(id).ifPresent(mail -> {
+            int attempts = mail.getAttempts() + 1;
+            mail.setAttempts(attempts);
+            mail.setLastError(error != null && error.length() > 500 ? error.substring(0, 500) : error);
+            if (attempts >= maxAttempts) {
+                mail.setStatus(EmailStatus.DEAD);
+                if (mail.isSensitive()) {
+                    mail.setBody("");
+                }
+            } else {
+                mail.setStatus(EmailStatus.PENDING);
+                mail.setNextAttemptAt(Instant.now().plusMillis(backoffMillis(attempts)));
+            }
+            outboxRepository.save(mail);
+        });
+    }
+
+    public int releaseStuck() {
+        return outboxRepository.releaseStuck(EmailStatus.PENDING, EmailStatus.SENDING,
+                Instant.now().minusMillis(stuckAfterMillis));
+    }
+
+    public int expireSensitive() {
+        return outboxRepository.expireSensitive(EmailStatus.DEAD, EmailStatus.SENT,
+                Instant.now().minusMillis(sensitiveTtlMillis));
+    }
+
+    /** Puts a dead-lettered message back in the queue with a fresh attempt budget. */
+    @Transactional
+    public Map<String, Object> retry(Long id) {
+        EmailOutbox mail = outboxRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Outbox message not found with id: " + id));
+        if (mail.getStatus() != EmailStatus.DEAD) {
+            throw new RuntimeException("Only dead-lettered messages can be retried");
+        }
+        if (mail.isSensitive()) {
+            throw new RuntimeException("Sensitive messages are not kept after failing; the user must request a new one");
+        }
+        mail.setStatus(EmailStatus.PENDING);
+        mail.setAttempts(0);
+        mail.setNextAttemptAt(Instant.now());
+        outboxRepository.save(mail);
+        eventPublisher.publishEvent(new EmailQueuedEvent(mail.getId()));
+        return Map.of("id", id, "status", mail.getStatus().name());
+    }
+
+    public Map<String, Object> getStatus() {
+        return Map.of(
+            "pending", outboxRepository.countByStatus(EmailStatus.PENDING),
+            "sending", outboxRepository.countByStatus(EmailStatus.SENDING),
+            "sent", outboxRepository.countByStatus(EmailStatus.SENT),
+            "dead", outboxRepository.countByStatus(EmailStatus.DEAD),
+            "recentDead", outboxRepository.findTop100ByStatusOrderByIdDesc(EmailStatus.DEAD).stream()
+                .map(mail -> Map.of(
+                    "id", mail.getId(),
+                    "recipient", mail.getRecipient(),
+                    "subject", mail.getSubject(),
+                    "attempts", mail.getAttempts(),
+                    "lastError", mail.getLastError() != null ? mail.getLastError() : ""
+                ))
+                .toList()
+        );
+    }
+
+    private long backoffMillis(int attempts) {
+        long delay = Math.min(backoffMaxMillis, backoffBaseMillis << Math.min(attempts - 1, 20));
+        // Jitter so a burst of failures does not retry in lockstep
+        return delay + ThreadLocalRandom.current().nextLong(Math.max(1, delay / 5));
+    }
+}
@@ -0,0 +1,185 @@
+package com.obs.service;
+
+import com.obs.event.EmailQueuedEvent;
+import com.obs.model.EmailOutbox;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains the email outbox on a small fixed pool. Each drainer claims a batch and hands
+ * it to {@link JavaMailSender#send(SimpleMailMessage...)}, which delivers the whole batch
+ * over a single SMTP connection; per-message failures are retried via the outbox.
+ * Drainers are started after each commit that queued mail and by a periodic poll.
+ */
+@Component
+public class EmailOutboxWorker {
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxWorker.class);
+
+    private final EmailOutboxService outboxService;
+    private final JavaMailSender mailSender;
+    private final String from;
+    private final int poolSize;
+    private final int batchSize;
+    private final ThreadPoolExecutor pool;
+    private final AtomicInteger activeDrainers = new AtomicInteger();
+    private volatile boolean running = true;
+
+    private final Counter sent;
+    private final Counter failed;
+    private final Timer batchTimer;
+
+    public EmailOutboxWorker(EmailOutboxService outboxService,
+                             JavaMailSender mailSender,
+                             @Value("${spring.mail.username:}") String from,
+                             @Value("${app.mail.outbox.pool-size:2}") int poolSize,
+                             @Value("${app.mail.outbox.batch-size:50}") int batchSize,
+                             MeterRegistry meterRegistry) {
+        this.outboxService = outboxService;
+        this.mailSender = mailSender;
+        this.from = from;
+        this.poolSize = Math.max(1, poolSize);
+        this.batchSize = batchSize;
+        AtomicInteger threadIds = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(this.poolSize, this.poolSize, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread t = new Thread(r, "email-outbox-" + threadIds.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.pool.allowCoreThreadTimeOut(true);
+
+        this.sent = Counter.builder("email.outbox.sent").register(meterRegistry);
+        this.failed = Counter.builder("email.outbox.failed")
+                .description("Send attempts that will be retried or dead-lettered").register(meterRegistry);
+        this.batchTimer = Timer.builder("email.outbox.batch")
+                .description("Time to deliver one batch over a single SMTP connection").register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmailQueued(EmailQueuedEvent event) {
+        wake();
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval-ms:5000}")
+    public void poll() {
+        try {
+            int released = outboxService.releaseStuck();
+            if (released > 0) {
+                logger.warn("Released {} outbox messages stuck in SENDING", released);
+            }
+            int expired = outboxService.expireSensitive();
+            if (expired > 0) {
+                logger.warn("Dead-lettered {} sensitive outbox messages not delivered in time", expired);
+            }
+        } catch (Exception e) {
+            logger.warn("Outbox stuck-row check failed: {}", e.getMessage());
+        }
+        wake();
+    }
+
+    /** Starts drainers up to the pool size; a no-op when all are already running. */
+    public void wake() {
+        int active;
+        while (running && (active = activeDrainers.get()) < poolSize) {
+            if (activeDrainers.compareAndSet(active, active + 1)) {
+                pool.execute(this::drainLoop);
+            }
+        }
+    }
+
+    private void drainLoop() {
+        try {
+            while (running && drainOnce() > 0) {
+                // keep going while there is a backlog
+            }
+        } catch (Exception e) {
+            logger.warn("Outbox drain failed: {}", e.getMessage());
+        } finally {
+            activeDrainers.decrementAndGet();
+        }
+    }
+
+    /** Claims and sends one batch; returns the number of messages claimed. */
+    public int drainOnce() {
+        List<EmailOutbox> batch = outboxService.claimDue(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        Map<SimpleMailMessage, EmailOutbox> byMessage = new IdentityHashMap<>();
+        SimpleMailMessage[] messages = new SimpleMailMessage[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            EmailOutbox mail = batch.get(i);
+            SimpleMailMessage message = new SimpleMailMessage();
+            if (from != null && !from.isBlank()) {
+                message.setFrom(from);
+            }
+            message.setTo(mail.getRecipient());
+            message.setSubject(mail.getSubject());
+            message.setText(mail.getBody());
+            messages[i] = message;
+            byMessage.put(message, mail);
+        }
+
+        Map<Object, Exception> failures = new IdentityHashMap<>();
+        long start = System.nanoTime();
+        try {
+            mailSender.send(messages);
+        } catch (MailSendException e) {
+            failures.putAll(e.getFailedMessages());
+            if (failures.isEmpty()) {
+                for (SimpleMailMessage message : messages) {
+                    failures.put(message, e);
+                }
+            }
+        } catch (MailException e) {
+            for (SimpleMailMessage message : messages) {
+                failures.put(message, e);
+            }
+        } finally {
+            batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        List<Long> delivered = new ArrayList<>();
+        for (SimpleMailMessage message : messages) {
+            EmailOutbox mail = byMessage.get(message);
+            Exception error = failures.get(message);
+            if (error == null) {
+                delivered.add(mail.getId());
+            } else {
+                failed.increment();
+                logger.warn("Email {} to {} failed: {}", mail.getId(), mail.getRecipient(), error.getMessage());
+                outboxService.markFailed(mail.getId(), error.getMessage());
+            }
+        }
+        outboxService.markSent(delivered);
+        sent.increment(delivered.size());
+        return batch.size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        running = false;
+        pool.shutdown();
+    }
+}
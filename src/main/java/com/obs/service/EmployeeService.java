@@ -1,7 +1,9 @@
 package com.obs.service;
 
+import com.obs.event.AuditEvent;
 import com.obs.model.*;
 import com.obs.repository.*;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -12,11 +14,14 @@ public class EmployeeService {
     private final KycRequestRepository kycRepository;
     private final TransactionRepository transactionRepository;
     private final AccountRepository accountRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public EmployeeService(KycRequestRepository kycRepository, TransactionRepository transactionRepository, AccountRepository accountRepository) {
+    public EmployeeService(KycRequestRepository kycRepository, TransactionRepository transactionRepository, AccountRepository accountRepository,
+                           ApplicationEventPublisher eventPublisher) {
         this.kycRepository = kycRepository;
         this.transactionRepository = transactionRepository;
         this.accountRepository = accountRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     public List<KycRequest> pendingKyc(){ return kycRepository.findByStatus(KycStatus.PENDING); }
@@ -24,12 +29,15 @@ public class EmployeeService {
         KycRequest req = kycRepository.findById(Long.parseLong(id)).orElseThrow();
         req.setStatus("APPROVE".equalsIgnoreCase(decision) ? KycStatus.APPROVED : KycStatus.REJECTED);
         req.setComments(comments); kycRepository.save(req);
+        eventPublisher.publishEvent(new AuditEvent("KYC_" + req.getStatus().name(), "KYC", req.getId(), comments));
         return Map.of("kycId", req.getId(), "status", req.getStatus().name());
     }
-    public List<Transaction> pendingTransactions(){ return transactionRepository.findByStatus(TransactionStatus.PENDING); }
+    // Review queue: transactions awaiting a decision and those flagged by staff or the fraud rules
+    public List<Transaction> pendingTransactions(){ return transactionRepository.findByStatusIn(List.of(TransactionStatus.PENDING, TransactionStatus.FLAGGED)); }
     public Map<String,Object> flagTransaction(String id, String reason){
         Transaction tx = transactionRepository.findById(Long.parseLong(id)).orElseThrow();
         tx.setStatus(TransactionStatus.FLAGGED); tx.setFlagReason(reason); transactionRepository.save(tx);
+        eventPublisher.publishEvent(new AuditEvent("TRANSACTION_FLAGGED", "TRANSACTION", tx.getId(), reason));
         return Map.of("transactionId", tx.getId(), "status", tx.getStatus().name(), "reason", tx.getFlagReason());
     }
     public List<Account> pendingAccounts(){ return accountRepository.findByStatus(AccountStatus.PENDING); }
@@ -37,6 +45,7 @@ public class EmployeeService {
         Account acc = accountRepository.findById(Long.parseLong(id)).orElseThrow();
         acc.setStatus("APPROVE".equalsIgnoreCase(decision) ? AccountStatus.ACTIVE : AccountStatus.REJECTED);
         accountRepository.save(acc);
+        eventPublisher.publishEvent(new AuditEvent("ACCOUNT_" + acc.getStatus().name(), "ACCOUNT", acc.getId(), null));
         return Map.of("accountId", acc.getId(), "status", acc.getStatus().name());
     }
 }
@@ -0,0 +1,338 @@
+package com.obs.service;
+
+import com.obs.model.TransactionType;
+import com.obs.repository.TransactionRepository;
+import com.obs.util.TransactionUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+
+/**
+ * Scores every posted outgoing transaction against per-account behaviour:
+ * <ul>
+ *   <li>VELOCITY: {@code velocity.max-count} or more debits within {@code velocity.window-minutes};</li>
+ *   <li>AMOUNT_SPIKE: a debit at least {@code spike.factor} times the account's mean over its
+ *       recent debits (once {@code spike.min-history} are known);</li>
+ *   <li>NEW_PAYEE: a large debit to an account added as a beneficiary within
+ *       {@code new-payee.window-minutes}.</li>
+ * </ul>
+ * Transactions arrive from {@link TransactionFraudListener} after commit and are evaluated
+ * on a single worker thread, so the per-account ring buffers need no locking. State is held
+ * in open-addressed {@code long}-keyed tables of fixed size; when a probe window is full the
+ * least recently touched account is evicted. A flagged transaction gets status FLAGGED and a
+ * {@code flagReason}, which puts it in the employee review queue, and a system alert is sent.
+ */
+@Service
+public class FraudRuleEngine {
+    private static final Logger logger = LoggerFactory.getLogger(FraudRuleEngine.class);
+    private static final int HISTORY = 32;
+    private static final int PAYEES = 8;
+
+    /** A posted transaction reduced to primitives; amounts are in paise and always positive. */
+    public record Posted(long id, String transactionId, long accountId, long userId, long amountCents,
+                         TransactionType type, long recipientKey, String recipientAccount, long atMillis) {}
+
+    private final TransactionRepository transactionRepository;
+    private final WebSocketService webSocketService;
+    private final boolean enabled;
+    private final int velocityCount;
+    private final long velocityWindowMillis;
+    private final double spikeFactor;
+    private final int spikeMinHistory;
+    private final long spikeMinCents;
+    private final long newPayeeWindowMillis;
+    private final long newPayeeMinCents;
+    private final long highValueCents;
+
+    private final LongMap<AccountWindow> accounts;
+    private final LongMap<RecentPayees> payees;
+    private final ThreadPoolExecutor worker;
+
+    private final Timer evaluation;
+    private final Counter flagged;
+    private final Counter dropped;
+
+    public FraudRuleEngine(TransactionRepository transactionRepository,
+                           WebSocketService webSocketService,
+                           @Value("${app.fraud.enabled:true}") boolean enabled,
+                           @Value("${app.fraud.queue-capacity:10000}") int queueCapacity,
+                           @Value("${app.fraud.max-accounts:262144}") int maxAccounts,
+                           @Value("${app.fraud.velocity.max-count:5}") int velocityCount,
+                           @Value("${app.fraud.velocity.window-minutes:10}") long velocityWindowMinutes,
+                           @Value("${app.fraud.spike.factor:5.0}") double spikeFactor,
+                           @Value("${app.fraud.spike.min-history:5}") int spikeMinHistory,
+                           @Value("${app.fraud.spike.min-amount:10000}") BigDecimal spikeMinAmount,
+                           @Value("${app.fraud.new-payee.window-minutes:60}") long newPayeeWindowMinutes,
+                           @Value("${app.fraud.new-payee.min-amount:50000}") BigDecimal newPayeeMinAmount,
+                           @Value("${app.fraud.high-value-amount:200000}") BigDecimal highValueAmount,
+                           MeterRegistry meterRegistry) {
+        this.transactionRepository = transactionRepository;
+        this.webSocketService = webSocketService;
+        this.enabled = enabled;
+        this.velocityCount = Math.max(2, Math.min(HISTORY, velocityCount));
+        this.velocityWindowMillis = TimeUnit.MINUTES.toMillis(velocityWindowMinutes);
+        this.spikeFactor = spikeFactor;
+        this.spikeMinHistory = Math.max(1, Math.min(HISTORY, spikeMinHistory));
+        this.spikeMinCents = cents(spikeMinAmount);
+        this.newPayeeWindowMillis = TimeUnit.MINUTES.toMillis(newPayeeWindowMinutes);
+        this.newPayeeMinCents = cents(newPayeeMinAmount);
+        this.highValueCents = cents(highValueAmount);
+        this.accounts = new LongMap<>(maxAccounts);
+        this.payees = new LongMap<>(maxAccounts);
+
+        this.evaluation = Timer.builder("fraud.evaluate").register(meterRegistry);
+        this.flagged = Counter.builder("fraud.flagged").register(meterRegistry);
+        this.dropped = Counter.builder("fraud.dropped")
+                .description("Transactions not scored because the evaluation queue was full").register(meterRegistry);
+        this.worker = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                r -> {
+                    Thread t = new Thread(r, "fraud-rules");
+                    t.setDaemon(true);
+                    return t;
+                },
+                (r, executor) -> dropped.increment());
+    }
+
+    /** Queues a committed transaction for scoring; incoming credits are ignored. */
+    public void submit(Posted posted) {
+        if (enabled && posted.amountCents() > 0) {
+            worker.execute(() -> process(posted));
+        }
+    }
+
+    /** Remembers a newly added beneficiary so a large first payment to it can be caught. */
+    public void beneficiaryAdded(Long userId, String accountNumber) {
+        if (!enabled || userId == null || accountNumber == null) {
+            return;
+        }
+        long key = recipientKey(accountNumber);
+        long now = System.currentTimeMillis();
+        TransactionUtils.afterCommit(() -> worker.execute(
+                () -> payees.computeIfAbsent(userId, id -> new RecentPayees(), now).add(key, now)));
+    }
+
+    private void process(Posted posted) {
+        List<String> reasons = evaluation.record(() -> evaluate(posted));
+        try {
+            if (!reasons.isEmpty()) {
+                String reason = String.join("; ", reasons);
+                flagged.increment();
+                transactionRepository.flag(posted.id(), reason.length() > 255 ? reason.substring(0, 255) : reason);
+                webSocketService.sendSystemAlert("fraud_detection",
+                        "Transaction " + posted.transactionId() + " flagged: " + reason, alertData(posted, reason));
+            } else if (posted.amountCents() >= highValueCents) {
+                webSocketService.sendSystemAlert("high_value_transaction",
+                        "High value transaction " + posted.transactionId(), alertData(posted, null));
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to act on fraud evaluation of transaction {}: {}", posted.id(), e.getMessage());
+        }
+    }
+
+    /**
+     * Applies every rule to the transaction and records it in the account's window.
+     * Returns the reasons it should be flagged (empty when clean). Not thread-safe: only the
+     * worker thread (or a test) may call it.
+     */
+    public List<String> evaluate(Posted p) {
+        List<String> reasons = new ArrayList<>(2);
+        long now = p.atMillis();
+        AccountWindow window = accounts.computeIfAbsent(p.accountId(), id -> new AccountWindow(), now);
+
+        int recent = window.countSince(now - velocityWindowMillis) + 1;
+        if (recent >= velocityCount) {
+            reasons.add("VELOCITY: " + recent + " debits in " + TimeUnit.MILLISECONDS.toMinutes(velocityWindowMillis) + " min");
+        }
+        if (window.size >= spikeMinHistory && p.amountCents() >= spikeMinCents) {
+            double mean = (double) window.sum / window.size;
+            if (p.amountCents() >= spikeFactor * mean) {
+                reasons.add(String.format("AMOUNT_SPIKE: %.1fx the recent average", p.amountCents() / mean));
+            }
+        }
+        if (p.amountCents() >= newPayeeMinCents && p.recipientKey() != 0) {
+            RecentPayees recentPayees = payees.get(p.userId(), now);
+            if (recentPayees != null && recentPayees.addedSince(p.recipientKey(), now - newPayeeWindowMillis)) {
+                reasons.add("NEW_PAYEE: large transfer to a beneficiary added within "
+                        + TimeUnit.MILLISECONDS.toMinutes(newPayeeWindowMillis) + " min");
+            }
+        }
+        window.add(now, p.amountCents());
+        return reasons;
+    }
+
+    public int getQueuedCount() {
+        return worker.getQueue().size();
+    }
+
+    private static Map<String, Object> alertData(Posted p, String reason) {
+        return reason != null
+                ? Map.of("transactionId", p.transactionId() != null ? p.transactionId() : String.valueOf(p.id()),
+                        "accountId", p.accountId(), "amount", BigDecimal.valueOf(p.amountCents(), 2), "reason", reason)
+                : Map.of("transactionId", p.transactionId() != null ? p.transactionId() : String.valueOf(p.id()),
+                        "accountId", p.accountId(), "amount", BigDecimal.valueOf(p.amountCents(), 2));
+    }
+
+    static long cents(BigDecimal amount) {
+        return amount.movePointRight(2).abs().longValue();
+    }
+
+    /** Stable 64-bit key for a recipient account number or UPI id; 0 means none. */
+    public static long recipientKey(String accountNumber) {
+        if (accountNumber == null || accountNumber.isBlank()) {
+            return 0;
+        }
+        long h = 1125899906842597L;
+        String normalized = accountNumber.trim().toLowerCase();
+        for (int i = 0; i < normalized.length(); i++) {
+            h = 31 * h + normalized.charAt(i);
+        }
+        return h == 0 ? 1 : h;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    /** The account's last {@value #HISTORY} debits as parallel ring buffers. */
+    private static final class AccountWindow {
+        final long[] at = new long[HISTORY];
+        final long[] amounts = new long[HISTORY];
+        int head;
+        int size;
+        long sum;
+
+        void add(long time, long amount) {
+            if (size == HISTORY) {
+                sum -= amounts[head];
+            } else {
+                size++;
+            }
+            at[head] = time;
+            amounts[head] = amount;
+            sum += amount;
+            head = (head + 1) % HISTORY;
+        }
+
+        int countSince(long since) {
+            int n = 0;
+            for (int i = 0; i < size; i++) {
+                if (at[i] >= since) {
+                    n++;
+                }
+            }
+            return n;
+        }
+    }
+
+    /** A user's last {@value #PAYEES} added beneficiaries. */
+    private static final class RecentPayees {
+        final long[] keys = new long[PAYEES];
+        final long[] addedAt = new long[PAYEES];
+        int next;
+
+        void add(long key, long time) {
+            keys[next] = key;
+            addedAt[next] = time;
+            next = (next + 1) % PAYEES;
+        }
+
+        boolean addedSince(long key, long since) {
+            for (int i = 0; i < PAYEES; i++) {
+                if (keys[i] == key && addedAt[i] >= since) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Open-addressed map from {@code long} keys to values with a fixed capacity. A key is
+     * looked up within {@code MAX_PROBE} slots of its hash; inserting into a full probe
+     * window evicts the least recently touched entry there. Not thread-safe.
+     */
+    private static final class LongMap<V> {
+        private static final int MAX_PROBE = 16;
+
+        private final long[] keys;
+        private final long[] touched;
+        private final Object[] values;
+        private final int mask;
+
+        LongMap(int capacity) {
+            int size = Integer.highestOneBit(Math.max(MAX_PROBE, capacity - 1) << 1);
+            this.keys = new long[size];
+            this.touched = new long[size];
+            this.values = new Object[size];
+            this.mask = size - 1;
+        }
+
+        @SuppressWarnings("unchecked")
+        V get(long key, long now) {
+            key = nonZero(key);
+            int start = (int) mix(key) & mask;
+            for (int i = 0; i < MAX_PROBE; i++) {
+                int slot = (start + i) & mask;
+                if (keys[slot] == key) {
+                    touched[slot] = now;
+                    return (V) values[slot];
+                }
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        V computeIfAbsent(long key, LongFunction<V> factory, long now) {
+            key = nonZero(key);
+            int start = (int) mix(key) & mask;
+            int free = -1;
+            int oldest = start;
+            for (int i = 0; i < MAX_PROBE; i++) {
+                int slot = (start + i) & mask;
+                if (keys[slot] == key) {
+                    touched[slot] = now;
+                    return (V) values[slot];
+                }
+                if (keys[slot] == 0 && free < 0) {
+                    free = slot;
+                }
+                if (touched[slot] < touched[oldest]) {
+                    oldest = slot;
+                }
+            }
+            int slot = free >= 0 ? free : oldest;
+            V value = factory.apply(key);
+            keys[slot] = key;
+            touched[slot] = now;
+            values[slot] = value;
+            return value;
+        }
+
+        // Key 0 marks an empty slot
+        private static long nonZero(long key) {
+            return key == 0 ? Long.MIN_VALUE : key;
+        }
+
+        private static long mix(long z) {
+            z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+            z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+            return z ^ (z >>> 33);
+        }
+    }
+}
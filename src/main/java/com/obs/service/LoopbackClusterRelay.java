@@ -0,0 +1,70 @@
+package com.obs.service;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * In-process relay: nodes created with the same cluster name exchange messages directly.
+ * With a single node (the default deployment) it forwards nothing; tests use several
+ * instances to exercise cross-node fan-out without an external broker or database.
+ */
+public class LoopbackClusterRelay implements ClusterRelay {
+
+    private static final Map<String, Map<String, LoopbackClusterRelay>> CLUSTERS = new ConcurrentHashMap<>();
+
+    private final String nodeId;
+    private final Map<String, LoopbackClusterRelay> peers;
+    private final Map<String, Integer> localSessions = new ConcurrentHashMap<>();
+    private volatile Consumer<ClusterMessage> receiver = message -> { };
+
+    public LoopbackClusterRelay(String clusterName, String nodeId) {
+        this.nodeId = nodeId;
+        this.peers = CLUSTERS.computeIfAbsent(clusterName, name -> new ConcurrentHashMap<>());
+        peers.put(nodeId, this);
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void forward(ClusterMessage message) {
+        peers.forEach((id, peer) -> {
+            if (!id.equals(nodeId) && (message.targetNode() == null || message.targetNode().equals(id))) {
+                peer.receiver.accept(message);
+            }
+        });
+    }
+
+    @Override
+    public void setReceiver(Consumer<ClusterMessage> receiver) {
+        this.receiver = receiver;
+    }
+
+    @Override
+    public void sessionOpened(String username) {
+        localSessions.merge(username, 1, Integer::sum);
+    }
+
+    @Override
+    public void sessionClosed(String username) {
+        localSessions.computeIfPresent(username, (user, count) -> count > 1 ? count - 1 : null);
+    }
+
+    @Override
+    public Set<String> remoteNodesFor(String username) {
+        return peers.entrySet().stream()
+                .filter(e -> !e.getKey().equals(nodeId) && e.getValue().localSessions.containsKey(username))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+    }
+
+    /** Detaches this node from its cluster. */
+    public void leave() {
+        peers.remove(nodeId, this);
+    }
+}
@@ -1,10 +1,18 @@
 package com.obs.service;
 
+import com.obs.event.AuditEvent;
+import com.obs.model.Account;
+import com.obs.model.AmlCase;
 import com.obs.model.LoanApplication;
 import com.obs.model.LoanStatus;
+import com.obs.repository.AccountRepository;
+import com.obs.repository.AmlCaseRepository;
 import com.obs.repository.LoanApplicationRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.ArrayList;
@@ -13,9 +21,16 @@ import java.time.LocalDateTime;
 @Service
 public class ManagerService {
     private final LoanApplicationRepository loanRepository;
+    private final AmlCaseRepository amlCaseRepository;
+    private final AccountRepository accountRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
-    public ManagerService(LoanApplicationRepository loanRepository){ 
+    public ManagerService(LoanApplicationRepository loanRepository, AmlCaseRepository amlCaseRepository,
+                          AccountRepository accountRepository, ApplicationEventPublisher eventPublisher){ 
         this.loanRepository = loanRepository; 
+        this.amlCaseRepository = amlCaseRepository;
+        this.accountRepository = accountRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     // Staff Oversight Methods
@@ -102,24 +117,36 @@ public class ManagerService {
         );
     }
     
+    // Highest-risk cases from the nightly AML analysis (AmlAnalysisService)
     public List<Map<String,Object>> getSuspiciousAccounts(){
         List<Map<String,Object>> accounts = new ArrayList<>();
-        accounts.add(Map.of(
-            "accountId", "ACC123456",
-            "customerName", "Suspicious Customer",
-            "riskScore", 85,
-            "flagReason", "Unusual transaction patterns",
-            "lastActivity", LocalDateTime.now().minusHours(2).toString(),
-            "status", "UNDER_REVIEW"
-        ));
+        for (AmlCase amlCase : amlCaseRepository.findByStatusInOrderByRiskScoreDescIdDesc(
+                List.of("OPEN", "UNDER_REVIEW"), PageRequest.of(0, 100))) {
+            Map<String,Object> account = new HashMap<>();
+            account.put("caseId", amlCase.getId());
+            account.put("accountId", amlCase.getAccountNumber());
+            account.put("customerName", accountRepository.findByAccountNumber(amlCase.getAccountNumber())
+                .map(Account::getUser).map(user -> user.getUsername()).orElse("External"));
+            account.put("riskScore", amlCase.getRiskScore());
+            account.put("pattern", amlCase.getPattern());
+            account.put("flagReason", amlCase.getDetails());
+            account.put("totalAmount", amlCase.getTotalAmount());
+            account.put("transferCount", amlCase.getTransferCount());
+            account.put("lastActivity", amlCase.getWindowEnd() != null ? amlCase.getWindowEnd().toString() : null);
+            account.put("status", amlCase.getStatus());
+            accounts.add(account);
+        }
         return accounts;
     }
     
     public Map<String,Object> investigateAccount(String id, Map<String,String> data){
+        int cases = amlCaseRepository.markUnderReview(id, data.getOrDefault("notes", ""));
+        eventPublisher.publishEvent(new AuditEvent("ACCOUNT_INVESTIGATION", "ACCOUNT", id, data.getOrDefault("notes", "")));
         return Map.of(
             "success", true,
             "message", "Account investigation initiated",
             "accountId", id,
+            "casesUnderReview", cases,
             "notes", data.getOrDefault("notes", "")
         );
     }
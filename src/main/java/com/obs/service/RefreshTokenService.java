@@ -0,0 +1,151 @@
+package com.obs.service;
+
+import com.obs.model.RefreshToken;
+import com.obs.model.User;
+import com.obs.repository.RefreshTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Issues, rotates and purges refresh tokens.
+ * Login costs a single insert; each refresh rotates the token within its family, and a
+ * rotated token presented again revokes every token in that family (reuse detection).
+ */
+@Service
+public class RefreshTokenService {
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final Duration ttl;
+    private final int cleanupBatchSize;
+    private final long cleanupPauseMillis;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               @Value("${app.jwt.refresh.ttl-days:7}") long ttlDays,
+                               @Value("${app.jwt.refresh.cleanup-batch-size:1000}") int cleanupBatchSize,
+                               @Value("${app.jwt.refresh.cleanup-pause-ms:50}") long cleanupPauseMillis) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.ttl = Duration.ofDays(ttlDays);
+        this.cleanupBatchSize = cleanupBatchSize;
+        this.cleanupPauseMillis = cleanupPauseMillis;
+    }
+
+    /** Result of a successful rotation: the owner and the replacement raw token. */
+    public static class Rotation {
+        private final User user;
+        private final String refreshToken;
+
+        Rotation(User user, String refreshToken) {
+            this.user = user;
+            this.refreshToken = refreshToken;
+        }
+
+        public User getUser() { return user; }
+        public String getRefreshToken() { return refreshToken; }
+    }
+
+    /** Starts a new token family for a fresh login and returns the raw token. */
+    public String issue(User user) {
+        return store(user, UUID.randomUUID().toString());
+    }
+
+    public Rotation rotate(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) {
+            throw new RuntimeException("Invalid refresh token");
+        }
+        RefreshToken token = refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .orElseThrow(() -> new RuntimeException("Invalid refresh token"));
+
+        if (token.isRevoked() || refreshTokenRepository.markRotated(token.getId()) == 0) {
+            int revoked = refreshTokenRepository.revokeFamily(token.getFamilyId());
+            log.warn("Refresh token reuse detected for user {}; revoked {} token(s) in family {}",
+                    token.getUser().getUsername(), revoked, token.getFamilyId());
+            throw new RuntimeException("Refresh token reuse detected, please log in again");
+        }
+        if (token.getExpiresAt().isBefore(Instant.now())) {
+            throw new RuntimeException("Refresh token expired");
+        }
+        if (token.getUser().isLocked() || !token.getUser().isActive()) {
+            throw new RuntimeException("Account is not active");
+        }
+        String replacement = store(token.getUser(), token.getFamilyId());
+        return new Rotation(token.getUser(), replacement);
+    }
+
+    /** Revokes the token's whole family (logout); unknown tokens are ignored. */
+    public void revoke(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) {
+            return;
+        }
+        refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId()));
+    }
+
+    public void revokeAll(User user) {
+        refreshTokenRepository.revokeAllForUser(user.getId());
+    }
+
+    /**
+     * Deletes expired rows in LIMIT-bounded batches, each in its own short transaction,
+     * pausing between batches so OLTP traffic keeps the table.
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.refresh.cleanup-interval-ms:3600000}",
+               initialDelayString = "${app.jwt.refresh.cleanup-initial-delay-ms:60000}")
+    public void purgeExpired() {
+        Instant cutoff = Instant.now();
+        long total = 0;
+        int deleted;
+        do {
+            deleted = refreshTokenRepository.deleteExpiredBatch(cutoff, cleanupBatchSize);
+            total += deleted;
+            if (deleted == cleanupBatchSize && cleanupPauseMillis > 0) {
+                try {
+                    Thread.sleep(cleanupPauseMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        } while (deleted == cleanupBatchSize);
+        if (total > 0) {
+            log.info("Purged {} expired refresh token(s)", total);
+        }
+    }
+
+    private String store(User user, String familyId) {
+        byte[] bytes = new byte[32];
+        secureRandom.nextBytes(bytes);
+        String raw = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(hash(raw));
+        refreshToken.setUser(user);
+        refreshToken.setFamilyId(familyId);
+        refreshToken.setExpiresAt(Instant.now().plus(ttl));
+        refreshTokenRepository.save(refreshToken);
+        return raw;
+    }
+
+    static String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,16 +1,21 @@
 package com.obs.service;
 
+import com.obs.event.UserChangedEvent;
 import com.obs.model.User;
 import com.obs.model.UserProfile;
 import com.obs.model.Role;
 import com.obs.repository.UserRepository;
 import com.obs.repository.UserProfileRepository;
-import com.obs.repository.RefreshTokenRepository;
+import com.obs.security.LoginThrottle;
+import com.obs.security.TokenRevocationService;
+import com.obs.util.TransactionUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -25,16 +30,31 @@ public class SuperAdminService {
     private UserProfileRepository userProfileRepository;
 
     @Autowired
-    private RefreshTokenRepository refreshTokenRepository;
+    private TokenRevocationService tokenRevocationService;
 
     @Autowired
     private BCryptPasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private UserStatsCounters userStatsCounters;
+
+    @Autowired
+    private UserListingService userListingService;
+
+    @Autowired
+    private UserPurgeService userPurgeService;
+
+    @Autowired
+    private LoginThrottle loginThrottle;
+
     /**
-     * Get all users in the system
+     * Get one keyset page of users (sparse projection, ordered by id)
      */
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    public UserListingService.Page getUsersPage(Long after, Integer limit, String role) {
+        return userListingService.page(after, limit, role);
     }
 
     /**
@@ -51,6 +71,7 @@ public class SuperAdminService {
             if (newRole != null && newRole != currentRole) {
                 user.setRole(newRole);
                 userRepository.save(user);
+                publishChange(user, UserChangedEvent.ChangeType.ROLE_CHANGED);
                 return true;
             }
         }
@@ -71,6 +92,7 @@ public class SuperAdminService {
             if (newRole != null && newRole != currentRole) {
                 user.setRole(newRole);
                 userRepository.save(user);
+                publishChange(user, UserChangedEvent.ChangeType.ROLE_CHANGED);
                 return true;
             }
         }
@@ -87,6 +109,7 @@ public class SuperAdminService {
             User user = userOpt.get();
             user.setRole(role);
             userRepository.save(user);
+            publishChange(user, UserChangedEvent.ChangeType.ROLE_CHANGED);
             return true;
         }
         return false;
@@ -114,15 +137,14 @@ public class SuperAdminService {
                 return false;
             }
             
-            // Delete associated refresh tokens first
-            refreshTokenRepository.deleteByUser(targetUser);
-            
-            // Delete user profile if exists
-            Optional<UserProfile> profileOpt = userProfileRepository.findByUser(targetUser);
-            profileOpt.ifPresent(profile -> userProfileRepository.delete(profile));
-            
-            // Delete the user
-            userRepository.delete(targetUser);
+            // Soft-delete now; tokens, profile, accounts and the user row are purged in the background
+            if (targetUser.getDeletedAt() == null) {
+                targetUser.setDeletedAt(Instant.now());
+                targetUser.setActive(false);
+                userRepository.save(targetUser);
+                publishChange(targetUser, UserChangedEvent.ChangeType.DELETED);
+            }
+            userPurgeService.schedule(targetUser.getId(), targetUser.getUsername());
             return true;
         }
         return false;
@@ -170,9 +192,10 @@ public class SuperAdminService {
             user.setFailedAttempts(0);
             user.setLocked(false);
             userRepository.save(user);
-            
-            // Invalidate all refresh tokens for this user
-            refreshTokenRepository.deleteByUser(user);
+            TransactionUtils.afterCommit(() -> loginThrottle.recordSuccess(user.getUsername()));
+
+            // Bumps the token version and revokes every refresh token family
+            tokenRevocationService.revokeUser(user.getId());
             
             return true;
         }
@@ -190,8 +213,10 @@ public class SuperAdminService {
             user.setLocked(!user.isLocked());
             if (!user.isLocked()) {
                 user.setFailedAttempts(0);
+                TransactionUtils.afterCommit(() -> loginThrottle.recordSuccess(user.getUsername()));
             }
             userRepository.save(user);
+            publishChange(user, user.isLocked() ? UserChangedEvent.ChangeType.LOCKED : UserChangedEvent.ChangeType.UNLOCKED);
             return true;
         }
         return false;
@@ -201,41 +226,12 @@ public class SuperAdminService {
      * Get user statistics
      */
     public UserStats getUserStats() {
-        List<User> allUsers = userRepository.findAll();
-        UserStats stats = new UserStats();
-        
-        for (User user : allUsers) {
-            switch (user.getRole()) {
-                case SUPER_ADMIN:
-                    stats.setSuperAdmins(stats.getSuperAdmins() + 1);
-                    break;
-                case ADMIN:
-                    stats.setAdmins(stats.getAdmins() + 1);
-                    break;
-                case MANAGER:
-                    stats.setManagers(stats.getManagers() + 1);
-                    break;
-                case EMPLOYEE:
-                    stats.setEmployees(stats.getEmployees() + 1);
-                    break;
-                case USER:
-                    stats.setUsers(stats.getUsers() + 1);
-                    break;
-            }
-            
-            if (user.isActive()) {
-                stats.setActiveUsers(stats.getActiveUsers() + 1);
-            } else {
-                stats.setInactiveUsers(stats.getInactiveUsers() + 1);
-            }
-            
-            if (user.isLocked()) {
-                stats.setLockedUsers(stats.getLockedUsers() + 1);
-            }
-        }
-        
-        stats.setTotalUsers(allUsers.size());
-        return stats;
+        // O(1): counters are maintained by the User entity listener and reconciled periodically
+        return userStatsCounters.snapshot();
+    }
+
+    private void publishChange(User user, UserChangedEvent.ChangeType changeType) {
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId(), user.getUsername(), changeType));
     }
 
     private Role getNextHigherRole(Role currentRole) {
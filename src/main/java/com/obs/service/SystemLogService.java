@@ -0,0 +1,83 @@
+package com.obs.service;
+
+import ch.qos.logback.classic.Level;
+import com.obs.config.RingBufferAppender;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin view of recent log events held in memory by {@link RingBufferAppender}. Nothing is
+ * read from disk; what is returned is whatever the rings still hold, newest first.
+ */
+@Service
+public class SystemLogService {
+
+    private final RingBufferAppender appender;
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    public SystemLogService(RingBufferAppender appender,
+                            @Value("${app.logs.default-limit:200}") int defaultLimit,
+                            @Value("${app.logs.max-limit:1000}") int maxLimit) {
+        this.appender = appender;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * Filters: {@code category}, {@code level} (minimum), {@code logger} (prefix),
+     * {@code from}/{@code to} (ISO instants), {@code correlationId}, {@code limit}.
+     * A non-null {@code category} argument overrides the parameter.
+     */
+    public List<Map<String, Object>> query(Map<String, String> params, String category) {
+        String selected = category != null ? category : text(params.get("category"));
+        if (selected != null && !appender.getCategories().contains(selected)) {
+            throw new RuntimeException("Unknown log category: " + selected + ", expected one of " + appender.getCategories());
+        }
+        String level = text(params.get("level"));
+        int limit = params.get("limit") != null ? Integer.parseInt(params.get("limit")) : defaultLimit;
+        RingBufferAppender.Query query = new RingBufferAppender.Query(selected,
+                level != null ? Level.toLevel(level.equalsIgnoreCase("WARNING") ? "WARN" : level, null) : null,
+                text(params.get("logger")), time(params.get("from")), time(params.get("to")),
+                text(params.get("correlationId")), limit <= 0 ? defaultLimit : Math.min(limit, maxLimit));
+        if (level != null && query.minLevel() == null) {
+            throw new RuntimeException("Unknown log level: " + level);
+        }
+        return appender.query(query).stream().map(SystemLogService::toMap).toList();
+    }
+
+    public static Map<String, Object> toMap(RingBufferAppender.Entry entry) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("id", entry.category() + "-" + entry.seq());
+        map.put("timestamp", Instant.ofEpochMilli(entry.epochMillis()).toString());
+        map.put("level", entry.level().toString());
+        map.put("category", entry.category());
+        map.put("source", entry.logger().substring(entry.logger().lastIndexOf('.') + 1));
+        map.put("logger", entry.logger());
+        map.put("thread", entry.thread());
+        map.put("message", entry.message());
+        map.put("correlationId", entry.correlationId());
+        return map;
+    }
+
+    private static String text(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static Instant time(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Instant.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new RuntimeException("Invalid time: " + value);
+        }
+    }
+}
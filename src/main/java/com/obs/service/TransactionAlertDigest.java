@@ -0,0 +1,272 @@
+package com.obs.service;
+
+import com.obs.event.UserChangedEvent;
+import com.obs.model.PendingTransactionAlert;
+import com.obs.model.User;
+import com.obs.repository.PendingTransactionAlertRepository;
+import com.obs.util.TransactionUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-user aggregation of transaction alert emails. Alerts are buffered in memory for
+ * {@code digest-window-seconds} from the user's first pending alert and then sent as one
+ * digest. Large debits and account locks flush the user's buffer immediately. When the
+ * in-memory buffer is full, and at shutdown, lines are spilled to
+ * {@code pending_transaction_alert} and picked up by the next flush on any node.
+ */
+@Service
+public class TransactionAlertDigest {
+    private static final Logger logger = LoggerFactory.getLogger(TransactionAlertDigest.class);
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm").withZone(ZoneId.systemDefault());
+
+    private final EmailService emailService;
+    private final PendingTransactionAlertRepository spillRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate newTransaction;
+    private final boolean enabled;
+    private final Duration window;
+    private final int maxItems;
+    private final int maxBuffered;
+    private final BigDecimal urgentDebit;
+
+    private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger buffered = new AtomicInteger();
+
+    private final Counter recorded;
+    private final Counter digests;
+    private final Counter urgent;
+    private final Counter spilled;
+
+    public TransactionAlertDigest(EmailService emailService,
+                                  PendingTransactionAlertRepository spillRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${app.mail.alerts.digest-enabled:true}") boolean enabled,
+                                  @Value("${app.mail.alerts.digest-window-seconds:300}") long windowSeconds,
+                                  @Value("${app.mail.alerts.max-items:50}") int maxItems,
+                                  @Value("${app.mail.alerts.max-buffered:20000}") int maxBuffered,
+                                  @Value("${app.mail.alerts.urgent-debit-amount:50000}") BigDecimal urgentDebit,
+                                  MeterRegistry meterRegistry) {
+        this.emailService = emailService;
+        this.spillRepository = spillRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Delivery runs after the caller's commit, where joining its transaction would write nothing
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.window = Duration.ofSeconds(windowSeconds);
+        this.maxItems = Math.max(1, maxItems);
+        this.maxBuffered = maxBuffered;
+        this.urgentDebit = urgentDebit;
+
+        this.recorded = Counter.builder("email.alerts.recorded").register(meterRegistry);
+        this.digests = Counter.builder("email.alerts.digests")
+                .description("Alert emails queued, each covering one or more transactions").register(meterRegistry);
+        this.urgent = Counter.builder("email.alerts.urgent").register(meterRegistry);
+        this.spilled = Counter.builder("email.alerts.spilled").register(meterRegistry);
+        meterRegistry.gauge("email.alerts.buffered", buffered);
+    }
+
+    /**
+     * Records an alert for a completed transaction; {@code amount} is negative for debits.
+     * Nothing is buffered until the surrounding transaction commits.
+     */
+    public void record(User user, String transactionId, String description, BigDecimal amount) {
+        if (user == null || user.getEmail() == null) {
+            return;
+        }
+        Long userId = user.getId();
+        String recipient = user.getEmail();
+        String username = user.getUsername();
+        String line = formatLine(Instant.now(), transactionId, description, amount);
+        boolean isUrgent = amount.signum() < 0 && amount.negate().compareTo(urgentDebit) >= 0;
+        TransactionUtils.afterCommit(() -> accept(userId, recipient, username, line, isUrgent));
+    }
+
+    private void accept(Long userId, String recipient, String username, String line, boolean isUrgent) {
+        recorded.increment();
+        if (!enabled) {
+            newTransaction.executeWithoutResult(status -> send(recipient, username, List.of(line)));
+            return;
+        }
+        if (!isUrgent && buffered.get() >= maxBuffered) {
+            spill(userId, recipient, username, List.of(line), Instant.now());
+            return;
+        }
+        int[] size = new int[1];
+        pending.compute(userId, (id, existing) -> {
+            Pending target = existing != null ? existing : new Pending(recipient, username, Instant.now());
+            target.lines.add(line);
+            size[0] = target.lines.size();
+            return target;
+        });
+        buffered.incrementAndGet();
+        if (isUrgent) {
+            urgent.increment();
+            flushUser(userId);
+        } else if (size[0] >= maxItems) {
+            flushUser(userId);
+        }
+    }
+
+    /** Sends whatever is buffered for the user right away. */
+    public void flushUser(Long userId) {
+        Pending p = pending.remove(userId);
+        if (p != null) {
+            deliver(userId, p);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.getChangeType() == UserChangedEvent.ChangeType.LOCKED && event.getUserId() != null) {
+            flushUser(event.getUserId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.alerts.flush-interval-ms:10000}")
+    public void flush() {
+        Instant now = Instant.now();
+        flushDue(now);
+        try {
+            drainSpilled(now);
+        } catch (Exception e) {
+            logger.warn("Failed to drain spilled transaction alerts: {}", e.getMessage());
+        }
+    }
+
+    /** Sends digests for every in-memory buffer whose window has closed; returns how many. */
+    public int flushDue(Instant now) {
+        Instant cutoff = now.minus(window);
+        int flushed = 0;
+        for (Map.Entry<Long, Pending> entry : pending.entrySet()) {
+            Pending p = entry.getValue();
+            if (!p.firstAt.isAfter(cutoff) && pending.remove(entry.getKey(), p)) {
+                deliver(entry.getKey(), p);
+                flushed++;
+            }
+        }
+        return flushed;
+    }
+
+    /** Mails spilled lines whose window has closed, one digest per user. */
+    public int drainSpilled(Instant now) {
+        Integer drained = transactionTemplate.execute(status -> {
+            List<PendingTransactionAlert> rows = spillRepository.lockDue(now.minus(window), 100);
+            if (rows.isEmpty()) {
+                return 0;
+            }
+            Map<Long, List<PendingTransactionAlert>> byUser = new LinkedHashMap<>();
+            for (PendingTransactionAlert row : rows) {
+                byUser.computeIfAbsent(row.getUserId(), id -> new ArrayList<>()).add(row);
+            }
+            for (Map.Entry<Long, List<PendingTransactionAlert>> entry : byUser.entrySet()) {
+                List<PendingTransactionAlert> userRows = entry.getValue();
+                List<String> lines = new ArrayList<>();
+                userRows.forEach(row -> lines.add(row.getLine()));
+                PendingTransactionAlert first = userRows.get(0);
+                // Joins this transaction: the rows are deleted only if the digest is queued
+                emailService.sendTransactionDigest(first.getRecipient(), first.getUsername(), lines);
+                digests.increment();
+            }
+            spillRepository.deleteAllInBatch(rows);
+            return byUser.size();
+        });
+        return drained != null ? drained : 0;
+    }
+
+    public int getBufferedCount() {
+        return buffered.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Long userId : new ArrayList<>(pending.keySet())) {
+            Pending p = pending.remove(userId);
+            if (p != null) {
+                buffered.addAndGet(-p.lines.size());
+                spill(userId, p.recipient, p.username, p.lines, p.firstAt);
+            }
+        }
+    }
+
+    private void deliver(Long userId, Pending p) {
+        buffered.addAndGet(-p.lines.size());
+        try {
+            newTransaction.executeWithoutResult(status -> send(p.recipient, p.username, p.lines));
+        } catch (Exception e) {
+            logger.warn("Failed to queue transaction digest for user {}, spilling: {}", userId, e.getMessage());
+            spill(userId, p.recipient, p.username, p.lines, p.firstAt);
+        }
+    }
+
+    private void send(String recipient, String username, List<String> lines) {
+        if (lines.size() == 1) {
+            emailService.sendTransactionAlert(recipient, username, lines.get(0));
+        } else {
+            emailService.sendTransactionDigest(recipient, username, lines);
+        }
+        digests.increment();
+    }
+
+    private void spill(Long userId, String recipient, String username, List<String> lines, Instant createdAt) {
+        try {
+            List<PendingTransactionAlert> rows = new ArrayList<>(lines.size());
+            for (String line : lines) {
+                PendingTransactionAlert row = new PendingTransactionAlert();
+                row.setUserId(userId);
+                row.setRecipient(recipient);
+                row.setUsername(username);
+                row.setLine(line);
+                row.setCreatedAt(createdAt);
+                rows.add(row);
+            }
+            newTransaction.executeWithoutResult(status -> spillRepository.saveAll(rows));
+            spilled.increment(rows.size());
+        } catch (Exception e) {
+            logger.error("Dropped {} transaction alerts for user {}: {}", lines.size(), userId, e.getMessage());
+        }
+    }
+
+    private static String formatLine(Instant at, String transactionId, String description, BigDecimal amount) {
+        String line = String.format("%s  %-6s  %s  %s  [%s]", TIME.format(at),
+                amount.signum() < 0 ? "DEBIT" : "CREDIT", amount.abs().toPlainString(),
+                description != null ? description : "", transactionId);
+        return line.length() > 500 ? line.substring(0, 500) : line;
+    }
+
+    private static final class Pending {
+        final String recipient;
+        final String username;
+        final Instant firstAt;
+        final List<String> lines = new ArrayList<>();
+
+        Pending(String recipient, String username, Instant firstAt) {
+            this.recipient = recipient;
+            this.username = username;
+            this.firstAt = firstAt;
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.obs.service;
+
+import com.obs.model.Transaction;
+import com.obs.model.TransactionHourlyAggregate;
+import com.obs.model.TransactionType;
+import com.obs.repository.TransactionHourlyAggregateRepository;
+import com.obs.util.TransactionUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hourly transaction cube keyed by (hour, type, status, channel, branch), holding count,
+ * sum, min and max of absolute amounts. Posted transactions are added to in-memory cells
+ * after commit ({@link TransactionCubeListener}); a scheduled flush merges the cells into
+ * {@code txn_hourly_agg} with one upsert each. Reads combine stored and not-yet-flushed
+ * cells and roll hours up to days, ISO weeks or months in {@code app.analytics.zone}.
+ * <p>
+ * Status is the status at posting; later flags and reversals do not move counts between
+ * cells. Only the debit leg of an internal transfer is recorded, so each transfer counts
+ * once in counts and volume. Transactions posted before the cube existed are not included.
+ */
+@Service
+public class TransactionCube {
+    private static final Logger logger = LoggerFactory.getLogger(TransactionCube.class);
+
+    public enum Granularity { HOUR, DAY, WEEK, MONTH }
+
+    public record Key(Instant hour, String type, String status, String channel, long branchId) {}
+
+    /** Snapshot of one cell; amounts are in paise. */
+    public record Cell(Key key, long count, long sumCents, long minCents, long maxCents) {}
+
+    private final TransactionHourlyAggregateRepository repository;
+    private final ZoneId zone;
+    private final Map<Key, Accumulator> pending = new ConcurrentHashMap<>();
+    private final Counter recorded;
+    private final Counter flushFailures;
+
+    public TransactionCube(TransactionHourlyAggregateRepository repository,
+                           @Value("${app.analytics.zone:}") String zone,
+                           MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.zone = zone == null || zone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(zone);
+        this.recorded = Counter.builder("analytics.cube.recorded").register(meterRegistry);
+        this.flushFailures = Counter.builder("analytics.cube.flush.failures").register(meterRegistry);
+        meterRegistry.gaugeMapSize("analytics.cube.pending", List.of(), pending);
+    }
+
+    /** Adds a posted transaction to its cell once the surrounding transaction commits. */
+    public void record(Transaction tx) {
+        if (tx.getAmount() == null || tx.getType() == null) {
+            return;
+        }
+        // The receiving side of an internal transfer is a positive TRANSFER row
+        if (tx.getType() == TransactionType.TRANSFER && tx.getAmount().signum() > 0) {
+            return;
+        }
+        Instant at = tx.getCreatedAt() != null ? tx.getCreatedAt() : Instant.now();
+        Key key = new Key(hourOf(at), tx.getType().name(),
+                tx.getStatus() != null ? tx.getStatus().name() : "PENDING",
+                channelOf(tx.getType()), branchOf(tx));
+        long cents = tx.getAmount().movePointRight(2).abs().longValue();
+        TransactionUtils.afterCommit(() -> add(key, cents));
+    }
+
+    public void add(Key key, long cents) {
+        pending.compute(key, (k, acc) -> {
+            Accumulator target = acc != null ? acc : new Accumulator();
+            target.add(cents);
+            return target;
+        });
+        recorded.increment();
+    }
+
+    /** Merges every pending cell into the rollup table; returns how many were written. */
+    @Scheduled(fixedDelayString = "${app.analytics.flush-interval-ms:60000}")
+    public synchronized int flush() {
+        int written = 0;
+        for (Key key : new ArrayList<>(pending.keySet())) {
+            // Removing under the map's per-key lock means no add can land in a cell being written
+            Accumulator acc = pending.remove(key);
+            if (acc == null) {
+                continue;
+            }
+            try {
+                repository.merge(key.hour(), key.type(), key.status(), key.channel(), key.branchId(), acc.count,
+                        BigDecimal.valueOf(acc.sum, 2), BigDecimal.valueOf(acc.min, 2), BigDecimal.valueOf(acc.max, 2));
+                written++;
+            } catch (Exception e) {
+                flushFailures.increment();
+                pending.merge(key, acc, Accumulator::combine);
+                logger.warn("Failed to flush transaction cube cell {}: {}", key, e.getMessage());
+                break;
+            }
+        }
+        return written;
+    }
+
+    /** All cells with an hour in [from, to), stored and pending, merged per key. */
+    public List<Cell> cells(Instant from, Instant to) {
+        Map<Key, Accumulator> merged = new HashMap<>();
+        for (TransactionHourlyAggregate row : repository.findByHourStartGreaterThanEqualAndHourStartLessThan(from, to)) {
+            Accumulator acc = new Accumulator();
+            acc.count = row.getTxnCount();
+            acc.sum = row.getAmountSum().movePointRight(2).longValue();
+            acc.min = row.getAmountMin().movePointRight(2).longValue();
+            acc.max = row.getAmountMax().movePointRight(2).longValue();
+            merged.merge(new Key(row.getHourStart(), row.getType(), row.getStatus(), row.getChannel(), row.getBranchId()),
+                    acc, Accumulator::combine);
+        }
+        for (Key key : pending.keySet()) {
+            if (!key.hour().isBefore(from) && key.hour().isBefore(to)) {
+                pending.computeIfPresent(key, (k, acc) -> {
+                    merged.merge(k, acc.copy(), Accumulator::combine);
+                    return acc;
+                });
+            }
+        }
+        List<Cell> cells = new ArrayList<>(merged.size());
+        merged.forEach((key, acc) -> cells.add(new Cell(key, acc.count, acc.sum, acc.min, acc.max)));
+        return cells;
+    }
+
+    /**
+     * Rolls cells in [from, to) up to {@code granularity} periods, optionally split by one
+     * dimension ({@code type}, {@code status}, {@code channel} or {@code branch}). Rows are
+     * ordered by period, then dimension value.
+     */
+    public List<Map<String, Object>> series(Instant from, Instant to, Granularity granularity, String dimension) {
+        TreeMap<String, Accumulator> buckets = new TreeMap<>();
+        for (Cell cell : cells(from, to)) {
+            String period = periodStart(cell.key().hour(), granularity).toString();
+            String value = dimensionValue(cell.key(), dimension);
+            Accumulator acc = new Accumulator();
+            acc.count = cell.count();
+            acc.sum = cell.sumCents();
+            acc.min = cell.minCents();
+            acc.max = cell.maxCents();
+            buckets.merge(value == null ? period : period + "|" + value, acc, Accumulator::combine);
+        }
+        List<Map<String, Object>> rows = new ArrayList<>(buckets.size());
+        buckets.forEach((bucket, acc) -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            int sep = bucket.indexOf('|');
+            row.put("period", sep < 0 ? bucket : bucket.substring(0, sep));
+            if (sep >= 0) {
+                row.put(dimension, bucket.substring(sep + 1));
+            }
+            row.put("count", acc.count);
+            row.put("amount", BigDecimal.valueOf(acc.sum, 2));
+            row.put("min", BigDecimal.valueOf(acc.min, 2));
+            row.put("max", BigDecimal.valueOf(acc.max, 2));
+            row.put("average", acc.count > 0 ? BigDecimal.valueOf(acc.sum / acc.count, 2) : BigDecimal.ZERO);
+            rows.add(row);
+        });
+        return rows;
+    }
+
+    public Instant hourOf(Instant at) {
+        return at.atZone(zone).truncatedTo(ChronoUnit.HOURS).toInstant();
+    }
+
+    public Instant periodStart(Instant hour, Granularity granularity) {
+        ZonedDateTime t = hour.atZone(zone);
+        return switch (granularity) {
+            case HOUR -> t.truncatedTo(ChronoUnit.HOURS).toInstant();
+            case DAY -> t.truncatedTo(ChronoUnit.DAYS).toInstant();
+            case WEEK -> t.truncatedTo(ChronoUnit.DAYS).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).toInstant();
+            case MONTH -> t.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1).toInstant();
+        };
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    public static Granularity parseGranularity(String value) {
+        if (value == null || value.isBlank()) {
+            return Granularity.DAY;
+        }
+        try {
+            return Granularity.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Unknown granularity: " + value);
+        }
+    }
+
+    /** How the transaction reached the bank, derived from its type. */
+    static String channelOf(TransactionType type) {
+        return switch (type) {
+            case DEPOSIT, WITHDRAWAL -> "BRANCH";
+            case TRANSFER -> "INTERNAL";
+            case UPI -> "UPI";
+            case NEFT, RTGS -> "INTERBANK";
+            case PAYMENT -> "BILL_PAY";
+        };
+    }
+
+    // Accounts are not assigned to branches yet; 0 keeps a slot in the key for when they are
+    private static long branchOf(Transaction tx) {
+        return 0L;
+    }
+
+    private static String dimensionValue(Key key, String dimension) {
+        if (dimension == null || dimension.isBlank()) {
+            return null;
+        }
+        return switch (dimension) {
+            case "type" -> key.type();
+            case "status" -> key.status();
+            case "channel" -> key.channel();
+            case "branch" -> String.valueOf(key.branchId());
+            default -> throw new RuntimeException("Unknown dimension: " + dimension);
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private static final class Accumulator {
+        long count;
+        long sum;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+
+        void add(long cents) {
+            count++;
+            sum += cents;
+            min = Math.min(min, cents);
+            max = Math.max(max, cents);
+        }
+
+        Accumulator copy() {
+            Accumulator copy = new Accumulator();
+            copy.count = count;
+            copy.sum = sum;
+            copy.min = min;
+            copy.max = max;
+            return copy;
+        }
+
+        static Accumulator combine(Accumulator a, Accumulator b) {
+            Accumulator c = a.copy();
+            c.count += b.count;
+            c.sum += b.sum;
+            c.min = Math.min(a.min, b.min);
+            c.max = Math.max(a.max, b.max);
+            return c;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.obs.service;
+
+import com.obs.model.Transaction;
+import jakarta.persistence.PostPersist;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/** JPA listener on {@link Transaction} that adds each posted transaction to the {@link TransactionCube}. */
+@Component
+public class TransactionCubeListener {
+
+    // Resolved lazily: Hibernate builds this listener while the repositories it needs are still being created
+    private final ObjectProvider<TransactionCube> cube;
+
+    public TransactionCubeListener(ObjectProvider<TransactionCube> cube) {
+        this.cube = cube;
+    }
+
+    @PostPersist
+    public void onInsert(Transaction tx) {
+        cube.getObject().record(tx);
+    }
+}
@@ -0,0 +1,47 @@
+package com.obs.service;
+
+import com.obs.model.Account;
+import com.obs.model.Transaction;
+import com.obs.model.TransactionType;
+import com.obs.util.TransactionUtils;
+import jakarta.persistence.PostPersist;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener on {@link Transaction} that hands every newly posted outgoing transaction
+ * to {@link FraudRuleEngine} once the surrounding transaction commits, so scoring never
+ * adds latency to, or fails, the posting itself.
+ */
+@Component
+public class TransactionFraudListener {
+
+    private final ObjectProvider<FraudRuleEngine> engine;
+
+    public TransactionFraudListener(ObjectProvider<FraudRuleEngine> engine) {
+        this.engine = engine;
+    }
+
+    @PostPersist
+    public void onInsert(Transaction tx) {
+        if (tx.getAmount() == null || tx.getAccount() == null || !isOutgoing(tx)) {
+            return;
+        }
+        Account account = tx.getAccount();
+        FraudRuleEngine.Posted posted = new FraudRuleEngine.Posted(
+                tx.getId(), tx.getTransactionId(), account.getId(),
+                account.getUser() != null ? account.getUser().getId() : 0L,
+                FraudRuleEngine.cents(tx.getAmount()), tx.getType(),
+                FraudRuleEngine.recipientKey(tx.getRecipientAccount()), tx.getRecipientAccount(),
+                tx.getCreatedAt() != null ? tx.getCreatedAt().toEpochMilli() : System.currentTimeMillis());
+        FraudRuleEngine rules = engine.getObject();
+        TransactionUtils.afterCommit(() -> rules.submit(posted));
+    }
+
+    // Debits are stored negative, except bill payments and withdrawals which are always outgoing
+    private static boolean isOutgoing(Transaction tx) {
+        return tx.getAmount().signum() < 0
+                || tx.getType() == TransactionType.PAYMENT
+                || tx.getType() == TransactionType.WITHDRAWAL;
+    }
+}
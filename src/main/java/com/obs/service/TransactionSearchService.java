@@ -0,0 +1,156 @@
+package com.obs.service;
+
+import com.obs.model.TransactionStatus;
+import com.obs.model.TransactionType;
+import com.obs.repository.AccountRepository;
+import com.obs.repository.TransactionRepository;
+import com.obs.repository.TransactionSearchRepository;
+import com.obs.util.KeysetCursor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin transaction search. Filters map onto {@link TransactionSearchRepository.Filter}
+ * and pages are walked newest first by (createdAt, id); the cursor is the position of the
+ * last row returned, so no page costs more than its own rows however deep the caller goes.
+ */
+@Service
+public class TransactionSearchService {
+
+    private final TransactionRepository transactionRepository;
+    private final AccountRepository accountRepository;
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    public TransactionSearchService(TransactionRepository transactionRepository,
+                                    AccountRepository accountRepository,
+                                    @Value("${app.transactions.search.default-limit:50}") int defaultLimit,
+                                    @Value("${app.transactions.search.max-limit:500}") int maxLimit) {
+        this.transactionRepository = transactionRepository;
+        this.accountRepository = accountRepository;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    public record Page(List<TransactionSearchRepository.Row> transactions, String nextCursor) {}
+
+    /**
+     * Supported parameters: {@code status}, {@code type}, {@code from}, {@code to} (ISO instant,
+     * or a date meaning the whole day), {@code minAmount}, {@code maxAmount},
+     * {@code accountNumber}, {@code flagged}, {@code after} (cursor) and {@code limit}.
+     */
+    public Page search(Map<String, String> params) {
+        TransactionSearchRepository.Filter filter = parseFilter(params);
+        if (filter == null) {
+            return new Page(List.of(), null);
+        }
+        int size = parseLimit(params.get("limit"));
+        KeysetCursor cursor = KeysetCursor.parse(params.get("after"), null);
+        List<TransactionSearchRepository.Row> rows = transactionRepository.search(filter,
+                cursor != null ? cursor.at() : null, cursor != null ? cursor.id() : null, size + 1);
+        List<TransactionSearchRepository.Row> page = KeysetCursor.page(rows, size);
+        if (page.size() < rows.size()) {
+            TransactionSearchRepository.Row last = page.get(size - 1);
+            return new Page(page, KeysetCursor.format(last.createdAt(), last.id()));
+        }
+        return new Page(rows, null);
+    }
+
+    public Map<String, Object> toMap(TransactionSearchRepository.Row row) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("id", row.id());
+        map.put("transactionId", row.transactionId());
+        map.put("accountNumber", row.accountNumber());
+        map.put("type", row.type() != null ? row.type().name() : null);
+        map.put("status", row.status() != null ? row.status().name() : null);
+        map.put("amount", row.amount());
+        map.put("recipientAccount", row.recipientAccount());
+        map.put("recipientName", row.recipientName());
+        map.put("flagReason", row.flagReason());
+        map.put("timestamp", row.createdAt() != null ? row.createdAt().toString() : null);
+        return map;
+    }
+
+    /** Returns null when the filter cannot match anything (an unknown account number). */
+    private TransactionSearchRepository.Filter parseFilter(Map<String, String> params) {
+        Long accountId = null;
+        String accountNumber = params.get("accountNumber");
+        if (accountNumber != null && !accountNumber.isBlank()) {
+            // Resolve through the unique account_number index so the search can use account_id
+            accountId = accountRepository.findByAccountNumber(accountNumber.trim()).map(a -> a.getId()).orElse(null);
+            if (accountId == null) {
+                return null;
+            }
+        }
+        String flagged = params.get("flagged");
+        return new TransactionSearchRepository.Filter(
+                parseEnum(TransactionStatus.class, params.get("status"), "status"),
+                parseEnum(TransactionType.class, params.get("type"), "type"),
+                parseTime(params.get("from"), false),
+                parseTime(params.get("to"), true),
+                parseAmount(params.get("minAmount"), "minAmount"),
+                parseAmount(params.get("maxAmount"), "maxAmount"),
+                accountId,
+                flagged != null && !flagged.isBlank() ? Boolean.valueOf(flagged) : null);
+    }
+
+    private int parseLimit(String limit) {
+        if (limit == null || limit.isBlank()) {
+            return defaultLimit;
+        }
+        try {
+            int value = Integer.parseInt(limit);
+            return value <= 0 ? defaultLimit : Math.min(value, maxLimit);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid limit: " + limit);
+        }
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, String name) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Unknown " + name + ": " + value);
+        }
+    }
+
+    private static BigDecimal parseAmount(String value, String name) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid " + name + ": " + value);
+        }
+    }
+
+    /** A bare date as {@code to} covers that whole day, so it maps to the next midnight (exclusive). */
+    private static Instant parseTime(String value, boolean endOfRange) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Instant.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            try {
+                LocalDate date = LocalDate.parse(value.trim());
+                return (endOfRange ? date.plusDays(1) : date).atStartOfDay(ZoneOffset.UTC).toInstant();
+            } catch (DateTimeParseException e2) {
+                throw new RuntimeException("Invalid date: " + value);
+            }
+        }
+    }
+}
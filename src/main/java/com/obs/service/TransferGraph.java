@@ -0,0 +1,343 @@
+package com.obs.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable money-flow graph in compressed sparse row form. Accounts are interned to
+ * {@code int} node ids; each node's outgoing edges occupy one contiguous slice of the
+ * primitive edge arrays, sorted by time. An edge costs 16 bytes (target, time, amount),
+ * so tens of millions of transfers fit in well under a gigabyte once built.
+ * <p>
+ * The detectors only read the arrays and are run in parallel over start nodes. Each
+ * traversal is depth-limited and has a step budget, so a hub account cannot stall a run.
+ */
+public final class TransferGraph {
+
+    public record Finding(String pattern, int[] nodes, long totalCents, int transfers) {}
+
+    private final String[] accounts;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] times;
+    private final long[] amounts;
+
+    private TransferGraph(String[] accounts, int[] offsets, int[] targets, int[] times, long[] amounts) {
+        this.accounts = accounts;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.times = times;
+        this.amounts = amounts;
+    }
+
+    public int nodeCount() {
+        return accounts.length;
+    }
+
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    public String account(int node) {
+        return accounts[node];
+    }
+
+    /**
+     * Time-respecting cycles of 2 to {@code maxLength} transfers that return to their start
+     * within {@code maxSpanSeconds}. Each cycle is reported once, from its lowest node id.
+     */
+    public List<Finding> findCycles(int maxLength, long maxSpanSeconds, int stepBudget, ForkJoinPool pool) {
+        return collect(pool, start -> {
+            int[] path = new int[maxLength + 1];
+            long[] budget = {stepBudget};
+            path[0] = start;
+            for (int e = offsets[start]; e < offsets[start + 1]; e++) {
+                int next = targets[e];
+                if (next <= start) {
+                    continue;
+                }
+                path[1] = next;
+                long[] total = {amounts[e]};
+                int length = cycleFrom(start, next, times[e], times[e] + maxSpanSeconds, 1, maxLength, path, total, budget);
+                if (length > 0) {
+                    return new Finding("CYCLE", Arrays.copyOf(path, length + 1), total[0], length);
+                }
+                if (budget[0] <= 0) {
+                    break;
+                }
+            }
+            return null;
+        });
+    }
+
+    private int cycleFrom(int start, int node, int after, long deadline, int depth, int maxLength,
+                          int[] path, long[] total, long[] budget) {
+        for (int e = firstEdgeAtOrAfter(node, after); e < offsets[node + 1] && times[e] <= deadline; e++) {
+            if (--budget[0] <= 0) {
+                return 0;
+            }
+            int next = targets[e];
+            if (next == start) {
+                path[depth + 1] = start;
+                total[0] += amounts[e];
+                return depth + 1;
+            }
+            if (next < start || depth + 1 >= maxLength || onPath(path, depth, next)) {
+                continue;
+            }
+            path[depth + 1] = next;
+            total[0] += amounts[e];
+            int length = cycleFrom(start, next, times[e], deadline, depth + 1, maxLength, path, total, budget);
+            if (length > 0) {
+                return length;
+            }
+            total[0] -= amounts[e];
+        }
+        return 0;
+    }
+
+    /**
+     * Layering chains: at least {@code minHops} transfers where each account passes on
+     * between {@code minForwardRatio} and all of what it just received within
+     * {@code maxHopDelaySeconds}. Chains contained in a longer reported chain are dropped.
+     */
+    public List<Finding> findLayeringChains(int minHops, int maxHops, long maxHopDelaySeconds, double minForwardRatio,
+                                            int stepBudget, ForkJoinPool pool) {
+        List<Finding> chains = collect(pool, start -> {
+            int[] best = new int[0];
+            long bestTotal = 0;
+            int[] path = new int[maxHops + 1];
+            long[] budget = {stepBudget};
+            path[0] = start;
+            for (int e = offsets[start]; e < offsets[start + 1] && budget[0] > 0; e++) {
+                path[1] = targets[e];
+                int[] longest = {0};
+                int[] found = new int[maxHops + 1];
+                chainFrom(targets[e], times[e], amounts[e], 1, maxHops, maxHopDelaySeconds, minForwardRatio,
+                        path, found, longest, budget);
+                if (longest[0] >= minHops && longest[0] + 1 > best.length) {
+                    best = Arrays.copyOf(found, longest[0] + 1);
+                    bestTotal = amounts[e];
+                }
+            }
+            return best.length > 0 ? new Finding("LAYERING", best, bestTotal, best.length - 1) : null;
+        });
+        chains.sort(Comparator.comparingInt((Finding f) -> f.nodes().length).reversed());
+        // A containing chain must pass through the candidate's first node, so only those are checked
+        List<Finding> kept = new ArrayList<>();
+        Map<Integer, List<Finding>> keptByNode = new HashMap<>();
+        for (Finding chain : chains) {
+            List<Finding> through = keptByNode.getOrDefault(chain.nodes()[0], List.of());
+            if (through.stream().noneMatch(longer -> containsRun(longer.nodes(), chain.nodes()))) {
+                kept.add(chain);
+                for (int node : chain.nodes()) {
+                    keptByNode.computeIfAbsent(node, n -> new ArrayList<>()).add(chain);
+                }
+            }
+        }
+        return kept;
+    }
+
+    private void chainFrom(int node, int receivedAt, long received, int depth, int maxHops, long maxDelay,
+                           double minRatio, int[] path, int[] found, int[] longest, long[] budget) {
+        if (depth > longest[0]) {
+            longest[0] = depth;
+            System.arraycopy(path, 0, found, 0, depth + 1);
+        }
+        if (depth >= maxHops) {
+            return;
+        }
+        long deadline = receivedAt + maxDelay;
+        for (int e = firstEdgeAtOrAfter(node, receivedAt); e < offsets[node + 1] && times[e] <= deadline; e++) {
+            if (--budget[0] <= 0) {
+                return;
+            }
+            long forwarded = amounts[e];
+            if (forwarded > received || forwarded < received * minRatio || onPath(path, depth, targets[e])) {
+                continue;
+            }
+            path[depth + 1] = targets[e];
+            chainFrom(targets[e], times[e], forwarded, depth + 1, maxHops, maxDelay, minRatio, path, found, longest, budget);
+        }
+    }
+
+    /**
+     * Structuring: accounts sending at least {@code minCount} transfers of just under
+     * {@code thresholdCents} (within {@code margin} of it, e.g. 0.1 for 10%).
+     */
+    public List<Finding> findStructuring(long thresholdCents, double margin, int minCount, ForkJoinPool pool) {
+        long floor = (long) (thresholdCents * (1 - margin));
+        return collect(pool, node -> {
+            int count = 0;
+            long total = 0;
+            for (int e = offsets[node]; e < offsets[node + 1]; e++) {
+                if (amounts[e] >= floor && amounts[e] < thresholdCents) {
+                    count++;
+                    total += amounts[e];
+                }
+            }
+            return count >= minCount ? new Finding("STRUCTURING", new int[]{node}, total, count) : null;
+        });
+    }
+
+    @FunctionalInterface
+    private interface NodeCheck {
+        Finding check(int node);
+    }
+
+    private List<Finding> collect(ForkJoinPool pool, NodeCheck check) {
+        ConcurrentLinkedQueue<Finding> findings = new ConcurrentLinkedQueue<>();
+        Runnable scan = () -> IntStream.range(0, accounts.length).parallel().forEach(node -> {
+            Finding finding = check.check(node);
+            if (finding != null) {
+                findings.add(finding);
+            }
+        });
+        if (pool != null) {
+            pool.submit(scan).join();
+        } else {
+            scan.run();
+        }
+        return new ArrayList<>(findings);
+    }
+
+    private int firstEdgeAtOrAfter(int node, int time) {
+        int lo = offsets[node];
+        int hi = offsets[node + 1];
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (times[mid] < time) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static boolean onPath(int[] path, int depth, int node) {
+        for (int i = 0; i <= depth; i++) {
+            if (path[i] == node) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean containsRun(int[] longer, int[] shorter) {
+        outer:
+        for (int i = 0; i + shorter.length <= longer.length; i++) {
+            for (int j = 0; j < shorter.length; j++) {
+                if (longer[i + j] != shorter[j]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Accumulates edges in growable primitive arrays; {@link #build} sorts them into CSR
+     * form. Times are seconds relative to {@code origin}.
+     */
+    public static final class Builder {
+        private final long originSeconds;
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+        private int[] sources = new int[1024];
+        private int[] targets = new int[1024];
+        private int[] times = new int[1024];
+        private long[] amounts = new long[1024];
+        private int size;
+
+        public Builder(long originEpochSeconds) {
+            this.originSeconds = originEpochSeconds;
+        }
+
+        public int node(String account) {
+            Integer id = ids.get(account);
+            if (id == null) {
+                id = names.size();
+                ids.put(account, id);
+                names.add(account);
+            }
+            return id;
+        }
+
+        public void addEdge(String from, String to, long cents, long epochSeconds) {
+            if (size == sources.length) {
+                int capacity = size + (size >> 1);
+                sources = Arrays.copyOf(sources, capacity);
+                targets = Arrays.copyOf(targets, capacity);
+                times = Arrays.copyOf(times, capacity);
+                amounts = Arrays.copyOf(amounts, capacity);
+            }
+            sources[size] = node(from);
+            targets[size] = node(to);
+            times[size] = (int) (epochSeconds - originSeconds);
+            amounts[size] = cents;
+            size++;
+        }
+
+        public int edgeCount() {
+            return size;
+        }
+
+        public TransferGraph build() {
+            int n = names.size();
+            int[] offsets = new int[n + 1];
+            for (int i = 0; i < size; i++) {
+                offsets[sources[i] + 1]++;
+            }
+            for (int i = 0; i < n; i++) {
+                offsets[i + 1] += offsets[i];
+            }
+            int[] cursor = Arrays.copyOf(offsets, n);
+            int[] csrTargets = new int[size];
+            int[] csrTimes = new int[size];
+            long[] csrAmounts = new long[size];
+            for (int i = 0; i < size; i++) {
+                int at = cursor[sources[i]]++;
+                csrTargets[at] = targets[i];
+                csrTimes[at] = times[i];
+                csrAmounts[at] = amounts[i];
+            }
+            // Release the staging arrays before sorting; the edge arrays are the bulk of the heap
+            sources = targets = times = null;
+            amounts = null;
+            for (int node = 0; node < n; node++) {
+                sortByTime(offsets[node], offsets[node + 1], csrTargets, csrTimes, csrAmounts);
+            }
+            return new TransferGraph(names.toArray(new String[0]), offsets, csrTargets, csrTimes, csrAmounts);
+        }
+
+        private static void sortByTime(int from, int to, int[] targets, int[] times, long[] amounts) {
+            int length = to - from;
+            if (length < 2) {
+                return;
+            }
+            // Sort (time, position) keys, then permute the slice into that order
+            long[] keys = new long[length];
+            for (int i = 0; i < length; i++) {
+                keys[i] = ((long) times[from + i] << 32) | i;
+            }
+            Arrays.sort(keys);
+            int[] t = Arrays.copyOfRange(targets, from, to);
+            long[] a = Arrays.copyOfRange(amounts, from, to);
+            for (int i = 0; i < length; i++) {
+                int source = (int) keys[i];
+                times[from + i] = (int) (keys[i] >> 32);
+                targets[from + i] = t[source];
+                amounts[from + i] = a[source];
+            }
+        }
+    }
+}
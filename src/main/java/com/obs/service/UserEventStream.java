@@ -0,0 +1,252 @@
+package com.obs.service;
+
+import com.obs.util.TransactionUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-Sent Events delivery of per-user notifications and updates, for clients that do
+ * not want a STOMP connection. Connections are async-servlet {@link SseEmitter}s, so an
+ * idle stream holds a socket but no request thread.
+ *
+ * <p>Each connected user gets a channel with a bounded replay buffer; a reconnect sending
+ * {@code Last-Event-ID} receives whatever it missed, or a {@code resync} event when that
+ * cannot be served: the id was already overwritten, predates the channel (it was issued
+ * before a restart, by another node, or before the channel went idle and was dropped), or
+ * is above any id issued here. Event ids are time-seeded and increase across restarts.
+ * Sends run on a few single-threaded stripes keyed by user id, keeping per-user ordering
+ * without putting socket writes on the publishing thread.
+ */
+@Component
+public class UserEventStream {
+    private static final Logger logger = LoggerFactory.getLogger(UserEventStream.class);
+
+    private final Map<Long, Channel> channels = new ConcurrentHashMap<>();
+    private final Map<String, Long> userIds = new ConcurrentHashMap<>();
+    private final AtomicLong eventIds = new AtomicLong(System.currentTimeMillis() * 1000);
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final ThreadPoolExecutor[] stripes;
+
+    private final long timeoutMillis;
+    private final int replaySize;
+    private final long idleRetentionMillis;
+    private final Counter sent;
+    private final Counter dropped;
+
+    public UserEventStream(@Value("${app.sse.timeout-ms:1800000}") long timeoutMillis,
+                           @Value("${app.sse.replay-size:100}") int replaySize,
+                           @Value("${app.sse.idle-retention-ms:900000}") long idleRetentionMillis,
+                           @Value("${app.sse.dispatch-threads:2}") int dispatchThreads,
+                           @Value("${app.sse.queue-capacity:10000}") int queueCapacity,
+                           MeterRegistry meterRegistry) {
+        this.timeoutMillis = timeoutMillis;
+        this.replaySize = replaySize;
+        this.idleRetentionMillis = idleRetentionMillis;
+        this.sent = Counter.builder("sse.events.sent").register(meterRegistry);
+        this.dropped = Counter.builder("sse.events.dropped")
+                .description("Events not delivered because a dispatch stripe was full").register(meterRegistry);
+        this.stripes = new ThreadPoolExecutor[Math.max(1, dispatchThreads)];
+        for (int i = 0; i < stripes.length; i++) {
+            String threadName = "sse-dispatch-" + i;
+            stripes[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), r -> {
+                        Thread t = new Thread(r, threadName);
+                        t.setDaemon(true);
+                        return t;
+                    }, (r, executor) -> dropped.increment());
+        }
+        Gauge.builder("sse.connections.open", openConnections, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("sse.channels", channels, Map::size).register(meterRegistry);
+    }
+
+    /** Opens a stream for the user, replaying buffered events after {@code lastEventId}. */
+    public SseEmitter subscribe(Long userId, String username, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        userIds.put(username, userId);
+        Channel channel = channels.computeIfAbsent(userId, id -> new Channel(replaySize, eventIds.get()));
+        Long resumeFrom = parseEventId(lastEventId);
+
+        emitter.onCompletion(() -> detach(channel, emitter));
+        emitter.onTimeout(() -> detach(channel, emitter));
+        emitter.onError(e -> detach(channel, emitter));
+        openConnections.incrementAndGet();
+
+        stripe(userId).execute(() -> {
+            List<Event> replay;
+            synchronized (channel) {
+                channel.emitters.add(emitter);
+                channel.lastActive = System.currentTimeMillis();
+                replay = resumeFrom != null ? channel.since(resumeFrom, eventIds.get()) : List.of();
+            }
+            if (replay == null) {
+                send(channel, emitter, new Event(eventIds.incrementAndGet(), "resync", Map.of("reason", "replay unavailable")));
+                return;
+            }
+            for (Event event : replay) {
+                if (!send(channel, emitter, event)) {
+                    return;
+                }
+            }
+        });
+        return emitter;
+    }
+
+    public void publish(Long userId, String type, Map<String, Object> data) {
+        // Users that never opened a stream have no channel and nothing to replay to
+        if (userId == null || !channels.containsKey(userId)) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> stripe(userId).execute(() -> {
+            Channel channel = channels.get(userId);
+            if (channel == null) {
+                return;
+            }
+            Event event;
+            List<SseEmitter> targets;
+            synchronized (channel) {
+                event = new Event(eventIds.incrementAndGet(), type, data);
+                channel.append(event);
+                targets = new ArrayList<>(channel.emitters);
+            }
+            for (SseEmitter emitter : targets) {
+                send(channel, emitter, event);
+            }
+        }));
+    }
+
+    public void publish(String username, String type, Map<String, Object> data) {
+        if (username != null) {
+            publish(userIds.get(username), type, data);
+        }
+    }
+
+    // Comments keep proxies from closing idle streams and surface dead sockets
+    @Scheduled(fixedDelayString = "${app.sse.keepalive-ms:25000}")
+    public void keepAlive() {
+        long now = System.currentTimeMillis();
+        channels.forEach((userId, channel) -> {
+            if (channel.emitters.isEmpty()) {
+                if (now - channel.lastActive > idleRetentionMillis) {
+                    channels.remove(userId, channel);
+                }
+                return;
+            }
+            stripe(userId).execute(() -> {
+                for (SseEmitter emitter : channel.emitters) {
+                    try {
+                        emitter.send(SseEmitter.event().comment("keepalive"));
+                    } catch (IOException | IllegalStateException e) {
+                        detach(channel, emitter);
+                    }
+                }
+            });
+        });
+        userIds.values().removeIf(id -> !channels.containsKey(id));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        for (ThreadPoolExecutor stripe : stripes) {
+            stripe.shutdownNow();
+        }
+        channels.values().forEach(channel -> channel.emitters.forEach(SseEmitter::complete));
+    }
+
+    private boolean send(Channel channel, SseEmitter emitter, Event event) {
+        try {
+            emitter.send(SseEmitter.event().id(Long.toString(event.id)).name(event.type).data(event.data));
+            sent.increment();
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            logger.debug("SSE send failed, dropping connection: {}", e.getMessage());
+            detach(channel, emitter);
+            return false;
+        }
+    }
+
+    private void detach(Channel channel, SseEmitter emitter) {
+        if (channel.emitters.remove(emitter)) {
+            openConnections.decrementAndGet();
+            channel.lastActive = System.currentTimeMillis();
+            emitter.complete();
+        }
+    }
+
+    private ThreadPoolExecutor stripe(Long userId) {
+        return stripes[(int) Math.floorMod(userId, (long) stripes.length)];
+    }
+
+    private static Long parseEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private record Event(long id, String type, Map<String, Object> data) {}
+
+    private static final class Channel {
+        final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        final Event[] ring;
+        int head;
+        int size;
+        // Id of the newest event pushed out of the ring; older resume points cannot be served
+        long overwrittenUpTo;
+        volatile long lastActive = System.currentTimeMillis();
+
+        Channel(int capacity, long createdAt) {
+            this.ring = new Event[capacity];
+            // Nothing before the channel existed was buffered
+            this.overwrittenUpTo = createdAt;
+        }
+
+        void append(Event event) {
+            if (ring[head] != null) {
+                overwrittenUpTo = ring[head].id;
+            }
+            ring[head] = event;
+            head = (head + 1) % ring.length;
+            size = Math.min(size + 1, ring.length);
+        }
+
+        /** Events after {@code lastId}, or null if some of them are not buffered or the id was never issued here. */
+        List<Event> since(long lastId, long latestId) {
+            if (lastId < overwrittenUpTo || lastId > latestId) {
+                return null;
+            }
+            List<Event> result = new ArrayList<>();
+            int start = (head - size + ring.length) % ring.length;
+            for (int i = 0; i < size; i++) {
+                Event event = ring[(start + i) % ring.length];
+                if (event.id > lastId) {
+                    result.add(event);
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.obs.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.obs.model.Role;
+import com.obs.repository.UserRepository;
+import com.obs.util.ExportWriter;
+import com.obs.util.KeysetCursor;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keyset-paginated user listing and streaming export. Both walk the users table by id
+ * using a sparse projection, so memory use is bounded by one page or chunk regardless of
+ * how many users exist.
+ */
+@Service
+public class UserListingService {
+
+    private static final String[] CSV_COLUMNS = {"id", "username", "email", "role", "locked", "active", "failedAttempts", "lastLogin"};
+
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final int defaultLimit;
+    private final int maxLimit;
+    private final int exportChunkSize;
+
+    public UserListingService(UserRepository userRepository,
+                              ObjectMapper objectMapper,
+                              @Value("${app.users.page.default-limit:100}") int defaultLimit,
+                              @Value("${app.users.page.max-limit:500}") int maxLimit,
+                              @Value("${app.users.export.chunk-size:1000}") int exportChunkSize) {
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+        this.exportChunkSize = exportChunkSize;
+    }
+
+    public record Page(List<UserRepository.UserSummary> users, Long nextCursor) {}
+
+    /** Users with id greater than {@code after}, in id order; {@code nextCursor} is null on the last page. */
+    public Page page(Long after, Integer limit, String role) {
+        int size = limit == null || limit <= 0 ? defaultLimit : Math.min(limit, maxLimit);
+        List<UserRepository.UserSummary> rows = userRepository.findSummariesAfter(
+                after != null ? after : 0L, parseRole(role), PageRequest.of(0, size + 1));
+        List<UserRepository.UserSummary> users = KeysetCursor.page(rows, size);
+        return new Page(users, users.size() < rows.size() ? users.get(size - 1).getId() : null);
+    }
+
+    /** Writes every matching user as NDJSON or CSV, one chunk query at a time. */
+    public void export(OutputStream out, String format, String role) throws IOException {
+        Role roleFilter = parseRole(role);
+        ExportWriter writer = ExportWriter.open(out, format, CSV_COLUMNS, objectMapper);
+        long after = 0L;
+        while (true) {
+            List<UserRepository.UserSummary> chunk = userRepository.findSummariesAfter(
+                    after, roleFilter, PageRequest.of(0, exportChunkSize));
+            for (UserRepository.UserSummary user : chunk) {
+                writer.write(toMap(user));
+            }
+            writer.flush();
+            if (chunk.size() < exportChunkSize) {
+                break;
+            }
+            after = chunk.get(chunk.size() - 1).getId();
+        }
+    }
+
+    /** Streams the export as the HTTP response body, gzip-compressed on request. */
+    public void writeExport(HttpServletResponse response, String format, boolean gzip, String role) throws IOException {
+        ExportWriter.prepare(response, format, "users", gzip);
+        if (gzip) {
+            try (GZIPOutputStream out = new GZIPOutputStream(response.getOutputStream(), 8192)) {
+                export(out, format, role);
+            }
+        } else {
+            export(response.getOutputStream(), format, role);
+        }
+    }
+
+    public Map<String, Object> toMap(UserRepository.UserSummary user) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("id", user.getId());
+        map.put("username", user.getUsername());
+        map.put("email", user.getEmail());
+        map.put("role", user.getRole() != null ? user.getRole().name() : null);
+        map.put("locked", user.isLocked());
+        map.put("active", user.isActive());
+        map.put("failedAttempts", user.getFailedAttempts());
+        map.put("lastLogin", user.getLastLogin() != null ? user.getLastLogin().toString() : null);
+        return map;
+    }
+
+    private static Role parseRole(String role) {
+        if (role == null || role.isBlank()) {
+            return null;
+        }
+        try {
+            return Role.valueOf(role.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Unknown role: " + role);
+        }
+    }
+}
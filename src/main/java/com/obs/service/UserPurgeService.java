@@ -0,0 +1,221 @@
+package com.obs.service;
+
+import com.obs.model.PurgeStatus;
+import com.obs.model.UserPurgeJob;
+import com.obs.repository.UserPurgeJobRepository;
+import com.obs.util.TransactionUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Removes the data of soft-deleted users in the background. Each job walks a fixed list
+ * of steps (children before parents), deleting at most {@code chunk-size} rows per short
+ * transaction. After every chunk the worker pauses for {@code throttle-ratio} times the
+ * time the chunk took (at least {@code min-pause-ms}), so a large purge yields to OLTP
+ * traffic instead of holding locks. Progress is stored on the job; an interrupted job
+ * resumes from its last step, and re-running a step is harmless.
+ */
+@Service
+public class UserPurgeService {
+    private static final Logger logger = LoggerFactory.getLogger(UserPurgeService.class);
+
+    @FunctionalInterface
+    interface ChunkDelete {
+        int delete(Long userId, int limit);
+    }
+
+    private final UserPurgeJobRepository jobRepository;
+    private final int chunkSize;
+    private final long minPauseMillis;
+    private final double throttleRatio;
+    private final Map<String, ChunkDelete> steps = new LinkedHashMap<>();
+    private final ExecutorService worker;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private volatile boolean stopping;
+
+    private final Counter rowsDeleted;
+
+    public UserPurgeService(UserPurgeJobRepository jobRepository,
+                            @Value("${app.users.purge.chunk-size:1000}") int chunkSize,
+                            @Value("${app.users.purge.min-pause-ms:50}") long minPauseMillis,
+                            @Value("${app.users.purge.throttle-ratio:1.0}") double throttleRatio,
+                            MeterRegistry meterRegistry) {
+        this.jobRepository = jobRepository;
+        this.chunkSize = chunkSize;
+        this.minPauseMillis = minPauseMillis;
+        this.throttleRatio = throttleRatio;
+        this.worker = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "user-purge");
+            t.setDaemon(true);
+            return t;
+        });
+        this.rowsDeleted = Counter.builder("users.purge.rows").register(meterRegistry);
+
+        steps.put("transactions", jobRepository::deleteTransactionsChunk);
+        steps.put("cards", jobRepository::deleteCardsChunk);
+        steps.put("beneficiaries", jobRepository::deleteBeneficiariesChunk);
+        steps.put("bill_payments", jobRepository::deleteBillPaymentsChunk);
+        steps.put("standing_instructions", jobRepository::deleteStandingInstructionsChunk);
+        steps.put("loan_applications", jobRepository::deleteLoanApplicationsChunk);
+        steps.put("kyc_requests", jobRepository::deleteKycRequestsChunk);
+        steps.put("password_reset_tokens", jobRepository::deletePasswordResetTokensChunk);
+        steps.put("refresh_tokens", jobRepository::deleteRefreshTokensChunk);
+        steps.put("profile", jobRepository::deleteProfilesChunk);
+        steps.put("accounts", jobRepository::deleteAccountsChunk);
+        steps.put("user", jobRepository::deleteUserChunk);
+    }
+
+    /** Queues a purge for the user (or returns the one already queued); starts after commit. */
+    public UserPurgeJob schedule(Long userId, String username) {
+        UserPurgeJob existing = jobRepository.findFirstByUserIdOrderByIdDesc(userId).orElse(null);
+        if (existing != null && existing.getStatus() != PurgeStatus.DONE) {
+            if (existing.getStatus() == PurgeStatus.FAILED) {
+                existing.setStatus(PurgeStatus.PENDING);
+                existing.setLastError(null);
+                existing = jobRepository.save(existing);
+            }
+            TransactionUtils.afterCommit(this::wake);
+            return existing;
+        }
+        UserPurgeJob job = new UserPurgeJob();
+        job.setUserId(userId);
+        job.setUsername(username);
+        job = jobRepository.save(job);
+        TransactionUtils.afterCommit(this::wake);
+        return job;
+    }
+
+    public Map<String, Object> getStatus(Long userId) {
+        UserPurgeJob job = jobRepository.findFirstByUserIdOrderByIdDesc(userId)
+            .orElseThrow(() -> new RuntimeException("No purge job for user: " + userId));
+        Map<String, Object> status = new HashMap<>();
+        status.put("jobId", job.getId());
+        status.put("userId", job.getUserId());
+        status.put("username", job.getUsername());
+        status.put("status", job.getStatus().name());
+        status.put("step", job.getStep());
+        status.put("stepIndex", job.getStep() != null ? new ArrayList<>(steps.keySet()).indexOf(job.getStep()) + 1 : 0);
+        status.put("totalSteps", steps.size());
+        status.put("rowsDeleted", job.getRowsDeleted());
+        status.put("lastError", job.getLastError());
+        status.put("createdAt", job.getCreatedAt() != null ? job.getCreatedAt().toString() : null);
+        status.put("finishedAt", job.getFinishedAt() != null ? job.getFinishedAt().toString() : null);
+        return status;
+    }
+
+    @Scheduled(fixedDelayString = "${app.users.purge.poll-interval-ms:30000}")
+    public void poll() {
+        wake();
+    }
+
+    private void wake() {
+        if (!stopping && draining.compareAndSet(false, true)) {
+            worker.execute(() -> {
+                try {
+                    drain();
+                } catch (Exception e) {
+                    logger.warn("User purge pass failed: {}", e.getMessage());
+                } finally {
+                    draining.set(false);
+                }
+            });
+        }
+    }
+
+    /** Runs every pending or interrupted job to completion; returns how many finished. */
+    public int drain() {
+        int finished = 0;
+        for (UserPurgeJob job : jobRepository.findByStatusInOrderByIdAsc(List.of(PurgeStatus.PENDING, PurgeStatus.RUNNING))) {
+            if (stopping) {
+                break;
+            }
+            if (run(job)) {
+                finished++;
+            }
+        }
+        return finished;
+    }
+
+    private boolean run(UserPurgeJob job) {
+        List<String> names = new ArrayList<>(steps.keySet());
+        int start = job.getStep() != null ? Math.max(0, names.indexOf(job.getStep())) : 0;
+        job.setStatus(PurgeStatus.RUNNING);
+        try {
+            for (int i = start; i < names.size(); i++) {
+                String name = names.get(i);
+                job.setStep(name);
+                job = touch(job);
+                ChunkDelete step = steps.get(name);
+                while (true) {
+                    if (stopping) {
+                        return false; // left RUNNING; resumes from this step on the next start
+                    }
+                    long began = System.nanoTime();
+                    int deleted = step.delete(job.getUserId(), chunkSize);
+                    long tookMillis = (System.nanoTime() - began) / 1_000_000;
+                    if (deleted > 0) {
+                        job.setRowsDeleted(job.getRowsDeleted() + deleted);
+                        job = touch(job);
+                        rowsDeleted.increment(deleted);
+                    }
+                    if (deleted < chunkSize) {
+                        break;
+                    }
+                    throttle(tookMillis);
+                }
+            }
+            job.setStatus(PurgeStatus.DONE);
+            job.setFinishedAt(Instant.now());
+            touch(job);
+            logger.info("Purged user {} ({}): {} rows", job.getUserId(), job.getUsername(), job.getRowsDeleted());
+            return true;
+        } catch (Exception e) {
+            logger.error("Purge of user {} failed at step {}: {}", job.getUserId(), job.getStep(), e.getMessage());
+            job.setStatus(PurgeStatus.FAILED);
+            String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            job.setLastError(error.length() > 500 ? error.substring(0, 500) : error);
+            touch(job);
+            return false;
+        }
+    }
+
+    private UserPurgeJob touch(UserPurgeJob job) {
+        job.setUpdatedAt(Instant.now());
+        return jobRepository.save(job);
+    }
+
+    private void throttle(long tookMillis) {
+        long pause = Math.max(minPauseMillis, (long) (tookMillis * throttleRatio));
+        if (pause <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopping = true;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopping = true;
+        worker.shutdownNow();
+    }
+}
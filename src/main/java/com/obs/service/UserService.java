@@ -1,13 +1,17 @@
 package com.obs.service;
 
+import com.obs.event.AuditEvent;
 import com.obs.model.*;
 import com.obs.repository.*;
+import com.obs.security.OtpStore;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -47,6 +51,24 @@ public class UserService {
     @Autowired
     private StandingInstructionRepository standingInstructionRepository;
 
+    @Autowired
+    private OtpStore otpStore;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private UserEventStream userEventStream;
+
+    @Autowired
+    private TransactionAlertDigest transactionAlerts;
+
+    @Autowired
+    private FraudRuleEngine fraudRules;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public UserService(AccountRepository accountRepository,
                        TransactionRepository transactionRepository,
                        LoanApplicationRepository loanRepository,
@@ -154,6 +176,12 @@ public class UserService {
                     return Map.of("success", false, "message", "Invalid transfer type");
             }
 
+            if (Boolean.TRUE.equals(result.get("success"))) {
+                transactionAlerts.record(currentUser, transactionId,
+                    transferType.toUpperCase() + " transfer to " + toAccountNumber + " - " + note, amount.negate());
+                eventPublisher.publishEvent(new AuditEvent("TRANSFER_" + transferType.toUpperCase(), "TRANSACTION",
+                    transactionId, amount.toPlainString() + " to " + toAccountNumber));
+            }
             return result;
 
         } catch (Exception e) {
@@ -218,6 +246,7 @@ public class UserService {
             creditTx.setTransactionId(transactionId);
             creditTx.setRecipientAccount(fromAccount.getAccountNumber());
             transactionRepository.save(creditTx);
+            transactionAlerts.record(toAccount.getUser(), transactionId, creditTx.getNote(), amount);
 
             // Send real-time updates
             webSocketService.sendTransactionUpdate(Map.of(
@@ -485,6 +514,8 @@ public class UserService {
             }
             
             Beneficiary savedBeneficiary = beneficiaryRepository.save(beneficiary);
+            fraudRules.beneficiaryAdded(currentUser.getId(), accountNumber);
+            eventPublisher.publishEvent(new AuditEvent("BENEFICIARY_ADDED", "BENEFICIARY", savedBeneficiary.getId(), accountNumber));
             
             // Send real-time update
             webSocketService.sendUserUpdate(currentUser.getId(), "beneficiary_added", 
@@ -868,6 +899,7 @@ public class UserService {
             // Update bill payment with transaction ID
             savedPayment.markAsCompleted(savedTransaction.getTransactionId());
             billPaymentRepository.save(savedPayment);
+            transactionAlerts.record(currentUser, savedTransaction.getTransactionId(), transaction.getNote(), amount.negate());
             
             // Send real-time updates
             webSocketService.sendUserUpdate(currentUser.getId(), "bill_paid", 
@@ -1807,17 +1839,51 @@ public class UserService {
         return Map.of("message", "Password changed successfully");
     }
     
+    // Two-step: a call without "otp" emails a code, a call with it confirms the change
     public Map<String, Object> enableTwoFactorAuth(Map<String, String> data) {
-        return Map.of("message", "Two-factor authentication enabled");
+        return changeTwoFactor(data, true, OtpStore.Purpose.ENABLE_2FA);
     }
     
     public Map<String, Object> disableTwoFactorAuth(Map<String, String> data) {
-        return Map.of("message", "Two-factor authentication disabled");
+        return changeTwoFactor(data, false, OtpStore.Purpose.DISABLE_2FA);
+    }
+    
+    private Map<String, Object> changeTwoFactor(Map<String, String> data, boolean enable, OtpStore.Purpose purpose) {
+        User currentUser = getCurrentUser();
+        if (currentUser.isTwoFactorEnabled() == enable) {
+            return Map.of("twoFactorEnabled", enable,
+                "message", "Two-factor authentication already " + (enable ? "enabled" : "disabled"));
+        }
+        String otp = data != null ? data.get("otp") : null;
+        if (otp == null || otp.isBlank()) {
+            String code = otpStore.issue(purpose, currentUser.getId());
+            emailService.sendOTPEmail(currentUser.getEmail(), currentUser.getUsername(), code);
+            return Map.of("otpRequired", true, "expiresInSeconds", otpStore.getTtlSeconds(),
+                "message", "A verification code has been sent to your email");
+        }
+        OtpStore.Result result = otpStore.verify(purpose, currentUser.getId(), otp);
+        if (result != OtpStore.Result.VALID) {
+            throw new RuntimeException(switch (result) {
+                case INVALID -> "Invalid verification code";
+                case TOO_MANY_ATTEMPTS -> "Too many attempts, please request a new code";
+                default -> "Verification code expired, please request a new one";
+            });
+        }
+        currentUser.setTwoFactorEnabled(enable);
+        userRepository.save(currentUser);
+        return Map.of("twoFactorEnabled", enable,
+            "message", "Two-factor authentication " + (enable ? "enabled" : "disabled"));
+    }
+    
+    // SSE alternative to the STOMP user queues; see UserEventStream
+    public SseEmitter subscribeToEvents(String lastEventId) {
+        User currentUser = getCurrentUser();
+        return userEventStream.subscribe(currentUser.getId(), currentUser.getUsername(), lastEventId);
     }
     
     public Map<String, Object> getSecuritySettings() {
         return Map.of(
-            "twoFactorEnabled", false,
+            "twoFactorEnabled", getCurrentUser().isTwoFactorEnabled(),
             "loginNotifications", true,
             "transactionAlerts", true
         );
@@ -0,0 +1,196 @@
+package com.obs.service;
+
+import com.obs.model.Role;
+import com.obs.model.User;
+import com.obs.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory user counts per role and per active/locked state, seeded from one aggregate
+ * query and kept current by {@link UserStatsListener}, so reading them is O(1).
+ * <p>
+ * Changes made by other nodes or by bulk updates are not seen here, so a scheduled
+ * reconciliation compares against the database. Only drift that shows up in two
+ * consecutive checks (with the same sign) is corrected; a mismatch caused by a commit
+ * racing the check itself disappears on the next run.
+ */
+@Component
+public class UserStatsCounters {
+    private static final Logger log = LoggerFactory.getLogger(UserStatsCounters.class);
+
+    private final UserRepository userRepository;
+    private final Map<Role, LongAdder> byRole = new EnumMap<>(Role.class);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder active = new LongAdder();
+    private final LongAdder inactive = new LongAdder();
+    private final LongAdder locked = new LongAdder();
+    private final Counter driftCorrections;
+
+    private volatile boolean seeded;
+    private Map<String, Long> pendingDrift = Map.of();
+
+    public UserStatsCounters(UserRepository userRepository, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        for (Role role : Role.values()) {
+            byRole.put(role, new LongAdder());
+        }
+        this.driftCorrections = Counter.builder("users.stats.drift")
+                .description("Counter corrections made by reconciliation").register(meterRegistry);
+    }
+
+    public void apply(User.StatsState state, int sign) {
+        if (state.deleted()) {
+            return; // soft-deleted users are no longer counted
+        }
+        total.add(sign);
+        if (state.role() != null) {
+            byRole.get(state.role()).add(sign);
+        }
+        (state.active() ? active : inactive).add(sign);
+        if (state.locked()) {
+            locked.add(sign);
+        }
+    }
+
+    /** For bulk updates that lock a user without going through the entity listener. */
+    public void lockedInBulk(int count) {
+        locked.add(count);
+    }
+
+    /** For bulk updates that (de)activate users without going through the entity listener. */
+    public void activatedInBulk(int count) {
+        active.add(count);
+        inactive.add(-count);
+    }
+
+    public SuperAdminService.UserStats snapshot() {
+        if (!seeded) {
+            seed();
+        }
+        SuperAdminService.UserStats stats = new SuperAdminService.UserStats();
+        stats.setTotalUsers(total.intValue());
+        stats.setActiveUsers(active.intValue());
+        stats.setInactiveUsers(inactive.intValue());
+        stats.setLockedUsers(locked.intValue());
+        stats.setSuperAdmins(byRole.get(Role.SUPER_ADMIN).intValue());
+        stats.setAdmins(byRole.get(Role.ADMIN).intValue());
+        stats.setManagers(byRole.get(Role.MANAGER).intValue());
+        stats.setEmployees(byRole.get(Role.EMPLOYEE).intValue());
+        stats.setUsers(byRole.get(Role.USER).intValue());
+        return stats;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void seed() {
+        if (seeded) {
+            return;
+        }
+        try {
+            Map<String, Long> expected = countFromDatabase();
+            adjust(diff(expected, current()));
+            seeded = true;
+            log.info("Seeded user stats counters: {} users", expected.get("total"));
+        } catch (Exception e) {
+            log.warn("Could not seed user stats counters: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.super-admin.stats.reconcile-interval-ms:60000}")
+    public synchronized void reconcile() {
+        if (!seeded) {
+            seed();
+            return;
+        }
+        Map<String, Long> drift = diff(countFromDatabase(), current());
+        Map<String, Long> correction = new HashMap<>();
+        Map<String, Long> remaining = new HashMap<>();
+        drift.forEach((key, value) -> {
+            long previous = pendingDrift.getOrDefault(key, 0L);
+            long fix = Long.signum(previous) == Long.signum(value) ? Long.signum(value) * Math.min(Math.abs(previous), Math.abs(value)) : 0;
+            if (fix != 0) {
+                correction.put(key, fix);
+            }
+            if (value - fix != 0) {
+                remaining.put(key, value - fix);
+            }
+        });
+        pendingDrift = remaining;
+        if (!correction.isEmpty()) {
+            log.warn("Correcting user stats drift: {}", correction);
+            adjust(correction);
+            driftCorrections.increment();
+        }
+    }
+
+    private Map<String, Long> countFromDatabase() {
+        Map<String, Long> counts = zeroed();
+        for (UserRepository.StatusCount row : userRepository.countByRoleAndStatus()) {
+            long n = row.getTotal();
+            counts.merge("total", n, Long::sum);
+            counts.merge(row.isActive() ? "active" : "inactive", n, Long::sum);
+            if (row.isLocked()) {
+                counts.merge("locked", n, Long::sum);
+            }
+            if (row.getRole() != null) {
+                counts.merge(row.getRole().name(), n, Long::sum);
+            }
+        }
+        return counts;
+    }
+
+    private Map<String, Long> current() {
+        Map<String, Long> counts = zeroed();
+        counts.put("total", total.sum());
+        counts.put("active", active.sum());
+        counts.put("inactive", inactive.sum());
+        counts.put("locked", locked.sum());
+        byRole.forEach((role, adder) -> counts.put(role.name(), adder.sum()));
+        return counts;
+    }
+
+    private void adjust(Map<String, Long> delta) {
+        delta.forEach((key, value) -> {
+            switch (key) {
+                case "total" -> total.add(value);
+                case "active" -> active.add(value);
+                case "inactive" -> inactive.add(value);
+                case "locked" -> locked.add(value);
+                default -> byRole.get(Role.valueOf(key)).add(value);
+            }
+        });
+    }
+
+    private static Map<String, Long> diff(Map<String, Long> expected, Map<String, Long> actual) {
+        Map<String, Long> delta = new HashMap<>();
+        expected.forEach((key, value) -> {
+            long d = value - actual.getOrDefault(key, 0L);
+            if (d != 0) {
+                delta.put(key, d);
+            }
+        });
+        return delta;
+    }
+
+    private static Map<String, Long> zeroed() {
+        Map<String, Long> counts = new HashMap<>();
+        for (String key : new String[] {"total", "active", "inactive", "locked"}) {
+            counts.put(key, 0L);
+        }
+        for (Role role : Role.values()) {
+            counts.put(role.name(), 0L);
+        }
+        return counts;
+    }
+}
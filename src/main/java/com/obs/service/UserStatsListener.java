@@ -0,0 +1,60 @@
+package com.obs.service;
+
+import com.obs.model.User;
+import com.obs.util.TransactionUtils;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener on {@link User} that feeds {@link UserStatsCounters}. Deltas are applied
+ * only after the surrounding transaction commits. Bulk JPQL updates bypass this listener
+ * and must adjust the counters themselves (or leave it to reconciliation).
+ */
+@Component
+public class UserStatsListener {
+
+    private final ObjectProvider<UserStatsCounters> counters;
+
+    public UserStatsListener(ObjectProvider<UserStatsCounters> counters) {
+        this.counters = counters;
+    }
+
+    @PostLoad
+    public void onLoad(User user) {
+        user.setPersistedState(user.currentStatsState());
+    }
+
+    @PostPersist
+    public void onInsert(User user) {
+        User.StatsState state = user.currentStatsState();
+        user.setPersistedState(state);
+        TransactionUtils.afterCommit(() -> counters().apply(state, 1));
+    }
+
+    @PostUpdate
+    public void onUpdate(User user) {
+        User.StatsState before = user.getPersistedState();
+        User.StatsState after = user.currentStatsState();
+        user.setPersistedState(after);
+        if (before != null && !before.equals(after)) {
+            TransactionUtils.afterCommit(() -> {
+                counters().apply(before, -1);
+                counters().apply(after, 1);
+            });
+        }
+    }
+
+    @PostRemove
+    public void onDelete(User user) {
+        User.StatsState state = user.getPersistedState() != null ? user.getPersistedState() : user.currentStatsState();
+        TransactionUtils.afterCommit(() -> counters().apply(state, -1));
+    }
+
+    private UserStatsCounters counters() {
+        return counters.getObject();
+    }
+}
@@ -0,0 +1,282 @@
+package com.obs.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves STOMP fan-out off the request thread. Messages are held until the surrounding
+ * transaction commits (dropped on rollback), then placed on a bounded ring buffer that a
+ * single worker drains into {@link SimpMessagingTemplate}. When the buffer is full the
+ * oldest message is dropped, since dashboards only care about recent state.
+ *
+ * <p>Messages with a coalesce key (balance updates) are not queued directly: the latest
+ * value per key is kept for {@code coalesce-window-ms} and only that one is published.
+ *
+ * <p>Every locally originated message is also handed to the {@link ClusterRelay} so other
+ * replicas' in-memory brokers deliver it; relayed messages are deduplicated by id and
+ * published locally only.
+ */
+@Component
+public class WebSocketDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketDispatcher.class);
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ClusterRelay clusterRelay;
+    // Ids of recently received relay messages; pollers may deliver the same row twice
+    private final Map<String, Boolean> recentRemoteIds = Collections.synchronizedMap(new LinkedHashMap<>(1024, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > 10_000;
+        }
+    });
+    private final ArrayBlockingQueue<Message> ring;
+    private final Map<String, Message> coalescing = new ConcurrentHashMap<>();
+    private final boolean async;
+    private final int batchSize;
+    private volatile boolean running = true;
+    private Thread worker;
+
+    private final Counter enqueued;
+    private final Counter dropped;
+    private final Counter coalesced;
+    private final Counter failed;
+    private final Timer publishTimer;
+    private final Counter relayForwarded;
+    private final Counter relayReceived;
+    private final Counter relayDuplicates;
+
+    public WebSocketDispatcher(SimpMessagingTemplate messagingTemplate,
+                               ClusterRelay clusterRelay,
+                               @Value("${app.websocket.dispatch.capacity:4096}") int capacity,
+                               @Value("${app.websocket.dispatch.batch-size:256}") int batchSize,
+                               @Value("${app.websocket.dispatch.async:true}") boolean async,
+                               MeterRegistry meterRegistry) {
+        this.messagingTemplate = messagingTemplate;
+        this.clusterRelay = clusterRelay;
+        this.ring = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.async = async;
+
+        this.enqueued = Counter.builder("websocket.dispatch.enqueued")
+                .description("Messages accepted for publishing").register(meterRegistry);
+        this.dropped = Counter.builder("websocket.dispatch.dropped")
+                .description("Messages dropped because the ring buffer was full").register(meterRegistry);
+        this.coalesced = Counter.builder("websocket.dispatch.coalesced")
+                .description("Messages superseded by a newer value for the same key").register(meterRegistry);
+        this.failed = Counter.builder("websocket.dispatch.failed")
+                .description("Messages the broker rejected").register(meterRegistry);
+        this.publishTimer = Timer.builder("websocket.dispatch.publish")
+                .description("Time to hand one message to the broker").register(meterRegistry);
+        this.relayForwarded = Counter.builder("websocket.cluster.forwarded").register(meterRegistry);
+        this.relayReceived = Counter.builder("websocket.cluster.received").register(meterRegistry);
+        this.relayDuplicates = Counter.builder("websocket.cluster.duplicates").register(meterRegistry);
+        Gauge.builder("websocket.dispatch.queue.depth", ring, ArrayBlockingQueue::size).register(meterRegistry);
+        Gauge.builder("websocket.dispatch.coalescing.pending", coalescing, Map::size).register(meterRegistry);
+        clusterRelay.setReceiver(this::receiveRemote);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!async) {
+            return;
+        }
+        worker = new Thread(this::drainLoop, "ws-dispatch");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    /** Publishes to a topic once the current transaction (if any) commits. */
+    public void toTopic(String destination, Object payload) {
+        submit(Message.local(destination, null, payload, null));
+    }
+
+    /** Like {@link #toTopic} but never relayed to other nodes (node-local sequenced feeds). */
+    public void toTopicNodeLocal(String destination, Object payload) {
+        submit(new Message(UUID.randomUUID().toString(), destination, null, payload, null, false));
+    }
+
+    /** Publishes to a user queue once the current transaction (if any) commits. */
+    public void toUser(String username, String destination, Object payload) {
+        submit(Message.local(destination, username, payload, null));
+    }
+
+    /** Like {@link #toTopic} but only the latest payload per key within the window is sent. */
+    public void toTopicCoalesced(String coalesceKey, String destination, Object payload) {
+        submit(Message.local(destination, null, payload, coalesceKey));
+    }
+
+    public void toUserCoalesced(String coalesceKey, String username, String destination, Object payload) {
+        submit(Message.local(destination, username, payload, coalesceKey));
+    }
+
+    private void submit(Message message) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendingForTransaction().add(message);
+        } else {
+            accept(message);
+        }
+    }
+
+    private List<Message> pendingForTransaction() {
+        @SuppressWarnings("unchecked")
+        List<Message> pending = (List<Message>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<Message> batch = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, batch);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(WebSocketDispatcher.this);
+                    if (status == STATUS_COMMITTED) {
+                        batch.forEach(WebSocketDispatcher.this::accept);
+                    }
+                }
+            });
+            pending = batch;
+        }
+        return pending;
+    }
+
+    private void accept(Message message) {
+        if (!async) {
+            publish(message);
+            return;
+        }
+        if (message.coalesceKey != null) {
+            if (coalescing.put(message.coalesceKey, message) != null) {
+                coalesced.increment();
+            }
+            return;
+        }
+        enqueue(message);
+    }
+
+    private void enqueue(Message message) {
+        enqueued.increment();
+        while (!ring.offer(message)) {
+            if (ring.poll() != null) {
+                dropped.increment();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.websocket.dispatch.coalesce-window-ms:250}")
+    public void flushCoalesced() {
+        for (String key : coalescing.keySet()) {
+            Message latest = coalescing.remove(key);
+            if (latest != null) {
+                enqueue(latest);
+            }
+        }
+    }
+
+    private void drainLoop() {
+        List<Message> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Message first = ring.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                ring.drainTo(batch, batchSize - 1);
+                batch.forEach(this::publish);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void publish(Message message) {
+        long start = System.nanoTime();
+        try {
+            if (message.username != null) {
+                messagingTemplate.convertAndSendToUser(message.username, message.destination, message.payload);
+            } else {
+                messagingTemplate.convertAndSend(message.destination, message.payload);
+            }
+        } catch (Exception e) {
+            failed.increment();
+            logger.warn("WebSocket publish to {} failed: {}", message.destination, e.getMessage());
+        } finally {
+            publishTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (message.forward) {
+            relay(message);
+        }
+    }
+
+    // Topics go to every node; user destinations only to nodes holding a session for the user
+    private void relay(Message message) {
+        try {
+            ClusterMessage outgoing = new ClusterMessage(message.id, clusterRelay.getNodeId(), null,
+                    message.destination, message.username, message.payload);
+            if (message.username == null) {
+                clusterRelay.forward(outgoing);
+                relayForwarded.increment();
+                return;
+            }
+            for (String node : clusterRelay.remoteNodesFor(message.username)) {
+                clusterRelay.forward(outgoing.withTarget(node));
+                relayForwarded.increment();
+            }
+        } catch (Exception e) {
+            logger.warn("Cluster relay of {} failed: {}", message.destination, e.getMessage());
+        }
+    }
+
+    private void receiveRemote(ClusterMessage incoming) {
+        if (recentRemoteIds.putIfAbsent(incoming.id(), Boolean.TRUE) != null) {
+            relayDuplicates.increment();
+            return;
+        }
+        relayReceived.increment();
+        Message message = new Message(incoming.id(), incoming.destination(), incoming.username(),
+                incoming.payload(), null, false);
+        if (async) {
+            enqueue(message);
+        } else {
+            publish(message);
+        }
+    }
+
+    private record Message(String id, String destination, String username, Object payload,
+                           String coalesceKey, boolean forward) {
+        static Message local(String destination, String username, Object payload, String coalesceKey) {
+            return new Message(UUID.randomUUID().toString(), destination, username, payload, coalesceKey, true);
+        }
+    }
+}
@@ -1,22 +1,31 @@
 package com.obs.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
 import java.util.Map;
 
+/**
+ * Builds dashboard/user messages; delivery goes through {@link WebSocketDispatcher}, so
+ * callers never block on the broker and nothing is sent for a rolled-back transaction.
+ */
 @Service
 public class WebSocketService {
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private WebSocketDispatcher dispatcher;
+
+    @Autowired
+    private DashboardFeeds dashboardFeeds;
+
+    @Autowired
+    private UserEventStream userEventStream;
 
     /**
      * Send real-time updates to admin dashboard
      */
     public void sendAdminUpdate(String updateType, Map<String, Object> data) {
-        messagingTemplate.convertAndSend("/topic/admin-updates", Map.of(
+        dispatcher.toTopic("/topic/admin-updates", Map.of(
             "type", updateType,
             "data", data,
             "timestamp", System.currentTimeMillis()
@@ -27,7 +36,7 @@ public class WebSocketService {
      * Send real-time updates to manager dashboard
      */
     public void sendManagerUpdate(String updateType, Map<String, Object> data) {
-        messagingTemplate.convertAndSend("/topic/manager-updates", Map.of(
+        dispatcher.toTopic("/topic/manager-updates", Map.of(
             "type", updateType,
             "data", data,
             "timestamp", System.currentTimeMillis()
@@ -38,7 +47,7 @@ public class WebSocketService {
      * Send real-time updates to employee dashboard
      */
     public void sendEmployeeUpdate(String updateType, Map<String, Object> data) {
-        messagingTemplate.convertAndSend("/topic/employee-updates", Map.of(
+        dispatcher.toTopic("/topic/employee-updates", Map.of(
             "type", updateType,
             "data", data,
             "timestamp", System.currentTimeMillis()
@@ -49,11 +58,13 @@ public class WebSocketService {
      * Send notification to specific user
      */
     public void sendUserNotification(String username, String message, String type) {
-        messagingTemplate.convertAndSendToUser(username, "/queue/notifications", Map.of(
+        Map<String, Object> notification = Map.of(
             "message", message,
             "type", type,
             "timestamp", System.currentTimeMillis()
-        ));
+        );
+        dispatcher.toUser(username, "/queue/notifications", notification);
+        userEventStream.publish(username, "notification", notification);
     }
 
     /**
@@ -71,6 +82,9 @@ public class WebSocketService {
             "transaction", transaction,
             "action", "NEW_TRANSACTION"
         ));
+
+        // Sequenced delta for snapshot-based dashboard clients
+        dashboardFeeds.transactionCreated(transaction);
     }
 
     /**
@@ -85,26 +99,40 @@ public class WebSocketService {
     }
 
     /**
-     * Send account balance update
+     * Send account balance update (coalesced per account: only the latest balance is sent)
      */
     public void sendBalanceUpdate(String accountNumber, String newBalance, String username) {
-        sendUserNotification(username, "Account balance updated", "BALANCE_UPDATE");
+        Map<String, Object> notification = Map.of(
+            "message", "Account balance updated",
+            "type", "BALANCE_UPDATE",
+            "timestamp", System.currentTimeMillis()
+        );
+        dispatcher.toUserCoalesced("notify-balance:" + username, username, "/queue/notifications", notification);
+        userEventStream.publish(username, "notification", notification);
         
-        sendAdminUpdate("BALANCE_UPDATE", Map.of(
-            "accountNumber", accountNumber,
-            "newBalance", newBalance,
-            "username", username
+        dispatcher.toTopicCoalesced("balance:" + accountNumber, "/topic/admin-updates", Map.of(
+            "type", "BALANCE_UPDATE",
+            "data", Map.of(
+                "accountNumber", accountNumber,
+                "newBalance", newBalance,
+                "username", username
+            ),
+            "timestamp", System.currentTimeMillis()
         ));
     }
 
     /**
-     * Send balance update with Long userId
+     * Send balance update with Long userId (coalesced per account)
      */
     public void sendBalanceUpdate(Long userId, String accountNumber, java.math.BigDecimal newBalance) {
-        sendAdminUpdate("BALANCE_UPDATE", Map.of(
-            "userId", userId,
-            "accountNumber", accountNumber,
-            "newBalance", newBalance,
+        dispatcher.toTopicCoalesced("balance:" + accountNumber, "/topic/admin-updates", Map.of(
+            "type", "BALANCE_UPDATE",
+            "data", Map.of(
+                "userId", userId,
+                "accountNumber", accountNumber,
+                "newBalance", newBalance,
+                "timestamp", System.currentTimeMillis()
+            ),
             "timestamp", System.currentTimeMillis()
         ));
     }
@@ -113,11 +141,13 @@ public class WebSocketService {
      * Send user-specific update
      */
     public void sendUserUpdate(Long userId, String updateType, Map<String, Object> data) {
-        messagingTemplate.convertAndSend("/topic/user-" + userId + "-updates", Map.of(
+        Map<String, Object> update = Map.of(
             "type", updateType,
             "data", data,
             "timestamp", System.currentTimeMillis()
-        ));
+        );
+        dispatcher.toTopic("/topic/user-" + userId + "-updates", update);
+        userEventStream.publish(userId, "update", update);
     }
 
     /**
@@ -133,6 +163,8 @@ public class WebSocketService {
             "loan", loanData,
             "action", "NEW_APPLICATION"
         ));
+
+        dashboardFeeds.loanApplicationCreated(loanData);
     }
 
     /**
@@ -148,7 +180,7 @@ public class WebSocketService {
         );
 
         // Send to all admin users
-        messagingTemplate.convertAndSend("/topic/system-alerts", alert);
+        dispatcher.toTopic("/topic/system-alerts", alert);
     }
 
     private String getSeverityLevel(String alertType) {
@@ -0,0 +1,42 @@
+package com.obs.service;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Feeds STOMP connect/disconnect into the cluster relay's user-to-node registry.
+ * Disconnect events can repeat for one session, so sessions are tracked by id.
+ */
+@Component
+public class WebSocketSessionTracker {
+
+    private final ClusterRelay clusterRelay;
+    private final Map<String, String> sessionUsers = new ConcurrentHashMap<>();
+
+    public WebSocketSessionTracker(ClusterRelay clusterRelay) {
+        this.clusterRelay = clusterRelay;
+    }
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        Principal user = event.getUser();
+        String sessionId = (String) event.getMessage().getHeaders().get("simpSessionId");
+        if (user != null && sessionId != null && sessionUsers.putIfAbsent(sessionId, user.getName()) == null) {
+            clusterRelay.sessionOpened(user.getName());
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        String username = sessionUsers.remove(event.getSessionId());
+        if (username != null) {
+            clusterRelay.sessionClosed(username);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.obs.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Streams export rows as CSV (any format named "csv") or NDJSON. Rows are written as they
+ * arrive; callers flush once per chunk so a long export never holds more than one chunk.
+ */
+public final class ExportWriter implements Flushable {
+
+    private final Writer writer;
+    private final ObjectMapper objectMapper;
+    private final String[] csvColumns;
+
+    private ExportWriter(Writer writer, ObjectMapper objectMapper, String[] csvColumns) {
+        this.writer = writer;
+        this.objectMapper = objectMapper;
+        this.csvColumns = csvColumns;
+    }
+
+    /** Opens a writer over {@code out}; for CSV the header line is written straight away. */
+    public static ExportWriter open(OutputStream out, String format, String[] csvColumns, ObjectMapper objectMapper) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (!isCsv(format)) {
+            return new ExportWriter(writer, objectMapper, null);
+        }
+        writer.write(String.join(",", csvColumns));
+        writer.write('\n');
+        return new ExportWriter(writer, objectMapper, csvColumns);
+    }
+
+    public static boolean isCsv(String format) {
+        return "csv".equalsIgnoreCase(format);
+    }
+
+    /** Sets the content type and an attachment name of {@code baseName} plus the format's extension. */
+    public static void prepare(HttpServletResponse response, String format, String baseName, boolean gzip) {
+        boolean csv = isCsv(format);
+        response.setContentType(csv ? "text/csv;charset=UTF-8" : "application/x-ndjson;charset=UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=\"" + baseName + (csv ? ".csv" : ".ndjson") + (gzip ? ".gz" : "") + "\"");
+        if (gzip) {
+            response.setHeader("Content-Encoding", "gzip");
+        }
+    }
+
+    public void write(Map<String, Object> row) throws IOException {
+        if (csvColumns == null) {
+            writer.write(objectMapper.writeValueAsString(row));
+            writer.write('\n');
+            return;
+        }
+        for (int i = 0; i < csvColumns.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = row.get(csvColumns[i]);
+            writer.write(value == null ? "" : csvEscape(value.toString()));
+        }
+        writer.write('\n');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    static String csvEscape(String value) {
+        // Keep spreadsheet apps from evaluating user-controlled text as a formula
+        if (!value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
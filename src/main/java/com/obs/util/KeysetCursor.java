@@ -0,0 +1,39 @@
+package com.obs.util;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Position in a newest-first listing ordered by (time, id), exchanged with clients as
+ * {@code "<epoch micros>_<id>"}. Pages are queried for one row more than they return; the
+ * extra row only tells whether another page exists, so no count query is needed.
+ */
+public record KeysetCursor(Instant at, long id) {
+
+    /** Before every row: the position of the first page. */
+    public static final KeysetCursor FIRST = new KeysetCursor(Instant.parse("9999-12-31T00:00:00Z"), Long.MAX_VALUE);
+
+    /** Parses a client cursor; {@code whenAbsent} for a null or blank one. */
+    public static KeysetCursor parse(String cursor, KeysetCursor whenAbsent) {
+        if (cursor == null || cursor.isBlank()) {
+            return whenAbsent;
+        }
+        try {
+            int sep = cursor.indexOf('_');
+            return new KeysetCursor(Instant.EPOCH.plus(Long.parseLong(cursor.substring(0, sep)), ChronoUnit.MICROS),
+                    Long.parseLong(cursor.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public static String format(Instant at, long id) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, at) + "_" + id;
+    }
+
+    /** The first {@code size} of rows fetched with {@code size + 1}; shorter than {@code rows} when another page exists. */
+    public static <T> List<T> page(List<T> rows, int size) {
+        return rows.size() > size ? rows.subList(0, size) : rows;
+    }
+}
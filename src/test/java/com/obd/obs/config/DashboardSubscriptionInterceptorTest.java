@@ -0,0 +1,54 @@
+package com.obd.obs.config;
+
+import com.obs.config.DashboardSubscriptionInterceptor;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class DashboardSubscriptionInterceptorTest {
+
+    private final DashboardSubscriptionInterceptor interceptor = new DashboardSubscriptionInterceptor();
+    private final MessageChannel channel = mock(MessageChannel.class);
+
+    @Test
+    void adminFeedIsRefusedToOtherRoles() {
+        assertThrows(AccessDeniedException.class, () -> interceptor.preSend(subscribe("/app/dashboard/admin", "USER"), channel));
+        assertThrows(AccessDeniedException.class, () -> interceptor.preSend(subscribe("/topic/dashboard.admin", "MANAGER"), channel));
+        assertThrows(AccessDeniedException.class, () -> interceptor.preSend(subscribe("/topic/dashboard.admin", null), channel));
+        assertNotNull(interceptor.preSend(subscribe("/topic/dashboard.admin", "ADMIN"), channel));
+    }
+
+    @Test
+    void managerFeedIsOpenToManagersAndAdmins() {
+        assertNotNull(interceptor.preSend(subscribe("/app/dashboard/manager", "MANAGER"), channel));
+        assertNotNull(interceptor.preSend(subscribe("/topic/dashboard.manager", "ADMIN"), channel));
+        assertThrows(AccessDeniedException.class, () -> interceptor.preSend(subscribe("/app/dashboard/manager", "EMPLOYEE"), channel));
+        assertThrows(AccessDeniedException.class, () -> interceptor.preSend(subscribe("/app/dashboard/unknown", "ADMIN"), channel));
+    }
+
+    @Test
+    void otherDestinationsAreNotChecked() {
+        assertNotNull(interceptor.preSend(subscribe("/topic/system-alerts", "USER"), channel));
+    }
+
+    private static Message<byte[]> subscribe(String destination, String role) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setDestination(destination);
+        if (role != null) {
+            accessor.setUser(new UsernamePasswordAuthenticationToken("alice", null,
+                    List.of(new SimpleGrantedAuthority("ROLE_" + role))));
+        }
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,90 @@
+package com.obd.obs.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.obs.config.RingBufferAppender;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingBufferAppenderTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private RingBufferAppender appender;
+    private long now = 1_700_000_000_000L;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, List<String>> categories = new LinkedHashMap<>();
+        categories.put("security", List.of("org.springframework.security", "com.obs.security"));
+        categories.put("app", List.of("com.obs"));
+        appender = new RingBufferAppender(categories, 4, 20);
+        appender.setContext(context);
+        appender.start();
+    }
+
+    @Test
+    void eventsAreRoutedToTheFirstMatchingCategory() {
+        log("com.obs.security.LoginThrottle", Level.WARN, "throttled", null);
+        log("com.obs.service.UserService", Level.INFO, "transfer", null);
+        log("org.apache.catalina.Server", Level.INFO, "started", null);
+
+        assertEquals(List.of("throttled"), messages(query("security", null, null)));
+        assertEquals(List.of("transfer"), messages(query("app", null, null)));
+        assertEquals(List.of("started"), messages(query("other", null, null)));
+        assertEquals(List.of("started", "transfer", "throttled"), messages(query(null, null, null)));
+    }
+
+    @Test
+    void noisyCategoryOnlyOverwritesItsOwnRing() {
+        log("com.obs.service.UserService", Level.ERROR, "kept", null);
+        for (int i = 0; i < 10; i++) {
+            log("org.springframework.security.web.FilterChainProxy", Level.DEBUG, "debug " + i, null);
+        }
+
+        assertEquals(List.of("debug 9", "debug 8", "debug 7", "debug 6"), messages(query("security", null, null)));
+        assertEquals(List.of("kept"), messages(query("app", null, null)));
+    }
+
+    @Test
+    void filtersByMinimumLevelAndCorrelationId() {
+        log("com.obs.service.AuthService", Level.INFO, "ok", "abc");
+        log("com.obs.service.AuthService", Level.WARN, "bad", "abc");
+        log("com.obs.service.AuthService", Level.WARN, "other request", "xyz");
+
+        assertEquals(List.of("other request", "bad"), messages(query("app", Level.WARN, null)));
+        assertEquals(List.of("bad", "ok"), messages(query("app", null, "abc")));
+    }
+
+    @Test
+    void messagesAreTruncatedAndCarryTheExceptionSummary() {
+        LoggingEvent event = new LoggingEvent("test", context.getLogger("com.obs.service.AuditLog"), Level.ERROR,
+                "write failed", new IllegalStateException("db down"), null);
+        event.setMDCPropertyMap(Map.of());
+        appender.doAppend(event);
+
+        String message = appender.query(new RingBufferAppender.Query(null, null, null, null, null, null, 10)).get(0).message();
+        assertEquals("write failed | java....", message);
+    }
+
+    private void log(String logger, Level level, String message, String correlationId) {
+        LoggingEvent event = new LoggingEvent("test", context.getLogger(logger), level, message, null, null);
+        event.setMDCPropertyMap(correlationId != null ? Map.of(RingBufferAppender.CORRELATION_ID, correlationId) : Map.of());
+        event.setTimeStamp(now++);
+        appender.doAppend(event);
+    }
+
+    private List<RingBufferAppender.Entry> query(String category, Level minLevel, String correlationId) {
+        return appender.query(new RingBufferAppender.Query(category, minLevel, null, null, null, correlationId, 100));
+    }
+
+    private static List<String> messages(List<RingBufferAppender.Entry> entries) {
+        return entries.stream().map(RingBufferAppender.Entry::message).toList();
+    }
+}
@@ -0,0 +1,93 @@
+package com.obd.obs.security;
+
+import com.obs.event.UserChangedEvent;
+import com.obs.security.JwtAuthenticationFilter;
+import com.obs.security.JwtTokenUtil;
+import com.obs.security.TokenRevocationService;
+import com.obs.security.UserDetailsCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class JwtAuthenticationFilterTest {
+
+    private final UserDetailsService userDetailsService = mock(UserDetailsService.class);
+    private final JwtTokenUtil jwtTokenUtil = mock(JwtTokenUtil.class);
+    private final UserDetailsCache cache = new UserDetailsCache(true, 60, 100);
+    private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter();
+
+    JwtAuthenticationFilterTest() {
+        ReflectionTestUtils.setField(filter, "userDetailsService", userDetailsService);
+        ReflectionTestUtils.setField(filter, "jwtTokenUtil", jwtTokenUtil);
+        ReflectionTestUtils.setField(filter, "userDetailsCache", cache);
+        ReflectionTestUtils.setField(filter, "tokenRevocationService", mock(TokenRevocationService.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void roleClaimBuildsThePrincipalWithoutLoadingTheUser() throws Exception {
+        Claims claims = claims("alice");
+        claims.put(JwtTokenUtil.CLAIM_ROLE, "ADMIN");
+        when(jwtTokenUtil.getAllClaimsFromToken("with-role")).thenReturn(claims);
+
+        Authentication authentication = authenticate("with-role");
+
+        assertEquals("alice", authentication.getName());
+        assertEquals(List.of("ROLE_ADMIN"), authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void tokenWithoutRoleIsResolvedThroughTheCacheUntilTheUserChanges() throws Exception {
+        when(jwtTokenUtil.getAllClaimsFromToken("legacy")).thenReturn(claims("bob"));
+        when(userDetailsService.loadUserByUsername("bob"))
+                .thenReturn(new User("bob", "", AuthorityUtils.createAuthorityList("ROLE_USER")))
+                .thenReturn(new User("bob", "", AuthorityUtils.createAuthorityList("ROLE_MANAGER")));
+
+        assertEquals("[ROLE_USER]", authenticate("legacy").getAuthorities().toString());
+        assertEquals("[ROLE_USER]", authenticate("legacy").getAuthorities().toString());
+        verify(userDetailsService, times(1)).loadUserByUsername(anyString());
+
+        cache.onUserChanged(new UserChangedEvent(9L, "bob", UserChangedEvent.ChangeType.ROLE_CHANGED));
+
+        assertEquals("[ROLE_MANAGER]", authenticate("legacy").getAuthorities().toString());
+        verify(userDetailsService, times(2)).loadUserByUsername(anyString());
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/user/profile");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        return authentication;
+    }
+
+    private static Claims claims(String username) {
+        Claims claims = Jwts.claims();
+        claims.setSubject(username);
+        return claims;
+    }
+}
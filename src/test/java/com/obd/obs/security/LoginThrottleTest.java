@@ -0,0 +1,30 @@
+package com.obd.obs.security;
+
+import com.obs.security.LoginThrottle;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginThrottleTest {
+
+    private final LoginThrottle throttle = new LoginThrottle(900, 6, 10, 50, 3, 1024, new SimpleMeterRegistry());
+
+    @Test
+    void everyFailureAtOrPastTheThresholdAsksForALock() {
+        assertEquals(0, throttle.recordFailure("alice", "10.0.0.1"));
+        assertEquals(0, throttle.recordFailure("alice", "10.0.0.1"));
+        assertEquals(3, throttle.recordFailure("alice", "10.0.0.1"));
+        // A lock that failed or was lifted without resetting the count is retried
+        assertEquals(4, throttle.recordFailure("Alice", "10.0.0.1"));
+    }
+
+    @Test
+    void unlockResetsTheCount() {
+        for (int i = 0; i < 3; i++) {
+            throttle.recordFailure("bob", "10.0.0.2");
+        }
+        throttle.recordSuccess("bob");
+        assertEquals(0, throttle.recordFailure("bob", "10.0.0.2"));
+    }
+}
@@ -0,0 +1,72 @@
+package com.obd.obs.security;
+
+import com.obs.model.OtpCode;
+import com.obs.repository.OtpCodeRepository;
+import com.obs.security.OtpStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OtpStoreTest {
+
+    private final OtpCodeRepository repository = mock(OtpCodeRepository.class);
+
+    private OtpStore store(long ttlSeconds, boolean persist) {
+        return new OtpStore(repository, ttlSeconds, 3, 6, 64, 1000, persist, new SimpleMeterRegistry());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void onlyASaltedHashOfTheCodeIsKept() {
+        OtpStore store = store(600, true);
+        String code = store.issue(OtpStore.Purpose.LOGIN, 7L);
+        store.flush();
+
+        ArgumentCaptor<List<OtpCode>> rows = ArgumentCaptor.forClass(List.class);
+        verify(repository).saveAll(rows.capture());
+        OtpCode row = rows.getValue().get(0);
+        assertEquals("LOGIN:7", row.getKey());
+        assertEquals(64, row.getCodeHash().length());
+        assertFalse(row.getCodeHash().contains(code));
+        assertFalse(row.getCodeHash().contains(HexFormat.of().formatHex(code.getBytes(StandardCharsets.UTF_8))));
+        assertNotNull(row.getSalt());
+    }
+
+    @Test
+    void aCodeIsDiscardedAfterTheAttemptLimit() {
+        OtpStore store = store(600, false);
+        String code = store.issue(OtpStore.Purpose.LOGIN, 7L);
+        String wrong = code.equals("000000") ? "000001" : "000000";
+
+        assertEquals(OtpStore.Result.INVALID, store.verify(OtpStore.Purpose.LOGIN, 7L, wrong));
+        assertEquals(OtpStore.Result.INVALID, store.verify(OtpStore.Purpose.LOGIN, 7L, wrong));
+        assertEquals(OtpStore.Result.TOO_MANY_ATTEMPTS, store.verify(OtpStore.Purpose.LOGIN, 7L, wrong));
+        // Even the right code is refused once the limit is reached
+        assertEquals(OtpStore.Result.EXPIRED, store.verify(OtpStore.Purpose.LOGIN, 7L, code));
+    }
+
+    @Test
+    void aValidCodeWorksOnceAndOnlyForItsPurpose() {
+        OtpStore store = store(600, false);
+        String code = store.issue(OtpStore.Purpose.ENABLE_2FA, 7L);
+
+        assertEquals(OtpStore.Result.EXPIRED, store.verify(OtpStore.Purpose.LOGIN, 7L, code));
+        assertEquals(OtpStore.Result.VALID, store.verify(OtpStore.Purpose.ENABLE_2FA, 7L, code));
+        assertEquals(OtpStore.Result.EXPIRED, store.verify(OtpStore.Purpose.ENABLE_2FA, 7L, code));
+    }
+
+    @Test
+    void anExpiredCodeIsRefused() {
+        OtpStore store = store(0, false);
+        String code = store.issue(OtpStore.Purpose.LOGIN, 7L);
+
+        assertEquals(OtpStore.Result.EXPIRED, store.verify(OtpStore.Purpose.LOGIN, 7L, code));
+    }
+}
@@ -0,0 +1,63 @@
+package com.obd.obs.security;
+
+import com.obs.security.HashingCapacityExceededException;
+import com.obs.security.PasswordHashingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Manual login-burst benchmark used to size app.security.hashing.pool-size.
+ * Run with: java -cp target/test-classes:target/classes:<deps> com.obd.obs.security.PasswordHashingBenchmark [poolSize] [callers] [logins] [strength]
+ */
+public final class PasswordHashingBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int poolSize = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors() / 2;
+        int callers = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int logins = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+        int strength = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+
+        PasswordHashingService service = new PasswordHashingService(Math.max(1, poolSize), callers, 1,
+                strength, strength, 30000, new SimpleMeterRegistry());
+        String hash = new BCryptPasswordEncoder(strength).encode("benchmark");
+
+        long[] latencies = new long[logins];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger shed = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(callers);
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+
+        long start = System.nanoTime();
+        for (int c = 0; c < callers; c++) {
+            pool.execute(() -> {
+                int i;
+                while ((i = next.getAndIncrement()) < logins) {
+                    long t0 = System.nanoTime();
+                    try {
+                        service.matches("benchmark", hash);
+                    } catch (HashingCapacityExceededException e) {
+                        shed.incrementAndGet();
+                    }
+                    latencies[i] = System.nanoTime() - t0;
+                }
+                done.countDown();
+            });
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+        service.shutdown();
+
+        Arrays.sort(latencies);
+        System.out.printf("pool=%d callers=%d logins=%d strength=%d%n", poolSize, callers, logins, strength);
+        System.out.printf("throughput=%.1f logins/s shed=%d%n", logins / (elapsed / 1e9), shed.get());
+        System.out.printf("p50=%.1f ms p99=%.1f ms%n",
+                latencies[logins / 2] / 1e6, latencies[(int) (logins * 0.99) - 1] / 1e6);
+    }
+}
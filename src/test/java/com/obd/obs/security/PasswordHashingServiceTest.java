@@ -0,0 +1,77 @@
+package com.obd.obs.security;
+
+import com.obs.security.HashingCapacityExceededException;
+import com.obs.security.PasswordHashingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingServiceTest {
+
+    private PasswordHashingService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void legacyPlainTextMatchesAndNeedsUpgrade() {
+        service = new PasswordHashingService(1, 4, 1, 4, 4, 5000, new SimpleMeterRegistry());
+
+        assertTrue(service.matches("secret", "secret"));
+        assertFalse(service.matches("Secret", "secret"));
+        assertTrue(service.needsUpgrade("secret"));
+
+        String upgraded = service.upgrade("secret");
+        assertTrue(service.matches("secret", upgraded));
+        assertFalse(service.needsUpgrade(upgraded));
+    }
+
+    @Test
+    void lowCostHashIsUpgraded() {
+        service = new PasswordHashingService(1, 4, 1, 6, 6, 5000, new SimpleMeterRegistry());
+        String weak = new BCryptPasswordEncoder(4).encode("pw");
+
+        assertTrue(service.matches("pw", weak));
+        assertTrue(service.needsUpgrade(weak));
+    }
+
+    @Test
+    void burstBeyondQueueIsShed() throws Exception {
+        // One thread, one queue slot, expensive cost: a burst must be partly rejected
+        service = new PasswordHashingService(1, 1, 1, 12, 12, 30000, new SimpleMeterRegistry());
+        String hash = new BCryptPasswordEncoder(12).encode("pw");
+
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(callers.submit(() -> service.matches("pw", hash)));
+            }
+            int shed = 0;
+            for (Future<Boolean> f : results) {
+                try {
+                    assertTrue(f.get());
+                } catch (java.util.concurrent.ExecutionException e) {
+                    assertInstanceOf(HashingCapacityExceededException.class, e.getCause());
+                    shed++;
+                }
+            }
+            assertTrue(shed > 0, "expected some verifications to be shed");
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+}
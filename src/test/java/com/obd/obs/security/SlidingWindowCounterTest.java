@@ -0,0 +1,47 @@
+package com.obd.obs.security;
+
+import com.obs.security.SlidingWindowCounter;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowCounterTest {
+
+    @Test
+    void countsWithinWindowAndExpiresLazily() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(1024, 60_000, 6);
+        long t = 1_000_000L;
+
+        assertEquals(1, counter.increment(42L, t));
+        assertEquals(2, counter.increment(42L, t + 15_000));
+        assertEquals(3, counter.increment(42L, t + 30_000));
+        assertEquals(3, counter.count(42L, t + 45_000));
+
+        // First event falls out once a full window has passed
+        assertEquals(2, counter.count(42L, t + 61_000));
+        assertEquals(0, counter.count(42L, t + 200_000));
+        assertEquals(0, counter.count(7L, t));
+    }
+
+    @Test
+    void resetForgetsKeyAndKeepsOthers() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(1024, 60_000, 6);
+        counter.increment(1L, 0);
+        counter.increment(2L, 0);
+        counter.reset(1L);
+
+        assertEquals(0, counter.count(1L, 0));
+        assertEquals(1, counter.count(2L, 0));
+    }
+
+    @Test
+    void memoryStaysBoundedUnderKeyFlood() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(1024, 60_000, 6);
+        for (long k = 1; k <= 100_000; k++) {
+            counter.increment(k, k);
+        }
+        assertTrue(counter.occupancy() <= 1024);
+        // Most recent keys survive eviction
+        assertEquals(1, counter.count(100_000L, 100_000L));
+    }
+}
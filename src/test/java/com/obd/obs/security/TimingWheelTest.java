@@ -0,0 +1,42 @@
+package com.obd.obs.security;
+
+import com.obs.security.TimingWheel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    @Test
+    void firesOnlyOnceDeadlinePasses() {
+        TimingWheel<String> wheel = new TimingWheel<>(8, 100, 0);
+        wheel.schedule("a", 250);
+        wheel.schedule("b", 5_000); // several revolutions out
+
+        List<String> fired = new ArrayList<>();
+        wheel.advance(200, fired::add);
+        assertTrue(fired.isEmpty());
+
+        wheel.advance(300, fired::add);
+        assertEquals(List.of("a"), fired);
+
+        wheel.advance(4_900, fired::add);
+        assertEquals(List.of("a"), fired);
+
+        wheel.advance(5_000, fired::add);
+        assertEquals(List.of("a", "b"), fired);
+    }
+
+    @Test
+    void catchesUpAfterLongPause() {
+        TimingWheel<Integer> wheel = new TimingWheel<>(4, 10, 0);
+        for (int i = 1; i <= 20; i++) {
+            wheel.schedule(i, i * 10L);
+        }
+        List<Integer> fired = new ArrayList<>();
+        assertEquals(20, wheel.advance(10_000, fired::add));
+    }
+}
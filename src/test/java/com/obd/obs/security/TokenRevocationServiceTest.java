@@ -0,0 +1,85 @@
+package com.obd.obs.security;
+
+import com.obs.model.RevokedToken;
+import com.obs.repository.RefreshTokenRepository;
+import com.obs.repository.RevokedTokenRepository;
+import com.obs.repository.UserRepository;
+import com.obs.security.JwtTokenUtil;
+import com.obs.security.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TokenRevocationServiceTest {
+
+    private final RevokedTokenRepository repository = mock(RevokedTokenRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final TokenRevocationService service = new TokenRevocationService(repository, userRepository,
+            mock(RefreshTokenRepository.class), 900_000, 1000, 0.01, 100, 60_000, new SimpleMeterRegistry());
+
+    @Test
+    void revocationCommittedAfterAHigherIdIsStillPickedUp() {
+        when(repository.findByExpiresAtAfter(any())).thenReturn(List.of());
+        service.loadOnStartup();
+
+        // Row 2 is visible first; row 1 commits later
+        when(repository.findByIdGreaterThanOrderByIdAsc(0L)).thenReturn(List.of(userRow(2L, 5L, 3)));
+        when(repository.findAllById(Set.of(1L))).thenReturn(List.of());
+        service.syncFromStore();
+        assertTrue(service.isRevoked(claims(5L, 2)));
+        assertFalse(service.isRevoked(claims(9L, 1)));
+
+        when(repository.findByIdGreaterThanOrderByIdAsc(2L)).thenReturn(List.of());
+        when(repository.findAllById(Set.of(1L))).thenReturn(List.of(userRow(1L, 9L, 2)));
+        service.syncFromStore();
+        assertTrue(service.isRevoked(claims(9L, 1)));
+
+        // Resolved gaps are not queried again
+        clearInvocations(repository);
+        service.syncFromStore();
+        verify(repository, never()).findAllById(any());
+    }
+
+    @Test
+    void revokeUserIsAppliedLocallyOnlyAfterCommit() {
+        when(userRepository.findTokenVersion(5L)).thenReturn(Optional.of(3));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.revokeUser(5L);
+            assertFalse(service.isRevoked(claims(5L, 2)));
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertTrue(service.isRevoked(claims(5L, 2)));
+        assertFalse(service.isRevoked(claims(5L, 3)));
+    }
+
+    private static RevokedToken userRow(long id, long userId, int minVersion) {
+        RevokedToken row = new RevokedToken();
+        row.setId(id);
+        row.setUserId(userId);
+        row.setMinTokenVersion(minVersion);
+        row.setExpiresAt(Instant.now().plusSeconds(600));
+        return row;
+    }
+
+    private static Claims claims(long userId, int version) {
+        Claims claims = Jwts.claims();
+        claims.put(JwtTokenUtil.CLAIM_USER_ID, userId);
+        claims.put(JwtTokenUtil.CLAIM_TOKEN_VERSION, version);
+        return claims;
+    }
+}
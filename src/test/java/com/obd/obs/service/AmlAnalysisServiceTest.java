@@ -0,0 +1,61 @@
+package com.obd.obs.service;
+
+import com.obs.repository.AmlCaseRepository;
+import com.obs.repository.TransactionRepository;
+import com.obs.service.AmlAnalysisService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AmlAnalysisServiceTest {
+
+    private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+    private final AmlCaseRepository amlCaseRepository = mock(AmlCaseRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final AmlAnalysisService service = new AmlAnalysisService(transactionRepository, amlCaseRepository,
+            jdbcTemplate, mock(PlatformTransactionManager.class), 7, 100, 1000, 10, 1, 1000, 5, 72, 3, 120, 0.8,
+            new BigDecimal("50000"), 0.1, 5);
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void nodeThatDoesNotGetTheLockSkipsTheRun() throws Exception {
+        Connection connection = lockConnection(0);
+        when(jdbcTemplate.execute(ArgumentMatchers.<ConnectionCallback<Map<String, Object>>>any()))
+                .thenAnswer(call -> call.<ConnectionCallback<?>>getArgument(0).doInConnection(connection));
+
+        service.nightly();
+        assertThrows(RuntimeException.class, () -> service.run(Instant.EPOCH, Instant.now()));
+
+        verifyNoInteractions(transactionRepository, amlCaseRepository);
+        verify(connection, never()).prepareStatement(contains("RELEASE_LOCK"));
+    }
+
+    private static Connection lockConnection(int acquired) throws Exception {
+        ResultSet result = mock(ResultSet.class);
+        when(result.next()).thenReturn(true);
+        when(result.getInt(1)).thenReturn(acquired);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(statement.executeQuery()).thenReturn(result);
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        return connection;
+    }
+}
@@ -0,0 +1,89 @@
+package com.obd.obs.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.obs.service.AuditLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AuditLogTest {
+
+    @TempDir
+    Path dir;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private AuditLog auditLog;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (auditLog != null) {
+            auditLog.shutdown();
+        }
+    }
+
+    @Test
+    void batchIsInsertedWithOneMultiRowStatement() throws Exception {
+        auditLog = auditLog(5, false);
+        auditLog.write(List.of(entry("LOGIN_SUCCESS"), entry("TRANSFER_UPI"), entry("PASSWORD_RESET")));
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, times(1)).update(sql.capture(), any(PreparedStatementSetter.class));
+        assertTrue(sql.getValue().startsWith("INSERT INTO audit_event"));
+        assertEquals(3, sql.getValue().split("\\(\\?,\\?,\\?,\\?,\\?,\\?,\\?\\)", -1).length - 1);
+        assertEquals(3.0, registry.counter("audit.events.written").count());
+    }
+
+    @Test
+    void recordedEntriesAreWrittenInTheBackground() throws Exception {
+        auditLog = auditLog(5, false);
+        auditLog.record("alice", "LOGIN_SUCCESS", "USER", 7L, null, "10.0.0.1");
+
+        verify(jdbcTemplate, timeout(2000)).update(anyString(), any(PreparedStatementSetter.class));
+        assertEquals(0, auditLog.getQueuedCount());
+    }
+
+    @Test
+    void failedInsertIsKeptInTheFileSink() throws Exception {
+        when(jdbcTemplate.update(anyString(), any(PreparedStatementSetter.class))).thenThrow(new RuntimeException("db down"));
+        auditLog = auditLog(0, true);
+        auditLog.write(List.of(entry("LOGIN_FAILED"), entry("LOGIN_FAILED")));
+
+        List<String> lines;
+        try (Stream<Path> files = Files.list(dir)) {
+            lines = files.flatMap(file -> {
+                try {
+                    return Files.readAllLines(file).stream();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }).toList();
+        }
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains("\"action\":\"LOGIN_FAILED\""));
+        assertEquals(0.0, registry.counter("audit.events.lost").count());
+    }
+
+    private AuditLog auditLog(int maxRetries, boolean fileEnabled) throws Exception {
+        return new AuditLog(jdbcTemplate, new ObjectMapper(), 100, 50, 0, maxRetries,
+                fileEnabled, dir.toString(), 1 << 20, 4, registry);
+    }
+
+    private static AuditLog.Entry entry(String action) {
+        return new AuditLog.Entry(Instant.parse("2024-03-04T10:00:00Z"), "alice", action, "USER", "7", "10.0.0.1", null);
+    }
+}
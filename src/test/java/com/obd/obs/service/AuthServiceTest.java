@@ -0,0 +1,100 @@
+package com.obd.obs.service;
+
+import com.obs.model.Role;
+import com.obs.model.User;
+import com.obs.repository.UserRepository;
+import com.obs.security.JwtTokenUtil;
+import com.obs.security.LoginThrottle;
+import com.obs.security.OtpStore;
+import com.obs.security.PasswordHashingService;
+import com.obs.service.AuthService;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AuthServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final PasswordHashingService hashing = mock(PasswordHashingService.class);
+    private final JwtTokenUtil jwtTokenUtil = mock(JwtTokenUtil.class);
+    private final OtpStore otpStore = mock(OtpStore.class);
+    private final AuthService authService = new AuthService();
+
+    AuthServiceTest() {
+        ReflectionTestUtils.setField(authService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(authService, "passwordHashingService", hashing);
+        ReflectionTestUtils.setField(authService, "jwtTokenUtil", jwtTokenUtil);
+        ReflectionTestUtils.setField(authService, "loginThrottle", mock(LoginThrottle.class));
+        ReflectionTestUtils.setField(authService, "eventPublisher", mock(ApplicationEventPublisher.class));
+        ReflectionTestUtils.setField(authService, "otpStore", otpStore);
+    }
+
+    @Test
+    void softDeletedUserCannotLogIn() {
+        User user = user();
+        user.setActive(false);
+        user.setDeletedAt(Instant.now());
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user));
+        when(hashing.matches(any(), any())).thenReturn(true);
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> authService.login(Map.of("username", "alice", "password", "secret"), "10.0.0.1"));
+        assertEquals("Invalid username or password", e.getMessage());
+        verify(hashing, never()).matches(any(), eq(user.getPassword()));
+        verifyNoInteractions(jwtTokenUtil);
+    }
+
+    @Test
+    void deactivatedUserCannotLogIn() {
+        User user = user();
+        user.setActive(false);
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user));
+        when(hashing.matches(any(), any())).thenReturn(true);
+
+        assertThrows(RuntimeException.class,
+                () -> authService.login(Map.of("username", "alice", "password", "secret"), "10.0.0.1"));
+        verifyNoInteractions(jwtTokenUtil);
+    }
+
+    @Test
+    void unknownUserStillPaysForAPasswordCheck() {
+        when(userRepository.findByUsername("mallory")).thenReturn(Optional.empty());
+        when(hashing.getDummyHash()).thenReturn("$2a$10$dummy");
+
+        assertThrows(RuntimeException.class,
+                () -> authService.login(Map.of("username", "mallory", "password", "guess"), "10.0.0.1"));
+        verify(hashing).matches("guess", "$2a$10$dummy");
+        verifyNoInteractions(jwtTokenUtil);
+    }
+
+    @Test
+    void softDeletedUserCannotFinishTwoFactorLogin() {
+        User user = user();
+        user.setDeletedAt(Instant.now());
+        when(userRepository.findByEmail("alice@obs.test")).thenReturn(Optional.of(user));
+        when(otpStore.verify(OtpStore.Purpose.LOGIN, 7L, "123456")).thenReturn(OtpStore.Result.VALID);
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> authService.verifyLoginOtp("alice@obs.test", "123456"));
+        assertEquals("Invalid or expired verification code", e.getMessage());
+        verifyNoInteractions(jwtTokenUtil);
+    }
+
+    private static User user() {
+        User user = new User();
+        user.setId(7L);
+        user.setUsername("alice");
+        user.setEmail("alice@obs.test");
+        user.setPassword("$2a$10$hash");
+        user.setRole(Role.USER);
+        return user;
+    }
+}
@@ -0,0 +1,61 @@
+package com.obd.obs.service;
+
+import com.obs.model.Branch;
+import com.obs.service.AuditLog;
+import com.obs.service.BranchAuditListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BranchAuditListenerTest {
+
+    private final AuditLog auditLog = mock(AuditLog.class);
+    private final BranchAuditListener listener = new BranchAuditListener(provider(auditLog));
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void changeIsWrittenToTheAuditTrailOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        listener.onUpdate(branch());
+        verifyNoInteractions(auditLog);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(auditLog).record(isNull(), eq("BRANCH_UPDATE"), eq("BRANCH"), eq(5L), eq("name=Central; city=Pune"), isNull());
+    }
+
+    @Test
+    void rolledBackChangeLeavesNoEntry() {
+        TransactionSynchronizationManager.initSynchronization();
+        listener.onInsert(branch());
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        verifyNoInteractions(auditLog);
+    }
+
+    private static Branch branch() {
+        Branch branch = new Branch();
+        branch.setId(5L);
+        branch.setName("Central");
+        branch.setCity("Pune");
+        return branch;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ObjectProvider<AuditLog> provider(AuditLog auditLog) {
+        ObjectProvider<AuditLog> provider = mock(ObjectProvider.class);
+        when(provider.getObject()).thenReturn(auditLog);
+        return provider;
+    }
+}
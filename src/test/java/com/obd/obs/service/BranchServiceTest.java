@@ -0,0 +1,60 @@
+package com.obd.obs.service;
+
+import com.obs.model.AuditRecord;
+import com.obs.repository.AuditRecordRepository;
+import com.obs.repository.BranchRepository;
+import com.obs.service.BranchService;
+import com.obs.util.KeysetCursor;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BranchServiceTest {
+
+    private final AuditRecordRepository auditRecordRepository = mock(AuditRecordRepository.class);
+    private final BranchService branchService = new BranchService(mock(BranchRepository.class), auditRecordRepository, 50, 500);
+
+    @Test
+    void historyPagesOneBranchsChangesNewestFirst() {
+        Instant t = Instant.parse("2024-03-04T10:00:00Z");
+        AuditRecord delete = audit(3L, t.plusSeconds(20), "BRANCH_DELETE");
+        AuditRecord update = audit(2L, t.plusSeconds(10), "BRANCH_UPDATE");
+        AuditRecord create = audit(1L, t, "BRANCH_CREATE");
+        when(auditRecordRepository.findTargetPage(eq("BRANCH"), eq("5"), eq(KeysetCursor.FIRST.at()),
+                eq(KeysetCursor.FIRST.id()), any(Pageable.class))).thenReturn(List.of(delete, update, create));
+
+        BranchService.Page first = branchService.history(5L, null, 2);
+
+        assertEquals(List.of("DELETE", "UPDATE"), first.audits().stream().map(audit -> audit.get("action")).toList());
+        assertEquals(5L, first.audits().get(0).get("branchId"));
+        assertEquals(KeysetCursor.format(update.getOccurredAt(), 2L), first.nextCursor());
+
+        when(auditRecordRepository.findTargetPage(eq("BRANCH"), eq("5"), eq(update.getOccurredAt()), eq(2L),
+                any(Pageable.class))).thenReturn(List.of(create));
+        BranchService.Page second = branchService.history(5L, first.nextCursor(), 2);
+
+        assertEquals(List.of(Map.of("id", 1L, "branchId", 5L, "action", "CREATE", "user", "admin",
+                "timestamp", t.toString(), "details", "name=Central")), second.audits());
+        assertNull(second.nextCursor());
+    }
+
+    private static AuditRecord audit(long id, Instant at, String action) {
+        AuditRecord audit = new AuditRecord();
+        ReflectionTestUtils.setField(audit, "id", id);
+        ReflectionTestUtils.setField(audit, "occurredAt", at);
+        ReflectionTestUtils.setField(audit, "actor", "admin");
+        ReflectionTestUtils.setField(audit, "action", action);
+        ReflectionTestUtils.setField(audit, "targetType", "BRANCH");
+        ReflectionTestUtils.setField(audit, "targetId", "5");
+        ReflectionTestUtils.setField(audit, "details", "name=Central");
+        return audit;
+    }
+}
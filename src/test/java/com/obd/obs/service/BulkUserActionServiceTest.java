@@ -0,0 +1,115 @@
+package com.obd.obs.service;
+
+import com.obs.event.UsersBulkChangedEvent;
+import com.obs.repository.UserRepository;
+import com.obs.security.LoginThrottle;
+import com.obs.security.TokenRevocationService;
+import com.obs.security.UserDetailsCache;
+import com.obs.service.BulkUserActionService;
+import com.obs.service.UserStatsCounters;
+import com.obs.service.WebSocketService;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BulkUserActionServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final TokenRevocationService revocation = mock(TokenRevocationService.class);
+    private final UserStatsCounters counters = mock(UserStatsCounters.class);
+    private final WebSocketService webSocketService = mock(WebSocketService.class);
+    private final ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+    private final UserDetailsCache userDetailsCache = mock(UserDetailsCache.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final BulkUserActionService bulk = new BulkUserActionService(userRepository, revocation, counters,
+            mock(LoginThrottle.class), webSocketService, events, userDetailsCache, transactionManager, 500, 100_000, 10);
+
+    @Test
+    void lockAppliesOneUpdatePerChunkAndOneSummary() throws Exception {
+        // Every user except id 5 (a super admin) is eligible; even ids are already locked
+        when(userRepository.findBulkTargets(anyCollection())).thenAnswer(inv -> {
+            List<UserRepository.BulkTarget> targets = new ArrayList<>();
+            for (Long id : inv.<Collection<Long>>getArgument(0)) {
+                if (id != 5L) {
+                    targets.add(target(id, id % 2 == 0));
+                }
+            }
+            return targets;
+        });
+        List<Long> ids = LongStream.rangeClosed(1, 1200).boxed().toList();
+
+        String jobId = bulk.submit(Map.of("action", "lock", "userIds", ids)).getId();
+        Map<String, Object> job = await(jobId);
+
+        assertEquals("COMPLETED", job.get("status"));
+        assertEquals(1200, job.get("processed"));
+        assertEquals(1, job.get("skipped"));
+        assertEquals(599, job.get("affected"));
+        verify(userRepository, times(3)).lockAll(anyCollection());
+        verify(revocation, times(3)).revokeUsers(anyCollection());
+        verify(transactionManager, times(3)).commit(any());
+        verify(userDetailsCache).invalidate("user1200");
+        verify(events, timeout(1000).times(1)).publishEvent(any(UsersBulkChangedEvent.class));
+        verify(webSocketService, timeout(1000).times(1)).sendAdminUpdate(eq("bulk_user_action"), anyMap());
+    }
+
+    @Test
+    void targetsAreReadInsideTheChunkTransaction() throws Exception {
+        when(userRepository.findBulkTargets(anyCollection())).thenReturn(List.of(target(1L, true)));
+
+        Map<String, Object> job = await(bulk.submit(Map.of("action", "unlock", "userIds", List.of(1L))).getId());
+
+        assertEquals("COMPLETED", job.get("status"));
+        InOrder order = inOrder(transactionManager, userRepository);
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(userRepository).findBulkTargets(anyCollection());
+        order.verify(userRepository).unlockAll(anyCollection());
+        order.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void failedRevocationRollsBackTheChunkLock() throws Exception {
+        when(userRepository.findBulkTargets(anyCollection())).thenReturn(List.of(target(1L, false)));
+        doThrow(new RuntimeException("deadlock")).when(revocation).revokeUsers(anyCollection());
+
+        Map<String, Object> job = await(bulk.submit(Map.of("action", "lock", "userIds", List.of(1L))).getId());
+
+        assertEquals("FAILED", job.get("status"));
+        verify(userRepository).lockAll(anyCollection());
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+        verify(counters, never()).lockedInBulk(anyInt());
+        verify(userDetailsCache, never()).invalidate(anyString());
+    }
+
+    private Map<String, Object> await(String jobId) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            Map<String, Object> job = bulk.getJob(jobId);
+            if (job.get("finishedAt") != null) {
+                return job;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("bulk job did not finish");
+    }
+
+    private static UserRepository.BulkTarget target(long id, boolean locked) {
+        return new UserRepository.BulkTarget() {
+            public Long getId() { return id; }
+            public String getUsername() { return "user" + id; }
+            public boolean isLocked() { return locked; }
+            public boolean isActive() { return true; }
+        };
+    }
+}
@@ -0,0 +1,70 @@
+package com.obd.obs.service;
+
+import com.obs.service.ClusterMessage;
+import com.obs.service.LoopbackClusterRelay;
+import com.obs.service.WebSocketDispatcher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ClusterRelayTest {
+
+    private final LoopbackClusterRelay relayA = new LoopbackClusterRelay("relay-test", "node-a");
+    private final LoopbackClusterRelay relayB = new LoopbackClusterRelay("relay-test", "node-b");
+    private final LoopbackClusterRelay relayC = new LoopbackClusterRelay("relay-test", "node-c");
+    private final SimpMessagingTemplate templateA = mock(SimpMessagingTemplate.class);
+    private final SimpMessagingTemplate templateB = mock(SimpMessagingTemplate.class);
+    private final SimpMessagingTemplate templateC = mock(SimpMessagingTemplate.class);
+    private final WebSocketDispatcher nodeA = dispatcher(templateA, relayA);
+
+    {
+        dispatcher(templateB, relayB);
+        dispatcher(templateC, relayC);
+    }
+
+    @AfterEach
+    void leave() {
+        relayA.leave();
+        relayB.leave();
+        relayC.leave();
+    }
+
+    @Test
+    void topicPublicationsReachEveryNodeOnce() {
+        nodeA.toTopic("/topic/admin-updates", Map.of("n", 1));
+
+        verify(templateA).convertAndSend(eq("/topic/admin-updates"), any(Object.class));
+        verify(templateB).convertAndSend(eq("/topic/admin-updates"), any(Object.class));
+        verify(templateC).convertAndSend(eq("/topic/admin-updates"), any(Object.class));
+    }
+
+    @Test
+    void userDestinationsOnlyGoToNodesHoldingASession() {
+        relayB.sessionOpened("alice");
+
+        nodeA.toUser("alice", "/queue/notifications", Map.of("n", 1));
+
+        verify(templateB).convertAndSendToUser(eq("alice"), eq("/queue/notifications"), any(Object.class));
+        verify(templateC, never()).convertAndSendToUser(any(), any(), any(Object.class));
+    }
+
+    @Test
+    void redeliveredMessagesAreDropped() {
+        ClusterMessage message = new ClusterMessage("m-1", "node-a", null, "/topic/admin-updates", null, Map.of());
+        relayA.forward(message);
+        relayA.forward(message);
+
+        verify(templateB, times(1)).convertAndSend(eq("/topic/admin-updates"), any(Object.class));
+    }
+
+    private static WebSocketDispatcher dispatcher(SimpMessagingTemplate template, LoopbackClusterRelay relay) {
+        return new WebSocketDispatcher(template, relay, 64, 16, false, new SimpleMeterRegistry());
+    }
+}
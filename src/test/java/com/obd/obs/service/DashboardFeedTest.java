@@ -0,0 +1,67 @@
+package com.obd.obs.service;
+
+import com.obs.service.DashboardFeed;
+import com.obs.service.LoopbackClusterRelay;
+import com.obs.service.WebSocketDispatcher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class DashboardFeedTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final AtomicInteger blocked = new AtomicInteger(1);
+    private final WebSocketDispatcher dispatcher =
+            new WebSocketDispatcher(mock(SimpMessagingTemplate.class), new LoopbackClusterRelay(getClass().getName(), "node-a"), 64, 16, false, new SimpleMeterRegistry());
+    private final DashboardFeed feed = new DashboardFeed("admin", "/topic/dashboard.admin", () -> {
+        loads.incrementAndGet();
+        return Map.of("totalUsers", 10L, "blockedUsers", (long) blocked.get());
+    }, 4, dispatcher);
+
+    @Test
+    void snapshotIsLoadedOnceForManySubscribers() {
+        for (int i = 0; i < 100; i++) {
+            assertEquals("SNAPSHOT", feed.snapshotMessage().get("type"));
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void resumesFromBufferedSequenceOrFallsBackToSnapshot() {
+        assertEquals(0L, feed.snapshotMessage().get("seq"));
+        feed.append("TRANSACTION", Map.of("id", 1));
+        feed.append("TRANSACTION", Map.of("id", 2));
+
+        Map<String, Object> resumed = feed.resume(1L);
+        assertEquals("DELTAS", resumed.get("type"));
+        assertEquals(1, ((List<?>) resumed.get("deltas")).size());
+
+        for (int i = 3; i <= 8; i++) {
+            feed.append("TRANSACTION", Map.of("id", i));
+        }
+        // Sequence 2 has been overwritten in a ring of 4
+        assertEquals("SNAPSHOT", feed.resume(1L).get("type"));
+    }
+
+    @Test
+    void refreshPublishesOnlyChangedCounters() {
+        feed.snapshotMessage();
+        blocked.set(2);
+        feed.markDirty();
+        feed.refreshIfStale(Long.MAX_VALUE);
+
+        Map<String, Object> resumed = feed.resume(0L);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> delta = ((List<Map<String, Object>>) resumed.get("deltas")).get(0);
+        assertEquals("COUNTERS", delta.get("kind"));
+        assertEquals(Map.of("blockedUsers", 2L), delta.get("data"));
+        assertEquals(1L, feed.snapshotMessage().get("seq"));
+    }
+}
@@ -0,0 +1,71 @@
+package com.obd.obs.service;
+
+import com.obs.event.UserChangedEvent;
+import com.obs.model.Role;
+import com.obs.repository.BranchRepository;
+import com.obs.repository.UserRepository;
+import com.obs.service.DashboardFeeds;
+import com.obs.service.DashboardStatsCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+class DashboardStatsCacheTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final BranchRepository branchRepository = mock(BranchRepository.class);
+    @SuppressWarnings("unchecked")
+    private final ObjectProvider<DashboardFeeds> feeds = mock(ObjectProvider.class);
+    private final DashboardStatsCache cache = new DashboardStatsCache(userRepository, branchRepository, feeds, 60_000);
+
+    @Test
+    void countsAreSummedFromGroupedRows() {
+        when(userRepository.countByRoleAndStatus()).thenReturn(List.of(
+                row(Role.USER, false, true, 40),
+                row(Role.USER, true, true, 3),
+                row(Role.ADMIN, false, true, 2),
+                row(Role.EMPLOYEE, false, false, 5)));
+        when(branchRepository.count()).thenReturn(4L);
+
+        Map<String, Object> stats = cache.get();
+
+        assertEquals(50L, stats.get("totalUsers"));
+        assertEquals(47L, stats.get("activeUsers"));
+        assertEquals(3L, stats.get("blockedUsers"));
+        assertEquals(43L, stats.get("customerUsers"));
+        assertEquals(2L, stats.get("adminUsers"));
+        assertEquals(5L, stats.get("employeeUsers"));
+        assertEquals(0L, stats.get("managerUsers"));
+        assertEquals(4L, stats.get("totalBranches"));
+    }
+
+    @Test
+    void readsAreServedFromSnapshotUntilBackgroundRefresh() {
+        when(userRepository.countByRoleAndStatus()).thenReturn(List.of(row(Role.USER, false, true, 1)));
+        cache.get();
+        cache.get();
+        cache.refresh();
+        verify(userRepository, times(1)).countByRoleAndStatus();
+
+        when(userRepository.countByRoleAndStatus()).thenReturn(List.of(row(Role.USER, false, true, 2)));
+        cache.onUserChanged(new UserChangedEvent(1L, "u", UserChangedEvent.ChangeType.CREATED));
+        assertEquals(1L, cache.get().get("totalUsers"));
+        cache.refresh();
+        assertEquals(2L, cache.get().get("totalUsers"));
+        verify(userRepository, times(2)).countByRoleAndStatus();
+    }
+
+    private static UserRepository.StatusCount row(Role role, boolean locked, boolean active, long total) {
+        return new UserRepository.StatusCount() {
+            public Role getRole() { return role; }
+            public boolean isLocked() { return locked; }
+            public boolean isActive() { return active; }
+            public long getTotal() { return total; }
+        };
+    }
+}
@@ -0,0 +1,59 @@
+package com.obd.obs.service;
+
+import com.obs.model.EmailOutbox;
+import com.obs.model.EmailStatus;
+import com.obs.repository.EmailOutboxRepository;
+import com.obs.service.EmailOutboxService;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class EmailOutboxServiceTest {
+
+    private final EmailOutboxRepository repository = mock(EmailOutboxRepository.class);
+    private final EmailOutboxService service = new EmailOutboxService(repository, mock(ApplicationEventPublisher.class),
+            3, 1000, 60_000, 600_000, 900_000);
+
+    @Test
+    void sensitiveBodyIsWipedWhenTheMessageIsDeadLettered() {
+        EmailOutbox otp = mail(true);
+        when(repository.findById(1L)).thenReturn(Optional.of(otp));
+
+        service.markFailed(1L, "550 mailbox unavailable");
+        assertEquals(EmailStatus.PENDING, otp.getStatus());
+        assertEquals("Your code is 123456", otp.getBody());
+
+        service.markFailed(1L, "550 mailbox unavailable");
+        service.markFailed(1L, "550 mailbox unavailable");
+        assertEquals(EmailStatus.DEAD, otp.getStatus());
+        assertEquals("", otp.getBody());
+        assertThrows(RuntimeException.class, () -> service.retry(1L));
+    }
+
+    @Test
+    void ordinaryBodyIsKeptForRetry() {
+        EmailOutbox mail = mail(false);
+        mail.setAttempts(2);
+        when(repository.findById(1L)).thenReturn(Optional.of(mail));
+
+        service.markFailed(1L, "timeout");
+        assertEquals(EmailStatus.DEAD, mail.getStatus());
+        assertEquals("Your code is 123456", mail.getBody());
+        service.retry(1L);
+        assertEquals(EmailStatus.PENDING, mail.getStatus());
+    }
+
+    private static EmailOutbox mail(boolean sensitive) {
+        EmailOutbox mail = new EmailOutbox();
+        mail.setId(1L);
+        mail.setRecipient("alice@obs.test");
+        mail.setSubject("Verification code");
+        mail.setBody("Your code is 123456");
+        mail.setSensitive(sensitive);
+        return mail;
+    }
+}
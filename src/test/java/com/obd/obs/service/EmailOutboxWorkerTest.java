@@ -0,0 +1,72 @@
+package com.obd.obs.service;
+
+import com.obd.obs.support.SmtpStub;
+import com.obs.model.EmailOutbox;
+import com.obs.service.EmailOutboxService;
+import com.obs.service.EmailOutboxWorker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class EmailOutboxWorkerTest {
+
+    private final SmtpStub smtp = new SmtpStub();
+    private final EmailOutboxService outbox = mock(EmailOutboxService.class);
+    private final EmailOutboxWorker worker;
+
+    EmailOutboxWorkerTest() throws Exception {
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setHost("localhost");
+        sender.setPort(smtp.getPort());
+        worker = new EmailOutboxWorker(outbox, sender, "noreply@obs.test", 1, 50, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void stop() throws Exception {
+        smtp.close();
+    }
+
+    @Test
+    void batchIsSentOverOneConnectionAndFailuresAreRetried() {
+        List<EmailOutbox> batch = new ArrayList<>();
+        for (long id = 1; id <= 5; id++) {
+            batch.add(mail(id, "user" + id + "@obs.test"));
+        }
+        smtp.rejectRecipient("user3@obs.test");
+        when(outbox.claimDue(anyInt())).thenReturn(batch);
+
+        assertEquals(5, worker.drainOnce());
+
+        assertEquals(4, smtp.getReceived().size());
+        assertEquals(1, smtp.getConnectionCount());
+        verify(outbox).markSent(List.of(1L, 2L, 4L, 5L));
+        verify(outbox).markFailed(eq(3L), anyString());
+    }
+
+    @Test
+    void emptyOutboxSendsNothing() {
+        when(outbox.claimDue(anyInt())).thenReturn(List.of());
+
+        assertEquals(0, worker.drainOnce());
+        assertEquals(0, smtp.getConnectionCount());
+    }
+
+    private static EmailOutbox mail(long id, String to) {
+        EmailOutbox mail = new EmailOutbox();
+        mail.setId(id);
+        mail.setRecipient(to);
+        mail.setSubject("Subject " + id);
+        mail.setBody("Body " + id);
+        return mail;
+    }
+}
@@ -0,0 +1,79 @@
+package com.obd.obs.service;
+
+import com.obs.model.TransactionType;
+import com.obs.repository.TransactionRepository;
+import com.obs.service.FraudRuleEngine;
+import com.obs.service.WebSocketService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class FraudRuleEngineTest {
+
+    private static final long T0 = 1_700_000_000_000L;
+    private static final long MINUTE = 60_000L;
+
+    private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+    private final WebSocketService webSocketService = mock(WebSocketService.class);
+    // velocity: 3 debits / 10 min; spike: 5x mean after 3 debits, at least 1000; new payee: 60 min, at least 5000
+    private final FraudRuleEngine engine = new FraudRuleEngine(transactionRepository, webSocketService, true,
+            100, 1024, 3, 10, 5.0, 3, new BigDecimal("1000"), 60, new BigDecimal("5000"),
+            new BigDecimal("100000"), new SimpleMeterRegistry());
+
+    @Test
+    void velocityTripsOnTheNthDebitInsideTheWindow() {
+        assertTrue(engine.evaluate(debit(1, 7L, 100, T0, null)).isEmpty());
+        assertTrue(engine.evaluate(debit(2, 7L, 100, T0 + MINUTE, null)).isEmpty());
+        List<String> reasons = engine.evaluate(debit(3, 7L, 100, T0 + 2 * MINUTE, null));
+        assertEquals(1, reasons.size());
+        assertTrue(reasons.get(0).startsWith("VELOCITY"));
+
+        // Another account is scored independently, and old debits fall out of the window
+        assertTrue(engine.evaluate(debit(4, 8L, 100, T0 + 2 * MINUTE, null)).isEmpty());
+        assertTrue(engine.evaluate(debit(5, 7L, 100, T0 + 30 * MINUTE, null)).isEmpty());
+    }
+
+    @Test
+    void amountSpikeNeedsHistoryAndAFloor() {
+        long at = T0;
+        assertTrue(engine.evaluate(debit(1, 7L, 200, at, null)).isEmpty());
+        assertTrue(engine.evaluate(debit(2, 7L, 200, at += 20 * MINUTE, null)).isEmpty());
+        assertTrue(engine.evaluate(debit(3, 7L, 200, at += 20 * MINUTE, null)).isEmpty());
+
+        assertTrue(engine.evaluate(debit(4, 7L, 900, at += 20 * MINUTE, null)).isEmpty(), "below the floor");
+        List<String> reasons = engine.evaluate(debit(5, 7L, 4000, at + 20 * MINUTE, null));
+        assertEquals(1, reasons.size());
+        assertTrue(reasons.get(0).startsWith("AMOUNT_SPIKE"));
+    }
+
+    @Test
+    void largeTransferToNewBeneficiaryIsFlaggedAndAlerted() {
+        engine.beneficiaryAdded(42L, "ACC-NEW");
+        long now = System.currentTimeMillis();
+
+        engine.submit(debit(9, 7L, 6000, now + MINUTE, "acc-new"));
+
+        verify(transactionRepository, timeout(1000)).flag(eq(9L), startsWith("NEW_PAYEE"));
+        verify(webSocketService, timeout(1000)).sendSystemAlert(eq("fraud_detection"), anyString(), any(Map.class));
+    }
+
+    @Test
+    void highValueWithoutRuleHitOnlyAlerts() {
+        engine.submit(debit(11, 7L, 150000, System.currentTimeMillis(), null));
+
+        verify(webSocketService, timeout(1000)).sendSystemAlert(eq("high_value_transaction"), anyString(), any(Map.class));
+        verify(transactionRepository, never()).flag(anyLong(), anyString());
+    }
+
+    private static FraudRuleEngine.Posted debit(long id, long accountId, long rupees, long at, String recipient) {
+        return new FraudRuleEngine.Posted(id, "TXN" + id, accountId, 42L, rupees * 100, TransactionType.TRANSFER,
+                FraudRuleEngine.recipientKey(recipient), recipient, at);
+    }
+}
@@ -0,0 +1,138 @@
+package com.obd.obs.service;
+
+import com.obs.model.RefreshToken;
+import com.obs.model.Role;
+import com.obs.model.User;
+import com.obs.repository.RefreshTokenRepository;
+import com.obs.service.RefreshTokenService;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RefreshTokenServiceTest {
+
+    private final RefreshTokenRepository repository = mock(RefreshTokenRepository.class);
+    private final Map<String, RefreshToken> byHash = new ConcurrentHashMap<>();
+    private final RefreshTokenService service = new RefreshTokenService(repository, 7, 1000, 0);
+    private final User user = user();
+
+    RefreshTokenServiceTest() {
+        // In-memory stand-in for the table, with the same compare-and-set semantics as the queries
+        AtomicLong ids = new AtomicLong();
+        when(repository.save(any(RefreshToken.class))).thenAnswer(invocation -> {
+            RefreshToken token = invocation.getArgument(0);
+            token.setId(ids.incrementAndGet());
+            byHash.put(token.getTokenHash(), token);
+            return token;
+        });
+        when(repository.findByTokenHash(anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(byHash.get(invocation.<String>getArgument(0))));
+        when(repository.markRotated(anyLong())).thenAnswer(invocation -> {
+            long id = invocation.getArgument(0);
+            synchronized (byHash) {
+                for (RefreshToken token : byHash.values()) {
+                    if (token.getId() == id && !token.isRevoked()) {
+                        token.setRevoked(true);
+                        return 1;
+                    }
+                }
+                return 0;
+            }
+        });
+        when(repository.revokeFamily(anyString())).thenAnswer(invocation -> {
+            String familyId = invocation.getArgument(0);
+            synchronized (byHash) {
+                int revoked = 0;
+                for (RefreshToken token : byHash.values()) {
+                    if (token.getFamilyId().equals(familyId) && !token.isRevoked()) {
+                        token.setRevoked(true);
+                        revoked++;
+                    }
+                }
+                return revoked;
+            }
+        });
+    }
+
+    @Test
+    void rotateReplacesTheTokenWithinItsFamily() {
+        String first = service.issue(user);
+
+        RefreshTokenService.Rotation rotation = service.rotate(first);
+
+        assertSame(user, rotation.getUser());
+        assertNotEquals(first, rotation.getRefreshToken());
+        assertEquals(2, byHash.size());
+        assertEquals(1, byHash.values().stream().map(RefreshToken::getFamilyId).distinct().count());
+        assertEquals(1, byHash.values().stream().filter(RefreshToken::isRevoked).count());
+        // The replacement rotates again
+        assertNotNull(service.rotate(rotation.getRefreshToken()).getRefreshToken());
+    }
+
+    @Test
+    void replayingARotatedTokenRevokesTheFamily() {
+        String first = service.issue(user);
+        String second = service.rotate(first).getRefreshToken();
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> service.rotate(first));
+
+        assertEquals("Refresh token reuse detected, please log in again", e.getMessage());
+        assertTrue(byHash.values().stream().allMatch(RefreshToken::isRevoked));
+        assertThrows(RuntimeException.class, () -> service.rotate(second));
+    }
+
+    @Test
+    void concurrentRotationsOfOneTokenLetOnlyOneThrough() throws Exception {
+        String token = service.issue(user);
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    try {
+                        return service.rotate(token).getRefreshToken();
+                    } catch (RuntimeException e) {
+                        return null;
+                    }
+                }));
+            }
+            start.countDown();
+            int rotated = 0;
+            for (Future<String> result : results) {
+                if (result.get() != null) {
+                    rotated++;
+                }
+            }
+            assertEquals(1, rotated);
+        } finally {
+            pool.shutdownNow();
+        }
+        // The losers are treated as reuse
+        verify(repository, times(threads - 1)).revokeFamily(anyString());
+    }
+
+    private static User user() {
+        User user = new User();
+        user.setId(7L);
+        user.setUsername("alice");
+        user.setRole(Role.USER);
+        user.setActive(true);
+        return user;
+    }
+}
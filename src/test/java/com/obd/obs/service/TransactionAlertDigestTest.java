@@ -0,0 +1,90 @@
+package com.obd.obs.service;
+
+import com.obs.model.User;
+import com.obs.repository.PendingTransactionAlertRepository;
+import com.obs.service.EmailService;
+import com.obs.service.TransactionAlertDigest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TransactionAlertDigestTest {
+
+    private final EmailService emailService = mock(EmailService.class);
+    private final PendingTransactionAlertRepository spillRepository = mock(PendingTransactionAlertRepository.class);
+
+    private TransactionAlertDigest digest(int maxBuffered) {
+        return new TransactionAlertDigest(emailService, spillRepository, mock(PlatformTransactionManager.class),
+                true, 300, 50, maxBuffered, new BigDecimal("50000"), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void alertsWithinWindowAreSentAsOneDigest() {
+        TransactionAlertDigest digest = digest(1000);
+        User user = user(1L);
+        for (int i = 0; i < 3; i++) {
+            digest.record(user, "TXN" + i, "Bill payment", new BigDecimal("-100"));
+        }
+
+        assertEquals(0, digest.flushDue(Instant.now()));
+        verifyNoInteractions(emailService);
+
+        assertEquals(1, digest.flushDue(Instant.now().plusSeconds(301)));
+        verify(emailService).sendTransactionDigest(eq("u1@obs.test"), eq("user1"), argThat(lines -> lines.size() == 3));
+        assertEquals(0, digest.getBufferedCount());
+    }
+
+    @Test
+    void largeDebitFlushesImmediatelyWithBufferedLines() {
+        TransactionAlertDigest digest = digest(1000);
+        User user = user(1L);
+        digest.record(user, "TXN1", "UPI transfer", new BigDecimal("-10"));
+        digest.record(user, "TXN2", "RTGS transfer", new BigDecimal("-250000"));
+
+        verify(emailService).sendTransactionDigest(eq("u1@obs.test"), eq("user1"), argThat(lines -> lines.size() == 2));
+        assertEquals(0, digest.getBufferedCount());
+    }
+
+    @Test
+    void alertsSpillWhenBufferIsFull() {
+        TransactionAlertDigest digest = digest(1);
+        digest.record(user(1L), "TXN1", "Transfer", new BigDecimal("-10"));
+        digest.record(user(2L), "TXN2", "Transfer", new BigDecimal("20"));
+
+        assertEquals(1, digest.getBufferedCount());
+        verify(spillRepository).saveAll(argThat(rows -> ((List<?>) rows).size() == 1));
+        verifyNoInteractions(emailService);
+    }
+
+    @Test
+    void deliveryAndSpillRunInTheirOwnTransaction() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        TransactionAlertDigest digest = new TransactionAlertDigest(emailService, spillRepository, transactionManager,
+                true, 300, 50, 1, new BigDecimal("50000"), new SimpleMeterRegistry());
+        digest.record(user(1L), "TXN1", "Transfer", new BigDecimal("-10"));
+        digest.record(user(2L), "TXN2", "Transfer", new BigDecimal("-20"));
+        digest.record(user(1L), "TXN3", "RTGS transfer", new BigDecimal("-250000"));
+
+        // One spill and one urgent digest, each committed on its own
+        verify(transactionManager, times(2)).getTransaction(argThat(definition ->
+                definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("user" + id);
+        user.setEmail("u" + id + "@obs.test");
+        return user;
+    }
+}
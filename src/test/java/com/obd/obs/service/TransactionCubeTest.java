@@ -0,0 +1,105 @@
+package com.obd.obs.service;
+
+import com.obs.model.Transaction;
+import com.obs.model.TransactionHourlyAggregate;
+import com.obs.model.TransactionStatus;
+import com.obs.model.TransactionType;
+import com.obs.repository.TransactionHourlyAggregateRepository;
+import com.obs.service.TransactionCube;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TransactionCubeTest {
+
+    private static final Instant H0 = Instant.parse("2024-03-04T10:00:00Z"); // a Monday
+
+    private final TransactionHourlyAggregateRepository repository = mock(TransactionHourlyAggregateRepository.class);
+    private final TransactionCube cube = new TransactionCube(repository, "UTC", new SimpleMeterRegistry());
+
+    @Test
+    void flushMergesEachCellOnceWithItsStatistics() {
+        TransactionCube.Key key = key(H0, "UPI");
+        cube.add(key, 100_00);
+        cube.add(key, 40_00);
+        cube.add(key, 250_00);
+
+        assertEquals(1, cube.flush());
+        verify(repository).merge(H0, "UPI", "COMPLETED", "UPI", 0L, 3L,
+                new BigDecimal("390.00"), new BigDecimal("40.00"), new BigDecimal("250.00"));
+        assertEquals(0, cube.flush());
+    }
+
+    @Test
+    void failedFlushKeepsTheCellForTheNextRun() {
+        when(repository.merge(any(), any(), any(), any(), anyLong(), anyLong(), any(), any(), any()))
+                .thenThrow(new RuntimeException("db down")).thenReturn(1);
+        cube.add(key(H0, "UPI"), 10_00);
+
+        assertEquals(0, cube.flush());
+        assertEquals(1, cube.flush());
+        verify(repository, times(2)).merge(eq(H0), eq("UPI"), any(), any(), anyLong(), eq(1L), any(), any(), any());
+    }
+
+    @Test
+    void seriesRollsStoredAndPendingHoursUpToDays() {
+        TransactionHourlyAggregate stored = new TransactionHourlyAggregate();
+        stored.setHourStart(H0);
+        stored.setType("UPI");
+        stored.setStatus("COMPLETED");
+        stored.setChannel("UPI");
+        stored.setTxnCount(2);
+        stored.setAmountSum(new BigDecimal("300.00"));
+        stored.setAmountMin(new BigDecimal("100.00"));
+        stored.setAmountMax(new BigDecimal("200.00"));
+        when(repository.findByHourStartGreaterThanEqualAndHourStartLessThan(any(), any())).thenReturn(List.of(stored));
+        cube.add(key(H0.plusSeconds(5 * 3600), "UPI"), 50_00);            // same day, not yet flushed
+        cube.add(key(H0.plusSeconds(24 * 3600), "TRANSFER"), 1_000_00);   // next day
+
+        List<Map<String, Object>> days = cube.series(H0.minusSeconds(86400), H0.plusSeconds(3 * 86400),
+                TransactionCube.Granularity.DAY, null);
+
+        assertEquals(2, days.size());
+        assertEquals("2024-03-04T00:00:00Z", days.get(0).get("period"));
+        assertEquals(3L, days.get(0).get("count"));
+        assertEquals(new BigDecimal("350.00"), days.get(0).get("amount"));
+        assertEquals(new BigDecimal("50.00"), days.get(0).get("min"));
+
+        List<Map<String, Object>> weeks = cube.series(H0.minusSeconds(86400), H0.plusSeconds(3 * 86400),
+                TransactionCube.Granularity.WEEK, "channel");
+        assertEquals(List.of("INTERNAL", "UPI"), weeks.stream().map(row -> row.get("channel")).toList());
+        assertTrue(weeks.stream().allMatch(row -> "2024-03-04T00:00:00Z".equals(row.get("period"))));
+    }
+
+    @Test
+    void internalTransferIsRecordedOnceFromItsDebitLeg() {
+        cube.record(transfer("-500.00"));
+        cube.record(transfer("500.00"));
+
+        List<TransactionCube.Cell> cells = cube.cells(H0, H0.plusSeconds(3600));
+        assertEquals(1, cells.size());
+        assertEquals(1L, cells.get(0).count());
+        assertEquals(500_00L, cells.get(0).sumCents());
+    }
+
+    private static Transaction transfer(String amount) {
+        Transaction tx = new Transaction();
+        tx.setType(TransactionType.TRANSFER);
+        tx.setStatus(TransactionStatus.COMPLETED);
+        tx.setAmount(new BigDecimal(amount));
+        tx.setCreatedAt(H0.plusSeconds(60));
+        return tx;
+    }
+
+    private static TransactionCube.Key key(Instant hour, String type) {
+        return new TransactionCube.Key(hour, type, "COMPLETED", "TRANSFER".equals(type) ? "INTERNAL" : type, 0L);
+    }
+}
@@ -0,0 +1,99 @@
+package com.obd.obs.service;
+
+import com.obs.model.Account;
+import com.obs.model.TransactionStatus;
+import com.obs.model.TransactionType;
+import com.obs.repository.AccountRepository;
+import com.obs.repository.TransactionRepository;
+import com.obs.repository.TransactionSearchRepository;
+import com.obs.service.TransactionSearchService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TransactionSearchServiceTest {
+
+    private static final Instant BASE = Instant.parse("2024-03-01T12:00:00.123456Z");
+
+    private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+    private final AccountRepository accountRepository = mock(AccountRepository.class);
+    private final TransactionSearchService search = new TransactionSearchService(transactionRepository, accountRepository, 2, 10);
+
+    TransactionSearchServiceTest() {
+        // Five transactions, ids 5..1 newest first, one second apart; honours the keyset position
+        when(transactionRepository.search(any(), any(), any(), anyInt())).thenAnswer(inv -> {
+            Instant beforeAt = inv.getArgument(1);
+            Long beforeId = inv.getArgument(2);
+            int limit = inv.getArgument(3);
+            List<TransactionSearchRepository.Row> rows = new ArrayList<>();
+            for (long id = 5; id >= 1 && rows.size() < limit; id--) {
+                Instant at = BASE.plusSeconds(id);
+                if (beforeAt == null || at.isBefore(beforeAt) || (at.equals(beforeAt) && id < beforeId)) {
+                    rows.add(new TransactionSearchRepository.Row(id, "TXN" + id, "ACC1", TransactionType.TRANSFER,
+                            TransactionStatus.COMPLETED, BigDecimal.TEN, null, null, null, at));
+                }
+            }
+            return rows;
+        });
+    }
+
+    @Test
+    void cursorWalksPagesNewestFirst() {
+        TransactionSearchService.Page first = search.search(Map.of());
+        assertEquals(List.of(5L, 4L), first.transactions().stream().map(TransactionSearchRepository.Row::id).toList());
+        assertNotNull(first.nextCursor());
+
+        TransactionSearchService.Page second = search.search(Map.of("after", first.nextCursor()));
+        assertEquals(List.of(3L, 2L), second.transactions().stream().map(TransactionSearchRepository.Row::id).toList());
+
+        TransactionSearchService.Page last = search.search(Map.of("after", second.nextCursor()));
+        assertEquals(List.of(1L), last.transactions().stream().map(TransactionSearchRepository.Row::id).toList());
+        assertNull(last.nextCursor());
+    }
+
+    @Test
+    void filtersAreParsedAndAccountNumberResolvedToId() {
+        Account account = new Account();
+        account.setId(42L);
+        when(accountRepository.findByAccountNumber("ACC1")).thenReturn(Optional.of(account));
+
+        search.search(Map.of("status", "flagged", "type", "neft", "from", "2024-03-01", "to", "2024-03-01",
+                "minAmount", "100", "accountNumber", "ACC1", "flagged", "true", "limit", "50"));
+
+        ArgumentCaptor<TransactionSearchRepository.Filter> filter = ArgumentCaptor.forClass(TransactionSearchRepository.Filter.class);
+        verify(transactionRepository).search(filter.capture(), isNull(), isNull(), eq(11));
+        assertEquals(TransactionStatus.FLAGGED, filter.getValue().status());
+        assertEquals(TransactionType.NEFT, filter.getValue().type());
+        assertEquals(Instant.parse("2024-03-01T00:00:00Z"), filter.getValue().from());
+        assertEquals(Instant.parse("2024-03-02T00:00:00Z"), filter.getValue().to());
+        assertEquals(new BigDecimal("100"), filter.getValue().minAmount());
+        assertEquals(42L, filter.getValue().accountId());
+        assertTrue(filter.getValue().flagged());
+    }
+
+    @Test
+    void unknownAccountNumberSkipsTheQuery() {
+        when(accountRepository.findByAccountNumber("NOPE")).thenReturn(Optional.empty());
+
+        TransactionSearchService.Page page = search.search(Map.of("accountNumber", "NOPE"));
+
+        assertTrue(page.transactions().isEmpty());
+        verify(transactionRepository, never()).search(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void invalidFilterIsRejected() {
+        assertThrows(RuntimeException.class, () -> search.search(Map.of("status", "BOGUS")));
+        assertThrows(RuntimeException.class, () -> search.search(Map.of("after", "garbage")));
+    }
+}
@@ -0,0 +1,73 @@
+package com.obd.obs.service;
+
+import com.obs.service.TransferGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransferGraphTest {
+
+    private static final long T0 = 1_700_000_000L;
+    private static final long HOUR = 3600L;
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+
+    @Test
+    void findsTimeRespectingCycleOnce() {
+        TransferGraph.Builder builder = new TransferGraph.Builder(T0);
+        builder.addEdge("A", "B", 100_00, T0);
+        builder.addEdge("B", "C", 95_00, T0 + HOUR);
+        builder.addEdge("C", "A", 90_00, T0 + 2 * HOUR);
+        // D -> E -> D runs backwards in time, so it is not a round trip
+        builder.addEdge("D", "E", 100_00, T0 + 5 * HOUR);
+        builder.addEdge("E", "D", 100_00, T0 + HOUR);
+        TransferGraph graph = builder.build();
+
+        List<TransferGraph.Finding> cycles = graph.findCycles(5, 72 * HOUR, 10_000, pool);
+
+        assertEquals(1, cycles.size());
+        assertEquals(List.of("A", "B", "C", "A"), accounts(graph, cycles.get(0)));
+        assertEquals(285_00, cycles.get(0).totalCents());
+    }
+
+    @Test
+    void reportsOnlyTheLongestLayeringChain() {
+        TransferGraph.Builder builder = new TransferGraph.Builder(T0);
+        builder.addEdge("S", "L1", 1_000_00, T0);
+        builder.addEdge("L1", "L2", 950_00, T0 + 600);
+        builder.addEdge("L2", "L3", 900_00, T0 + 1200);
+        builder.addEdge("L3", "L4", 880_00, T0 + 1800);
+        // Forwards too little to count as passing the money on
+        builder.addEdge("L4", "X", 100_00, T0 + 2400);
+        TransferGraph graph = builder.build();
+
+        List<TransferGraph.Finding> chains = graph.findLayeringChains(3, 8, 2 * HOUR, 0.8, 10_000, pool);
+
+        assertEquals(1, chains.size());
+        assertEquals(List.of("S", "L1", "L2", "L3", "L4"), accounts(graph, chains.get(0)));
+    }
+
+    @Test
+    void flagsRepeatedTransfersJustUnderTheThreshold() {
+        TransferGraph.Builder builder = new TransferGraph.Builder(T0);
+        for (int i = 0; i < 5; i++) {
+            builder.addEdge("SMURF", "R" + i, 49_000_00, T0 + i * HOUR);
+            builder.addEdge("NORMAL", "R" + i, i == 0 ? 49_500_00 : 10_000_00, T0 + i * HOUR);
+        }
+        TransferGraph graph = builder.build();
+
+        List<TransferGraph.Finding> structuring = graph.findStructuring(50_000_00, 0.1, 5, pool);
+
+        assertEquals(1, structuring.size());
+        assertEquals("SMURF", graph.account(structuring.get(0).nodes()[0]));
+        assertEquals(5, structuring.get(0).transfers());
+    }
+
+    private static List<String> accounts(TransferGraph graph, TransferGraph.Finding finding) {
+        return Arrays.stream(finding.nodes()).mapToObj(graph::account).toList();
+    }
+}
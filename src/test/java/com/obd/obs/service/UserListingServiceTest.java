@@ -0,0 +1,72 @@
+package com.obd.obs.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.obs.model.Role;
+import com.obs.repository.UserRepository;
+import com.obs.service.UserListingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UserListingServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserListingService listing = new UserListingService(userRepository, new ObjectMapper(), 2, 5, 3);
+
+    UserListingServiceTest() {
+        // Seven users with ids 1..7, served in keyset order
+        when(userRepository.findSummariesAfter(anyLong(), any(), any(Pageable.class))).thenAnswer(inv -> {
+            long after = inv.getArgument(0);
+            int size = inv.<Pageable>getArgument(2).getPageSize();
+            List<UserRepository.UserSummary> rows = new ArrayList<>();
+            for (long id = after + 1; id <= 7 && rows.size() < size; id++) {
+                rows.add(user(id, id == 4 ? "=cmd" : "user" + id));
+            }
+            return rows;
+        });
+    }
+
+    @Test
+    void pagesCarryCursorUntilTheLastPage() {
+        UserListingService.Page first = listing.page(null, null, null);
+        assertEquals(List.of(1L, 2L), first.users().stream().map(UserRepository.UserSummary::getId).toList());
+        assertEquals(2L, first.nextCursor());
+
+        UserListingService.Page last = listing.page(5L, 10, null);
+        assertEquals(2, last.users().size());
+        assertNull(last.nextCursor());
+    }
+
+    @Test
+    void csvExportWalksAllChunks() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        listing.export(out, "csv", null);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(8, lines.length);
+        assertTrue(lines[0].startsWith("id,username"));
+        assertTrue(lines[4].startsWith("4,'=cmd,"));
+        verify(userRepository, times(3)).findSummariesAfter(anyLong(), isNull(), any(Pageable.class));
+    }
+
+    private static UserRepository.UserSummary user(long id, String username) {
+        return new UserRepository.UserSummary() {
+            public Long getId() { return id; }
+            public String getUsername() { return username; }
+            public String getEmail() { return username + "@obs.test"; }
+            public Role getRole() { return Role.USER; }
+            public boolean isLocked() { return false; }
+            public boolean isActive() { return true; }
+            public int getFailedAttempts() { return 0; }
+            public java.time.Instant getLastLogin() { return null; }
+        };
+    }
+}
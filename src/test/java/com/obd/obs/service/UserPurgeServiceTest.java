@@ -0,0 +1,87 @@
+package com.obd.obs.service;
+
+import com.obs.model.PurgeStatus;
+import com.obs.model.UserPurgeJob;
+import com.obs.repository.UserPurgeJobRepository;
+import com.obs.service.UserPurgeService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UserPurgeServiceTest {
+
+    private final UserPurgeJobRepository repository = mock(UserPurgeJobRepository.class);
+    private final UserPurgeService purge = new UserPurgeService(repository, 100, 0, 0.0, new SimpleMeterRegistry());
+
+    UserPurgeServiceTest() {
+        when(repository.save(any(UserPurgeJob.class))).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    @Test
+    void deletesInChunksChildrenBeforeParentsAndTracksProgress() {
+        UserPurgeJob job = job(null);
+        when(repository.findByStatusInOrderByIdAsc(anyCollection())).thenReturn(List.of(job));
+        when(repository.deleteTransactionsChunk(7L, 100)).thenReturn(100, 100, 30);
+        when(repository.deleteAccountsChunk(7L, 100)).thenReturn(2);
+        when(repository.deleteUserChunk(7L, 100)).thenReturn(1);
+
+        assertEquals(1, purge.drain());
+
+        verify(repository, times(3)).deleteTransactionsChunk(7L, 100);
+        InOrder order = inOrder(repository);
+        order.verify(repository, atLeastOnce()).deleteTransactionsChunk(7L, 100);
+        order.verify(repository).deleteCardsChunk(7L, 100);
+        order.verify(repository).deleteAccountsChunk(7L, 100);
+        order.verify(repository).deleteUserChunk(7L, 100);
+        assertEquals(PurgeStatus.DONE, job.getStatus());
+        assertEquals(233, job.getRowsDeleted());
+        assertNotNull(job.getFinishedAt());
+    }
+
+    @Test
+    void interruptedJobResumesFromItsLastStep() {
+        UserPurgeJob job = job("accounts");
+        job.setStatus(PurgeStatus.RUNNING);
+        when(repository.findByStatusInOrderByIdAsc(anyCollection())).thenReturn(List.of(job));
+
+        purge.drain();
+
+        verify(repository, never()).deleteTransactionsChunk(anyLong(), anyInt());
+        verify(repository).deleteAccountsChunk(7L, 100);
+        verify(repository).deleteUserChunk(7L, 100);
+        assertEquals(PurgeStatus.DONE, job.getStatus());
+    }
+
+    @Test
+    void failedStepMarksJobFailedAndRescheduleRequeuesIt() {
+        UserPurgeJob job = job(null);
+        when(repository.findByStatusInOrderByIdAsc(anyCollection())).thenReturn(List.of(job));
+        when(repository.deleteCardsChunk(7L, 100)).thenThrow(new RuntimeException("lock wait timeout"));
+
+        assertEquals(0, purge.drain());
+        assertEquals(PurgeStatus.FAILED, job.getStatus());
+        assertEquals("cards", job.getStep());
+
+        when(repository.findFirstByUserIdOrderByIdDesc(7L)).thenReturn(Optional.of(job));
+        when(repository.findByStatusInOrderByIdAsc(anyCollection())).thenReturn(List.of());
+        assertSame(job, purge.schedule(7L, "user7"));
+        assertEquals(PurgeStatus.PENDING, job.getStatus());
+        assertNull(job.getLastError());
+    }
+
+    private static UserPurgeJob job(String step) {
+        UserPurgeJob job = new UserPurgeJob();
+        job.setId(1L);
+        job.setUserId(7L);
+        job.setUsername("user7");
+        job.setStep(step);
+        return job;
+    }
+}
@@ -0,0 +1,65 @@
+package com.obd.obs.service;
+
+import com.obs.model.Role;
+import com.obs.model.User;
+import com.obs.repository.UserRepository;
+import com.obs.service.SuperAdminService;
+import com.obs.service.UserStatsCounters;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+class UserStatsCountersTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserStatsCounters counters = new UserStatsCounters(userRepository, new SimpleMeterRegistry());
+
+    @Test
+    void seededCountsFollowEntityChanges() {
+        when(userRepository.countByRoleAndStatus()).thenReturn(List.of(
+                row(Role.USER, false, true, 10), row(Role.ADMIN, true, false, 1)));
+        counters.seed();
+
+        counters.apply(new User.StatsState(Role.USER, false, true, false), 1);
+        counters.apply(new User.StatsState(Role.USER, false, true, false), -1);
+        counters.apply(new User.StatsState(Role.USER, true, true, false), 1);
+
+        SuperAdminService.UserStats stats = counters.snapshot();
+        assertEquals(12, stats.getTotalUsers());
+        assertEquals(11, stats.getUsers());
+        assertEquals(1, stats.getAdmins());
+        assertEquals(11, stats.getActiveUsers());
+        assertEquals(1, stats.getInactiveUsers());
+        assertEquals(2, stats.getLockedUsers());
+        verify(userRepository, times(1)).countByRoleAndStatus();
+    }
+
+    @Test
+    void onlyDriftSeenTwiceIsCorrected() {
+        when(userRepository.countByRoleAndStatus()).thenReturn(List.of(row(Role.USER, false, true, 10)));
+        counters.seed();
+
+        // Another node created three users
+        when(userRepository.countByRoleAndStatus()).thenReturn(List.of(row(Role.USER, false, true, 13)));
+        counters.reconcile();
+        assertEquals(10, counters.snapshot().getTotalUsers());
+        counters.reconcile();
+        assertEquals(13, counters.snapshot().getTotalUsers());
+        assertEquals(13, counters.snapshot().getUsers());
+        counters.reconcile();
+        assertEquals(13, counters.snapshot().getActiveUsers());
+    }
+
+    private static UserRepository.StatusCount row(Role role, boolean locked, boolean active, long total) {
+        return new UserRepository.StatusCount() {
+            public Role getRole() { return role; }
+            public boolean isLocked() { return locked; }
+            public boolean isActive() { return active; }
+            public long getTotal() { return total; }
+        };
+    }
+}
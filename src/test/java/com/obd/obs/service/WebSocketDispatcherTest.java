@@ -0,0 +1,71 @@
+package com.obd.obs.service;
+
+import com.obs.service.LoopbackClusterRelay;
+import com.obs.service.WebSocketDispatcher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class WebSocketDispatcherTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    // Worker thread is not started outside the container, so queued messages stay observable
+    private final WebSocketDispatcher dispatcher =
+            new WebSocketDispatcher(mock(SimpMessagingTemplate.class), new LoopbackClusterRelay(getClass().getName(), "node-a"), 4, 16, true, registry);
+
+    @Test
+    void repeatedBalanceUpdatesCollapseToLatest() {
+        for (int i = 0; i < 3; i++) {
+            dispatcher.toTopicCoalesced("balance:ACC1", "/topic/admin-updates", Map.of("newBalance", i));
+        }
+        assertEquals(2.0, registry.counter("websocket.dispatch.coalesced").count());
+        assertEquals(0.0, depth());
+
+        dispatcher.flushCoalesced();
+        assertEquals(1.0, depth());
+    }
+
+    @Test
+    void fullRingDropsOldest() {
+        for (int i = 0; i < 6; i++) {
+            dispatcher.toTopic("/topic/admin-updates", Map.of("n", i));
+        }
+        assertEquals(4.0, depth());
+        assertEquals(2.0, registry.counter("websocket.dispatch.dropped").count());
+    }
+
+    @Test
+    void heldUntilCommitAndDiscardedOnRollback() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            dispatcher.toTopic("/topic/admin-updates", Map.of("n", 1));
+            assertEquals(0.0, depth());
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(0.0, depth());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            dispatcher.toTopic("/topic/admin-updates", Map.of("n", 2));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(1.0, depth());
+    }
+
+    private double depth() {
+        return registry.get("websocket.dispatch.queue.depth").gauge().value();
+    }
+}